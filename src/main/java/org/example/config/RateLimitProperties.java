@@ -0,0 +1,136 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit policies under {@code app.rate-limit}. Route policies are matched in order
+ * against the request path (Ant-style patterns) and optional HTTP method; requests no
+ * policy matches use the default limit.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int defaultLimit = 100;
+    private int defaultWindow = 3600;
+    private KeyType defaultKey = KeyType.USER;
+    private long maxKeys = 100_000;
+    private List<Policy> policies = new ArrayList<>();
+
+    public enum KeyType {
+        // Client address only
+        IP,
+        // JWT subject when authenticated, client address otherwise
+        USER
+    }
+
+    public static class Policy {
+        private String name;
+        private String pattern;
+        private String method;
+        private int limit;
+        private int window = 3600;
+        private KeyType key = KeyType.USER;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public int getWindow() {
+            return window;
+        }
+
+        public void setWindow(int window) {
+            this.window = window;
+        }
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getDefaultWindow() {
+        return defaultWindow;
+    }
+
+    public void setDefaultWindow(int defaultWindow) {
+        this.defaultWindow = defaultWindow;
+    }
+
+    public KeyType getDefaultKey() {
+        return defaultKey;
+    }
+
+    public void setDefaultKey(KeyType defaultKey) {
+        this.defaultKey = defaultKey;
+    }
+
+    public long getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+}
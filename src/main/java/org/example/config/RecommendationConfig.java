@@ -0,0 +1,74 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class RecommendationConfig {
+
+    @Value("${app.recommendation.candidates.pool-size:8}")
+    private int poolSize;
+
+    @Value("${app.recommendation.candidates.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.recommendation.results.refresh-pool-size:2}")
+    private int refreshPoolSize;
+
+    @Value("${app.recommendation.embeddings.queue-capacity:1000}")
+    private int embeddingQueueCapacity;
+
+    /**
+     * Dedicated pool for candidate generation so slow sources cannot starve request threads.
+     * The queue is bounded and overflow is rejected; callers treat a rejected source as empty.
+     */
+    @Bean(name = "candidateExecutor")
+    public ThreadPoolTaskExecutor candidateExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("candidates-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background pool for stale-while-revalidate refreshes of cached recommendation lists
+     * and tag posting rebuilds. Kept separate from the candidate pool because a refresh itself fans out to that pool.
+     */
+    @Bean(name = "recommendationRefreshExecutor")
+    public ThreadPoolTaskExecutor recommendationRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(refreshPoolSize);
+        executor.setMaxPoolSize(refreshPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("recommendation-refresh-");
+        // A rejected refresh leaves the stale list in place until the next request retries
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single worker that applies article embedding updates in order, off the request and
+     * startup threads. Overflow is rejected; the embedding service reconciles what it dropped.
+     */
+    @Bean(name = "embeddingExecutor")
+    public ThreadPoolTaskExecutor embeddingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(embeddingQueueCapacity);
+        executor.setThreadNamePrefix("embeddings-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
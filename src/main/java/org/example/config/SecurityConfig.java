@@ -1,9 +1,15 @@
 package org.example.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.security.BoundedPasswordEncoder;
 import org.example.security.JwtAuthenticationFilter;
+import org.example.security.RateLimitFilter;
+import org.example.security.RateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -14,23 +20,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import jakarta.servlet.Filter;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.annotation.Order;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.context.annotation.Lazy;
 
-import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSecurity
@@ -40,33 +35,44 @@ public class SecurityConfig {
     @Lazy
     private UserDetailsService userDetailsService;
     
-    @Value("${app.rate-limit.default-limit:100}")
-    private int defaultLimit;
-    @Value("${app.rate-limit.default-window:3600}")
-    private int defaultWindow;
-    @Value("${app.rate-limit.auth-limit:10}")
-    private int authLimit;
-    @Value("${app.rate-limit.auth-window:3600}")
-    private int authWindow;
-
-    private static class RateLimitInfo {
-        AtomicInteger count = new AtomicInteger(0);
-        AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
-    }
-    private final Map<String, RateLimitInfo> rateLimits = new ConcurrentHashMap<>();
-    
+    @Value("${app.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    @Value("${app.security.password.pool-size:4}")
+    private int passwordPoolSize;
+    @Value("${app.security.password.queue-capacity:32}")
+    private int passwordQueueCapacity;
+    @Value("${app.security.password.timeout-ms:2000}")
+    private long passwordTimeoutMs;
     
+    /**
+     * Dedicated pool for BCrypt so password hashing for logins and registrations cannot take
+     * over request threads. The queue is bounded and overflow is rejected with a 503.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(passwordPoolSize);
+        executor.setMaxPoolSize(passwordPoolSize);
+        executor.setQueueCapacity(passwordQueueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        meterRegistry.gauge("auth.password.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size());
+        return executor;
+    }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), passwordHashingExecutor,
+                passwordTimeoutMs, meterRegistry);
     }
     
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
     
@@ -76,49 +82,26 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                           DaoAuthenticationProvider authenticationProvider,
+                                           RateLimiter rateLimiter) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> 
                 auth.requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/h2-console/**").permitAll()
                     .requestMatchers("/api/users/public/**").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/v1/articles/also-read").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/v1/analytics/beacon").permitAll()
                     .anyRequest().authenticated()
             )
-            .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .authenticationProvider(authenticationProvider)
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
         
         // For H2 console
         http.headers(headers -> headers.frameOptions().disable());
         
         return http.build();
     }
-
-    @Bean
-    @Order(1)
-    public Filter rateLimitingFilter() {
-        return new OncePerRequestFilter() {
-            @Override
-            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
-                String clientIp = request.getRemoteAddr();
-                boolean isAuth = request.getRequestURI().startsWith("/api/auth");
-                int limit = isAuth ? authLimit : defaultLimit;
-                int window = isAuth ? authWindow : defaultWindow;
-                long now = System.currentTimeMillis();
-                RateLimitInfo info = rateLimits.computeIfAbsent(clientIp, k -> new RateLimitInfo());
-                synchronized (info) {
-                    if (now - info.windowStart.get() > window * 1000L) {
-                        info.count.set(0);
-                        info.windowStart.set(now);
-                    }
-                    if (info.count.incrementAndGet() > limit) {
-                        response.setStatus(429);
-                        response.getWriter().write("Too many requests. Please try again later.");
-                        return;
-                    }
-                }
-                chain.doFilter(request, response);
-            }
-        };
-    }
-} 
\ No newline at end of file
+}
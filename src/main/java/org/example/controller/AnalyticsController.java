@@ -2,13 +2,27 @@ package org.example.controller;
 
 import org.example.dto.ArticleAnalyticsDto;
 import org.example.dto.ReadingHistoryDto;
+import org.example.dto.TimeSeriesDto;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.exception.ValidationException;
+import org.example.service.AnalyticsExportService;
 import org.example.service.AnalyticsService;
+import org.example.service.ReadProgressService;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.security.core.Authentication;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/analytics")
@@ -18,6 +32,10 @@ public class AnalyticsController {
     
     private final AnalyticsService analyticsService;
     
+    private final ReadProgressService readProgressService;
+    
+    private final AnalyticsExportService analyticsExportService;
+    
     @GetMapping("/reading-history")
     public ResponseEntity<List<ReadingHistoryDto>> getUserReadingHistory(Principal principal) {
         String username = principal.getName();
@@ -25,15 +43,92 @@ public class AnalyticsController {
         return ResponseEntity.ok(history);
     }
     
+    // Read-progress beacon; always 204 so navigator.sendBeacon senders never wait on the server
+    @PostMapping(value = "/beacon", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Void> recordReadProgress(@RequestBody(required = false) String payload) {
+        readProgressService.recordBeacon(payload);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/articles/{articleId}")
     public ResponseEntity<ArticleAnalyticsDto> getArticleAnalytics(@PathVariable Long articleId) {
         ArticleAnalyticsDto analytics = analyticsService.getArticleAnalytics(articleId);
         return ResponseEntity.ok(analytics);
     }
     
+    @GetMapping("/articles/{articleId}/unique-viewers")
+    public ResponseEntity<Map<String, Object>> getUniqueViewers(
+            @PathVariable Long articleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getUniqueViewers(articleId, from, to));
+    }
+    
+    @GetMapping("/articles/{articleId}/timeseries")
+    public ResponseEntity<TimeSeriesDto> getArticleTimeSeries(
+            @PathVariable Long articleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(analyticsService.getArticleTimeSeries(articleId, from, to, granularity));
+    }
+    
+    @GetMapping("/authors/{authorUsername}/timeseries")
+    public ResponseEntity<TimeSeriesDto> getAuthorTimeSeries(
+            @PathVariable String authorUsername,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(analyticsService.getAuthorTimeSeries(authorUsername, from, to, granularity));
+    }
+    
+    // Written straight to the response so exports of any size stream in constant memory
+    @GetMapping("/export")
+    public void exportAnalytics(
+            @RequestParam(defaultValue = "articles") String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String author,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+        AnalyticsExportService.Dataset exportDataset = parseEnum(AnalyticsExportService.Dataset.class, dataset);
+        AnalyticsExportService.Format exportFormat = parseEnum(AnalyticsExportService.Format.class, format);
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        Long authorId = analyticsService.resolveExportAuthorId(authentication.getName(), author, admin);
+        
+        // Reserved before any header is set, so a busy server still answers with a plain 503
+        try (AnalyticsExportService.Slot slot = analyticsExportService.reserveSlot()) {
+            String extension = exportFormat == AnalyticsExportService.Format.CSV ? "csv" : "ndjson";
+            response.setContentType(exportFormat == AnalyticsExportService.Format.CSV
+                    ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportDataset.name().toLowerCase().replace('_', '-') + "." + extension + "\"");
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 16 * 1024)) {
+                    analyticsExportService.export(exportDataset, exportFormat, authorId, out);
+                }
+            } else {
+                analyticsExportService.export(exportDataset, exportFormat, authorId, response.getOutputStream());
+                response.flushBuffer();
+            }
+        }
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported " + type.getSimpleName().toLowerCase() + ": " + value);
+        }
+    }
+    
     @GetMapping("/authors/{authorUsername}")
-    public ResponseEntity<List<ArticleAnalyticsDto>> getAuthorAnalytics(@PathVariable String authorUsername) {
-        List<ArticleAnalyticsDto> analytics = analyticsService.getAuthorAnalytics(authorUsername);
+    public ResponseEntity<Page<ArticleAnalyticsDto>> getAuthorAnalytics(
+            @PathVariable String authorUsername,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<ArticleAnalyticsDto> analytics = analyticsService.getAuthorAnalytics(authorUsername, page, size);
         return ResponseEntity.ok(analytics);
     }
 } 
\ No newline at end of file
@@ -63,14 +63,16 @@ public class ArticleController {
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<Page<ArticleResponseDto>> getFeed(@RequestParam List<Long> followedUserIds, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        Page<ArticleResponseDto> feed = articleService.getFeed(followedUserIds, page, size);
+    public ResponseEntity<Page<ArticleResponseDto>> getFeed(@RequestParam List<Long> followedUserIds, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, Principal principal) {
+        String username = principal != null ? principal.getName() : null;
+        Page<ArticleResponseDto> feed = articleService.getFeed(followedUserIds, page, size, username);
         return ResponseEntity.ok(feed);
     }
 
     @GetMapping("/trending")
-    public ResponseEntity<Page<ArticleResponseDto>> getTrending(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
-        Page<ArticleResponseDto> trending = articleService.getTrending(page, size);
+    public ResponseEntity<Page<ArticleResponseDto>> getTrending(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, Principal principal) {
+        String username = principal != null ? principal.getName() : null;
+        Page<ArticleResponseDto> trending = articleService.getTrending(page, size, username);
         return ResponseEntity.ok(trending);
     }
 
@@ -142,4 +144,12 @@ public class ArticleController {
         List<ArticleResponseDto> feed = recommendationService.getPersonalizedFeed(username, limit);
         return ResponseEntity.ok(feed);
     }
+
+    @GetMapping("/also-read")
+    public ResponseEntity<List<ArticleResponseDto>> getAlsoRead(
+            @RequestParam(defaultValue = "") List<Long> recent,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ArticleResponseDto> alsoRead = recommendationService.getAlsoRead(recent, limit);
+        return ResponseEntity.ok(alsoRead);
+    }
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.example.dto.AuthResponseDto;
 import org.example.dto.PasswordResetDto;
 import org.example.dto.UserLoginDto;
 import org.example.dto.UserRegistrationDto;
+import org.example.exception.ServiceBusyException;
 import org.example.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +24,9 @@ public class AuthController {
         try {
             AuthResponseDto response = userService.registerUser(registrationDto);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            // Handled globally as 503 with Retry-After rather than as a bad request
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new AuthResponseDto(e.getMessage()));
         }
@@ -33,6 +37,8 @@ public class AuthController {
         try {
             AuthResponseDto response = userService.loginUser(loginDto);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new AuthResponseDto(e.getMessage()));
         }
@@ -53,6 +59,8 @@ public class AuthController {
         try {
             AuthResponseDto response = userService.resetPassword(resetDto);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new AuthResponseDto(e.getMessage()));
         }
@@ -117,6 +117,17 @@ public class ContentOrganizationController {
         return ResponseEntity.ok(collection);
     }
     
+    @GetMapping("/collections/{collectionId}/articles")
+    public ResponseEntity<CursorPage<ArticleResponseDto>> getCollectionArticles(
+            @PathVariable Long collectionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        String username = principal != null ? principal.getName() : null;
+        CursorPage<ArticleResponseDto> articles = contentOrganizationService.getCollectionArticles(collectionId, cursor, size, username);
+        return ResponseEntity.ok(articles);
+    }
+    
     @GetMapping("/collections/popular")
     public ResponseEntity<Page<ArticleCollectionDto>> getPopularCollections(
             @RequestParam(defaultValue = "0") int page,
@@ -143,6 +154,26 @@ public class ContentOrganizationController {
         return ResponseEntity.ok(response);
     }
     
+    @PatchMapping("/drafts/{draftId}")
+    public ResponseEntity<DraftDto> patchDraft(
+            @PathVariable Long draftId,
+            @RequestBody DraftPatchDto patch,
+            Principal principal) {
+        String username = principal.getName();
+        DraftDto response = contentOrganizationService.patchDraft(draftId, patch, username);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/drafts/{draftId}/save")
+    public ResponseEntity<DraftDto> saveDraft(
+            @PathVariable Long draftId,
+            @RequestBody(required = false) DraftPatchDto patch,
+            Principal principal) {
+        String username = principal.getName();
+        DraftDto response = contentOrganizationService.saveDraft(draftId, patch, username);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/drafts")
     public ResponseEntity<List<DraftDto>> getUserDrafts(
             @RequestParam(defaultValue = "false") boolean includeArchived,
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/tags")
@@ -40,6 +41,35 @@ public class TagController {
         return ResponseEntity.ok(trendingTags);
     }
 
+    // Editor suggestions for an article that already has the given tags
+    @GetMapping("/related")
+    public ResponseEntity<List<TagSuggestionDto>> suggestTagsFor(
+            @RequestParam Set<String> tags,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TagSuggestionDto> suggestions = tagService.suggestTagsFor(tags, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/{tag}/related")
+    public ResponseEntity<List<TagSuggestionDto>> getRelatedTags(
+            @PathVariable String tag,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TagSuggestionDto> related = tagService.getRelatedTags(tag, limit);
+        return ResponseEntity.ok(related);
+    }
+
+    @GetMapping("/articles")
+    public ResponseEntity<List<String>> findArticles(
+            @RequestParam(required = false) Set<String> all,
+            @RequestParam(required = false) Set<String> any,
+            @RequestParam(required = false) Set<String> none,
+            @RequestParam(defaultValue = "recent") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        List<String> articles = tagService.findArticles(all, any, none, sort, PageRequest.of(page, size));
+        return ResponseEntity.ok(articles);
+    }
+
     @GetMapping("/articles/{tag}")
     public ResponseEntity<List<String>> getArticlesByTag(
             @PathVariable String tag,
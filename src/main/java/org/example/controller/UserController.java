@@ -1,12 +1,12 @@
 package org.example.controller;
 
+import org.example.dto.CursorPage;
 import org.example.dto.UserProfileDto;
 import org.example.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -69,22 +69,20 @@ public class UserController {
     }
     
     @GetMapping("/{username}/followers")
-    public ResponseEntity<List<UserProfileDto>> getFollowers(@PathVariable String username) {
-        try {
-            List<UserProfileDto> followers = userService.getFollowers(username);
-            return ResponseEntity.ok(followers);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<CursorPage<UserProfileDto>> getFollowers(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserProfileDto> followers = userService.getFollowers(username, cursor, size);
+        return ResponseEntity.ok(followers);
     }
     
     @GetMapping("/{username}/following")
-    public ResponseEntity<List<UserProfileDto>> getFollowing(@PathVariable String username) {
-        try {
-            List<UserProfileDto> following = userService.getFollowing(username);
-            return ResponseEntity.ok(following);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<CursorPage<UserProfileDto>> getFollowing(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserProfileDto> following = userService.getFollowing(username, cursor, size);
+        return ResponseEntity.ok(following);
     }
 } 
\ No newline at end of file
@@ -8,12 +8,14 @@ public class ArticleAnalyticsDto {
     private String articleTitle;
     private String articleSlug;
     private Long viewCount;
+    private Long uniqueViewCount;
     private Long clapCount;
     private Long commentCount;
     private Long bookmarkCount;
     private Long shareCount;
     private Double averageReadTime;
     private Double completionRate;
+    private Double bounceRate;
     private Map<String, Long> readerDemographics; // e.g., {"country": count}
     private LocalDateTime lastViewed;
     private LocalDateTime publishedAt;
@@ -49,6 +51,8 @@ public class ArticleAnalyticsDto {
     public void setArticleSlug(String articleSlug) { this.articleSlug = articleSlug; }
     public Long getViewCount() { return viewCount; }
     public void setViewCount(Long viewCount) { this.viewCount = viewCount; }
+    public Long getUniqueViewCount() { return uniqueViewCount; }
+    public void setUniqueViewCount(Long uniqueViewCount) { this.uniqueViewCount = uniqueViewCount; }
     public Long getClapCount() { return clapCount; }
     public void setClapCount(Long clapCount) { this.clapCount = clapCount; }
     public Long getCommentCount() { return commentCount; }
@@ -61,6 +65,8 @@ public class ArticleAnalyticsDto {
     public void setAverageReadTime(Double averageReadTime) { this.averageReadTime = averageReadTime; }
     public Double getCompletionRate() { return completionRate; }
     public void setCompletionRate(Double completionRate) { this.completionRate = completionRate; }
+    public Double getBounceRate() { return bounceRate; }
+    public void setBounceRate(Double bounceRate) { this.bounceRate = bounceRate; }
     public Map<String, Long> getReaderDemographics() { return readerDemographics; }
     public void setReaderDemographics(Map<String, Long> readerDemographics) { this.readerDemographics = readerDemographics; }
     public LocalDateTime getLastViewed() { return lastViewed; }
@@ -17,6 +17,7 @@ public class ArticleCollectionDto {
     private int articleCount;
     private int collaboratorCount;
     private List<ArticleResponseDto> articles;
+    private String nextArticlesCursor;
     private Set<String> tags;
     private List<UserProfileDto> collaborators;
     
@@ -127,6 +128,14 @@ public class ArticleCollectionDto {
         this.tags = tags;
     }
     
+    public String getNextArticlesCursor() {
+        return nextArticlesCursor;
+    }
+    
+    public void setNextArticlesCursor(String nextArticlesCursor) {
+        this.nextArticlesCursor = nextArticlesCursor;
+    }
+    
     public List<UserProfileDto> getCollaborators() {
         return collaborators;
     }
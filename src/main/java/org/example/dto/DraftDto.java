@@ -18,6 +18,7 @@ public class DraftDto {
     private boolean archived;
     private String wordCount;
     private boolean hasContent;
+    private Long revision;
     
     // Constructors
     public DraftDto() {}
@@ -131,4 +132,12 @@ public class DraftDto {
     public void setHasContent(boolean hasContent) {
         this.hasContent = hasContent;
     }
-} 
\ No newline at end of file
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An autosave update to a draft. Fields left null are unchanged. Content is either replaced
+ * whole or edited in place with {@code edits}, which are applied in order against the
+ * draft at {@code baseRevision}.
+ */
+public class DraftPatchDto {
+    
+    private Long baseRevision;
+    private String title;
+    private String summary;
+    private String coverImageUrl;
+    private Set<String> tags;
+    private String content;
+    private List<ContentEdit> edits;
+    
+    public DraftPatchDto() {}
+    
+    public Long getBaseRevision() {
+        return baseRevision;
+    }
+    
+    public void setBaseRevision(Long baseRevision) {
+        this.baseRevision = baseRevision;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getSummary() {
+        return summary;
+    }
+    
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+    
+    public String getCoverImageUrl() {
+        return coverImageUrl;
+    }
+    
+    public void setCoverImageUrl(String coverImageUrl) {
+        this.coverImageUrl = coverImageUrl;
+    }
+    
+    public Set<String> getTags() {
+        return tags;
+    }
+    
+    public void setTags(Set<String> tags) {
+        this.tags = tags;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public void setContent(String content) {
+        this.content = content;
+    }
+    
+    public List<ContentEdit> getEdits() {
+        return edits;
+    }
+    
+    public void setEdits(List<ContentEdit> edits) {
+        this.edits = edits;
+    }
+    
+    /**
+     * Replaces {@code deleteCount} characters at {@code offset} with {@code text}.
+     * Offsets count UTF-16 code units, as JavaScript string indices do.
+     */
+    public static class ContentEdit {
+        
+        private int offset;
+        private int deleteCount;
+        private String text;
+        
+        public ContentEdit() {}
+        
+        public ContentEdit(int offset, int deleteCount, String text) {
+            this.offset = offset;
+            this.deleteCount = deleteCount;
+            this.text = text;
+        }
+        
+        public int getOffset() {
+            return offset;
+        }
+        
+        public void setOffset(int offset) {
+            this.offset = offset;
+        }
+        
+        public int getDeleteCount() {
+            return deleteCount;
+        }
+        
+        public void setDeleteCount(int deleteCount) {
+            this.deleteCount = deleteCount;
+        }
+        
+        public String getText() {
+            return text;
+        }
+        
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chart-ready metric series: one value per bucket for every metric, zero-filled, in bucket order.
+ */
+public class TimeSeriesDto {
+    private String granularity;
+    private List<LocalDateTime> buckets;
+    private Map<String, long[]> series;
+    private Map<String, Long> totals;
+
+    public TimeSeriesDto() {}
+
+    public TimeSeriesDto(String granularity, List<LocalDateTime> buckets, Map<String, long[]> series, Map<String, Long> totals) {
+        this.granularity = granularity;
+        this.buckets = buckets;
+        this.series = series;
+        this.totals = totals;
+    }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public List<LocalDateTime> getBuckets() { return buckets; }
+    public void setBuckets(List<LocalDateTime> buckets) { this.buckets = buckets; }
+    public Map<String, long[]> getSeries() { return series; }
+    public void setSeries(Map<String, long[]> series) { this.series = series; }
+    public Map<String, Long> getTotals() { return totals; }
+    public void setTotals(Map<String, Long> totals) { this.totals = totals; }
+}
@@ -1,13 +1,17 @@
 package org.example.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
+// Only changed columns are written, so entity saves and relative updates of other columns do not clobber each other
 @Entity
+@DynamicUpdate
 @Table(name = "article_analytics")
 @Data
 @NoArgsConstructor
@@ -38,6 +42,27 @@ public class ArticleAnalytics {
     @Column(name = "engagement_rate")
     private Double engagementRate = 0.0;
     
+    @Column(name = "engagements_count")
+    private Long engagementsCount = 0L;
+    
+    // Read-progress beacon totals behind avgReadingTimeSeconds and bounceRate
+    @Column(name = "read_samples")
+    private Long readSamples = 0L;
+    
+    @Column(name = "total_read_seconds")
+    private Long totalReadSeconds = 0L;
+    
+    @Column(name = "bounced_reads")
+    private Long bouncedReads = 0L;
+    
+    @Column(name = "completed_reads")
+    private Long completedReads = 0L;
+    
+    // Serialized HyperLogLog of every viewer so far; uniqueViewsCount is its estimate
+    @Column(name = "unique_viewers_sketch")
+    @JsonIgnore
+    private byte[] uniqueViewersSketch;
+    
     @Column(name = "last_updated", nullable = false)
     private LocalDateTime lastUpdated;
     
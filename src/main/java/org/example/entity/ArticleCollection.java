@@ -9,7 +9,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "article_collections")
+@Table(name = "article_collections", indexes = {
+    @Index(name = "idx_collection_public_article_count", columnList = "is_public, article_count")
+})
 public class ArticleCollection {
     
     @Id
@@ -31,6 +33,13 @@ public class ArticleCollection {
     @Column(name = "is_collaborative")
     private boolean isCollaborative = false;
     
+    // Maintained by relative updates alongside the join-table writes, so entity saves never overwrite them
+    @Column(name = "article_count", updatable = false)
+    private Integer articleCount = 0;
+    
+    @Column(name = "collaborator_count", updatable = false)
+    private Integer collaboratorCount = 0;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
@@ -211,11 +220,19 @@ public class ArticleCollection {
     }
     
     public int getArticleCount() {
-        return articles.size();
+        return articleCount != null ? articleCount : 0;
+    }
+    
+    public void setArticleCount(Integer articleCount) {
+        this.articleCount = articleCount;
     }
     
     public int getCollaboratorCount() {
-        return collaborators.size();
+        return collaboratorCount != null ? collaboratorCount : 0;
+    }
+    
+    public void setCollaboratorCount(Integer collaboratorCount) {
+        this.collaboratorCount = collaboratorCount;
     }
     
     public boolean isCollaborator(User user) {
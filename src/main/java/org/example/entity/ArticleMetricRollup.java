@@ -0,0 +1,62 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-article metric counts for one time bucket. Hourly buckets are written by the analytics
+ * ingestion flush and folded into daily buckets once they fall out of the hourly retention window.
+ */
+@Entity
+@Table(name = "article_metric_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"article_id", "granularity", "bucket_start"}),
+        indexes = @Index(name = "idx_metric_rollups_granularity_bucket", columnList = "granularity, bucket_start"))
+@Data
+@NoArgsConstructor
+public class ArticleMetricRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private long views;
+    
+    @Column(nullable = false)
+    private long reads;
+    
+    @Column(nullable = false)
+    private long claps;
+    
+    @Column(nullable = false)
+    private long comments;
+    
+    @Column(nullable = false)
+    private long bookmarks;
+    
+    @Column(nullable = false)
+    private long shares;
+    
+    public ArticleMetricRollup(Long articleId, Granularity granularity, LocalDateTime bucketStart) {
+        this.articleId = articleId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+    
+    public enum Granularity {
+        HOUR, DAY
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized HyperLogLog sketch of the distinct viewers of one article on one day.
+ * Sketches for a date range are merged to count unique viewers over that range.
+ */
+@Entity
+@Table(name = "article_viewer_sketches",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"article_id", "view_date"}))
+@Data
+@NoArgsConstructor
+public class ArticleViewerSketch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+    
+    @Column(name = "view_date", nullable = false)
+    private LocalDate viewDate;
+    
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+    
+    @Column(name = "unique_viewers", nullable = false)
+    private Long uniqueViewers = 0L;
+    
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        lastUpdated = LocalDateTime.now();
+    }
+}
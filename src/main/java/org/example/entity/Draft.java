@@ -2,12 +2,14 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@DynamicUpdate
 @Table(name = "drafts")
 public class Draft {
     
@@ -56,6 +58,10 @@ public class Draft {
     @Column(name = "is_archived")
     private boolean archived = false;
     
+    // Autosave revision last persisted; the autosave journal replays edits made after it
+    @Column(name = "revision")
+    private Long revision = 0L;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -171,6 +177,14 @@ public class Draft {
         this.tags = tags;
     }
     
+    public long getRevision() {
+        return revision != null ? revision : 0L;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
     public boolean isArchived() {
         return archived;
     }
@@ -190,6 +204,10 @@ public class Draft {
     }
     
     public String getWordCount() {
+        return countWords(content);
+    }
+    
+    public static String countWords(String content) {
         if (content == null || content.isEmpty()) {
             return "0";
         }
@@ -81,6 +81,13 @@ public class User implements UserDetails {
     @JsonBackReference("user-followers")
     private Set<User> following = new HashSet<>();
     
+    // Maintained by relative updates alongside the join-table writes, so entity saves never overwrite them
+    @Column(name = "followers_count", updatable = false)
+    private Integer followersCount = 0;
+    
+    @Column(name = "following_count", updatable = false)
+    private Integer followingCount = 0;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -240,29 +247,19 @@ public class User implements UserDetails {
         return emailVerified;
     }
     
-    // Helper methods for follow system
-    public void follow(User userToFollow) {
-        if (!this.equals(userToFollow) && !this.following.contains(userToFollow)) {
-            this.following.add(userToFollow);
-            userToFollow.getFollowers().add(this);
-        }
-    }
-    
-    public void unfollow(User userToUnfollow) {
-        if (this.following.remove(userToUnfollow)) {
-            userToUnfollow.getFollowers().remove(this);
-        }
+    public int getFollowersCount() {
+        return followersCount != null ? followersCount : 0;
     }
     
-    public boolean isFollowing(User user) {
-        return this.following.contains(user);
+    public void setFollowersCount(Integer followersCount) {
+        this.followersCount = followersCount;
     }
     
-    public int getFollowersCount() {
-        return followers.size();
+    public int getFollowingCount() {
+        return followingCount != null ? followingCount : 0;
     }
     
-    public int getFollowingCount() {
-        return following.size();
+    public void setFollowingCount(Integer followingCount) {
+        this.followingCount = followingCount;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,151 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact, incrementally maintained summary of what a user reads.
+ * Tag weights and author affinities are stored as encoded "key=weight" lists
+ * so a profile is a single row no matter how long the reading history grows.
+ */
+@Entity
+@Table(name = "user_interest_profiles")
+public class UserInterestProfile {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", unique = true, nullable = false)
+    private Long userId;
+    
+    @Column(name = "tag_weights", columnDefinition = "TEXT")
+    private String tagWeights;
+    
+    @Column(name = "author_affinities", columnDefinition = "TEXT")
+    private String authorAffinities;
+    
+    @Column(name = "preferred_content_length")
+    private Double preferredContentLength = 0.0;
+    
+    @Column(name = "average_read_time_minutes")
+    private Double averageReadTimeMinutes = 0.0;
+    
+    @Column(name = "read_weight")
+    private Double readWeight = 0.0;
+    
+    @Column(name = "read_count")
+    private Long readCount = 0L;
+    
+    @Column(name = "total_claps")
+    private Long totalClaps = 0L;
+    
+    @Column(name = "decayed_at")
+    private LocalDateTime decayedAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public UserInterestProfile() {}
+    
+    public UserInterestProfile(Long userId) {
+        this.userId = userId;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getTagWeights() {
+        return tagWeights;
+    }
+    
+    public void setTagWeights(String tagWeights) {
+        this.tagWeights = tagWeights;
+    }
+    
+    public String getAuthorAffinities() {
+        return authorAffinities;
+    }
+    
+    public void setAuthorAffinities(String authorAffinities) {
+        this.authorAffinities = authorAffinities;
+    }
+    
+    public Double getPreferredContentLength() {
+        return preferredContentLength;
+    }
+    
+    public void setPreferredContentLength(Double preferredContentLength) {
+        this.preferredContentLength = preferredContentLength;
+    }
+    
+    public Double getAverageReadTimeMinutes() {
+        return averageReadTimeMinutes;
+    }
+    
+    public void setAverageReadTimeMinutes(Double averageReadTimeMinutes) {
+        this.averageReadTimeMinutes = averageReadTimeMinutes;
+    }
+    
+    public Double getReadWeight() {
+        return readWeight;
+    }
+    
+    public void setReadWeight(Double readWeight) {
+        this.readWeight = readWeight;
+    }
+    
+    public Long getReadCount() {
+        return readCount;
+    }
+    
+    public void setReadCount(Long readCount) {
+        this.readCount = readCount;
+    }
+    
+    public Long getTotalClaps() {
+        return totalClaps;
+    }
+    
+    public void setTotalClaps(Long totalClaps) {
+        this.totalClaps = totalClaps;
+    }
+    
+    public LocalDateTime getDecayedAt() {
+        return decayedAt;
+    }
+    
+    public void setDecayedAt(LocalDateTime decayedAt) {
+        this.decayedAt = decayedAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
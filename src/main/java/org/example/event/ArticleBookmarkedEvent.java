@@ -0,0 +1,18 @@
+package org.example.event;
+
+/**
+ * Published when a user bookmarks an article.
+ */
+public class ArticleBookmarkedEvent {
+    
+    private final Long userId;
+    private final Long articleId;
+    
+    public ArticleBookmarkedEvent(Long userId, Long articleId) {
+        this.userId = userId;
+        this.articleId = articleId;
+    }
+    
+    public Long getUserId() { return userId; }
+    public Long getArticleId() { return articleId; }
+}
@@ -0,0 +1,31 @@
+package org.example.event;
+
+/**
+ * Published when a user sets their clap count on an article.
+ */
+public class ArticleClappedEvent {
+    
+    private final Long userId;
+    private final Long articleId;
+    private final Long authorId;
+    private final int previousClaps;
+    private final int currentClaps;
+    
+    public ArticleClappedEvent(Long userId, Long articleId, Long authorId, int previousClaps, int currentClaps) {
+        this.userId = userId;
+        this.articleId = articleId;
+        this.authorId = authorId;
+        this.previousClaps = previousClaps;
+        this.currentClaps = currentClaps;
+    }
+    
+    public Long getUserId() { return userId; }
+    public Long getArticleId() { return articleId; }
+    public Long getAuthorId() { return authorId; }
+    public int getPreviousClaps() { return previousClaps; }
+    public int getCurrentClaps() { return currentClaps; }
+    
+    public int getClapDelta() {
+        return currentClaps - previousClaps;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.event;
+
+/**
+ * Published when a comment is posted on an article.
+ */
+public class ArticleCommentedEvent {
+    
+    private final Long userId;
+    private final Long articleId;
+    
+    public ArticleCommentedEvent(Long userId, Long articleId) {
+        this.userId = userId;
+        this.articleId = articleId;
+    }
+    
+    public Long getUserId() { return userId; }
+    public Long getArticleId() { return articleId; }
+}
@@ -0,0 +1,15 @@
+package org.example.event;
+
+/**
+ * Published after an article is deleted so in-memory indexes can drop it.
+ */
+public class ArticleDeletedEvent {
+    
+    private final Long articleId;
+    
+    public ArticleDeletedEvent(Long articleId) {
+        this.articleId = articleId;
+    }
+    
+    public Long getArticleId() { return articleId; }
+}
@@ -0,0 +1,41 @@
+package org.example.event;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Published after a signed-in reader opens an article and their reading history is recorded.
+ * Carries the article attributes listeners need so they never have to reload the article.
+ */
+public class ArticleReadEvent {
+    
+    private final Long userId;
+    private final Long articleId;
+    private final Long authorId;
+    private final Set<String> tagNames;
+    private final int contentLength;
+    private final Integer readTimeMinutes;
+    private final LocalDateTime readAt;
+    private final boolean firstRead;
+    
+    public ArticleReadEvent(Long userId, Long articleId, Long authorId, Set<String> tagNames,
+                            int contentLength, Integer readTimeMinutes, LocalDateTime readAt, boolean firstRead) {
+        this.userId = userId;
+        this.articleId = articleId;
+        this.authorId = authorId;
+        this.tagNames = tagNames;
+        this.contentLength = contentLength;
+        this.readTimeMinutes = readTimeMinutes;
+        this.readAt = readAt;
+        this.firstRead = firstRead;
+    }
+    
+    public Long getUserId() { return userId; }
+    public Long getArticleId() { return articleId; }
+    public Long getAuthorId() { return authorId; }
+    public Set<String> getTagNames() { return tagNames; }
+    public int getContentLength() { return contentLength; }
+    public Integer getReadTimeMinutes() { return readTimeMinutes; }
+    public LocalDateTime getReadAt() { return readAt; }
+    public boolean isFirstRead() { return firstRead; }
+}
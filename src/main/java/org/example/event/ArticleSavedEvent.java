@@ -0,0 +1,37 @@
+package org.example.event;
+
+import java.util.Set;
+
+/**
+ * Published after an article is created or edited. Carries the saved text and tags
+ * so listeners can re-index the article without reloading it.
+ */
+public class ArticleSavedEvent {
+    
+    private final Long articleId;
+    private final Long authorId;
+    private final boolean published;
+    private final String title;
+    private final String summary;
+    private final String content;
+    private final Set<String> tagNames;
+    
+    public ArticleSavedEvent(Long articleId, Long authorId, boolean published, String title, String summary,
+                             String content, Set<String> tagNames) {
+        this.articleId = articleId;
+        this.authorId = authorId;
+        this.published = published;
+        this.title = title;
+        this.summary = summary;
+        this.content = content;
+        this.tagNames = tagNames;
+    }
+    
+    public Long getArticleId() { return articleId; }
+    public Long getAuthorId() { return authorId; }
+    public boolean isPublished() { return published; }
+    public String getTitle() { return title; }
+    public String getSummary() { return summary; }
+    public String getContent() { return content; }
+    public Set<String> getTagNames() { return tagNames; }
+}
@@ -0,0 +1,18 @@
+package org.example.event;
+
+/**
+ * Published when a user shares an article.
+ */
+public class ArticleSharedEvent {
+    
+    private final Long userId;
+    private final Long articleId;
+    
+    public ArticleSharedEvent(Long userId, Long articleId) {
+        this.userId = userId;
+        this.articleId = articleId;
+    }
+    
+    public Long getUserId() { return userId; }
+    public Long getArticleId() { return articleId; }
+}
@@ -0,0 +1,25 @@
+package org.example.event;
+
+import java.util.Set;
+
+/**
+ * Published when tags start or stop being used by a published article: on publishing,
+ * unpublishing, deleting, or changing the tags of a published article. Drafts never count
+ * as tag usage.
+ */
+public class ArticleTagsChangedEvent {
+    
+    private final Long articleId;
+    private final Set<String> addedTags;
+    private final Set<String> removedTags;
+    
+    public ArticleTagsChangedEvent(Long articleId, Set<String> addedTags, Set<String> removedTags) {
+        this.articleId = articleId;
+        this.addedTags = addedTags;
+        this.removedTags = removedTags;
+    }
+    
+    public Long getArticleId() { return articleId; }
+    public Set<String> getAddedTags() { return addedTags; }
+    public Set<String> getRemovedTags() { return removedTags; }
+}
@@ -0,0 +1,17 @@
+package org.example.exception;
+
+/**
+ * A bounded resource is saturated; the client should retry after the given delay.
+ */
+public class ServiceBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -2,10 +2,12 @@ package org.example.repository;
 
 import org.example.entity.ArticleAnalytics;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,12 @@ public interface ArticleAnalyticsRepository extends JpaRepository<ArticleAnalyti
     @Query("SELECT aa FROM ArticleAnalytics aa WHERE aa.article.id = :articleId")
     Optional<ArticleAnalytics> findByArticleId(@Param("articleId") Long articleId);
     
+    @Query("SELECT aa.uniqueViewsCount FROM ArticleAnalytics aa WHERE aa.article.id = :articleId")
+    Long findUniqueViewsCountByArticleId(@Param("articleId") Long articleId);
+    
+    @Query("SELECT aa FROM ArticleAnalytics aa WHERE aa.article.id IN :articleIds")
+    List<ArticleAnalytics> findByArticleIdIn(@Param("articleIds") Collection<Long> articleIds);
+    
     @Query("SELECT aa FROM ArticleAnalytics aa WHERE aa.lastUpdated >= :since ORDER BY aa.viewsCount DESC")
     List<ArticleAnalytics> findTopArticlesByViewsSince(@Param("since") LocalDateTime since);
     
@@ -27,6 +35,26 @@ public interface ArticleAnalyticsRepository extends JpaRepository<ArticleAnalyti
     @Query("SELECT COUNT(aa) FROM ArticleAnalytics aa WHERE aa.viewsCount > :minViews")
     Long countArticlesWithViewsAbove(@Param("minViews") Long minViews);
     
+    // Adds read-progress samples and recomputes the derived averages from the pre-update totals.
+    // A window may carry only later pings of earlier visits (zero new samples), so the averages
+    // are left alone while the article has no samples at all.
+    @Modifying
+    @Query("UPDATE ArticleAnalytics aa SET " +
+           "aa.readSamples = COALESCE(aa.readSamples, 0) + :samples, " +
+           "aa.totalReadSeconds = COALESCE(aa.totalReadSeconds, 0) + :seconds, " +
+           "aa.bouncedReads = COALESCE(aa.bouncedReads, 0) + :bounced, " +
+           "aa.completedReads = COALESCE(aa.completedReads, 0) + :completed, " +
+           "aa.avgReadingTimeSeconds = CASE WHEN COALESCE(aa.readSamples, 0) + :samples > 0 " +
+           "THEN CAST((COALESCE(aa.totalReadSeconds, 0) + :seconds) / (COALESCE(aa.readSamples, 0) + :samples) AS Integer) " +
+           "ELSE aa.avgReadingTimeSeconds END, " +
+           "aa.bounceRate = CASE WHEN COALESCE(aa.readSamples, 0) + :samples > 0 " +
+           "THEN (COALESCE(aa.bouncedReads, 0) + :bounced) * 1.0 / (COALESCE(aa.readSamples, 0) + :samples) " +
+           "ELSE aa.bounceRate END, " +
+           "aa.lastUpdated = :now " +
+           "WHERE aa.article.id = :articleId")
+    int addReadProgress(@Param("articleId") Long articleId, @Param("samples") long samples, @Param("seconds") long seconds,
+                        @Param("bounced") long bounced, @Param("completed") long completed, @Param("now") LocalDateTime now);
+    
     @Query("UPDATE ArticleAnalytics aa SET aa.avgReadingTimeSeconds = :readingTime WHERE aa.article.id = :articleId")
     void saveReadingTime(@Param("articleId") Long articleId, @Param("readingTime") long readingTime);
 } 
\ No newline at end of file
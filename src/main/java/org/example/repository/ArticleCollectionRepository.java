@@ -5,11 +5,15 @@ import org.example.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ArticleCollectionRepository extends JpaRepository<ArticleCollection, Long> {
@@ -21,11 +25,69 @@ public interface ArticleCollectionRepository extends JpaRepository<ArticleCollec
     
     Page<ArticleCollection> findByIsPublicTrue(Pageable pageable);
     
-    @Query("SELECT ac FROM ArticleCollection ac JOIN ac.collaborators c WHERE c = :user")
-    List<ArticleCollection> findByCollaborator(@Param("user") User user);
+    // Owned and collaborative collections in one pass, with what the list view shows fetched alongside
+    @Query("SELECT DISTINCT ac FROM ArticleCollection ac JOIN FETCH ac.owner LEFT JOIN FETCH ac.tags " +
+           "WHERE ac.owner = :user OR :user MEMBER OF ac.collaborators ORDER BY ac.updatedAt DESC, ac.id DESC")
+    List<ArticleCollection> findOwnedOrCollaborative(@Param("user") User user);
     
-    @Query("SELECT ac FROM ArticleCollection ac WHERE ac.isPublic = true AND SIZE(ac.articles) > 0 ORDER BY SIZE(ac.articles) DESC")
-    Page<ArticleCollection> findPopularCollections(Pageable pageable);
+    @Query("SELECT ac FROM ArticleCollection ac JOIN FETCH ac.owner LEFT JOIN FETCH ac.tags WHERE ac.id = :id")
+    Optional<ArticleCollection> findWithOwnerAndTagsById(@Param("id") Long id);
+    
+    // Collection article rows are [id, title, slug, summary, coverImageUrl, readTimeMinutes, createdAt,
+    // authorId, authorUsername, authorEmail, authorBio, authorProfileImageUrl, authorCreatedAt], newest article
+    // (highest id) first regardless of when it was added to the collection
+    @Query("SELECT a.id, a.title, a.slug, a.summary, a.coverImageUrl, a.readTimeMinutes, a.createdAt, " +
+           "u.id, u.username, u.email, u.bio, u.profileImageUrl, u.createdAt " +
+           "FROM ArticleCollection ac JOIN ac.articles a JOIN a.author u WHERE ac.id = :collectionId ORDER BY a.id DESC")
+    List<Object[]> findArticleRowsFirstPage(@Param("collectionId") Long collectionId, Pageable pageable);
+    
+    @Query("SELECT a.id, a.title, a.slug, a.summary, a.coverImageUrl, a.readTimeMinutes, a.createdAt, " +
+           "u.id, u.username, u.email, u.bio, u.profileImageUrl, u.createdAt " +
+           "FROM ArticleCollection ac JOIN ac.articles a JOIN a.author u WHERE ac.id = :collectionId AND a.id < :afterId ORDER BY a.id DESC")
+    List<Object[]> findArticleRowsNextPage(@Param("collectionId") Long collectionId, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Returns [id, username, email, bio, profileImageUrl, createdAt]
+    @Query("SELECT u.id, u.username, u.email, u.bio, u.profileImageUrl, u.createdAt " +
+           "FROM ArticleCollection ac JOIN ac.collaborators u WHERE ac.id = :collectionId ORDER BY u.id")
+    List<Object[]> findCollaboratorRows(@Param("collectionId") Long collectionId, Pageable pageable);
+    
+    @Query("SELECT ac.id FROM ArticleCollection ac WHERE ac.isPublic = true AND ac.articleCount > 0 ORDER BY ac.articleCount DESC, ac.id ASC")
+    List<Long> findPopularCollectionIds(Pageable pageable);
+    
+    @Query("SELECT COUNT(ac) FROM ArticleCollection ac WHERE ac.isPublic = true AND ac.articleCount > 0")
+    long countPopularCollections();
+    
+    @Query("SELECT DISTINCT ac FROM ArticleCollection ac JOIN FETCH ac.owner LEFT JOIN FETCH ac.tags WHERE ac.id IN :ids AND ac.isPublic = true")
+    List<ArticleCollection> findPublicWithOwnerAndTagsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT COUNT(c) > 0 FROM ArticleCollection ac JOIN ac.collaborators c WHERE ac.id = :collectionId AND c.id = :userId")
+    boolean isCollaborator(@Param("collectionId") Long collectionId, @Param("userId") Long userId);
+    
+    // Membership writes go straight to the join tables so large collections are never loaded to add one row.
+    // A concurrent add of the same row is absorbed by the primary key and reported as 0 rows, not an error.
+    @Modifying
+    @Query(value = "INSERT INTO collection_articles (collection_id, article_id) VALUES (:collectionId, :articleId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertArticle(@Param("collectionId") Long collectionId, @Param("articleId") Long articleId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM collection_articles WHERE collection_id = :collectionId AND article_id = :articleId", nativeQuery = true)
+    int deleteArticle(@Param("collectionId") Long collectionId, @Param("articleId") Long articleId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO collection_collaborators (collection_id, user_id) VALUES (:collectionId, :userId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertCollaborator(@Param("collectionId") Long collectionId, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query("UPDATE ArticleCollection ac SET ac.articleCount = COALESCE(ac.articleCount, 0) + :delta, ac.updatedAt = :now WHERE ac.id = :id")
+    int adjustArticleCount(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE ArticleCollection ac SET ac.collaboratorCount = COALESCE(ac.collaboratorCount, 0) + :delta, ac.updatedAt = :now WHERE ac.id = :id")
+    int adjustCollaboratorCount(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
     
     @Query("SELECT ac FROM ArticleCollection ac JOIN ac.tags t WHERE t.name IN :tags AND ac.isPublic = true")
     List<ArticleCollection> findByTags(@Param("tags") List<String> tags);
@@ -0,0 +1,47 @@
+package org.example.repository;
+
+import org.example.entity.ArticleMetricRollup;
+import org.example.entity.ArticleMetricRollup.Granularity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArticleMetricRollupRepository extends JpaRepository<ArticleMetricRollup, Long> {
+    
+    @Query("SELECT r FROM ArticleMetricRollup r WHERE r.granularity = :granularity " +
+           "AND r.articleId IN :articleIds AND r.bucketStart IN :buckets")
+    List<ArticleMetricRollup> findBuckets(@Param("granularity") Granularity granularity,
+                                          @Param("articleIds") Collection<Long> articleIds,
+                                          @Param("buckets") Collection<LocalDateTime> buckets);
+    
+    @Query("SELECT r FROM ArticleMetricRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before " +
+           "ORDER BY r.articleId, r.bucketStart")
+    List<ArticleMetricRollup> findOlderThan(@Param("granularity") Granularity granularity,
+                                            @Param("before") LocalDateTime before, Pageable pageable);
+    
+    // Rows are [bucketStart, views, reads, claps, comments, bookmarks, shares]
+    @Query("SELECT r.bucketStart, r.views, r.reads, r.claps, r.comments, r.bookmarks, r.shares " +
+           "FROM ArticleMetricRollup r WHERE r.articleId = :articleId AND r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    List<Object[]> findArticleSeries(@Param("articleId") Long articleId,
+                                     @Param("granularity") Granularity granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+    
+    // Same shape as findArticleSeries, summed over all of the author's articles per bucket
+    @Query("SELECT r.bucketStart, SUM(r.views), SUM(r.reads), SUM(r.claps), SUM(r.comments), SUM(r.bookmarks), SUM(r.shares) " +
+           "FROM ArticleMetricRollup r WHERE r.granularity = :granularity " +
+           "AND r.articleId IN (SELECT a.id FROM Article a WHERE a.author.id = :authorId) " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to GROUP BY r.bucketStart")
+    List<Object[]> findAuthorSeries(@Param("authorId") Long authorId,
+                                    @Param("granularity") Granularity granularity,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+}
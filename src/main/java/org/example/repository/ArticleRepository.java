@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -21,9 +22,6 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     @Query("SELECT a FROM Article a WHERE a.published = true ORDER BY a.publishedAt DESC")
     Page<Article> findAllPublished(Pageable pageable);
 
-    @Query("SELECT a FROM Article a JOIN a.tags t WHERE t.name IN :tags AND a.published = true")
-    Page<Article> findByTags(@Param("tags") Set<String> tags, Pageable pageable);
-
     @Query("SELECT a FROM Article a WHERE a.author.username = :author AND a.published = true")
     Page<Article> findByAuthor(@Param("author") String author, Pageable pageable);
 
@@ -36,6 +34,46 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     @Query("SELECT a FROM Article a WHERE a.published = true ORDER BY a.viewCount DESC, a.likeCount DESC, a.commentCount DESC")
     Page<Article> findTrending(Pageable pageable);
 
+    @Query("SELECT a.id FROM Article a WHERE a.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Returns [id, slug] for the given articles, in no particular order
+    @Query("SELECT a.id, a.slug FROM Article a WHERE a.id IN :ids")
+    List<Object[]> findSlugsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT DISTINCT t.name FROM Article a JOIN a.tags t WHERE a.id IN :articleIds")
+    Set<String> findTagNamesByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+    
+    @Query("SELECT a.id FROM Article a WHERE a.published = true ORDER BY a.viewCount DESC, a.likeCount DESC, a.commentCount DESC")
+    List<Long> findTrendingIds(Pageable pageable);
+    
+    @Query("SELECT a.id FROM Article a WHERE a.author.id IN :authorIds AND a.published = true ORDER BY a.publishedAt DESC")
+    List<Long> findRecentIdsByAuthorIds(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+    
+    // Feature rows: [id, authorId, contentLength, readTimeMinutes, viewCount, likeCount, commentCount, clapsCount, publishedAt, published]
+    @Query("SELECT a.id, a.author.id, LENGTH(a.content), a.readTimeMinutes, a.viewCount, a.likeCount, a.commentCount, a.clapsCount, a.publishedAt, a.published FROM Article a WHERE a.published = true")
+    List<Object[]> findPublishedFeatureRows();
+    
+    @Query("SELECT a.id, a.author.id, LENGTH(a.content), a.readTimeMinutes, a.viewCount, a.likeCount, a.commentCount, a.clapsCount, a.publishedAt, a.published FROM Article a WHERE a.updatedAt >= :since")
+    List<Object[]> findFeatureRowsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT a.id, t.name FROM Article a JOIN a.tags t WHERE a.published = true")
+    List<Object[]> findPublishedTagRows();
+    
+    @Query("SELECT a.id, t.name FROM Article a JOIN a.tags t WHERE a.updatedAt >= :since")
+    List<Object[]> findTagRowsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    // Keyset-paged [id, title, summary, content] of published articles for bulk indexing
+    @Query("SELECT a.id, a.title, a.summary, a.content FROM Article a WHERE a.published = true AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findPublishedTextAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Same shape as findPublishedTextAfter, limited to articles changed since the given time
+    @Query("SELECT a.id, a.title, a.summary, a.content FROM Article a WHERE a.published = true AND a.updatedAt >= :since AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findPublishedTextUpdatedSinceAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT a.id FROM Article a WHERE a.published = true")
+    List<Long> findPublishedIds();
+    
     @Query("SELECT a FROM Article a JOIN a.author u WHERE u.id IN :userIds AND a.published = true")
     Page<Article> findFeedByFollowedUsers(@Param("userIds") List<Long> userIds, Pageable pageable);
 
@@ -0,0 +1,22 @@
+package org.example.repository;
+
+import org.example.entity.ArticleViewerSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArticleViewerSketchRepository extends JpaRepository<ArticleViewerSketch, Long> {
+    
+    @Query("SELECT s FROM ArticleViewerSketch s WHERE s.articleId IN :articleIds AND s.viewDate IN :days")
+    List<ArticleViewerSketch> findByArticleIdsAndDays(@Param("articleIds") Collection<Long> articleIds, @Param("days") Collection<LocalDate> days);
+    
+    // Returns [viewDate, sketch] for the article between the two days inclusive
+    @Query("SELECT s.viewDate, s.sketch FROM ArticleViewerSketch s WHERE s.articleId = :articleId AND s.viewDate BETWEEN :from AND :to")
+    List<Object[]> findSketchesBetween(@Param("articleId") Long articleId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
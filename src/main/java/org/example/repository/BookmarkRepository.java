@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +34,10 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, Long> {
     @Query("SELECT COUNT(b) FROM Bookmark b WHERE b.article.id = :articleId")
     Long getBookmarkCountForArticle(@Param("articleId") Long articleId);
     
+    // Returns [articleId, bookmarkCount] for the given articles that have bookmarks
+    @Query("SELECT b.article.id, COUNT(b) FROM Bookmark b WHERE b.article.id IN :articleIds GROUP BY b.article.id")
+    List<Object[]> countByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+    
     @Query("SELECT b FROM Bookmark b WHERE b.user = :user AND b.collection IS NULL")
     List<Bookmark> findUnorganizedBookmarksByUser(@Param("user") User user);
 } 
\ No newline at end of file
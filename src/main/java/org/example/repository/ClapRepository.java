@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,18 @@ public interface ClapRepository extends JpaRepository<Clap, Long> {
     @Query("SELECT SUM(c.clapCount) FROM Clap c WHERE c.article = :article")
     Long getTotalClapsForArticle(@Param("article") Article article);
     
+    // Returns [articleId, totalClaps] for the given articles that have claps
+    @Query("SELECT c.article.id, SUM(c.clapCount) FROM Clap c WHERE c.article.id IN :articleIds GROUP BY c.article.id")
+    List<Object[]> sumClapsByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+    
     @Query("SELECT COUNT(c) FROM Clap c WHERE c.article = :article")
     Long getClapperCountForArticle(@Param("article") Article article);
+    
+    // Returns [articleId, totalClaps] for articles that at least one of the users clapped for more than minClaps times
+    @Query("SELECT c.article.id, SUM(c.clapCount) FROM Clap c WHERE c.user.id IN :userIds GROUP BY c.article.id HAVING MAX(c.clapCount) > :minClaps")
+    List<Object[]> sumClapsByArticleForUsers(@Param("userIds") Collection<Long> userIds, @Param("minClaps") int minClaps);
+    
+    // Returns [authorId, totalClaps] for the authors a user has clapped for
+    @Query("SELECT c.article.author.id, SUM(c.clapCount) FROM Clap c WHERE c.user.id = :userId GROUP BY c.article.author.id")
+    List<Object[]> sumClapsByAuthorForUser(@Param("userId") Long userId);
 } 
\ No newline at end of file
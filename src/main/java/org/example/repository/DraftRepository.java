@@ -11,11 +11,15 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DraftRepository extends JpaRepository<Draft, Long> {
     List<Draft> findByAuthor(User author);
     
+    @Query("SELECT DISTINCT d FROM Draft d JOIN FETCH d.author LEFT JOIN FETCH d.tags WHERE d.id = :id")
+    Optional<Draft> findWithAuthorAndTagsById(@Param("id") Long id);
+    
     Page<Draft> findByAuthor(User author, Pageable pageable);
     
     List<Draft> findByAuthorAndArchivedFalse(User author);
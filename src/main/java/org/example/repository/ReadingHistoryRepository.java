@@ -3,11 +3,13 @@ package org.example.repository;
 import org.example.entity.ReadingHistory;
 import org.example.entity.User;
 import org.example.entity.Article;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,10 @@ import java.util.Optional;
 public interface ReadingHistoryRepository extends JpaRepository<ReadingHistory, Long> {
     List<ReadingHistory> findByUserOrderByReadAtDesc(User user);
     List<ReadingHistory> findByArticleOrderByReadAtDesc(Article article);
+    
+    // Returns [articleId, readerCount, lastReadAt] for the given articles that have been read
+    @Query("SELECT rh.article.id, COUNT(rh), MAX(rh.readAt) FROM ReadingHistory rh WHERE rh.article.id IN :articleIds GROUP BY rh.article.id")
+    List<Object[]> summarizeByArticleIds(@Param("articleIds") Collection<Long> articleIds);
     Optional<ReadingHistory> findByUserAndArticle(User user, Article article);
     @Query("SELECT rh FROM ReadingHistory rh WHERE rh.user.id = :userId ORDER BY rh.readAt DESC")
     List<ReadingHistory> findRecentByUserId(@Param("userId") Long userId);
@@ -24,4 +30,31 @@ public interface ReadingHistoryRepository extends JpaRepository<ReadingHistory,
     
     @Query("SELECT COUNT(rh) FROM ReadingHistory rh WHERE rh.user.id = :userId AND rh.readAt > :since")
     long countByUserIdAndReadAtAfter(@Param("userId") Long userId, @Param("since") java.time.LocalDateTime since);
+    
+    // Readers ranked by how many articles they share with the given user
+    @Query("SELECT other.user.id FROM ReadingHistory mine, ReadingHistory other WHERE mine.user.id = :userId AND other.article = mine.article AND other.user.id <> :userId GROUP BY other.user.id ORDER BY COUNT(other) DESC")
+    List<Long> findSimilarReaderIds(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT rh.article.id FROM ReadingHistory rh WHERE rh.user.id = :userId")
+    List<Long> findArticleIdsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT rh.article.id FROM ReadingHistory rh WHERE rh.user.id = :userId ORDER BY rh.readAt DESC")
+    List<Long> findRecentArticleIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT DISTINCT rh.user.id FROM ReadingHistory rh WHERE rh.user.id > :afterUserId AND rh.readAt >= :since AND rh.readAt < :until ORDER BY rh.user.id")
+    List<Long> findReaderIdsReadingBetween(@Param("afterUserId") Long afterUserId, @Param("since") java.time.LocalDateTime since,
+                                           @Param("until") java.time.LocalDateTime until, Pageable pageable);
+    
+    // Returns [userId, articleId, readAt] grouped by reader, oldest read first
+    @Query("SELECT rh.user.id, rh.article.id, rh.readAt FROM ReadingHistory rh WHERE rh.user.id IN :userIds AND rh.readAt >= :since AND rh.readAt < :until ORDER BY rh.user.id, rh.readAt")
+    List<Object[]> findReadsByUserIdsBetween(@Param("userIds") Collection<Long> userIds, @Param("since") java.time.LocalDateTime since,
+                                             @Param("until") java.time.LocalDateTime until);
+    
+    // Returns [articleId, authorId, contentLength, readTimeMinutes, readAt] oldest first
+    @Query("SELECT a.id, a.author.id, LENGTH(a.content), a.readTimeMinutes, rh.readAt FROM ReadingHistory rh JOIN rh.article a WHERE rh.user.id = :userId ORDER BY rh.readAt ASC")
+    List<Object[]> findReadSummariesByUserId(@Param("userId") Long userId);
+    
+    // Returns [articleId, tagName] for every article the user has read
+    @Query("SELECT a.id, t.name FROM ReadingHistory rh JOIN rh.article a JOIN a.tags t WHERE rh.user.id = :userId")
+    List<Object[]> findReadTagNamesByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
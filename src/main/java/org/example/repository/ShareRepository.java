@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,6 +22,10 @@ public interface ShareRepository extends JpaRepository<Share, Long> {
     @Query("SELECT COUNT(s) FROM Share s WHERE s.article.id = :articleId")
     Long countByArticleId(@Param("articleId") Long articleId);
     
+    // Returns [articleId, shareCount] for the given articles that have shares
+    @Query("SELECT s.article.id, COUNT(s) FROM Share s WHERE s.article.id IN :articleIds GROUP BY s.article.id")
+    List<Object[]> countByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+    
     @Query("SELECT s.shareType, COUNT(s) FROM Share s WHERE s.article.id = :articleId GROUP BY s.shareType")
     List<Object[]> getShareStatsByArticleId(@Param("articleId") Long articleId);
 } 
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,18 +20,21 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     
     Page<Tag> findByNameContainingIgnoreCase(String query, Pageable pageable);
     
-    @Query("SELECT t FROM Tag t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY t.articleCount DESC")
-    List<Tag> findByNameContainingIgnoreCaseOrderByArticleCountDesc(@Param("query") String query);
+    // Returns [id, name, description, trendingScore, publishedArticleCount] for every tag
+    @Query("SELECT t.id, t.name, t.description, t.trendingScore, COUNT(a) FROM Tag t LEFT JOIN t.articles a ON a.published = true " +
+           "GROUP BY t.id, t.name, t.description, t.trendingScore")
+    List<Object[]> findTagStats();
     
-    @Query("SELECT t FROM Tag t ORDER BY t.trendingScore DESC, t.articleCount DESC")
-    Page<Tag> findTrendingTags(Pageable pageable);
+    // Same shape as findTagStats, for the named tags only
+    @Query("SELECT t.id, t.name, t.description, t.trendingScore, COUNT(a) FROM Tag t LEFT JOIN t.articles a ON a.published = true " +
+           "WHERE t.name IN :names GROUP BY t.id, t.name, t.description, t.trendingScore")
+    List<Object[]> findTagStatsByNames(@Param("names") Collection<String> names);
+    
+    // Returns [tagName, publishedAt], one row per tag use by an article published since the cutoff
+    @Query("SELECT t.name, a.publishedAt FROM Tag t JOIN t.articles a WHERE a.published = true AND a.publishedAt >= :since")
+    List<Object[]> findPublishedUsageSince(@Param("since") LocalDateTime since);
     
     @Query("SELECT t FROM Tag t WHERE t.lastUsed >= :since ORDER BY t.weeklyUsage DESC")
     List<Tag> findRecentlyUsedTags(@Param("since") LocalDateTime since);
-    
-    @Query("SELECT t FROM Tag t ORDER BY t.articleCount DESC")
-    Page<Tag> findMostUsedTags(Pageable pageable);
-    
-    @Query("SELECT t FROM Tag t WHERE t.articleCount > 0 ORDER BY t.lastUsed DESC")
-    List<Tag> findRecentlyActiveTags();
+
 } 
\ No newline at end of file
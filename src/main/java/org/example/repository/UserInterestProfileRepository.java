@@ -0,0 +1,16 @@
+package org.example.repository;
+
+import org.example.entity.UserInterestProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserInterestProfileRepository extends JpaRepository<UserInterestProfile, Long> {
+    Optional<UserInterestProfile> findByUserId(Long userId);
+    
+    List<UserInterestProfile> findByUserIdIn(Collection<Long> userIds);
+}
@@ -1,7 +1,9 @@
 package org.example.repository;
 
 import org.example.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -35,6 +37,68 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findByIdIn(List<Long> ids);
     
+    @Query("SELECT f.id FROM User u JOIN u.following f WHERE u.id = :userId")
+    List<Long> findFollowingIds(@Param("userId") Long userId);
+    
+    // Primary-key lookup on user_following rather than loading the follower's whole following set
+    @Query("SELECT COUNT(f) > 0 FROM User u JOIN u.following f WHERE u.id = :followerId AND f.id = :followedId")
+    boolean isFollowing(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+    
+    // Keyset pages of follow lists, highest user id first, walking the join-table primary keys
+    @Query("SELECT f FROM User u JOIN u.followers f WHERE u.id = :userId ORDER BY f.id DESC")
+    List<User> findFollowersFirstPage(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT f FROM User u JOIN u.followers f WHERE u.id = :userId AND f.id < :afterId ORDER BY f.id DESC")
+    List<User> findFollowersNextPage(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT f FROM User u JOIN u.following f WHERE u.id = :userId ORDER BY f.id DESC")
+    List<User> findFollowingFirstPage(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT f FROM User u JOIN u.following f WHERE u.id = :userId AND f.id < :afterId ORDER BY f.id DESC")
+    List<User> findFollowingNextPage(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Follow writes go straight to both join tables so neither side's collection is loaded
+    // A concurrent follow of the same user is absorbed by the primary key and reported as 0 rows, not an error.
+    @Modifying
+    @Query(value = "INSERT INTO user_following (follower_id, followed_id) VALUES (:followerId, :followedId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertFollowing(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO user_followers (followed_id, follower_id) VALUES (:followedId, :followerId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertFollower(@Param("followedId") Long followedId, @Param("followerId") Long followerId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM user_following WHERE follower_id = :followerId AND followed_id = :followedId", nativeQuery = true)
+    int deleteFollowing(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM user_followers WHERE followed_id = :followedId AND follower_id = :followerId", nativeQuery = true)
+    int deleteFollower(@Param("followedId") Long followedId, @Param("followerId") Long followerId);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = COALESCE(u.followersCount, 0) + :delta WHERE u.id = :id")
+    int adjustFollowersCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = COALESCE(u.followingCount, 0) + :delta WHERE u.id = :id")
+    int adjustFollowingCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    // Fills the counters of rows created before they existed; a no-op once every user has them
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+                   "followers_count = (SELECT COUNT(*) FROM user_followers uf WHERE uf.followed_id = users.id), " +
+                   "following_count = (SELECT COUNT(*) FROM user_following uf WHERE uf.follower_id = users.id) " +
+                   "WHERE followers_count IS NULL OR following_count IS NULL",
+           nativeQuery = true)
+    int backfillFollowCounts();
+    
+    @Query("SELECT u.id FROM User u WHERE u.id <> :userId ORDER BY u.id")
+    List<Long> findOtherUserIds(@Param("userId") Long userId, Pageable pageable);
+    
     @Query("SELECT u FROM User u WHERE u.lastLogin >= :dateTime")
     List<User> findByLastLoginAfter(@Param("dateTime") java.time.LocalDateTime dateTime);
 } 
\ No newline at end of file
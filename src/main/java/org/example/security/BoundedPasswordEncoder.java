@@ -0,0 +1,100 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.exception.ServiceBusyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a slow password encoder (BCrypt) on a dedicated bounded pool instead of the calling
+ * request thread, so a burst of logins or registrations is capped at the pool's CPU share
+ * and cannot starve the rest of the API.
+ *
+ * When the pool and its queue are full the call fails at once with a
+ * {@link ServiceBusyException}; a call that waits longer than the timeout fails the same
+ * way. Hash and queue times are recorded per operation.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final Executor executor;
+    private final long timeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, Executor executor, long timeoutMs, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(String operation, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> timed(operation, submitted, task), executor);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.password.rejected", "operation", operation).increment();
+            throw new ServiceBusyException("Too many sign-in requests, please retry shortly", RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A queued task is skipped; a running hash finishes but its result is dropped
+            future.cancel(false);
+            meterRegistry.counter("auth.password.timeouts", "operation", operation).increment();
+            throw new ServiceBusyException("Too many sign-in requests, please retry shortly", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password hashing was interrupted", RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private <T> T timed(String operation, long submitted, Supplier<T> task) {
+        long started = System.nanoTime();
+        Timer.builder("auth.password.queue")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(started - submitted, TimeUnit.NANOSECONDS);
+        try {
+            return task.get();
+        } finally {
+            Timer.builder("auth.password.hash")
+                    .tag("operation", operation)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.example.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,11 +20,23 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
     
-    private Key getSigningKey() {
+    // Built once; both are immutable and safe to share between requests
+    private Key signingKey;
+    private JwtParser parser;
+    
+    @PostConstruct
+    void init() {
         if (jwtSecret.length() < 32) {
             throw new IllegalStateException("JWT secret must be at least 32 characters long for HS512 algorithm");
         }
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
+    private Key getSigningKey() {
+        return signingKey;
     }
     
     public String generateToken(Authentication authentication) {
@@ -52,40 +65,32 @@ public class JwtTokenProvider {
                 .compact();
     }
     
+    /**
+     * Verifies the token once and returns its claims, or null if the signature, format or
+     * expiry is invalid.
+     */
+    public Claims parseValidClaims(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
     
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseValidClaims(token) != null;
     }
     
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getExpiration();
+        return parser.parseClaimsJws(token).getBody().getExpiration();
     }
     
     public boolean isTokenExpired(String token) {
         Date expiration = getExpirationDateFromToken(token);
         return expiration.before(new Date());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of authenticated principals keyed by JWT subject, so requests with a
+ * valid token authenticate without a database lookup.
+ *
+ * Entries are immutable snapshots, not the JPA entity, and hold no password hash. Changes
+ * to a user's profile or password evict the entry on this instance; the TTL bounds how
+ * long other instances can serve the previous snapshot.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.security.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.security.principal-cache.max-size:100000}")
+    private long maxSize;
+
+    private LoadingCache<String, UserDetails> principals;
+
+    public PrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(this::load);
+    }
+
+    /**
+     * The principal for a token subject, or null if no such user exists. Unknown subjects
+     * are not cached.
+     */
+    public UserDetails get(String username) {
+        return principals.get(username);
+    }
+
+    public void invalidate(String username) {
+        principals.invalidate(username);
+    }
+
+    private UserDetails load(String username) {
+        return userRepository.findByUsername(username)
+                .map(PrincipalCache::snapshot)
+                .orElse(null);
+    }
+
+    private static UserDetails snapshot(User user) {
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password("")
+                .authorities(user.getAuthorities())
+                .accountExpired(!user.isAccountNonExpired())
+                .accountLocked(!user.isAccountNonLocked())
+                .credentialsExpired(!user.isCredentialsNonExpired())
+                .disabled(!user.isEnabled())
+                .build();
+    }
+}
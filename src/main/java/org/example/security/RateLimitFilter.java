@@ -0,0 +1,46 @@
+package org.example.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link RateLimiter} and reports the outcome in {@code RateLimit-*} headers.
+ * Runs inside the security chain after JWT authentication so user-keyed policies see the
+ * token subject; it is deliberately not a bean, which would also register it as a plain
+ * servlet filter ahead of authentication.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!rateLimiter.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimiter.Result result = rateLimiter.acquire(request);
+        response.setHeader("RateLimit-Policy", result.getPolicy());
+        response.setHeader("RateLimit-Limit", String.valueOf(result.getLimit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(result.getRemaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(result.getResetSeconds()));
+        if (!result.isAllowed()) {
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(result.getRetryAfterSeconds()));
+            response.getWriter().write("Too many requests. Please try again later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.config.RateLimitProperties;
+import org.example.util.TokenBucket;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route, per-client request limits backed by {@link TokenBucket}s.
+ *
+ * Each request is matched to the first configured policy for its path and method, or the
+ * default policy, and charged to a bucket keyed by that policy and the client: the JWT
+ * subject for user-keyed policies when the request is authenticated, otherwise the client
+ * address. Buckets live in a size-bounded cache and expire once idle for the longest
+ * window, by which time they would have refilled anyway, so scanning traffic cannot grow
+ * the store without bound.
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final List<Route> routes = new ArrayList<>();
+    private final Route defaultRoute;
+    private final Cache<String, TokenBucket> buckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final MeterRegistry meterRegistry;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.meterRegistry = meterRegistry;
+        long longestWindow = properties.getDefaultWindow();
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            routes.add(new Route(policy.getName(), policy.getPattern(), policy.getMethod(), policy.getLimit(),
+                    policy.getWindow(), policy.getKey()));
+            longestWindow = Math.max(longestWindow, policy.getWindow());
+        }
+        this.defaultRoute = new Route("default", "/**", null, properties.getDefaultLimit(),
+                properties.getDefaultWindow(), properties.getDefaultKey());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(Duration.ofSeconds(longestWindow))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Charges one request to the caller's bucket for the matching policy.
+     */
+    public Result acquire(HttpServletRequest request) {
+        Route route = route(request);
+        String key = route.name + '|' + clientKey(route, request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(route.limit, route.windowNanos, now));
+        TokenBucket.Decision decision = bucket.tryAcquire(now);
+        if (!decision.isAllowed()) {
+            meterRegistry.counter("ratelimit.rejected", "policy", route.name).increment();
+        }
+        return new Result(route, decision);
+    }
+
+    private Route route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.pattern, path)) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    private static String clientKey(Route route, HttpServletRequest request) {
+        if (route.key == RateLimitProperties.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static final class Route {
+        final String name;
+        final String pattern;
+        final String method;
+        final int limit;
+        final long windowNanos;
+        final RateLimitProperties.KeyType key;
+        // RateLimit-Policy header value, e.g. "10;w=3600"
+        final String policyHeader;
+
+        Route(String name, String pattern, String method, int limit, int windowSeconds, RateLimitProperties.KeyType key) {
+            if (name == null || pattern == null || limit <= 0 || windowSeconds <= 0) {
+                throw new IllegalStateException("Rate limit policy needs a name, a pattern and a positive limit and window");
+            }
+            this.name = name;
+            this.pattern = pattern;
+            this.method = method == null || method.isBlank() ? null : method;
+            this.limit = limit;
+            this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+            this.key = key != null ? key : RateLimitProperties.KeyType.USER;
+            this.policyHeader = limit + ";w=" + windowSeconds;
+        }
+    }
+
+    public static final class Result {
+        private final Route route;
+        private final TokenBucket.Decision decision;
+
+        Result(Route route, TokenBucket.Decision decision) {
+            this.route = route;
+            this.decision = decision;
+        }
+
+        public boolean isAllowed() {
+            return decision.isAllowed();
+        }
+
+        public int getLimit() {
+            return route.limit;
+        }
+
+        public String getPolicy() {
+            return route.policyHeader;
+        }
+
+        public long getRemaining() {
+            return decision.getRemaining();
+        }
+
+        public long getResetSeconds() {
+            return toSeconds(decision.getResetNanos());
+        }
+
+        public long getRetryAfterSeconds() {
+            return Math.max(1, toSeconds(decision.getRetryAfterNanos()));
+        }
+
+        private static long toSeconds(long nanos) {
+            return (nanos + 999_999_999L) / 1_000_000_000L;
+        }
+    }
+}
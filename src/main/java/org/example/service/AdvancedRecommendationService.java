@@ -6,9 +6,10 @@ import org.example.repository.*;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import org.example.exception.ResourceNotFoundException;
+import org.example.util.CompressedIdBitmap;
+import org.example.util.TopK;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,32 +29,73 @@ public class AdvancedRecommendationService {
     
     private final UserRepository userRepository;
     
+    private final UserInterestProfileService userInterestProfileService;
+    
+    private final CandidateGenerationService candidateGenerationService;
+    
+    private final RecommendationResultCache recommendationResultCache;
+    
+    private final ArticleFeatureStore articleFeatureStore;
+    
+    private final ArticleEmbeddingService articleEmbeddingService;
+    
+    private final ReadArticleIndex readArticleIndex;
+    
+    private final TagPostingIndex tagPostingIndex;
+    
     // Algorithm weights (configurable)
     private static final double CONTENT_SIMILARITY_WEIGHT = 0.3;
     private static final double USER_BEHAVIOR_WEIGHT = 0.4;
     private static final double POPULARITY_WEIGHT = 0.2;
     private static final double RECENCY_WEIGHT = 0.1;
     
+    private static final int SIMILAR_USER_LIMIT = 10;
+    private static final int STRONG_CLAP_THRESHOLD = 5; // Only consider strong positive signals
+    private static final int INTEREST_TAG_LIMIT = 20;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    
     public List<ArticleResponseDto> getPersonalizedRecommendations(String username, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = user.getId();
+        
+        // Ranked ids are cached per user; only the requested page is hydrated
+        List<Long> rankedIds = recommendationResultCache.getRankedIds(RecommendationResultCache.PERSONALIZED, userId, limit,
+                () -> rankPersonalizedArticleIds(userId, Math.max(limit, recommendationResultCache.getCachedSize())));
         
+        return findAllInOrder(rankedIds).stream()
+                .map(this::toArticleResponseDto)
+                .collect(Collectors.toList());
+    }
+    
+    private List<Long> rankPersonalizedArticleIds(Long userId, int limit) {
         // Get user behavior data
-        UserBehaviorProfile behaviorProfile = buildUserBehaviorProfile(user);
+        UserBehaviorProfile behaviorProfile = buildUserBehaviorProfile(userId);
         
         // Get candidate articles
-        List<Article> candidateArticles = getCandidateArticles(user, behaviorProfile);
-        
-        // Score and rank articles
-        List<ScoredArticle> scoredArticles = candidateArticles.stream()
-                .map(article -> new ScoredArticle(article, calculatePersonalizedScore(article, behaviorProfile)))
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<Long> candidateIds = getCandidateArticleIds(userId, behaviorProfile);
+        
+        // Score candidates straight from the feature columns; unpublished ids have no row
+        ArticleFeatureStore.Snapshot features = articleFeatureStore.snapshot();
+        long now = ArticleFeatureStore.toEpochSecond(LocalDateTime.now());
+        int[] rows = new int[candidateIds.size()];
+        double[] scores = new double[candidateIds.size()];
+        int count = 0;
+        for (Long candidateId : candidateIds) {
+            int row = features.rowOf(candidateId);
+            if (row >= 0) {
+                rows[count] = row;
+                scores[count] = calculatePersonalizedScore(features, row, behaviorProfile, now);
+                count++;
+            }
+        }
         
-        return scoredArticles.stream()
-                .map(sa -> toArticleResponseDto(sa.article))
-                .collect(Collectors.toList());
+        int[] top = TopK.select(scores, count, limit);
+        List<Long> rankedIds = new ArrayList<>(top.length);
+        for (int index : top) {
+            rankedIds.add(features.id(rows[index]));
+        }
+        return rankedIds;
     }
     
     public List<ArticleResponseDto> getCollaborativeFilteringRecommendations(String username, int limit) {
@@ -61,29 +103,35 @@ public class AdvancedRecommendationService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
         // Find similar users based on reading history
-        List<User> similarUsers = findSimilarUsers(user);
-        
-        // Get articles liked by similar users
-        Set<Long> recommendedArticleIds = new HashSet<>();
-        for (User similarUser : similarUsers) {
-            List<Clap> userClaps = clapRepository.findByUser(similarUser);
-            for (Clap clap : userClaps) {
-                if (clap.getClapCount() > 5) { // Only consider strong positive signals
-                    recommendedArticleIds.add(clap.getArticle().getId());
-                }
+        List<Long> similarUserIds = findSimilarUserIds(user);
+        if (similarUserIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // One grouped query returns every candidate article with the total claps from similar users
+        List<Object[]> clapTotals = clapRepository.sumClapsByArticleForUsers(similarUserIds, STRONG_CLAP_THRESHOLD);
+        CompressedIdBitmap readIds = readArticleIndex.getReadIds(user.getId());
+        long[] articleIds = new long[clapTotals.size()];
+        double[] scores = new double[clapTotals.size()];
+        int count = 0;
+        for (Object[] row : clapTotals) {
+            long candidateId = ((Number) row[0]).longValue();
+            if (!readIds.contains(candidateId)) {
+                articleIds[count] = candidateId;
+                scores[count] = calculateCollaborativeScore(((Number) row[1]).longValue());
+                count++;
             }
         }
         
-        // Get articles and score them
-        List<Article> articles = articleRepository.findAllById(recommendedArticleIds);
-        List<ScoredArticle> scoredArticles = articles.stream()
-                .map(article -> new ScoredArticle(article, calculateCollaborativeScore(article, similarUsers)))
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Rank on primitives and only load the articles that make the cut
+        int[] top = TopK.select(scores, count, limit);
+        List<Long> rankedIds = new ArrayList<>(top.length);
+        for (int index : top) {
+            rankedIds.add(articleIds[index]);
+        }
         
-        return scoredArticles.stream()
-                .map(sa -> toArticleResponseDto(sa.article))
+        return findAllInOrder(rankedIds).stream()
+                .map(this::toArticleResponseDto)
                 .collect(Collectors.toList());
     }
     
@@ -91,237 +139,194 @@ public class AdvancedRecommendationService {
         Article sourceArticle = articleRepository.findById(articleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
         
-        // Get articles with similar content characteristics
-        List<Article> similarArticles = findContentSimilarArticles(sourceArticle, limit * 2);
+        Set<String> sourceTags = sourceArticle.getTags().stream()
+                .map(Tag::getName)
+                .collect(Collectors.toSet());
         
-        // Score based on content similarity
-        List<ScoredArticle> scoredArticles = similarArticles.stream()
-                .filter(article -> !article.getId().equals(articleId))
-                .map(article -> new ScoredArticle(article, calculateContentSimilarity(sourceArticle, article)))
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Get articles with similar content characteristics: embedding neighbours plus tag matches
+        Set<Long> similarArticleIds = new LinkedHashSet<>(articleEmbeddingService.findSimilarArticleIds(articleId, limit * 2));
+        similarArticleIds.addAll(findContentSimilarArticleIds(sourceTags, limit * 2));
+        
+        // Score based on content similarity from tag bitsets and embeddings
+        ArticleFeatureStore.Snapshot features = articleFeatureStore.snapshot();
+        long[] sourceTagBits = features.tagBits(sourceTags);
+        int[] rows = new int[similarArticleIds.size()];
+        double[] scores = new double[similarArticleIds.size()];
+        int count = 0;
+        for (Long similarId : similarArticleIds) {
+            int row = features.rowOf(similarId);
+            if (row >= 0 && !similarId.equals(articleId)) {
+                rows[count] = row;
+                scores[count] = calculateContentSimilarity(features, row, sourceTagBits, articleId);
+                count++;
+            }
+        }
+        
+        int[] top = TopK.select(scores, count, limit);
+        List<Long> rankedIds = new ArrayList<>(top.length);
+        for (int index : top) {
+            rankedIds.add(features.id(rows[index]));
+        }
+        
+        // Similar articles the reader has already seen go to the back rather than disappear
+        if (username != null) {
+            Long userId = userRepository.findByUsername(username).map(User::getId).orElse(null);
+            rankedIds = readArticleIndex.deRankRead(userId, rankedIds, Long::longValue);
+        }
         
-        return scoredArticles.stream()
-                .map(sa -> toArticleResponseDto(sa.article))
+        return findAllInOrder(rankedIds).stream()
+                .map(this::toArticleResponseDto)
                 .collect(Collectors.toList());
     }
     
-    private UserBehaviorProfile buildUserBehaviorProfile(User user) {
+    private UserBehaviorProfile buildUserBehaviorProfile(Long userId) {
         UserBehaviorProfile profile = new UserBehaviorProfile();
         
-        // Reading history analysis
-        List<ReadingHistory> readingHistory = readingHistoryRepository.findByUserOrderByReadAtDesc(user);
-        profile.readingHistory = readingHistory;
+        // Interests, engagement and reading patterns are maintained incrementally per user
+        UserInterestProfileService.InterestProfile interestProfile = userInterestProfileService.getProfile(userId);
+        profile.interestProfile = interestProfile;
+        profile.interests = interestProfile.getTopTags(INTEREST_TAG_LIMIT);
+        profile.engagementLevel = interestProfile.getEngagementLevel();
+        profile.averageReadTime = interestProfile.getAverageReadTime();
+        profile.preferredContentLength = interestProfile.getPreferredContentLength();
+        profile.affinityAuthorIds = interestProfile.getAffinityAuthorIds();
+        profile.interestTagBits = articleFeatureStore.snapshot().tagBits(profile.interests);
         
-        // Extract interests from read articles
-        Set<String> interests = new HashSet<>();
-        for (ReadingHistory history : readingHistory) {
-            interests.addAll(history.getArticle().getTags().stream()
-                    .map(Tag::getName)
-                    .collect(Collectors.toSet()));
-        }
-        profile.interests = interests;
-        
-        // Engagement analysis
-        List<Clap> claps = clapRepository.findByUser(user);
-        profile.engagementLevel = calculateEngagementLevel(claps);
-        
-        // Reading patterns
-        profile.averageReadTime = calculateAverageReadTime(readingHistory);
-        profile.preferredContentLength = calculatePreferredContentLength(readingHistory);
+        // Cached bitmap of read ids, kept current by read events
+        profile.readArticleIds = readArticleIndex.getReadIds(userId);
         
         return profile;
     }
     
-    private List<Article> getCandidateArticles(User user, UserBehaviorProfile profile) {
-        Set<Long> readArticleIds = profile.readingHistory.stream()
-                .map(h -> h.getArticle().getId())
-                .collect(Collectors.toSet());
-        
-        // Get articles based on user interests
-        List<Article> interestBasedArticles = new ArrayList<>();
-        if (!profile.interests.isEmpty()) {
-            interestBasedArticles = articleRepository.findByTags(profile.interests, 
-                    org.springframework.data.domain.PageRequest.of(0, 50)).getContent();
-        }
-        
-        // Get trending articles
-        List<Article> trendingArticles = articleRepository.findTrending(
-                org.springframework.data.domain.PageRequest.of(0, 30)).getContent();
-        
-        // Combine and filter
-        Set<Article> candidateSet = new HashSet<>();
-        candidateSet.addAll(interestBasedArticles);
-        candidateSet.addAll(trendingArticles);
-        
-        return candidateSet.stream()
-                .filter(article -> !readArticleIds.contains(article.getId()))
-                .filter(article -> article.isPublished())
-                .collect(Collectors.toList());
+    private List<Long> getCandidateArticleIds(Long userId, UserBehaviorProfile profile) {
+        // Sources run concurrently under a latency budget and already exclude read articles
+        return candidateGenerationService.generateCandidates(
+                userId, profile.interests, profile.readArticleIds::contains);
     }
     
-    private double calculatePersonalizedScore(Article article, UserBehaviorProfile profile) {
+    private double calculatePersonalizedScore(ArticleFeatureStore.Snapshot features, int row,
+                                              UserBehaviorProfile profile, long now) {
         double score = 0.0;
         
         // Content similarity score
-        double contentSimilarity = calculateContentSimilarityForUser(article, profile);
+        double contentSimilarity = calculateContentSimilarityForUser(features, row, profile);
         score += contentSimilarity * CONTENT_SIMILARITY_WEIGHT;
         
         // User behavior score
-        double behaviorScore = calculateBehaviorScore(article, profile);
+        double behaviorScore = calculateBehaviorScore(features, row, profile);
         score += behaviorScore * USER_BEHAVIOR_WEIGHT;
         
         // Popularity score
-        double popularityScore = calculatePopularityScore(article);
+        double popularityScore = calculatePopularityScore(features, row);
         score += popularityScore * POPULARITY_WEIGHT;
         
         // Recency score
-        double recencyScore = calculateRecencyScore(article);
+        double recencyScore = calculateRecencyScore(features, row, now);
         score += recencyScore * RECENCY_WEIGHT;
         
         return score;
     }
     
-    private double calculateContentSimilarityForUser(Article article, UserBehaviorProfile profile) {
-        Set<String> articleTags = article.getTags().stream()
-                .map(Tag::getName)
-                .collect(Collectors.toSet());
-        
-        Set<String> intersection = new HashSet<>(articleTags);
-        intersection.retainAll(profile.interests);
-        
+    private double calculateContentSimilarityForUser(ArticleFeatureStore.Snapshot features, int row,
+                                                     UserBehaviorProfile profile) {
         if (profile.interests.isEmpty()) {
             return 0.0;
         }
         
-        return intersection.size() / (double) profile.interests.size();
+        return features.sharedTagCount(row, profile.interestTagBits) / (double) profile.interests.size();
     }
     
-    private double calculateBehaviorScore(Article article, UserBehaviorProfile profile) {
+    private double calculateBehaviorScore(ArticleFeatureStore.Snapshot features, int row, UserBehaviorProfile profile) {
         double score = 0.0;
         
         // Content length preference
-        int articleLength = article.getContent().length();
+        int articleLength = features.contentLength(row);
         if (Math.abs(articleLength - profile.preferredContentLength) < 1000) {
             score += 0.3;
         }
         
         // Author preference (if user has read articles from this author before)
-        boolean hasReadFromAuthor = profile.readingHistory.stream()
-                .anyMatch(h -> h.getArticle().getAuthor().equals(article.getAuthor()));
-        if (hasReadFromAuthor) {
+        if (Arrays.binarySearch(profile.affinityAuthorIds, features.authorId(row)) >= 0) {
             score += 0.2;
         }
         
         // Engagement level matching
-        if (profile.engagementLevel > 0.7 && article.getLikeCount() > 100) {
+        if (profile.engagementLevel > 0.7 && features.likeCount(row) > 100) {
             score += 0.2;
         }
         
         return score;
     }
     
-    private double calculatePopularityScore(Article article) {
-        double viewScore = Math.log10(article.getViewCount() + 1) / 10.0;
-        double likeScore = Math.log10(article.getLikeCount() + 1) / 10.0;
-        double commentScore = Math.log10(article.getCommentCount() + 1) / 10.0;
+    private double calculatePopularityScore(ArticleFeatureStore.Snapshot features, int row) {
+        double viewScore = Math.log10(features.viewCount(row) + 1) / 10.0;
+        double likeScore = Math.log10(features.likeCount(row) + 1) / 10.0;
+        double commentScore = Math.log10(features.commentCount(row) + 1) / 10.0;
         
         return (viewScore + likeScore + commentScore) / 3.0;
     }
     
-    private double calculateRecencyScore(Article article) {
-        if (article.getPublishedAt() == null) {
+    private double calculateRecencyScore(ArticleFeatureStore.Snapshot features, int row, long now) {
+        long publishedAt = features.publishedEpochSecond(row);
+        if (publishedAt == ArticleFeatureStore.NOT_PUBLISHED) {
             return 0.5;
         }
         
-        long daysSincePublished = ChronoUnit.DAYS.between(article.getPublishedAt(), LocalDateTime.now());
+        long daysSincePublished = (now - publishedAt) / SECONDS_PER_DAY;
         return Math.max(0.1, 1.0 - (daysSincePublished / 365.0));
     }
     
-    private List<User> findSimilarUsers(User user) {
-        // Find users with similar reading patterns
-        List<ReadingHistory> userHistory = readingHistoryRepository.findByUserOrderByReadAtDesc(user);
-        Set<Long> userReadArticles = userHistory.stream()
-                .map(h -> h.getArticle().getId())
-                .collect(Collectors.toSet());
+    private List<Long> findSimilarUserIds(User user) {
+        // Readers who share the most articles with this user
+        List<Long> similarUserIds = readingHistoryRepository.findSimilarReaderIds(user.getId(),
+                org.springframework.data.domain.PageRequest.of(0, SIMILAR_USER_LIMIT));
+        if (!similarUserIds.isEmpty()) {
+            return similarUserIds;
+        }
         
-        // This is a simplified implementation
-        // In production, you'd use more sophisticated collaborative filtering algorithms
-        return userRepository.findAll().stream()
-                .filter(u -> !u.equals(user))
-                .limit(10)
-                .collect(Collectors.toList());
+        // No overlapping history yet, fall back to any other users
+        return userRepository.findOtherUserIds(user.getId(),
+                org.springframework.data.domain.PageRequest.of(0, SIMILAR_USER_LIMIT));
     }
     
-    private double calculateCollaborativeScore(Article article, List<User> similarUsers) {
-        // Count how many similar users have engaged with this article
-        long engagementCount = similarUsers.stream()
-                .mapToLong(user -> {
-                    Optional<Clap> clap = clapRepository.findByArticleAndUser(article, user);
-                    return clap.map(Clap::getClapCount).orElse(0);
-                })
-                .sum();
-        
+    private double calculateCollaborativeScore(long engagementCount) {
+        // Total claps similar users gave this article
         return Math.log10(engagementCount + 1) / 10.0;
     }
     
-    private List<Article> findContentSimilarArticles(Article sourceArticle, int limit) {
-        Set<String> sourceTags = sourceArticle.getTags().stream()
-                .map(Tag::getName)
-                .collect(Collectors.toSet());
-        
-        return articleRepository.findByTags(sourceTags, 
-                org.springframework.data.domain.PageRequest.of(0, limit)).getContent();
-    }
-    
-    private double calculateContentSimilarity(Article article1, Article article2) {
-        Set<String> tags1 = article1.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
-        Set<String> tags2 = article2.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
-        
-        Set<String> intersection = new HashSet<>(tags1);
-        intersection.retainAll(tags2);
-        
-        Set<String> union = new HashSet<>(tags1);
-        union.addAll(tags2);
-        
-        if (union.isEmpty()) {
-            return 0.0;
-        }
-        
-        return intersection.size() / (double) union.size(); // Jaccard similarity
-    }
-    
-    private double calculateEngagementLevel(List<Clap> claps) {
-        if (claps.isEmpty()) {
-            return 0.0;
+    private List<Article> findAllInOrder(List<Long> ids) {
+        Map<Long, Article> byId = articleRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Article::getId, article -> article));
+        List<Article> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Article article = byId.get(id);
+            if (article != null) {
+                ordered.add(article);
+            }
         }
-        
-        double totalClaps = claps.stream().mapToInt(Clap::getClapCount).sum();
-        return Math.min(1.0, totalClaps / 100.0); // Normalize to 0-1
+        return ordered;
     }
     
-    private double calculateAverageReadTime(List<ReadingHistory> readingHistory) {
-        if (readingHistory.isEmpty()) {
-            return 5.0; // Default 5 minutes
+    private List<Long> findContentSimilarArticleIds(Set<String> sourceTags, int limit) {
+        if (sourceTags.isEmpty()) {
+            return new ArrayList<>();
         }
         
-        return readingHistory.stream()
-                .mapToDouble(h -> h.getArticle().getReadTimeMinutes() != null ? 
-                        h.getArticle().getReadTimeMinutes() : 5.0)
-                .average()
-                .orElse(5.0);
+        return new ArrayList<>(tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(sourceTags),
+                org.springframework.data.domain.PageRequest.of(0, limit)).getContent());
     }
     
-    private int calculatePreferredContentLength(List<ReadingHistory> readingHistory) {
-        if (readingHistory.isEmpty()) {
-            return 2000; // Default 2000 characters
+    private double calculateContentSimilarity(ArticleFeatureStore.Snapshot features, int row, long[] sourceTagBits,
+                                              Long sourceArticleId) {
+        int union = features.unionTagCount(row, sourceTagBits);
+        double tagSimilarity = union == 0 ? 0.0 : features.sharedTagCount(row, sourceTagBits) / (double) union; // Jaccard similarity
+        
+        // Text similarity lets untagged or badly tagged articles compete with tag matches
+        double textSimilarity = articleEmbeddingService.similarity(sourceArticleId, features.id(row));
+        if (Double.isNaN(textSimilarity)) {
+            return tagSimilarity;
         }
-        
-        return (int) readingHistory.stream()
-                .mapToInt(h -> h.getArticle().getContent().length())
-                .average()
-                .orElse(2000);
+        return Math.max(tagSimilarity, textSimilarity);
     }
     
     private ArticleResponseDto toArticleResponseDto(Article article) {
@@ -352,20 +357,13 @@ public class AdvancedRecommendationService {
     
     // Helper classes
     private static class UserBehaviorProfile {
-        List<ReadingHistory> readingHistory;
+        UserInterestProfileService.InterestProfile interestProfile;
+        CompressedIdBitmap readArticleIds;
         Set<String> interests;
+        long[] interestTagBits;
+        long[] affinityAuthorIds;
         double engagementLevel;
         double averageReadTime;
         int preferredContentLength;
     }
-    
-    private static class ScoredArticle {
-        Article article;
-        double score;
-        
-        ScoredArticle(Article article, double score) {
-            this.article = article;
-            this.score = score;
-        }
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,254 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams analytics datasets straight from the database to an output stream.
+ *
+ * Each export runs one read-only query on a forward-only, read-only cursor with a fixed fetch
+ * size, inside a transaction so the PostgreSQL driver actually fetches in chunks instead of
+ * materialising the result. Rows are written as they arrive, so memory stays constant no
+ * matter how many rows the export covers.
+ *
+ * Each export holds a database connection and an open transaction for as long as the client
+ * keeps reading, so exports are bounded twice: callers reserve one of a few concurrent
+ * {@link Slot}s first, and every export runs under a transaction timeout that is also
+ * checked between rows, so a slow or stalled client cannot keep the cursor open forever.
+ */
+@Service
+public class AnalyticsExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsExportService.class);
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    public enum Dataset { ARTICLES, ROLLUPS, READING_HISTORY }
+
+    public enum Format { CSV, NDJSON }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore slots;
+    private final int timeoutSeconds;
+
+    @Value("${app.analytics.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public AnalyticsExportService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.analytics.export.max-concurrent:2}") int maxConcurrent,
+                                  @Value("${app.analytics.export.timeout-seconds:300}") int timeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Also applied by JdbcTemplate as the statement's query timeout
+        this.transactionTemplate.setTimeout(timeoutSeconds);
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Reserves one of the concurrent export slots, failing at once with a
+     * {@link ServiceBusyException} when all are taken. Reserve before writing any response
+     * headers, and close the slot once the export is done.
+     */
+    public Slot reserveSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Too many analytics exports in progress, please retry later", RETRY_AFTER_SECONDS);
+        }
+        return new Slot();
+    }
+
+    /**
+     * Writes the dataset for one author, or for every author when {@code authorId} is null.
+     * Reader ids are only included in reading history exports that span every author.
+     */
+    public long export(Dataset dataset, Format format, Long authorId, OutputStream out) throws IOException {
+        String sql = sql(dataset, authorId);
+        RowSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        long[] rows = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                if (authorId != null) {
+                    statement.setLong(1, authorId);
+                }
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new QueryTimeoutException("Export exceeded " + timeoutSeconds + " seconds after " + rows[0] + " rows");
+                }
+                try {
+                    sink.write(resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; abandon the cursor rather than reading on
+            throw e.getCause();
+        }
+        sink.finish();
+        log.debug("Exported {} {} rows as {} in {} ms", rows[0], dataset, format, (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    private static String sql(Dataset dataset, Long authorId) {
+        String authorFilter = authorId != null ? " WHERE a.author_id = ?" : "";
+        return switch (dataset) {
+            case ARTICLES -> "SELECT a.id AS article_id, a.slug, a.title, a.is_published AS published, a.published_at, "
+                    + "a.view_count, a.claps_count, a.comment_count, aa.unique_views_count, aa.engagements_count, "
+                    + "aa.avg_reading_time_seconds, aa.bounce_rate "
+                    + "FROM articles a LEFT JOIN article_analytics aa ON aa.article_id = a.id"
+                    + authorFilter + " ORDER BY a.id";
+            case ROLLUPS -> "SELECT r.article_id, r.granularity, r.bucket_start, r.views, r.reads, r.claps, "
+                    + "r.comments, r.bookmarks, r.shares "
+                    + "FROM article_metric_rollups r JOIN articles a ON a.id = r.article_id"
+                    + authorFilter + " ORDER BY r.article_id, r.granularity, r.bucket_start";
+            case READING_HISTORY -> "SELECT rh.article_id, " + (authorId == null ? "rh.user_id, " : "") + "rh.read_at "
+                    + "FROM reading_history rh JOIN articles a ON a.id = rh.article_id"
+                    + authorFilter + " ORDER BY rh.article_id, rh.read_at";
+        };
+    }
+
+    /**
+     * A reserved export slot; closing it more than once is harmless.
+     */
+    public final class Slot implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    private interface RowSink {
+        void write(ResultSet row) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+        private int columns = -1;
+
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            if (columns < 0) {
+                ResultSetMetaData metaData = row.getMetaData();
+                columns = metaData.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    writeField(metaData.getColumnLabel(i).toLowerCase(), i);
+                }
+                writer.write("\r\n");
+            }
+            for (int i = 1; i <= columns; i++) {
+                Object value = row.getObject(i);
+                writeField(value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString()
+                        : value != null ? value.toString() : "", i);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value, int column) throws IOException {
+            if (column > 1) {
+                writer.write(',');
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private String[] labels;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            if (labels == null) {
+                ResultSetMetaData metaData = row.getMetaData();
+                labels = new String[metaData.getColumnCount()];
+                for (int i = 0; i < labels.length; i++) {
+                    labels[i] = metaData.getColumnLabel(i + 1).toLowerCase();
+                }
+            }
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object value = row.getObject(i + 1);
+                generator.writeFieldName(labels[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.doubleValue());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.entity.ArticleAnalytics;
+import org.example.event.ArticleBookmarkedEvent;
+import org.example.event.ArticleClappedEvent;
+import org.example.event.ArticleCommentedEvent;
+import org.example.event.ArticleReadEvent;
+import org.example.event.ArticleSharedEvent;
+import org.example.service.MetricRollupService.Metric;
+import org.example.repository.ArticleAnalyticsRepository;
+import org.example.repository.ArticleRepository;
+import org.example.util.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds {@code article_analytics} from view and engagement events without writing per request.
+ *
+ * Request threads enqueue into a bounded queue and never block; when the queue is full the
+ * event is dropped and counted. Engagements arrive as events after their write commits, so
+ * a rolled-back write is never counted. A single consumer thread folds events into per-article
+ * windows and upserts them in batches when the flush interval elapses or the window
+ * reaches its article limit. Remaining events are drained and flushed on shutdown.
+ * Views that carry a viewer hash are also folded into per-day HyperLogLog sketches which
+ * {@link UniqueViewerService} merges into the stored unique-viewer sketches, and every
+ * window is also added to the hourly buckets kept by {@link MetricRollupService}.
+ */
+@Service
+public class AnalyticsIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsIngestionService.class);
+
+    public enum EventType { VIEW, CLAP, COMMENT, BOOKMARK, SHARE, READ }
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    private static final long POLL_MILLIS = 250;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final ArticleAnalyticsRepository articleAnalyticsRepository;
+    private final ArticleRepository articleRepository;
+    private final UniqueViewerService uniqueViewerService;
+    private final MetricRollupService metricRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.analytics.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.analytics.ingest.flush-interval-ms:5000}")
+    private long flushIntervalMillis;
+
+    @Value("${app.analytics.ingest.max-window-articles:5000}")
+    private int maxWindowArticles;
+
+    @Value("${app.analytics.ingest.batch-size:200}")
+    private int batchSize;
+
+    private BlockingQueue<Event> queue;
+    // Only touched by the consumer thread
+    private final Map<Long, ArticleWindow> window = new HashMap<>();
+    private Thread consumer;
+    private volatile boolean running;
+
+    private final Map<EventType, Counter> acceptedCounters = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> droppedCounters = new EnumMap<>(EventType.class);
+
+    public AnalyticsIngestionService(ArticleAnalyticsRepository articleAnalyticsRepository,
+                                     ArticleRepository articleRepository,
+                                     UniqueViewerService uniqueViewerService,
+                                     MetricRollupService metricRollupService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.articleAnalyticsRepository = articleAnalyticsRepository;
+        this.articleRepository = articleRepository;
+        this.uniqueViewerService = uniqueViewerService;
+        this.metricRollupService = metricRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (EventType type : EVENT_TYPES) {
+            acceptedCounters.put(type, meterRegistry.counter("analytics.ingest.events", "type", type.name(), "outcome", "accepted"));
+            droppedCounters.put(type, meterRegistry.counter("analytics.ingest.events", "type", type.name(), "outcome", "dropped"));
+        }
+        meterRegistry.gauge("analytics.ingest.queue.size", queue, Collection::size);
+        meterRegistry.gauge("analytics.ingest.queue.remaining", queue, BlockingQueue::remainingCapacity);
+
+        running = true;
+        consumer = new Thread(this::consume, "analytics-ingest");
+        consumer.start();
+    }
+
+    /**
+     * Records one event for the article. Never blocks; returns false if the event was dropped.
+     */
+    public boolean record(EventType type, Long articleId) {
+        return offer(type, articleId, null);
+    }
+
+    /**
+     * Records a view by the viewer with the given {@link HyperLogLog} hash, or an anonymous
+     * count-only view when the hash is null. Never blocks.
+     */
+    public boolean recordView(Long articleId, Long viewerHash) {
+        return offer(EventType.VIEW, articleId, viewerHash);
+    }
+
+    private boolean offer(EventType type, Long articleId, Long viewerHash) {
+        if (articleId == null) {
+            return false;
+        }
+        Event event = viewerHash != null
+                ? new Event(type, articleId, true, viewerHash)
+                : new Event(type, articleId, false, 0L);
+        if (queue.offer(event)) {
+            acceptedCounters.get(type).increment();
+            return true;
+        }
+        droppedCounters.get(type).increment();
+        return false;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleClapped(ArticleClappedEvent event) {
+        if (event.getClapDelta() > 0) {
+            record(EventType.CLAP, event.getArticleId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleRead(ArticleReadEvent event) {
+        record(EventType.READ, event.getArticleId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleCommented(ArticleCommentedEvent event) {
+        record(EventType.COMMENT, event.getArticleId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleBookmarked(ArticleBookmarkedEvent event) {
+        record(EventType.BOOKMARK, event.getArticleId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleShared(ArticleSharedEvent event) {
+        record(EventType.SHARE, event.getArticleId());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // The consumer notices within one poll interval, drains the queue and flushes
+        running = false;
+        consumer.join(SHUTDOWN_WAIT_MILLIS);
+        if (consumer.isAlive()) {
+            log.warn("Analytics ingestion did not drain within {} ms; {} events left", SHUTDOWN_WAIT_MILLIS, queue.size());
+        }
+    }
+
+    private void consume() {
+        long nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        List<Event> drained = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Event event = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    aggregate(event);
+                    queue.drainTo(drained, batchSize);
+                    drained.forEach(this::aggregate);
+                    drained.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (System.nanoTime() >= nextFlush || window.size() >= maxWindowArticles) {
+                flush();
+                nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+            }
+        }
+
+        Event event;
+        while ((event = queue.poll()) != null) {
+            aggregate(event);
+            if (window.size() >= maxWindowArticles) {
+                flush();
+            }
+        }
+        flush();
+    }
+
+    private void aggregate(Event event) {
+        ArticleWindow articleWindow = window.computeIfAbsent(event.articleId, id -> new ArticleWindow());
+        articleWindow.counts[event.type.ordinal()]++;
+        articleWindow.hourly.computeIfAbsent(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS),
+                hour -> new long[MetricRollupService.METRICS.length])[metricOf(event.type).ordinal()]++;
+        if (event.hasViewer) {
+            // Events wait at most a few seconds in the queue, so the consumer's day is close enough
+            articleWindow.viewers.computeIfAbsent(LocalDate.now(), day -> UniqueViewerService.newSketch())
+                    .addHash(event.viewerHash);
+        }
+    }
+
+    private void flush() {
+        if (window.isEmpty()) {
+            return;
+        }
+        Map<Long, ArticleWindow> pending = new HashMap<>(window);
+        window.clear();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Long> articleIds = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < articleIds.size(); from += batchSize) {
+            List<Long> batch = articleIds.subList(from, Math.min(from + batchSize, articleIds.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsert(batch, pending));
+            } catch (RuntimeException e) {
+                meterRegistry.counter("analytics.ingest.flush.failed").increment();
+                log.warn("Failed to flush analytics for {} articles: {}", batch.size(), e.getMessage());
+                requeue(batch, pending);
+            }
+        }
+        sample.stop(meterRegistry.timer("analytics.ingest.flush"));
+    }
+
+    private void upsert(List<Long> articleIds, Map<Long, ArticleWindow> windows) {
+        Map<Long, ArticleAnalytics> existing = articleAnalyticsRepository.findByArticleIdIn(articleIds).stream()
+                .collect(Collectors.toMap(analytics -> analytics.getArticle().getId(), Function.identity()));
+        Set<Long> missing = new HashSet<>(articleIds);
+        missing.removeAll(existing.keySet());
+        if (!missing.isEmpty()) {
+            // Articles deleted since the event was recorded are skipped rather than failing the batch
+            for (Long articleId : articleRepository.findExistingIds(missing)) {
+                ArticleAnalytics analytics = new ArticleAnalytics();
+                analytics.setArticle(articleRepository.getReferenceById(articleId));
+                existing.put(articleId, analytics);
+            }
+        }
+
+        Map<Long, Map<LocalDate, HyperLogLog>> viewers = new HashMap<>();
+        Map<Long, Map<LocalDateTime, long[]>> hourly = new HashMap<>();
+        for (ArticleAnalytics analytics : existing.values()) {
+            ArticleWindow articleWindow = windows.get(analytics.getArticle().getId());
+            long[] window = articleWindow.counts;
+            long views = valueOf(analytics.getViewsCount()) + window[EventType.VIEW.ordinal()];
+            long engagements = valueOf(analytics.getEngagementsCount()) + window[EventType.CLAP.ordinal()]
+                    + window[EventType.COMMENT.ordinal()] + window[EventType.BOOKMARK.ordinal()]
+                    + window[EventType.SHARE.ordinal()];
+            analytics.setViewsCount(views);
+            analytics.setEngagementsCount(engagements);
+            analytics.setEngagementRate(views > 0 ? Math.min(1.0, engagements / (double) views) : 0.0);
+            if (!articleWindow.viewers.isEmpty()) {
+                viewers.put(analytics.getArticle().getId(), articleWindow.viewers);
+            }
+            hourly.put(analytics.getArticle().getId(), articleWindow.hourly);
+        }
+        uniqueViewerService.mergeDeltas(existing, viewers);
+        metricRollupService.addHourly(hourly);
+        articleAnalyticsRepository.saveAll(existing.values());
+    }
+
+    // Puts a failed batch back into the window for the next flush while there is room
+    private void requeue(List<Long> articleIds, Map<Long, ArticleWindow> windows) {
+        for (Long articleId : articleIds) {
+            if (window.size() >= maxWindowArticles && !window.containsKey(articleId)) {
+                meterRegistry.counter("analytics.ingest.window.dropped").increment();
+                continue;
+            }
+            ArticleWindow target = window.computeIfAbsent(articleId, id -> new ArticleWindow());
+            ArticleWindow source = windows.get(articleId);
+            for (int i = 0; i < target.counts.length; i++) {
+                target.counts[i] += source.counts[i];
+            }
+            source.hourly.forEach((hour, counts) -> target.hourly.merge(hour, counts, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            }));
+            source.viewers.forEach((day, sketch) -> target.viewers.merge(day, sketch, (a, b) -> {
+                a.merge(b);
+                return a;
+            }));
+        }
+    }
+
+    private static Metric metricOf(EventType type) {
+        return switch (type) {
+            case VIEW -> Metric.VIEWS;
+            case READ -> Metric.READS;
+            case CLAP -> Metric.CLAPS;
+            case COMMENT -> Metric.COMMENTS;
+            case BOOKMARK -> Metric.BOOKMARKS;
+            case SHARE -> Metric.SHARES;
+        };
+    }
+
+    private static long valueOf(Long count) {
+        return count != null ? count : 0L;
+    }
+
+    private static final class Event {
+        final EventType type;
+        final long articleId;
+        final boolean hasViewer;
+        final long viewerHash;
+
+        Event(EventType type, long articleId, boolean hasViewer, long viewerHash) {
+            this.type = type;
+            this.articleId = articleId;
+            this.hasViewer = hasViewer;
+            this.viewerHash = viewerHash;
+        }
+    }
+
+    private static final class ArticleWindow {
+        final long[] counts = new long[EVENT_TYPES.length];
+        final Map<LocalDateTime, long[]> hourly = new HashMap<>(2);
+        final Map<LocalDate, HyperLogLog> viewers = new HashMap<>(2);
+    }
+}
@@ -2,13 +2,26 @@ package org.example.service;
 
 import org.example.dto.ArticleAnalyticsDto;
 import org.example.dto.ReadingHistoryDto;
+import org.example.dto.TimeSeriesDto;
 import org.example.entity.*;
+import org.example.entity.ArticleMetricRollup.Granularity;
 import org.example.repository.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
+import org.example.exception.ForbiddenException;
 import org.example.exception.ResourceNotFoundException;
+import org.example.exception.ValidationException;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,6 +30,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AnalyticsService {
     
+    private static final int MAX_AUTHOR_PAGE_SIZE = 100;
+    
     private final ReadingHistoryRepository readingHistoryRepository;
     
     private final ArticleRepository articleRepository;
@@ -29,6 +44,14 @@ public class AnalyticsService {
     
     private final CommentRepository commentRepository;
     
+    private final ShareRepository shareRepository;
+    
+    private final ArticleAnalyticsRepository articleAnalyticsRepository;
+    
+    private final UniqueViewerService uniqueViewerService;
+    
+    private final MetricRollupService metricRollupService;
+    
     public List<ReadingHistoryDto> getUserReadingHistory(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -43,58 +66,161 @@ public class AnalyticsService {
     public ArticleAnalyticsDto getArticleAnalytics(Long articleId) {
         Article article = articleRepository.findById(articleId)
                 .orElseThrow(() -> new RuntimeException("Article not found"));
-        
-        // Get basic metrics
-        Long viewCount = article.getViewCount();
-        Long clapCount = clapRepository.getTotalClapsForArticle(article);
-        Long commentCount = article.getCommentCount();
-        Long bookmarkCount = bookmarkRepository.getBookmarkCountForArticle(article.getId());
-        
-        // Get share count (placeholder - would need to implement share tracking)
-        Long shareCount = 0L; // TODO: Implement share tracking
-        
-        // Get last viewed time
-        List<ReadingHistory> readingHistory = readingHistoryRepository.findByArticleOrderByReadAtDesc(article);
-        LocalDateTime lastViewed = readingHistory.isEmpty() ? null : readingHistory.get(0).getReadAt();
-        
-        // Calculate average read time (placeholder - would need more sophisticated tracking)
-        Double averageReadTime = article.getReadTimeMinutes() != null ? 
-                article.getReadTimeMinutes().doubleValue() : 0.0;
-        
-        // Calculate completion rate (placeholder - would need scroll tracking)
-        Double completionRate = 0.75; // Placeholder
-        
-        // Get reader demographics (placeholder - would need user profile data)
-        Map<String, Long> readerDemographics = Map.of("Unknown", (long) readingHistory.size());
-        
-        return new ArticleAnalyticsDto(
-                article.getId(),
-                article.getTitle(),
-                article.getSlug(),
-                viewCount,
-                clapCount,
-                commentCount,
-                bookmarkCount,
-                shareCount,
-                averageReadTime,
-                completionRate,
-                readerDemographics,
-                lastViewed,
-                article.getPublishedAt()
-        );
+        return toArticleAnalyticsDtos(List.of(article)).get(0);
     }
     
-    public List<ArticleAnalyticsDto> getAuthorAnalytics(String authorUsername) {
+    public Map<String, Object> getUniqueViewers(Long articleId, LocalDate from, LocalDate to) {
+        if (!articleRepository.existsById(articleId)) {
+            throw new ResourceNotFoundException("Article not found");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("articleId", articleId);
+        if (from == null && to == null) {
+            result.put("uniqueViewers", uniqueViewerService.getUniqueViewers(articleId));
+            return result;
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+        result.put("from", start);
+        result.put("to", end);
+        result.put("uniqueViewers", uniqueViewerService.getUniqueViewers(articleId, start, end));
+        return result;
+    }
+    
+    public TimeSeriesDto getArticleTimeSeries(Long articleId, LocalDate from, LocalDate to, String granularity) {
+        if (!articleRepository.existsById(articleId)) {
+            throw new ResourceNotFoundException("Article not found");
+        }
+        Granularity resolved = parseGranularity(granularity);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return metricRollupService.getArticleSeries(articleId, defaultFrom(from, end, resolved), end, resolved);
+    }
+    
+    public TimeSeriesDto getAuthorTimeSeries(String authorUsername, LocalDate from, LocalDate to, String granularity) {
         User author = userRepository.findByUsername(authorUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("Author not found"));
+        Granularity resolved = parseGranularity(granularity);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return metricRollupService.getAuthorSeries(author.getId(), defaultFrom(from, end, resolved), end, resolved);
+    }
+    
+    private static Granularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.equalsIgnoreCase("day")) {
+            return Granularity.DAY;
+        }
+        if (granularity.equalsIgnoreCase("hour")) {
+            return Granularity.HOUR;
+        }
+        throw new ValidationException("Granularity must be 'hour' or 'day'");
+    }
+    
+    private static LocalDate defaultFrom(LocalDate from, LocalDate end, Granularity granularity) {
+        if (from != null) {
+            return from;
+        }
+        return granularity == Granularity.HOUR ? end.minusDays(1) : end.minusDays(29);
+    }
+    
+    /**
+     * Author whose data an export may cover: the caller themselves, or for admins the requested
+     * author, or null meaning every author.
+     */
+    public Long resolveExportAuthorId(String username, String requestedAuthor, boolean admin) {
+        if (admin && requestedAuthor == null) {
+            return null;
+        }
+        String authorUsername = requestedAuthor != null ? requestedAuthor : username;
+        if (!admin && !authorUsername.equals(username)) {
+            throw new ForbiddenException("You can only export your own analytics");
+        }
+        return userRepository.findByUsername(authorUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("Author not found"))
+                .getId();
+    }
+    
+    public Page<ArticleAnalyticsDto> getAuthorAnalytics(String authorUsername, int page, int size) {
+        userRepository.findByUsername(authorUsername)
                 .orElseThrow(() -> new RuntimeException("Author not found"));
         
-        // Get all articles by the author
-        List<Article> articles = articleRepository.findByAuthor(authorUsername, 
-                org.springframework.data.domain.PageRequest.of(0, 100)).getContent();
+        // Page through the whole catalogue, newest first; id breaks ties so pages never overlap
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_AUTHOR_PAGE_SIZE),
+                Sort.by(Sort.Order.desc("publishedAt"), Sort.Order.desc("id")));
+        Page<Article> articles = articleRepository.findByAuthor(authorUsername, pageable);
+        return new PageImpl<>(toArticleAnalyticsDtos(articles.getContent()), pageable, articles.getTotalElements());
+    }
+    
+    /**
+     * Builds analytics for a set of articles with one grouped query per metric rather than
+     * a round of queries per article.
+     */
+    private List<ArticleAnalyticsDto> toArticleAnalyticsDtos(List<Article> articles) {
+        if (articles.isEmpty()) {
+            return List.of();
+        }
+        List<Long> articleIds = articles.stream().map(Article::getId).collect(Collectors.toList());
+        Map<Long, Long> claps = toCounts(clapRepository.sumClapsByArticleIds(articleIds));
+        Map<Long, Long> bookmarks = toCounts(bookmarkRepository.countByArticleIds(articleIds));
+        Map<Long, Long> shares = toCounts(shareRepository.countByArticleIds(articleIds));
+        Map<Long, Object[]> reads = readingHistoryRepository.summarizeByArticleIds(articleIds).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> row));
+        Map<Long, ArticleAnalytics> analytics = articleAnalyticsRepository.findByArticleIdIn(articleIds).stream()
+                .collect(Collectors.toMap(row -> row.getArticle().getId(), row -> row, (first, second) -> first));
         
-        return articles.stream()
-                .map(article -> getArticleAnalytics(article.getId()))
-                .collect(Collectors.toList());
+        List<ArticleAnalyticsDto> dtos = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            Object[] readSummary = reads.get(article.getId());
+            long readers = readSummary != null ? ((Number) readSummary[1]).longValue() : 0L;
+            LocalDateTime lastViewed = readSummary != null ? (LocalDateTime) readSummary[2] : null;
+            ArticleAnalytics row = analytics.get(article.getId());
+            long readSamples = row != null && row.getReadSamples() != null ? row.getReadSamples() : 0L;
+            
+            // Measured from read-progress beacons; the estimated read time stands in until there are samples
+            Double averageReadTime;
+            Double completionRate;
+            if (readSamples > 0) {
+                averageReadTime = row.getTotalReadSeconds() / (double) readSamples / 60.0;
+                completionRate = row.getCompletedReads() / (double) readSamples;
+            } else {
+                averageReadTime = article.getReadTimeMinutes() != null ?
+                        article.getReadTimeMinutes().doubleValue() : 0.0;
+                completionRate = 0.0;
+            }
+            
+            // Get reader demographics (placeholder - would need user profile data)
+            Map<String, Long> readerDemographics = Map.of("Unknown", readers);
+            
+            ArticleAnalyticsDto dto = new ArticleAnalyticsDto(
+                    article.getId(),
+                    article.getTitle(),
+                    article.getSlug(),
+                    article.getViewCount(),
+                    claps.getOrDefault(article.getId(), 0L),
+                    article.getCommentCount(),
+                    bookmarks.getOrDefault(article.getId(), 0L),
+                    shares.getOrDefault(article.getId(), 0L),
+                    averageReadTime,
+                    completionRate,
+                    readerDemographics,
+                    lastViewed,
+                    article.getPublishedAt()
+            );
+            dto.setUniqueViewCount(row != null ? row.getUniqueViewsCount() : 0L);
+            dto.setBounceRate(readSamples > 0 ? row.getBounceRate() : null);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
+    // [articleId, count] rows to a map; articles without rows are absent
+    private static Map<Long, Long> toCounts(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], row[1] != null ? ((Number) row[1]).longValue() : 0L);
+        }
+        return counts;
     }
     
     private ReadingHistoryDto toReadingHistoryDto(ReadingHistory history) {
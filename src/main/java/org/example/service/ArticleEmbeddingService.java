@@ -0,0 +1,390 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.event.ArticleDeletedEvent;
+import org.example.event.ArticleSavedEvent;
+import org.example.repository.ArticleRepository;
+import org.example.util.HashedTfIdfVectorizer;
+import org.example.util.HnswIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Content embeddings for articles, kept in an in-process HNSW index.
+ *
+ * Vectors are hashed TF-IDF over title, summary and body reduced by random projection,
+ * computed when an article is saved. The index and the IDF statistics are persisted to a
+ * single file and reloaded on startup, then reconciled with articles changed while the
+ * file was not being updated; without a file the index is built from the database.
+ *
+ * Loading, building and every update run in order on a single background worker, so
+ * neither startup nor a publish waits for the index. Updates the worker's queue rejects
+ * are picked up by a reconcile before the next persist.
+ */
+@Service
+public class ArticleEmbeddingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleEmbeddingService.class);
+
+    private static final int HASH_BUCKETS = 1 << 18;
+    private static final int MAX_CONNECTIONS = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int BOOTSTRAP_PAGE_SIZE = 200;
+    private static final double COMPACT_DELETED_RATIO = 0.3;
+    // Re-embed articles saved shortly before the index file was written, in case their event was missed
+    private static final long RECONCILE_OVERLAP_SECONDS = 60;
+
+    private final ArticleRepository articleRepository;
+    private final TaskExecutor embeddingExecutor;
+
+    @Value("${app.recommendation.embeddings.dimensions:128}")
+    private int dimensions;
+
+    @Value("${app.recommendation.embeddings.ef-search:64}")
+    private int efSearch;
+
+    @Value("${app.recommendation.embeddings.max-results:100}")
+    private int maxResults;
+
+    @Value("${app.recommendation.embeddings.index-path:./data/article-embeddings.bin}")
+    private String indexPath;
+
+    private volatile HnswIndex index;
+    private volatile HashedTfIdfVectorizer vectorizer;
+    private volatile boolean dirty;
+    // Earliest change an update was dropped for, or null when nothing was dropped
+    private final AtomicReference<LocalDateTime> missedSince = new AtomicReference<>();
+    private final Object writeLock = new Object();
+
+    public ArticleEmbeddingService(ArticleRepository articleRepository,
+                                   @Qualifier("embeddingExecutor") TaskExecutor embeddingExecutor) {
+        this.articleRepository = articleRepository;
+        this.embeddingExecutor = embeddingExecutor;
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Nearest published articles to the given article, best first, excluding the article itself.
+     */
+    public List<Long> findSimilarArticleIds(Long articleId, int limit) {
+        HnswIndex current = index;
+        if (current == null) {
+            return new ArrayList<>();
+        }
+        float[] vector = current.vector(articleId);
+        if (vector == null) {
+            return new ArrayList<>();
+        }
+        return search(current, vector, limit, Collections.singleton(articleId));
+    }
+
+    /**
+     * Nearest published articles to the centroid of the seed articles, skipping excluded ids.
+     * Used for cold-start candidates from a handful of recent reads.
+     */
+    public List<Long> findNearestToArticles(Collection<Long> seedIds, int limit, Set<Long> excludeIds) {
+        HnswIndex current = index;
+        if (current == null || seedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        float[] centroid = new float[current.dimensions()];
+        int seeds = 0;
+        for (Long seedId : seedIds) {
+            float[] vector = current.vector(seedId);
+            if (vector != null) {
+                for (int i = 0; i < centroid.length; i++) {
+                    centroid[i] += vector[i];
+                }
+                seeds++;
+            }
+        }
+        if (seeds == 0) {
+            return new ArrayList<>();
+        }
+        Set<Long> skip = new HashSet<>(excludeIds);
+        skip.addAll(seedIds);
+        return search(current, centroid, limit, skip);
+    }
+
+    /**
+     * Cosine similarity of two articles' embeddings, or {@code Double.NaN} if either is not indexed.
+     */
+    public double similarity(Long firstId, Long secondId) {
+        HnswIndex current = index;
+        return current != null ? current.similarity(firstId, secondId) : Double.NaN;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            embeddingExecutor.execute(this::loadOrBuild);
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule the article embedding index build: {}", e.getMessage());
+        }
+    }
+
+    private void loadOrBuild() {
+        Path path = Paths.get(indexPath);
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                LocalDateTime writtenAt = LocalDateTime.ofInstant(Files.getLastModifiedTime(path).toInstant(),
+                        ZoneId.systemDefault());
+                HashedTfIdfVectorizer loadedVectorizer = HashedTfIdfVectorizer.readFrom(in);
+                HnswIndex loadedIndex = HnswIndex.readFrom(in);
+                if (loadedIndex.dimensions() == dimensions) {
+                    synchronized (this) {
+                        vectorizer = loadedVectorizer;
+                        index = loadedIndex;
+                    }
+                    log.info("Loaded article embedding index with {} articles from {}", loadedIndex.size(), path);
+                    reconcile(writtenAt.minusSeconds(RECONCILE_OVERLAP_SECONDS));
+                    return;
+                }
+                log.info("Embedding dimensions changed, rebuilding article embedding index");
+            } catch (IOException e) {
+                log.warn("Could not load article embedding index from {}: {}", path, e.getMessage());
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Rebuilds IDF statistics and the index from every published article. Runs on the
+     * embedding worker, so no update is applied to the old index while the new one is built.
+     */
+    void rebuild() {
+        HashedTfIdfVectorizer freshVectorizer = new HashedTfIdfVectorizer(HASH_BUCKETS, dimensions);
+        forEachPublishedText((id, text) -> freshVectorizer.observe(text));
+
+        HnswIndex freshIndex = new HnswIndex(dimensions, MAX_CONNECTIONS, EF_CONSTRUCTION);
+        forEachPublishedText((id, text) -> freshIndex.add(id, freshVectorizer.vectorize(text)));
+
+        synchronized (this) {
+            vectorizer = freshVectorizer;
+            index = freshIndex;
+            dirty = true;
+        }
+        log.info("Built article embedding index with {} articles", freshIndex.size());
+        persistIfDirty();
+    }
+
+    /**
+     * Brings a loaded index up to date: re-embeds published articles changed since
+     * {@code since} and drops ids that are no longer published.
+     */
+    synchronized void reconcile(LocalDateTime since) {
+        HnswIndex current = index;
+        if (current == null) {
+            return;
+        }
+        int[] updated = {0};
+        forEachPage(afterId -> articleRepository.findPublishedTextUpdatedSinceAfter(since, afterId,
+                PageRequest.of(0, BOOTSTRAP_PAGE_SIZE)), (id, text) -> {
+            embed(current, id, text);
+            updated[0]++;
+        });
+
+        Set<Long> published = new HashSet<>(articleRepository.findPublishedIds());
+        int removed = 0;
+        for (long id : current.ids()) {
+            if (!published.contains(id) && current.remove(id)) {
+                removed++;
+            }
+        }
+        if (updated[0] > 0 || removed > 0) {
+            dirty = true;
+            log.info("Reconciled article embedding index: {} re-embedded, {} removed", updated[0], removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleSaved(ArticleSavedEvent event) {
+        Long articleId = event.getArticleId();
+        if (!event.isPublished()) {
+            update(() -> dirty |= index.remove(articleId));
+            return;
+        }
+        String text = documentText(event.getTitle(), event.getSummary(), event.getContent());
+        update(() -> {
+            embed(index, articleId, text);
+            dirty = true;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        Long articleId = event.getArticleId();
+        update(() -> dirty |= index.remove(articleId));
+    }
+
+    // Applies the change on the worker once the index exists; a change made before that is in the build
+    private void update(Runnable change) {
+        try {
+            embeddingExecutor.execute(() -> {
+                synchronized (this) {
+                    if (index != null) {
+                        change.run();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            missedSince.accumulateAndGet(LocalDateTime.now().minusSeconds(RECONCILE_OVERLAP_SECONDS),
+                    (previous, now) -> previous != null ? previous : now);
+            log.warn("Embedding update queue is full; the change will be reconciled before the next persist");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendation.embeddings.persist-interval-ms:300000}")
+    public void persistIfDirty() {
+        LocalDateTime since = missedSince.getAndSet(null);
+        if (since != null) {
+            reconcile(since);
+        }
+        // Writers take turns so an older snapshot never replaces a newer file; updates only need the monitor
+        synchronized (writeLock) {
+            byte[] snapshot;
+            synchronized (this) {
+                HnswIndex current = index;
+                if (current == null) {
+                    if (since != null) {
+                        missedSince.compareAndSet(null, since);
+                    }
+                    return;
+                }
+                if (current.deletedRatio() > COMPACT_DELETED_RATIO) {
+                    current = current.compact();
+                    index = current;
+                    dirty = true;
+                }
+                if (!dirty) {
+                    return;
+                }
+                snapshot = serialize(vectorizer, current);
+                dirty = false;
+            }
+            if (!write(snapshot)) {
+                dirty = true;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistIfDirty();
+    }
+
+    private static byte[] serialize(HashedTfIdfVectorizer vectorizer, HnswIndex index) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            vectorizer.writeTo(out);
+            index.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean write(byte[] snapshot) {
+        Path path = Paths.get(indexPath);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // Write to a sibling temp file and move it into place so a crash never leaves a torn index
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to persist article embedding index to {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void embed(HnswIndex current, Long articleId, String text) {
+        if (!current.contains(articleId)) {
+            // Edits re-embed with existing statistics so a document is only counted once
+            vectorizer.observe(text);
+        }
+        current.add(articleId, vectorizer.vectorize(text));
+    }
+
+    private List<Long> search(HnswIndex current, float[] query, int limit, Set<Long> skip) {
+        int k = Math.min(limit, maxResults);
+        List<Long> ids = new ArrayList<>(k);
+        for (HnswIndex.Neighbor neighbor : current.search(query, k + skip.size(), efSearch)) {
+            if (!skip.contains(neighbor.getId())) {
+                ids.add(neighbor.getId());
+                if (ids.size() == k) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void forEachPublishedText(TextConsumer consumer) {
+        forEachPage(afterId -> articleRepository.findPublishedTextAfter(afterId, PageRequest.of(0, BOOTSTRAP_PAGE_SIZE)),
+                consumer);
+    }
+
+    // Walks keyset pages of [id, title, summary, content] rows
+    private void forEachPage(Function<Long, List<Object[]>> pageAfter, TextConsumer consumer) {
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> page = pageAfter.apply(afterId);
+            for (Object[] row : page) {
+                consumer.accept((Long) row[0], documentText((String) row[1], (String) row[2], (String) row[3]));
+            }
+            if (page.size() < BOOTSTRAP_PAGE_SIZE) {
+                return;
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+    }
+
+    private static String documentText(String title, String summary, String content) {
+        // Title and summary are repeated so they weigh more than an equal share of body text
+        StringBuilder text = new StringBuilder();
+        if (title != null) {
+            text.append(title).append(' ').append(title).append(' ');
+        }
+        if (summary != null) {
+            text.append(summary).append(' ');
+        }
+        if (content != null) {
+            text.append(content);
+        }
+        return text.toString();
+    }
+
+    @FunctionalInterface
+    private interface TextConsumer {
+        void accept(Long articleId, String text);
+    }
+}
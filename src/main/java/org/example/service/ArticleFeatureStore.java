@@ -0,0 +1,373 @@
+package org.example.service;
+
+import org.example.event.ArticleDeletedEvent;
+import org.example.repository.ArticleRepository;
+import org.example.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Struct-of-arrays snapshot of published article features used by the ranking code.
+ *
+ * Each article occupies one row across primitive columns, with its tags as a bitset over
+ * a store-wide tag dictionary. Snapshots are immutable: refreshes build a patched copy and
+ * swap it in, so scorers read a consistent view without locking or touching JPA entities.
+ */
+@Service
+public class ArticleFeatureStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleFeatureStore.class);
+
+    public static final long NOT_PUBLISHED = Long.MIN_VALUE;
+
+    // Re-read rows touched slightly before the previous watermark to cover in-flight transactions
+    private static final long WATERMARK_OVERLAP_SECONDS = 5;
+
+    private final ArticleRepository articleRepository;
+
+    // Append-only tag dictionary; bit positions never change once assigned
+    private final Map<String, Integer> tagIndex = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+    private LocalDateTime watermark;
+
+    public ArticleFeatureStore(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = rebuildIfMissing();
+        }
+        return current;
+    }
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NOT_PUBLISHED;
+    }
+
+    /**
+     * Reloads every published article and drops tombstoned rows.
+     */
+    @Scheduled(fixedDelayString = "${app.recommendation.features.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.recommendation.features.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Object[]> rows = articleRepository.findPublishedFeatureRows();
+        List<Object[]> tagRows = articleRepository.findPublishedTagRows();
+
+        Builder builder = new Builder(null, rows.size());
+        for (Object[] row : rows) {
+            builder.upsert(row);
+        }
+        builder.applyTags(tagRows, tagIndex);
+        snapshot = builder.build(tagIndex);
+        watermark = startedAt.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+        log.debug("Rebuilt article feature store with {} articles and {} tags", rows.size(), tagIndex.size());
+    }
+
+    /**
+     * Applies articles created, edited, published or unpublished since the last refresh.
+     */
+    @Scheduled(fixedDelayString = "${app.recommendation.features.refresh-interval-ms:15000}")
+    public synchronized void refresh() {
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Object[]> rows = articleRepository.findFeatureRowsUpdatedSince(watermark);
+        if (!rows.isEmpty()) {
+            List<Object[]> tagRows = articleRepository.findTagRowsUpdatedSince(watermark);
+            Builder builder = new Builder(snapshot, rows.size());
+            for (Object[] row : rows) {
+                builder.upsert(row);
+            }
+            builder.applyTags(tagRows, tagIndex);
+            snapshot = builder.build(tagIndex);
+            log.debug("Refreshed {} rows in article feature store", rows.size());
+        }
+        watermark = startedAt.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArticleDeleted(ArticleDeletedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null || current.rowOf(event.getArticleId()) < 0) {
+            return;
+        }
+        Builder builder = new Builder(current, 0);
+        builder.remove(event.getArticleId());
+        snapshot = builder.build(tagIndex);
+    }
+
+    private synchronized Snapshot rebuildIfMissing() {
+        if (snapshot == null) {
+            rebuild();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Immutable columnar view of article features. Rows are addressed by index; use
+     * {@link #rowOf(long)} to map an article id to its row.
+     */
+    public static final class Snapshot {
+
+        private final int size;
+        private final long[] ids;
+        private final long[] authorIds;
+        private final int[] contentLengths;
+        private final int[] readTimeMinutes;
+        private final long[] viewCounts;
+        private final long[] likeCounts;
+        private final long[] commentCounts;
+        private final long[] clapCounts;
+        private final long[] publishedEpochSeconds;
+        private final long[][] tagBits;
+        private final boolean[] live;
+        private final LongIntHashMap rowById;
+        private final Map<String, Integer> tagIndex;
+
+        private Snapshot(Builder builder, Map<String, Integer> tagIndex) {
+            this.size = builder.size;
+            this.ids = builder.ids;
+            this.authorIds = builder.authorIds;
+            this.contentLengths = builder.contentLengths;
+            this.readTimeMinutes = builder.readTimeMinutes;
+            this.viewCounts = builder.viewCounts;
+            this.likeCounts = builder.likeCounts;
+            this.commentCounts = builder.commentCounts;
+            this.clapCounts = builder.clapCounts;
+            this.publishedEpochSeconds = builder.publishedEpochSeconds;
+            this.tagBits = builder.tagBits;
+            this.live = builder.live;
+            this.rowById = builder.rowById;
+            this.tagIndex = tagIndex;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Row of a published article, or -1 if the article is unknown, unpublished or deleted.
+         */
+        public int rowOf(long articleId) {
+            int row = rowById.get(articleId);
+            return row >= 0 && live[row] ? row : -1;
+        }
+
+        public long id(int row) {
+            return ids[row];
+        }
+
+        public long authorId(int row) {
+            return authorIds[row];
+        }
+
+        public int contentLength(int row) {
+            return contentLengths[row];
+        }
+
+        public int readTimeMinutes(int row) {
+            return readTimeMinutes[row];
+        }
+
+        public long viewCount(int row) {
+            return viewCounts[row];
+        }
+
+        public long likeCount(int row) {
+            return likeCounts[row];
+        }
+
+        public long commentCount(int row) {
+            return commentCounts[row];
+        }
+
+        public long clapCount(int row) {
+            return clapCounts[row];
+        }
+
+        /**
+         * Publish time as UTC-normalised epoch seconds, or {@link #NOT_PUBLISHED}.
+         */
+        public long publishedEpochSecond(int row) {
+            return publishedEpochSeconds[row];
+        }
+
+        /**
+         * Builds a bitset over this store's tag dictionary; unknown tags are ignored.
+         */
+        public long[] tagBits(Collection<String> tagNames) {
+            long[] bits = new long[0];
+            for (String tagName : tagNames) {
+                Integer index = tagIndex.get(tagName);
+                if (index != null) {
+                    if ((index >>> 6) >= bits.length) {
+                        bits = Arrays.copyOf(bits, (index >>> 6) + 1);
+                    }
+                    bits[index >>> 6] |= 1L << index;
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * Bit position of the tag in this store's dictionary, or -1 if no article has it.
+         */
+        public int tagBit(String tagName) {
+            Integer index = tagIndex.get(tagName);
+            return index != null ? index : -1;
+        }
+
+        public long[] tagBits(int row) {
+            return tagBits[row];
+        }
+
+        public int tagCount(int row) {
+            int count = 0;
+            for (long word : tagBits[row]) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * Number of the row's tags that are also set in {@code query}.
+         */
+        public int sharedTagCount(int row, long[] query) {
+            long[] bits = tagBits[row];
+            int words = Math.min(bits.length, query.length);
+            int count = 0;
+            for (int i = 0; i < words; i++) {
+                count += Long.bitCount(bits[i] & query[i]);
+            }
+            return count;
+        }
+
+        /**
+         * Number of distinct tags set in either the row or {@code query}.
+         */
+        public int unionTagCount(int row, long[] query) {
+            long[] bits = tagBits[row];
+            int words = Math.max(bits.length, query.length);
+            int count = 0;
+            for (int i = 0; i < words; i++) {
+                long a = i < bits.length ? bits[i] : 0L;
+                long b = i < query.length ? query[i] : 0L;
+                count += Long.bitCount(a | b);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Copy-on-write builder: starts from an existing snapshot's columns (or empty),
+     * patches rows in place on the copies and appends new ones.
+     */
+    private static final class Builder {
+
+        private static final long[] NO_TAGS = new long[0];
+
+        int size;
+        long[] ids;
+        long[] authorIds;
+        int[] contentLengths;
+        int[] readTimeMinutes;
+        long[] viewCounts;
+        long[] likeCounts;
+        long[] commentCounts;
+        long[] clapCounts;
+        long[] publishedEpochSeconds;
+        long[][] tagBits;
+        boolean[] live;
+        LongIntHashMap rowById;
+        // Rows whose tags are replaced by this refresh
+        private final Set<Integer> touchedRows = new HashSet<>();
+
+        Builder(Snapshot base, int additionalRows) {
+            int baseSize = base != null ? base.size : 0;
+            int capacity = Math.max(16, baseSize + additionalRows);
+            size = baseSize;
+            ids = base != null ? Arrays.copyOf(base.ids, capacity) : new long[capacity];
+            authorIds = base != null ? Arrays.copyOf(base.authorIds, capacity) : new long[capacity];
+            contentLengths = base != null ? Arrays.copyOf(base.contentLengths, capacity) : new int[capacity];
+            readTimeMinutes = base != null ? Arrays.copyOf(base.readTimeMinutes, capacity) : new int[capacity];
+            viewCounts = base != null ? Arrays.copyOf(base.viewCounts, capacity) : new long[capacity];
+            likeCounts = base != null ? Arrays.copyOf(base.likeCounts, capacity) : new long[capacity];
+            commentCounts = base != null ? Arrays.copyOf(base.commentCounts, capacity) : new long[capacity];
+            clapCounts = base != null ? Arrays.copyOf(base.clapCounts, capacity) : new long[capacity];
+            publishedEpochSeconds = base != null ? Arrays.copyOf(base.publishedEpochSeconds, capacity) : new long[capacity];
+            tagBits = base != null ? Arrays.copyOf(base.tagBits, capacity) : new long[capacity][];
+            live = base != null ? Arrays.copyOf(base.live, capacity) : new boolean[capacity];
+            rowById = base != null ? base.rowById.copy() : new LongIntHashMap(capacity);
+        }
+
+        void upsert(Object[] row) {
+            long id = (Long) row[0];
+            int index = rowById.get(id);
+            boolean published = Boolean.TRUE.equals(row[9]);
+            if (index < 0 && !published) {
+                return;
+            }
+            if (index < 0) {
+                index = size++;
+                rowById.put(id, index);
+            }
+            ids[index] = id;
+            authorIds[index] = (Long) row[1];
+            contentLengths[index] = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            readTimeMinutes[index] = row[3] != null ? ((Number) row[3]).intValue() : 0;
+            viewCounts[index] = longValue(row[4]);
+            likeCounts[index] = longValue(row[5]);
+            commentCounts[index] = longValue(row[6]);
+            clapCounts[index] = longValue(row[7]);
+            publishedEpochSeconds[index] = toEpochSecond((LocalDateTime) row[8]);
+            live[index] = published;
+            tagBits[index] = NO_TAGS;
+            touchedRows.add(index);
+        }
+
+        void applyTags(List<Object[]> tagRows, Map<String, Integer> dictionary) {
+            for (Object[] tagRow : tagRows) {
+                int index = rowById.get((Long) tagRow[0]);
+                if (index < 0 || !touchedRows.contains(index)) {
+                    continue;
+                }
+                int bit = dictionary.computeIfAbsent((String) tagRow[1], name -> dictionary.size());
+                long[] bits = tagBits[index];
+                if ((bit >>> 6) >= bits.length) {
+                    bits = Arrays.copyOf(bits, (bit >>> 6) + 1);
+                }
+                bits[bit >>> 6] |= 1L << bit;
+                tagBits[index] = bits;
+            }
+        }
+
+        void remove(long articleId) {
+            int index = rowById.get(articleId);
+            if (index >= 0) {
+                live[index] = false;
+            }
+        }
+
+        Snapshot build(Map<String, Integer> dictionary) {
+            return new Snapshot(this, dictionary);
+        }
+
+        private long longValue(Object value) {
+            return value != null ? ((Number) value).longValue() : 0L;
+        }
+    }
+}
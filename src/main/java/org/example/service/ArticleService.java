@@ -3,7 +3,13 @@ package org.example.service;
 import org.example.dto.*;
 import org.example.entity.*;
 import org.example.repository.*;
+import org.example.event.ArticleDeletedEvent;
+import org.example.event.ArticleReadEvent;
+import org.example.event.ArticleSavedEvent;
+import org.example.event.ArticleTagsChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,6 +35,11 @@ public class ArticleService {
     private final ArticleAnalyticsRepository articleAnalyticsRepository;
     private final ShareRepository shareRepository;
     private final ArticleCollectionRepository articleCollectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadArticleIndex readArticleIndex;
+    private final TagPostingIndex tagPostingIndex;
+    private final AnalyticsIngestionService analyticsIngestionService;
+    private final UniqueViewerService uniqueViewerService;
 
     @Transactional
     public ArticleResponseDto createArticle(ArticleCreateDto dto, String authorUsername) {
@@ -55,6 +66,8 @@ public class ArticleService {
         // Create initial version
         ArticleVersion version = new ArticleVersion(1, saved.getTitle(), saved.getContent(), saved, author);
         articleVersionRepository.save(version);
+        publishSaved(saved);
+        publishTagChanges(saved.getId(), Set.of(), liveTagNames(saved));
         return toResponseDto(saved, author, false);
     }
 
@@ -64,6 +77,7 @@ public class ArticleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
         User editor = userRepository.findByUsername(editorUsername)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Set<String> liveTagsBefore = liveTagNames(article);
         boolean changed = false;
         if (dto.getTitle() != null) { article.setTitle(dto.getTitle()); changed = true; }
         if (dto.getContent() != null) { article.setContent(dto.getContent()); changed = true; }
@@ -89,17 +103,23 @@ public class ArticleService {
                     .stream().mapToInt(ArticleVersion::getVersionNumber).max().orElse(0) + 1;
             ArticleVersion version = new ArticleVersion(nextVersion, saved.getTitle(), saved.getContent(), saved, editor);
             articleVersionRepository.save(version);
+            publishSaved(saved);
+            publishTagChanges(articleId, liveTagsBefore, liveTagNames(saved));
         }
         return toResponseDto(article, editor, false);
     }
 
+    @Transactional
     public void deleteArticle(Long articleId, String username) {
         Article article = articleRepository.findById(articleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
         if (!article.getAuthor().getUsername().equals(username)) {
             throw new ForbiddenException("You are not the author of this article");
         }
+        Set<String> liveTags = liveTagNames(article);
         articleRepository.delete(article);
+        eventPublisher.publishEvent(new ArticleDeletedEvent(articleId));
+        publishTagChanges(articleId, liveTags, Set.of());
     }
 
     public ArticleResponseDto getArticleBySlug(String slug, String currentUsername) {
@@ -108,13 +128,13 @@ public class ArticleService {
         article.incrementViewCount();
         articleRepository.save(article);
         boolean liked = false;
-        if (currentUsername != null) {
-            User user = userRepository.findByUsername(currentUsername).orElse(null);
-            if (user != null) {
-                liked = articleLikeRepository.findByArticleAndUser(article, user).isPresent();
-                // Record reading history for authenticated users
-                recordReadingHistory(user, article);
-            }
+        User user = currentUsername != null ? userRepository.findByUsername(currentUsername).orElse(null) : null;
+        analyticsIngestionService.recordView(article.getId(),
+                uniqueViewerService.viewerHash(user != null ? user.getId() : null));
+        if (user != null) {
+            liked = articleLikeRepository.findByArticleAndUser(article, user).isPresent();
+            // Record reading history for authenticated users
+            recordReadingHistory(user, article);
         }
         return toResponseDto(article, article.getAuthor(), liked);
     }
@@ -124,22 +144,41 @@ public class ArticleService {
         return versions.stream().map(this::toVersionDto).collect(Collectors.toList());
     }
 
-    public Page<ArticleResponseDto> getFeed(List<Long> followedUserIds, int page, int size) {
+    public Page<ArticleResponseDto> getFeed(List<Long> followedUserIds, int page, int size, String currentUsername) {
         Pageable pageable = PageRequest.of(page, size);
-        return articleRepository.findFeedByFollowedUsers(followedUserIds, pageable)
+        return deRankRead(articleRepository.findFeedByFollowedUsers(followedUserIds, pageable), currentUsername)
                 .map(a -> toResponseDto(a, a.getAuthor(), false));
     }
 
-    public Page<ArticleResponseDto> getTrending(int page, int size) {
+    public Page<ArticleResponseDto> getTrending(int page, int size, String currentUsername) {
         Pageable pageable = PageRequest.of(page, size);
-        return articleRepository.findTrending(pageable)
+        return deRankRead(articleRepository.findTrending(pageable), currentUsername)
                 .map(a -> toResponseDto(a, a.getAuthor(), false));
     }
 
+    // Moves articles the reader has already read to the end of the page, keeping page boundaries stable
+    private Page<Article> deRankRead(Page<Article> articles, String currentUsername) {
+        if (currentUsername == null || articles.isEmpty()) {
+            return articles;
+        }
+        Long userId = userRepository.findByUsername(currentUsername).map(User::getId).orElse(null);
+        List<Article> ordered = readArticleIndex.deRankRead(userId, articles.getContent(), Article::getId);
+        return new PageImpl<>(ordered, articles.getPageable(), articles.getTotalElements());
+    }
+
     public Page<ArticleResponseDto> searchArticles(String keyword, Set<String> tags, String author, LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         if (tags != null && !tags.isEmpty()) {
-            return articleRepository.findByTags(tags, pageable).map(a -> toResponseDto(a, a.getAuthor(), false));
+            // Tag matches come from in-memory posting lists, newest first; only the page is loaded
+            Page<Long> ids = tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(tags), pageable);
+            Map<Long, Article> byId = articleRepository.findAllById(ids.getContent()).stream()
+                    .collect(Collectors.toMap(Article::getId, a -> a));
+            List<ArticleResponseDto> content = ids.getContent().stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .map(a -> toResponseDto(a, a.getAuthor(), false))
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, pageable, ids.getTotalElements());
         } else if (author != null) {
             return articleRepository.findByAuthor(author, pageable).map(a -> toResponseDto(a, a.getAuthor(), false));
         } else if (startDate != null && endDate != null) {
@@ -213,20 +252,49 @@ public class ArticleService {
         return dto;
     }
 
+    private void publishSaved(Article article) {
+        Set<String> tagNames = article.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
+        eventPublisher.publishEvent(new ArticleSavedEvent(article.getId(), article.getAuthor().getId(),
+                article.isPublished(), article.getTitle(), article.getSummary(), article.getContent(), tagNames));
+    }
+
+    // Tags only count as used while the article is published
+    private static Set<String> liveTagNames(Article article) {
+        if (!article.isPublished()) {
+            return Set.of();
+        }
+        return article.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
+    }
+
+    private void publishTagChanges(Long articleId, Set<String> before, Set<String> after) {
+        Set<String> added = new HashSet<>(after);
+        added.removeAll(before);
+        Set<String> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            eventPublisher.publishEvent(new ArticleTagsChangedEvent(articleId, added, removed));
+        }
+    }
+
     private void recordReadingHistory(User user, Article article) {
         try {
             // Check if reading history already exists
             Optional<ReadingHistory> existing = readingHistoryRepository.findByUserAndArticle(user, article);
+            LocalDateTime readAt = LocalDateTime.now();
             if (existing.isPresent()) {
                 // Update the read timestamp
                 ReadingHistory history = existing.get();
-                history.setReadAt(LocalDateTime.now());
+                history.setReadAt(readAt);
                 readingHistoryRepository.save(history);
             } else {
                 // Create new reading history
-                ReadingHistory history = new ReadingHistory(user, article, LocalDateTime.now());
+                ReadingHistory history = new ReadingHistory(user, article, readAt);
                 readingHistoryRepository.save(history);
             }
+            Set<String> tagNames = article.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
+            int contentLength = article.getContent() != null ? article.getContent().length() : 0;
+            eventPublisher.publishEvent(new ArticleReadEvent(user.getId(), article.getId(), article.getAuthor().getId(),
+                    tagNames, contentLength, article.getReadTimeMinutes(), readAt, existing.isEmpty()));
         } catch (Exception e) {
             // Log error but don't fail the article request
             System.err.println("Failed to record reading history: " + e.getMessage());
@@ -0,0 +1,221 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.repository.ArticleRepository;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Fans candidate generation out to several sources on a bounded executor and merges
+ * whatever has returned when the per-request latency budget runs out.
+ *
+ * Sources return article ids only so no JPA state crosses threads; callers hydrate
+ * the merged ids on their own thread.
+ */
+@Service
+public class CandidateGenerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateGenerationService.class);
+
+    public static final String SOURCE_INTERESTS = "interests";
+    public static final String SOURCE_TRENDING = "trending";
+    public static final String SOURCE_FOLLOWED_AUTHORS = "followed-authors";
+    public static final String SOURCE_SIMILAR_ITEMS = "similar-items";
+    public static final String SOURCE_CO_VISITATION = "co-visitation";
+
+    private static final int RECENT_SEED_SIZE = 5;
+
+    private final ArticleRepository articleRepository;
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final UserRepository userRepository;
+    private final ArticleEmbeddingService articleEmbeddingService;
+    private final CoVisitationService coVisitationService;
+    private final TagPostingIndex tagPostingIndex;
+    private final TaskExecutor candidateExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.recommendation.candidates.budget-ms:150}")
+    private long budgetMillis;
+
+    @Value("${app.recommendation.candidates.per-source-limit:50}")
+    private int perSourceLimit;
+
+    public CandidateGenerationService(ArticleRepository articleRepository,
+                                      ReadingHistoryRepository readingHistoryRepository,
+                                      UserRepository userRepository,
+                                      ArticleEmbeddingService articleEmbeddingService,
+                                      CoVisitationService coVisitationService,
+                                      TagPostingIndex tagPostingIndex,
+                                      @Qualifier("candidateExecutor") TaskExecutor candidateExecutor,
+                                      MeterRegistry meterRegistry) {
+        this.articleRepository = articleRepository;
+        this.readingHistoryRepository = readingHistoryRepository;
+        this.userRepository = userRepository;
+        this.articleEmbeddingService = articleEmbeddingService;
+        this.coVisitationService = coVisitationService;
+        this.tagPostingIndex = tagPostingIndex;
+        this.candidateExecutor = candidateExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns candidate article ids for the user, ordered by source and then by each
+     * source's own ranking, without duplicates and without any id matching {@code exclude}.
+     */
+    public List<Long> generateCandidates(Long userId, Set<String> interests, LongPredicate exclude) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        // Both item-based sources seed from the same recent reads; whichever runs first loads them
+        Supplier<List<Long>> recentReads = once(() -> findRecentlyReadIds(userId));
+
+        Map<String, Supplier<List<Long>>> sources = new LinkedHashMap<>();
+        sources.put(SOURCE_INTERESTS, () -> findInterestCandidates(interests));
+        sources.put(SOURCE_FOLLOWED_AUTHORS, () -> findFollowedAuthorCandidates(userId));
+        sources.put(SOURCE_SIMILAR_ITEMS, () -> findSimilarItemCandidates(recentReads.get()));
+        sources.put(SOURCE_CO_VISITATION, () -> findCoVisitationCandidates(recentReads.get()));
+        sources.put(SOURCE_TRENDING, () -> articleRepository.findTrendingIds(PageRequest.of(0, perSourceLimit)));
+
+        Map<String, CompletableFuture<List<Long>>> pending = new LinkedHashMap<>();
+        sources.forEach((name, source) -> pending.put(name, submit(name, source)));
+
+        Set<Long> merged = new LinkedHashSet<>();
+        for (Map.Entry<String, CompletableFuture<List<Long>>> entry : pending.entrySet()) {
+            for (Long articleId : await(entry.getKey(), entry.getValue(), deadline)) {
+                if (!exclude.test(articleId)) {
+                    merged.add(articleId);
+                }
+            }
+        }
+
+        Timer.builder("recommendation.candidates")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new ArrayList<>(merged);
+    }
+
+    private CompletableFuture<List<Long>> submit(String source, Supplier<List<Long>> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(source, supplier), candidateExecutor);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: skip this source rather than queue behind other requests
+            meterRegistry.counter("recommendation.candidates.rejected", "source", source).increment();
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+    }
+
+    private List<Long> timed(String source, Supplier<List<Long>> supplier) {
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder("recommendation.candidates.source")
+                    .tag("source", source)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<Long> await(String source, CompletableFuture<List<Long>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The query keeps its worker until it finishes; the request simply stops waiting for it
+            future.cancel(true);
+            meterRegistry.counter("recommendation.candidates.timeouts", "source", source).increment();
+            log.debug("Candidate source {} missed the {} ms budget", source, budgetMillis);
+        } catch (ExecutionException e) {
+            log.warn("Candidate source {} failed: {}", source, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.emptyList();
+    }
+
+    private List<Long> findInterestCandidates(Set<String> interests) {
+        if (interests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(interests),
+                PageRequest.of(0, perSourceLimit)).getContent();
+    }
+
+    private List<Long> findFollowedAuthorCandidates(Long userId) {
+        List<Long> followingIds = userRepository.findFollowingIds(userId);
+        if (followingIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return articleRepository.findRecentIdsByAuthorIds(followingIds, PageRequest.of(0, perSourceLimit));
+    }
+
+    private List<Long> findSimilarItemCandidates(List<Long> recentIds) {
+        if (recentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Content embeddings also reach untagged articles; tags are the fallback until the index is ready
+        List<Long> nearest = articleEmbeddingService.findNearestToArticles(recentIds, perSourceLimit, Collections.emptySet());
+        if (!nearest.isEmpty()) {
+            return nearest;
+        }
+        Set<String> recentTags = articleRepository.findTagNamesByArticleIds(recentIds);
+        if (recentTags.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(recentTags),
+                PageRequest.of(0, perSourceLimit)).getContent();
+    }
+
+    private List<Long> findCoVisitationCandidates(List<Long> recentIds) {
+        if (recentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Recent reads come back newest first; co-visitation weighs the last entry most
+        List<Long> session = new ArrayList<>(recentIds);
+        Collections.reverse(session);
+        return coVisitationService.findAlsoRead(session, perSourceLimit, Collections.emptySet());
+    }
+
+    private List<Long> findRecentlyReadIds(Long userId) {
+        return readingHistoryRepository.findRecentArticleIdsByUserId(userId, PageRequest.of(0, RECENT_SEED_SIZE));
+    }
+
+    /**
+     * Runs {@code supplier} on the first call only; concurrent and later callers wait for and
+     * share that result, or its failure.
+     */
+    private static <T> Supplier<T> once(Supplier<T> supplier) {
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        return () -> {
+            if (started.compareAndSet(false, true)) {
+                try {
+                    result.complete(supplier.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+            return result.join();
+        };
+    }
+}
@@ -0,0 +1,289 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.util.TopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts articles read close together in time by the same reader ("readers also read").
+ *
+ * Each article keeps a bounded list of co-visited neighbours in primitive arrays; when a
+ * list overflows it is pruned back to the strongest neighbours. Counts are seeded in the
+ * background at startup from the last {@code history-days} of reading history, then
+ * updated from live reads.
+ */
+@Service
+public class CoVisitationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoVisitationService.class);
+
+    private static final int BOOTSTRAP_READER_BATCH = 500;
+
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final TaskExecutor bootstrapExecutor;
+
+    @Value("${app.recommendation.co-visitation.window-minutes:30}")
+    private long windowMinutes;
+
+    @Value("${app.recommendation.co-visitation.max-neighbors:50}")
+    private int maxNeighbors;
+
+    @Value("${app.recommendation.co-visitation.session-size:10}")
+    private int sessionSize;
+
+    @Value("${app.recommendation.co-visitation.active-readers:100000}")
+    private int activeReaders;
+
+    @Value("${app.recommendation.co-visitation.history-days:90}")
+    private long historyDays;
+
+    private final Map<Long, NeighborList> neighbors = new ConcurrentHashMap<>();
+
+    private Cache<Long, RecentReads> recentReadsByUser;
+
+    public CoVisitationService(ReadingHistoryRepository readingHistoryRepository,
+                               @Qualifier("recommendationRefreshExecutor") TaskExecutor bootstrapExecutor) {
+        this.readingHistoryRepository = readingHistoryRepository;
+        this.bootstrapExecutor = bootstrapExecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        recentReadsByUser = Caffeine.newBuilder()
+                .maximumSize(activeReaders)
+                .expireAfterAccess(windowMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Articles most often read alongside the given session, best first. Later entries in
+     * {@code recentIds} are treated as more recent and weigh more.
+     */
+    public List<Long> findAlsoRead(List<Long> recentIds, int limit, Set<Long> excludeIds) {
+        Map<Long, Double> scores = new HashMap<>();
+        int seeds = recentIds.size();
+        for (int position = 0; position < seeds; position++) {
+            NeighborList list = neighbors.get(recentIds.get(position));
+            if (list == null) {
+                continue;
+            }
+            double recencyWeight = 1.0 / (seeds - position);
+            list.accumulate(scores, recencyWeight);
+        }
+
+        Set<Long> skip = new HashSet<>(excludeIds);
+        skip.addAll(recentIds);
+        long[] ids = new long[scores.size()];
+        double[] values = new double[scores.size()];
+        int count = 0;
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (!skip.contains(entry.getKey())) {
+                ids[count] = entry.getKey();
+                values[count] = entry.getValue();
+                count++;
+            }
+        }
+
+        int[] top = TopK.select(values, count, limit);
+        List<Long> result = new ArrayList<>(top.length);
+        for (int index : top) {
+            result.add(ids[index]);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        // Reads from now on arrive as events, so the replay stops here to avoid counting them twice
+        LocalDateTime until = LocalDateTime.now();
+        try {
+            bootstrapExecutor.execute(() -> {
+                try {
+                    seed(until.minusDays(historyDays), until);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to seed co-visitation counts: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule co-visitation seeding; counts will build up from live reads");
+        }
+    }
+
+    private void seed(LocalDateTime since, LocalDateTime until) {
+        long windowSeconds = TimeUnit.MINUTES.toSeconds(windowMinutes);
+        long afterUserId = 0L;
+        int pairs = 0;
+        while (true) {
+            List<Long> readerIds = readingHistoryRepository.findReaderIdsReadingBetween(afterUserId, since, until,
+                    PageRequest.of(0, BOOTSTRAP_READER_BATCH));
+            if (readerIds.isEmpty()) {
+                break;
+            }
+            // Rows arrive grouped by reader in read order; replay each reader's sliding window
+            RecentReads window = null;
+            Long currentUser = null;
+            for (Object[] row : readingHistoryRepository.findReadsByUserIdsBetween(readerIds, since, until)) {
+                Long userId = (Long) row[0];
+                if (!userId.equals(currentUser)) {
+                    currentUser = userId;
+                    window = new RecentReads(sessionSize);
+                }
+                pairs += record(window, (Long) row[1], toEpochSecond((LocalDateTime) row[2]), windowSeconds);
+            }
+            afterUserId = readerIds.get(readerIds.size() - 1);
+        }
+        log.info("Seeded co-visitation counts for {} articles from {} read pairs", neighbors.size(), pairs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleRead(ArticleReadEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        RecentReads window = recentReadsByUser.get(event.getUserId(), id -> new RecentReads(sessionSize));
+        record(window, event.getArticleId(), toEpochSecond(event.getReadAt()), TimeUnit.MINUTES.toSeconds(windowMinutes));
+    }
+
+    private int record(RecentReads window, long articleId, long readAt, long windowSeconds) {
+        long[] coVisited;
+        synchronized (window) {
+            coVisited = window.add(articleId, readAt, windowSeconds);
+        }
+        if (coVisited == null) {
+            return 0;
+        }
+        for (long otherId : coVisited) {
+            neighbors.computeIfAbsent(articleId, id -> new NeighborList(maxNeighbors)).increment(otherId);
+            neighbors.computeIfAbsent(otherId, id -> new NeighborList(maxNeighbors)).increment(articleId);
+        }
+        return coVisited.length;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return (dateTime != null ? dateTime : LocalDateTime.now()).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * A reader's most recent reads inside the co-visitation window, as a small ring buffer.
+     */
+    private static final class RecentReads {
+        private final long[] articleIds;
+        private final long[] readAt;
+        private int size;
+        private int next;
+
+        RecentReads(int capacity) {
+            articleIds = new long[capacity];
+            readAt = new long[capacity];
+        }
+
+        /**
+         * Adds the read and returns the articles it co-occurs with, or null if it was
+         * already in the window (re-reads do not count twice).
+         */
+        long[] add(long articleId, long at, long windowSeconds) {
+            long[] coVisited = new long[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (articleIds[i] == articleId) {
+                    if (at - readAt[i] <= windowSeconds) {
+                        return null;
+                    }
+                } else if (at - readAt[i] <= windowSeconds) {
+                    coVisited[count++] = articleIds[i];
+                }
+            }
+            articleIds[next] = articleId;
+            readAt[next] = at;
+            next = (next + 1) % articleIds.length;
+            size = Math.min(size + 1, articleIds.length);
+            return Arrays.copyOf(coVisited, count);
+        }
+    }
+
+    /**
+     * Co-visit counts for one article. Holds up to twice the neighbour limit and prunes
+     * back to the strongest {@code maxNeighbors} when full.
+     */
+    private static final class NeighborList {
+        private final int maxNeighbors;
+        private long[] ids;
+        private int[] counts;
+        private int size;
+
+        NeighborList(int maxNeighbors) {
+            this.maxNeighbors = maxNeighbors;
+            this.ids = new long[Math.min(8, maxNeighbors * 2)];
+            this.counts = new int[ids.length];
+        }
+
+        synchronized void increment(long neighborId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == neighborId) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (size == maxNeighbors * 2) {
+                prune();
+            } else if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(ids.length * 2, maxNeighbors * 2));
+                counts = Arrays.copyOf(counts, ids.length);
+            }
+            ids[size] = neighborId;
+            counts[size] = 1;
+            size++;
+        }
+
+        synchronized void accumulate(Map<Long, Double> scores, double weight) {
+            int strongest = 0;
+            for (int i = 0; i < size; i++) {
+                strongest = Math.max(strongest, counts[i]);
+            }
+            if (strongest == 0) {
+                return;
+            }
+            // Normalise per seed so one heavily read article does not drown out the others
+            for (int i = 0; i < size; i++) {
+                scores.merge(ids[i], weight * counts[i] / strongest, Double::sum);
+            }
+        }
+
+        private void prune() {
+            double[] strength = new double[size];
+            for (int i = 0; i < size; i++) {
+                strength[i] = counts[i];
+            }
+            int[] keep = TopK.select(strength, size, maxNeighbors);
+            long[] keptIds = new long[ids.length];
+            int[] keptCounts = new int[counts.length];
+            for (int i = 0; i < keep.length; i++) {
+                keptIds[i] = ids[keep[i]];
+                keptCounts[i] = counts[keep[i]];
+            }
+            ids = keptIds;
+            counts = keptCounts;
+            size = keep.length;
+        }
+    }
+}
@@ -4,15 +4,16 @@ import org.example.dto.*;
 import org.example.entity.*;
 import org.example.repository.*;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.example.exception.ResourceNotFoundException;
 import org.example.exception.ForbiddenException;
 import org.example.exception.NotAllowedException;
+import org.example.exception.ValidationException;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -22,6 +23,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ContentOrganizationService {
     
+    private static final int DEFAULT_COLLECTION_PAGE_SIZE = 20;
+    private static final int MAX_COLLECTION_PAGE_SIZE = 100;
+    private static final int MAX_COLLABORATORS_SHOWN = 50;
+    
     private final TagRepository tagRepository;
     
     private final ArticleCollectionRepository articleCollectionRepository;
@@ -32,19 +37,23 @@ public class ContentOrganizationService {
     
     private final ArticleRepository articleRepository;
     
+    private final TagAutocompleteService tagAutocompleteService;
+    
+    private final TagTrendingService tagTrendingService;
+    
+    private final TagGraphService tagGraphService;
+    
+    private final PopularCollectionService popularCollectionService;
+    
+    private final DraftAutosaveService draftAutosaveService;
+    
     // Tag functionality
     public List<TagSuggestionDto> getTagSuggestions(String query, int limit) {
-        List<Tag> tags = tagRepository.findByNameContainingIgnoreCaseOrderByArticleCountDesc(query);
-        return tags.stream()
-                .limit(limit)
-                .map(this::toTagSuggestionDto)
-                .collect(Collectors.toList());
+        return tagAutocompleteService.suggest(query, limit);
     }
     
     public Page<TagSuggestionDto> getTrendingTags(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return tagRepository.findTrendingTags(pageable)
-                .map(this::toTagSuggestionDto);
+        return tagTrendingService.getTrendingTags(page, size);
     }
     
     public List<TagSuggestionDto> getRecentlyUsedTags(int limit) {
@@ -57,42 +66,7 @@ public class ContentOrganizationService {
     }
     
     public List<TagSuggestionDto> getTagRecommendations(String username, int limit) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        // Get user's recent tags and find similar ones
-        List<Tag> userTags = tagRepository.findRecentlyActiveTags();
-        List<Tag> recommendations = tagRepository.findMostUsedTags(PageRequest.of(0, limit * 2))
-                .getContent();
-        
-        // Filter out tags user already uses frequently
-        Set<String> userTagNames = userTags.stream()
-                .map(Tag::getName)
-                .collect(Collectors.toSet());
-        
-        return recommendations.stream()
-                .filter(tag -> !userTagNames.contains(tag.getName()))
-                .limit(limit)
-                .map(this::toTagSuggestionDto)
-                .collect(Collectors.toList());
-    }
-    
-    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
-    @Transactional
-    public void updateTrendingScores() {
-        List<Tag> tags = tagRepository.findAll();
-        LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
-        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-        
-        for (Tag tag : tags) {
-            // Calculate trending score based on recent usage vs total usage
-            double recentUsage = tag.getWeeklyUsage().doubleValue();
-            double totalUsage = tag.getArticleCount().doubleValue();
-            double trendingScore = totalUsage > 0 ? (recentUsage / totalUsage) * 100 : 0;
-            
-            tag.setTrendingScore(trendingScore);
-            tagRepository.save(tag);
-        }
+        return tagGraphService.recommendForUser(username, limit);
     }
     
     // Article Collection functionality
@@ -127,10 +101,11 @@ public class ContentOrganizationService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        if (!collection.canEdit(user)) {
+        if (!canEdit(collection, user)) {
             throw new ForbiddenException("You don't have permission to edit this collection");
         }
         
+        boolean wasPublic = collection.isPublic();
         if (dto.getName() != null) collection.setName(dto.getName());
         if (dto.getDescription() != null) collection.setDescription(dto.getDescription());
         collection.setPublic(dto.isPublic());
@@ -148,6 +123,9 @@ public class ContentOrganizationService {
         }
         
         ArticleCollection saved = articleCollectionRepository.save(collection);
+        if (wasPublic && !saved.isPublic()) {
+            popularCollectionService.evict(collectionId);
+        }
         return toArticleCollectionDto(saved);
     }
     
@@ -156,18 +134,20 @@ public class ContentOrganizationService {
         ArticleCollection collection = articleCollectionRepository.findById(collectionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Collection not found"));
         
-        Article article = articleRepository.findById(articleId)
-                .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
+        if (!articleRepository.existsById(articleId)) {
+            throw new ResourceNotFoundException("Article not found");
+        }
         
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        if (!collection.canEdit(user)) {
+        if (!canEdit(collection, user)) {
             throw new ForbiddenException("You don't have permission to edit this collection");
         }
         
-        collection.addArticle(article);
-        articleCollectionRepository.save(collection);
+        if (articleCollectionRepository.insertArticle(collectionId, articleId) > 0) {
+            articleCollectionRepository.adjustArticleCount(collectionId, 1, LocalDateTime.now());
+        }
     }
     
     @Transactional
@@ -175,18 +155,21 @@ public class ContentOrganizationService {
         ArticleCollection collection = articleCollectionRepository.findById(collectionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Collection not found"));
         
-        Article article = articleRepository.findById(articleId)
-                .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
+        if (!articleRepository.existsById(articleId)) {
+            throw new ResourceNotFoundException("Article not found");
+        }
         
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        if (!collection.canEdit(user)) {
+        if (!canEdit(collection, user)) {
             throw new ForbiddenException("You don't have permission to edit this collection");
         }
         
-        collection.removeArticle(article);
-        articleCollectionRepository.save(collection);
+        int removed = articleCollectionRepository.deleteArticle(collectionId, articleId);
+        if (removed > 0) {
+            articleCollectionRepository.adjustArticleCount(collectionId, -removed, LocalDateTime.now());
+        }
     }
     
     @Transactional
@@ -200,49 +183,99 @@ public class ContentOrganizationService {
         User collaborator = userRepository.findByUsername(collaboratorUsername)
                 .orElseThrow(() -> new ResourceNotFoundException("Collaborator not found"));
         
-        if (!collection.getOwner().equals(user)) {
+        if (!collection.getOwner().getId().equals(user.getId())) {
             throw new ForbiddenException("Only the owner can add collaborators");
         }
         
-        collection.addCollaborator(collaborator);
-        articleCollectionRepository.save(collection);
+        if (articleCollectionRepository.insertCollaborator(collectionId, collaborator.getId()) > 0) {
+            articleCollectionRepository.adjustCollaboratorCount(collectionId, 1, LocalDateTime.now());
+        }
     }
     
     public List<ArticleCollectionDto> getUserCollections(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        List<ArticleCollection> collections = articleCollectionRepository.findByOwner(user);
-        List<ArticleCollection> collaborativeCollections = articleCollectionRepository.findByCollaborator(user);
-        
-        Set<ArticleCollection> allCollections = new HashSet<>();
-        allCollections.addAll(collections);
-        allCollections.addAll(collaborativeCollections);
-        
-        return allCollections.stream()
+        return articleCollectionRepository.findOwnedOrCollaborative(user).stream()
                 .map(this::toArticleCollectionDto)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Collection header with the first page of articles and collaborators; further
+     * articles are paged with {@link #getCollectionArticles}.
+     */
     public ArticleCollectionDto getCollection(Long collectionId, String username) {
-        ArticleCollection collection = articleCollectionRepository.findById(collectionId)
+        ArticleCollection collection = findReadableCollection(collectionId, username);
+        
+        ArticleCollectionDto dto = toArticleCollectionDto(collection);
+        CursorPage<ArticleResponseDto> articles = loadCollectionArticles(collectionId, null, DEFAULT_COLLECTION_PAGE_SIZE);
+        dto.setArticles(articles.getContent());
+        dto.setNextArticlesCursor(articles.getNextCursor());
+        dto.setCollaborators(articleCollectionRepository
+                .findCollaboratorRows(collectionId, PageRequest.of(0, MAX_COLLABORATORS_SHOWN)).stream()
+                .map(row -> new UserProfileDto((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        (String) row[4], (LocalDateTime) row[5]))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+    
+    public CursorPage<ArticleResponseDto> getCollectionArticles(Long collectionId, String cursor, int size, String username) {
+        findReadableCollection(collectionId, username);
+        return loadCollectionArticles(collectionId, cursor, Math.min(Math.max(size, 1), MAX_COLLECTION_PAGE_SIZE));
+    }
+    
+    private ArticleCollection findReadableCollection(Long collectionId, String username) {
+        ArticleCollection collection = articleCollectionRepository.findWithOwnerAndTagsById(collectionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Collection not found"));
         
         if (!collection.isPublic()) {
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            if (!collection.canEdit(user)) {
+            User user = username != null ? userRepository.findByUsername(username).orElse(null) : null;
+            if (user == null || !canEdit(collection, user)) {
                 throw new NotAllowedException("This collection is private");
             }
         }
-        
-        return toArticleCollectionDtoWithDetails(collection);
+        return collection;
+    }
+    
+    // Keyset pages over the collection's articles by article id, most recently created article first
+    // (not the order they were added, which the join table does not record); the cursor is the last article id
+    private CursorPage<ArticleResponseDto> loadCollectionArticles(Long collectionId, String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<Object[]> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = articleCollectionRepository.findArticleRowsFirstPage(collectionId, pageable);
+        } else {
+            long afterId;
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+            rows = articleCollectionRepository.findArticleRowsNextPage(collectionId, afterId, pageable);
+        }
+        boolean hasNext = rows.size() > size;
+        List<ArticleResponseDto> content = rows.stream()
+                .limit(size)
+                .map(this::toCollectionArticleDto)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
     }
     
     public Page<ArticleCollectionDto> getPopularCollections(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return articleCollectionRepository.findPopularCollections(pageable)
-                .map(this::toArticleCollectionDto);
+        Page<Long> ids = popularCollectionService.getPopularCollectionIds(page, size);
+        Map<Long, ArticleCollection> collections = new HashMap<>();
+        for (ArticleCollection collection : articleCollectionRepository.findPublicWithOwnerAndTagsByIdIn(ids.getContent())) {
+            collections.put(collection.getId(), collection);
+        }
+        // Keep the ranking order; collections deleted or made private since the last refresh drop out
+        List<ArticleCollectionDto> dtos = ids.getContent().stream()
+                .map(collections::get)
+                .filter(Objects::nonNull)
+                .map(this::toArticleCollectionDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(dtos, ids.getPageable(), ids.getTotalElements());
     }
     
     // Draft functionality
@@ -257,36 +290,28 @@ public class ContentOrganizationService {
         return toDraftDto(saved);
     }
     
-    @Transactional
+    // Autosaves are buffered and written at most once per persist interval; see DraftAutosaveService
     public DraftDto autoSaveDraft(Long draftId, DraftDto dto, String username) {
-        Draft draft = draftRepository.findById(draftId)
-                .orElseThrow(() -> new ResourceNotFoundException("Draft not found"));
-        
+        DraftPatchDto patch = new DraftPatchDto();
+        patch.setBaseRevision(dto.getRevision());
+        patch.setTitle(dto.getTitle());
+        patch.setContent(dto.getContent());
+        patch.setSummary(dto.getSummary());
+        patch.setCoverImageUrl(dto.getCoverImageUrl());
+        patch.setTags(dto.getTags());
+        return patchDraft(draftId, patch, username);
+    }
+    
+    public DraftDto patchDraft(Long draftId, DraftPatchDto patch, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        if (!draft.getAuthor().equals(user)) {
-            throw new ForbiddenException("You can only edit your own drafts");
-        }
-        
-        if (dto.getTitle() != null) draft.setTitle(dto.getTitle());
-        if (dto.getContent() != null) draft.setContent(dto.getContent());
-        if (dto.getSummary() != null) draft.setSummary(dto.getSummary());
-        if (dto.getCoverImageUrl() != null) draft.setCoverImageUrl(dto.getCoverImageUrl());
-        
-        // Handle tags
-        if (dto.getTags() != null) {
-            Set<Tag> tags = new HashSet<>();
-            for (String tagName : dto.getTags()) {
-                Tag tag = tagRepository.findByName(tagName)
-                        .orElseGet(() -> tagRepository.save(new Tag(tagName)));
-                tags.add(tag);
-            }
-            draft.setTags(tags);
-        }
-        
-        Draft saved = draftRepository.save(draft);
-        return toDraftDto(saved);
+        return draftAutosaveService.apply(draftId, user.getId(), patch, () -> loadEditableDraft(draftId, user));
+    }
+    
+    public DraftDto saveDraft(Long draftId, DraftPatchDto patch, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return draftAutosaveService.save(draftId, user.getId(), patch, () -> loadEditableDraft(draftId, user));
     }
     
     public List<DraftDto> getUserDrafts(String username, boolean includeArchived) {
@@ -302,6 +327,7 @@ public class ContentOrganizationService {
         
         return drafts.stream()
                 .map(this::toDraftDto)
+                .map(draftAutosaveService::overlay)
                 .collect(Collectors.toList());
     }
     
@@ -333,10 +359,28 @@ public class ContentOrganizationService {
             throw new ForbiddenException("You can only delete your own drafts");
         }
         
+        draftAutosaveService.discard(draftId);
         draftRepository.delete(draft);
     }
     
     // Helper methods
+    private DraftDto loadEditableDraft(Long draftId, User user) {
+        Draft draft = draftRepository.findWithAuthorAndTagsById(draftId)
+                .orElseThrow(() -> new ResourceNotFoundException("Draft not found"));
+        if (!draft.getAuthor().getId().equals(user.getId())) {
+            throw new ForbiddenException("You can only edit your own drafts");
+        }
+        return toDraftDto(draft);
+    }
+    
+    // Checks collaborator membership with one query instead of loading the collaborator set
+    private boolean canEdit(ArticleCollection collection, User user) {
+        if (collection.getOwner().getId().equals(user.getId())) {
+            return true;
+        }
+        return collection.isCollaborative() && articleCollectionRepository.isCollaborator(collection.getId(), user.getId());
+    }
+    
     private TagSuggestionDto toTagSuggestionDto(Tag tag) {
         TagSuggestionDto dto = new TagSuggestionDto();
         dto.setId(tag.getId());
@@ -372,47 +416,18 @@ public class ContentOrganizationService {
         return dto;
     }
     
-    private ArticleCollectionDto toArticleCollectionDtoWithDetails(ArticleCollection collection) {
-        ArticleCollectionDto dto = toArticleCollectionDto(collection);
-        
-        // Add articles
-        List<ArticleResponseDto> articles = collection.getArticles().stream()
-                .map(article -> {
-                    ArticleResponseDto articleDto = new ArticleResponseDto();
-                    articleDto.setId(article.getId());
-                    articleDto.setTitle(article.getTitle());
-                    articleDto.setSlug(article.getSlug());
-                    articleDto.setSummary(article.getSummary());
-                    articleDto.setCoverImageUrl(article.getCoverImageUrl());
-                    articleDto.setReadTimeMinutes(article.getReadTimeMinutes());
-                    articleDto.setCreatedAt(article.getCreatedAt());
-                    articleDto.setAuthor(new UserProfileDto(
-                            article.getAuthor().getId(),
-                            article.getAuthor().getUsername(),
-                            article.getAuthor().getEmail(),
-                            article.getAuthor().getBio(),
-                            article.getAuthor().getProfileImageUrl(),
-                            article.getAuthor().getCreatedAt()
-                    ));
-                    return articleDto;
-                })
-                .collect(Collectors.toList());
-        dto.setArticles(articles);
-        
-        // Add collaborators
-        List<UserProfileDto> collaborators = collection.getCollaborators().stream()
-                .map(user -> new UserProfileDto(
-                        user.getId(),
-                        user.getUsername(),
-                        user.getEmail(),
-                        user.getBio(),
-                        user.getProfileImageUrl(),
-                        user.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
-        dto.setCollaborators(collaborators);
-        
-        return dto;
+    private ArticleResponseDto toCollectionArticleDto(Object[] row) {
+        ArticleResponseDto articleDto = new ArticleResponseDto();
+        articleDto.setId((Long) row[0]);
+        articleDto.setTitle((String) row[1]);
+        articleDto.setSlug((String) row[2]);
+        articleDto.setSummary((String) row[3]);
+        articleDto.setCoverImageUrl((String) row[4]);
+        articleDto.setReadTimeMinutes((Integer) row[5]);
+        articleDto.setCreatedAt((LocalDateTime) row[6]);
+        articleDto.setAuthor(new UserProfileDto((Long) row[7], (String) row[8], (String) row[9], (String) row[10],
+                (String) row[11], (LocalDateTime) row[12]));
+        return articleDto;
     }
     
     private DraftDto toDraftDto(Draft draft) {
@@ -437,6 +452,7 @@ public class ContentOrganizationService {
         dto.setArchived(draft.isArchived());
         dto.setWordCount(draft.getWordCount());
         dto.setHasContent(draft.hasContent());
+        dto.setRevision(draft.getRevision());
         
         return dto;
     }
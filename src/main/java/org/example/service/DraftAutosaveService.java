@@ -0,0 +1,545 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.DraftDto;
+import org.example.dto.DraftPatchDto;
+import org.example.entity.Draft;
+import org.example.entity.Tag;
+import org.example.exception.ConflictException;
+import org.example.exception.ForbiddenException;
+import org.example.exception.ValidationException;
+import org.example.repository.DraftRepository;
+import org.example.repository.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for draft autosaves.
+ *
+ * The latest state of each draft being edited lives in memory. Autosave ticks patch that
+ * state (whole fields, or in-place edits of the content) and return at once; a draft is
+ * written to the database at most once per persist interval, on explicit save and on
+ * shutdown, and only the columns that changed since its last write are updated. Every
+ * accepted patch is first appended to a local {@link DraftJournal}; on startup the journal
+ * is replayed on top of each draft's persisted revision, so a crash loses no accepted
+ * autosave. The journal is compacted by re-logging snapshots of unpersisted drafts once
+ * it grows past its size limit or everything has been persisted. A draft counts as
+ * unpersisted until a write of its current revision has committed, so a write still in
+ * flight (or about to fail) never lets compaction drop its journal entries.
+ */
+@Service
+public class DraftAutosaveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftAutosaveService.class);
+
+    private static final int TITLE = 1;
+    private static final int CONTENT = 1 << 1;
+    private static final int SUMMARY = 1 << 2;
+    private static final int COVER_IMAGE = 1 << 3;
+    private static final int TAGS = 1 << 4;
+    private static final int ALL_FIELDS = TITLE | CONTENT | SUMMARY | COVER_IMAGE | TAGS;
+
+    private final DraftRepository draftRepository;
+    private final TagRepository tagRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, BufferedDraft> buffers = new ConcurrentHashMap<>();
+    private DraftJournal journal;
+
+    @Value("${app.drafts.autosave.persist-interval-ms:10000}")
+    private long persistIntervalMs;
+
+    @Value("${app.drafts.autosave.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    @Value("${app.drafts.autosave.max-content-length:1000000}")
+    private int maxContentLength;
+
+    @Value("${app.drafts.autosave.journal-path:./data/draft-autosave.journal}")
+    private String journalPath;
+
+    @Value("${app.drafts.autosave.journal-max-bytes:16777216}")
+    private long journalMaxBytes;
+
+    public DraftAutosaveService(DraftRepository draftRepository,
+                                TagRepository tagRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.draftRepository = draftRepository;
+        this.tagRepository = tagRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        journal = new DraftJournal(Paths.get(journalPath), objectMapper);
+        List<DraftJournal.Entry> entries = journal.recover();
+        journal.open();
+        if (!entries.isEmpty()) {
+            replay(entries);
+        }
+        compact();
+    }
+
+    /**
+     * Applies an autosave patch and returns the buffered draft. {@code loader} is called
+     * only when the draft is not buffered yet, and must check that the user may edit it.
+     */
+    public DraftDto apply(Long draftId, Long userId, DraftPatchDto patch, Supplier<DraftDto> loader) {
+        BufferedDraft buffer = buffer(draftId, userId, loader);
+        synchronized (buffer) {
+            if (patch.getBaseRevision() != null && patch.getBaseRevision() != buffer.revision) {
+                throw new ConflictException("Draft is at revision " + buffer.revision + ", not " + patch.getBaseRevision());
+            }
+            DraftJournal.Entry entry = new DraftJournal.Entry();
+            entry.draftId = draftId;
+            entry.revision = buffer.revision + 1;
+            int changed = 0;
+            String content = buffer.content;
+            if (patch.getContent() != null) {
+                content = patch.getContent();
+                entry.content = content;
+                changed |= CONTENT;
+            } else if (patch.getEdits() != null && !patch.getEdits().isEmpty()) {
+                content = applyEdits(content, patch.getEdits());
+                entry.editRanges = new int[patch.getEdits().size() * 2];
+                entry.editTexts = new ArrayList<>(patch.getEdits().size());
+                for (int i = 0; i < patch.getEdits().size(); i++) {
+                    DraftPatchDto.ContentEdit edit = patch.getEdits().get(i);
+                    entry.editRanges[2 * i] = edit.getOffset();
+                    entry.editRanges[2 * i + 1] = edit.getDeleteCount();
+                    entry.editTexts.add(edit.getText());
+                }
+                changed |= CONTENT;
+            }
+            if (content != null && content.length() > maxContentLength) {
+                throw new ValidationException("Draft content cannot exceed " + maxContentLength + " characters");
+            }
+            if (patch.getTitle() != null) {
+                entry.title = patch.getTitle();
+                changed |= TITLE;
+            }
+            if (patch.getSummary() != null) {
+                entry.summary = patch.getSummary();
+                changed |= SUMMARY;
+            }
+            if (patch.getCoverImageUrl() != null) {
+                entry.coverImageUrl = patch.getCoverImageUrl();
+                changed |= COVER_IMAGE;
+            }
+            if (patch.getTags() != null) {
+                entry.tags = new HashSet<>(patch.getTags());
+                changed |= TAGS;
+            }
+            if (changed == 0) {
+                buffer.touch();
+                return buffer.toDto();
+            }
+            // Logged before the buffer changes so every state a client has seen is recoverable
+            journal.append(entry);
+            buffer.content = content;
+            if ((changed & TITLE) != 0) buffer.title = entry.title;
+            if ((changed & SUMMARY) != 0) buffer.summary = entry.summary;
+            if ((changed & COVER_IMAGE) != 0) buffer.coverImageUrl = entry.coverImageUrl;
+            if ((changed & TAGS) != 0) buffer.tags = entry.tags;
+            buffer.revision = entry.revision;
+            buffer.markDirty(changed);
+            return buffer.toDto();
+        }
+    }
+
+    /**
+     * Applies the patch, if any, and writes the draft to the database now.
+     */
+    public DraftDto save(Long draftId, Long userId, DraftPatchDto patch, Supplier<DraftDto> loader) {
+        DraftDto dto = patch != null ? apply(draftId, userId, patch, loader) : buffer(draftId, userId, loader).toDto();
+        BufferedDraft buffer = buffers.get(draftId);
+        if (buffer != null && !persist(buffer)) {
+            throw new IllegalStateException("Draft could not be saved, please retry");
+        }
+        return buffer != null ? buffer.toDto() : dto;
+    }
+
+    /**
+     * Returns the DTO with any buffered, not yet persisted state laid over it.
+     */
+    public DraftDto overlay(DraftDto dto) {
+        BufferedDraft buffer = buffers.get(dto.getId());
+        if (buffer == null) {
+            return dto;
+        }
+        synchronized (buffer) {
+            buffer.copyInto(dto);
+        }
+        return dto;
+    }
+
+    /**
+     * Forgets a deleted draft; its journal entries are skipped on replay.
+     */
+    public void discard(Long draftId) {
+        buffers.remove(draftId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.drafts.autosave.check-interval-ms:1000}")
+    public void persistDue() {
+        long now = System.nanoTime();
+        long interval = TimeUnit.MILLISECONDS.toNanos(persistIntervalMs);
+        long idle = TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        int persisted = 0;
+        for (BufferedDraft buffer : buffers.values()) {
+            boolean due;
+            synchronized (buffer) {
+                due = buffer.changed != 0 && now - buffer.lastPersistedNanos >= interval;
+                if (!buffer.dirty() && now - buffer.lastAccessNanos >= idle) {
+                    buffers.remove(buffer.draftId, buffer);
+                    continue;
+                }
+            }
+            if (due && persist(buffer)) {
+                persisted++;
+            }
+        }
+        journal.sync();
+        if (persisted > 0) {
+            log.debug("Persisted {} buffered drafts", persisted);
+        }
+        if (journal.size() > journalMaxBytes || (journal.size() > 0 && noneDirty())) {
+            compact();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int failed = 0;
+        for (BufferedDraft buffer : buffers.values()) {
+            if (!persist(buffer)) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("{} drafts could not be persisted on shutdown; they will be replayed from the journal", failed);
+            journal.close();
+            return;
+        }
+        compact();
+        journal.close();
+    }
+
+    private BufferedDraft buffer(Long draftId, Long userId, Supplier<DraftDto> loader) {
+        BufferedDraft buffer = buffers.get(draftId);
+        if (buffer == null) {
+            BufferedDraft loaded = new BufferedDraft(draftId, userId, loader.get());
+            buffer = buffers.putIfAbsent(draftId, loaded);
+            if (buffer == null) {
+                buffer = loaded;
+            }
+        }
+        if (!buffer.authorId.equals(userId)) {
+            throw new ForbiddenException("You can only edit your own drafts");
+        }
+        return buffer;
+    }
+
+    // Writes the changed columns of one draft; on failure the changes stay pending for the next attempt.
+    // Writes of one draft are serialised, so a save waits for a scheduled write in flight and retries if it failed.
+    private boolean persist(BufferedDraft buffer) {
+        synchronized (buffer.persistLock) {
+            return persistLocked(buffer);
+        }
+    }
+
+    private boolean persistLocked(BufferedDraft buffer) {
+        int changed;
+        long revision;
+        String title;
+        String content;
+        String summary;
+        String coverImageUrl;
+        Set<String> tags;
+        synchronized (buffer) {
+            if (buffer.changed == 0) {
+                return true;
+            }
+            changed = buffer.changed;
+            revision = buffer.revision;
+            title = buffer.title;
+            content = buffer.content;
+            summary = buffer.summary;
+            coverImageUrl = buffer.coverImageUrl;
+            tags = buffer.tags;
+            buffer.changed = 0;
+        }
+        try {
+            boolean exists = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Optional<Draft> found = draftRepository.findById(buffer.draftId);
+                if (found.isEmpty()) {
+                    return false;
+                }
+                Draft draft = found.get();
+                if ((changed & TITLE) != 0) draft.setTitle(title);
+                if ((changed & CONTENT) != 0) draft.setContent(content);
+                if ((changed & SUMMARY) != 0) draft.setSummary(summary);
+                if ((changed & COVER_IMAGE) != 0) draft.setCoverImageUrl(coverImageUrl);
+                if ((changed & TAGS) != 0) draft.setTags(resolveTags(tags));
+                draft.setRevision(revision);
+                draft.setLastModified(LocalDateTime.now());
+                draftRepository.save(draft);
+                return true;
+            }));
+            if (!exists) {
+                buffers.remove(buffer.draftId, buffer);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist draft {}: {}", buffer.draftId, e.getMessage());
+            synchronized (buffer) {
+                buffer.changed |= changed;
+            }
+            return false;
+        }
+        synchronized (buffer) {
+            buffer.persistedRevision = Math.max(buffer.persistedRevision, revision);
+            buffer.lastPersistedNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    private Set<Tag> resolveTags(Set<String> tagNames) {
+        Set<Tag> tags = new HashSet<>();
+        if (tagNames == null) {
+            return tags;
+        }
+        for (String tagName : tagNames) {
+            tags.add(tagRepository.findByName(tagName).orElseGet(() -> tagRepository.save(new Tag(tagName))));
+        }
+        return tags;
+    }
+
+    private boolean noneDirty() {
+        for (BufferedDraft buffer : buffers.values()) {
+            synchronized (buffer) {
+                if (buffer.dirty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Starts a fresh journal segment holding full snapshots of the drafts not yet persisted
+    private synchronized void compact() {
+        try {
+            journal.rotate();
+            for (BufferedDraft buffer : buffers.values()) {
+                synchronized (buffer) {
+                    if (buffer.dirty()) {
+                        journal.append(buffer.snapshot());
+                    }
+                }
+            }
+            journal.dropRotated();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact draft journal", e);
+        }
+    }
+
+    // Rebuilds drafts from their persisted revision plus the journal and writes them back
+    private void replay(List<DraftJournal.Entry> entries) {
+        Map<Long, List<DraftJournal.Entry>> byDraft = entries.stream()
+                .collect(Collectors.groupingBy(entry -> entry.draftId, LinkedHashMap::new, Collectors.toList()));
+        int recovered = 0;
+        for (Map.Entry<Long, List<DraftJournal.Entry>> draftEntries : byDraft.entrySet()) {
+            Long draftId = draftEntries.getKey();
+            BufferedDraft buffer = transactionTemplate.execute(status -> draftRepository.findById(draftId)
+                    .map(draft -> new BufferedDraft(draft))
+                    .orElse(null));
+            if (buffer == null) {
+                continue;
+            }
+            for (DraftJournal.Entry entry : draftEntries.getValue()) {
+                buffer.replay(entry);
+            }
+            if (buffer.dirty()) {
+                buffers.put(draftId, buffer);
+                if (persist(buffer)) {
+                    recovered++;
+                }
+            }
+        }
+        log.info("Replayed draft autosave journal: {} entries, {} drafts recovered", entries.size(), recovered);
+    }
+
+    static String applyEdits(String content, List<DraftPatchDto.ContentEdit> edits) {
+        StringBuilder text = new StringBuilder(content != null ? content : "");
+        for (DraftPatchDto.ContentEdit edit : edits) {
+            int offset = edit.getOffset();
+            int end = offset + edit.getDeleteCount();
+            if (offset < 0 || edit.getDeleteCount() < 0 || end > text.length()) {
+                throw new ValidationException("Edit range [" + offset + ", " + end + ") is outside the draft content");
+            }
+            text.replace(offset, end, edit.getText() != null ? edit.getText() : "");
+        }
+        return text.toString();
+    }
+
+    private static final class BufferedDraft {
+        final Long draftId;
+        final Long authorId;
+        // Fields that never change through autosave, copied from the draft when it was first buffered
+        final DraftDto template;
+        String title;
+        String content;
+        String summary;
+        String coverImageUrl;
+        Set<String> tags;
+        long revision;
+        // Revision of the last committed write; everything after it is only in the buffer and the journal
+        long persistedRevision;
+        // Fields changed since the last write started; cleared while a write is in flight
+        int changed;
+        final Object persistLock = new Object();
+        long lastPersistedNanos;
+        long lastAccessNanos;
+        LocalDateTime autoSavedAt;
+
+        BufferedDraft(Long draftId, Long authorId, DraftDto loaded) {
+            this.draftId = draftId;
+            this.authorId = authorId;
+            this.template = loaded;
+            this.title = loaded.getTitle();
+            this.content = loaded.getContent();
+            this.summary = loaded.getSummary();
+            this.coverImageUrl = loaded.getCoverImageUrl();
+            this.tags = loaded.getTags() != null ? new HashSet<>(loaded.getTags()) : new HashSet<>();
+            this.revision = loaded.getRevision() != null ? loaded.getRevision() : 0L;
+            this.persistedRevision = revision;
+            this.autoSavedAt = loaded.getAutoSavedAt();
+            this.lastPersistedNanos = System.nanoTime();
+            this.lastAccessNanos = lastPersistedNanos;
+        }
+
+        // Replay only: the author is never checked because no request is involved
+        BufferedDraft(Draft draft) {
+            this(draft.getId(), draft.getAuthor().getId(), replayTemplate(draft));
+        }
+
+        private static DraftDto replayTemplate(Draft draft) {
+            DraftDto dto = new DraftDto();
+            dto.setId(draft.getId());
+            dto.setTitle(draft.getTitle());
+            dto.setContent(draft.getContent());
+            dto.setSummary(draft.getSummary());
+            dto.setCoverImageUrl(draft.getCoverImageUrl());
+            dto.setTags(draft.getTags().stream().map(Tag::getName).collect(Collectors.toSet()));
+            dto.setRevision(draft.getRevision());
+            dto.setAutoSavedAt(draft.getAutoSavedAt());
+            return dto;
+        }
+
+        boolean dirty() {
+            return revision > persistedRevision || changed != 0;
+        }
+
+        void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+
+        void markDirty(int fields) {
+            changed |= fields;
+            autoSavedAt = LocalDateTime.now();
+            touch();
+        }
+
+        // Steps must follow on from the current revision; snapshots replace everything older
+        void replay(DraftJournal.Entry entry) {
+            if (entry.full) {
+                if (entry.revision <= revision) {
+                    return;
+                }
+                title = entry.title;
+                content = entry.content;
+                summary = entry.summary;
+                coverImageUrl = entry.coverImageUrl;
+                tags = entry.tags != null ? entry.tags : new HashSet<>();
+                revision = entry.revision;
+                changed = ALL_FIELDS;
+                return;
+            }
+            if (entry.revision != revision + 1) {
+                return;
+            }
+            if (entry.content != null) {
+                content = entry.content;
+                changed |= CONTENT;
+            } else if (entry.editRanges != null) {
+                List<DraftPatchDto.ContentEdit> edits = new ArrayList<>(entry.editTexts.size());
+                for (int i = 0; i < entry.editTexts.size(); i++) {
+                    edits.add(new DraftPatchDto.ContentEdit(entry.editRanges[2 * i], entry.editRanges[2 * i + 1], entry.editTexts.get(i)));
+                }
+                content = applyEdits(content, edits);
+                changed |= CONTENT;
+            }
+            if (entry.title != null) { title = entry.title; changed |= TITLE; }
+            if (entry.summary != null) { summary = entry.summary; changed |= SUMMARY; }
+            if (entry.coverImageUrl != null) { coverImageUrl = entry.coverImageUrl; changed |= COVER_IMAGE; }
+            if (entry.tags != null) { tags = entry.tags; changed |= TAGS; }
+            revision = entry.revision;
+        }
+
+        DraftJournal.Entry snapshot() {
+            DraftJournal.Entry entry = new DraftJournal.Entry();
+            entry.draftId = draftId;
+            entry.revision = revision;
+            entry.full = true;
+            entry.title = title;
+            entry.content = content;
+            entry.summary = summary;
+            entry.coverImageUrl = coverImageUrl;
+            entry.tags = tags;
+            return entry;
+        }
+
+        void copyInto(DraftDto dto) {
+            dto.setTitle(title);
+            dto.setContent(content);
+            dto.setSummary(summary);
+            dto.setCoverImageUrl(coverImageUrl);
+            dto.setTags(new HashSet<>(tags));
+            dto.setRevision(revision);
+            dto.setAutoSavedAt(autoSavedAt);
+            dto.setWordCount(Draft.countWords(content));
+            dto.setHasContent((title != null && !title.trim().isEmpty()) || (content != null && !content.trim().isEmpty()));
+        }
+
+        DraftDto toDto() {
+            DraftDto dto = new DraftDto();
+            dto.setId(draftId);
+            dto.setAuthor(template.getAuthor());
+            dto.setCreatedAt(template.getCreatedAt());
+            dto.setUpdatedAt(template.getUpdatedAt());
+            dto.setArchived(template.isArchived());
+            copyInto(dto);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only log of draft autosave entries, one JSON object per line.
+ *
+ * Appends go to the operating system immediately and are forced to disk by {@link #sync()},
+ * so a process crash loses nothing and a power loss at most the entries since the last sync.
+ * {@link #rotate()} starts a new segment; the caller then re-logs full snapshots of every
+ * draft not yet persisted and calls {@link #dropRotated()}. Until then recovery reads the
+ * rotated segment first, so a crash mid-rotation loses nothing either.
+ */
+class DraftJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftJournal.class);
+
+    private final Path path;
+    private final Path rotatedPath;
+    private final ObjectMapper objectMapper;
+
+    private FileChannel channel;
+    private long size;
+
+    DraftJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.rotatedPath = path.resolveSibling(path.getFileName() + ".1");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Entries left by a previous run, oldest first. Call before {@link #open()}.
+     */
+    List<Entry> recover() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : List.of(rotatedPath, path)) {
+            if (!Files.exists(segment)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        entries.add(objectMapper.readValue(line, Entry.class));
+                    } catch (IOException e) {
+                        // Only the tail of a segment can be torn by a crash
+                        log.warn("Skipping unreadable draft journal entry in {}", segment);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read draft journal " + segment, e);
+            }
+        }
+        return entries;
+    }
+
+    synchronized void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    synchronized void append(Entry entry) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(entry);
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n');
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size += line.length + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to draft journal", e);
+        }
+    }
+
+    synchronized void sync() {
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to sync draft journal: {}", e.getMessage());
+        }
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Moves the current segment aside and starts an empty one; later appends go to the new segment.
+     */
+    synchronized void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        Files.move(path, rotatedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = 0;
+    }
+
+    /**
+     * Deletes the rotated segment once everything it held is persisted or re-logged.
+     */
+    synchronized void dropRotated() throws IOException {
+        channel.force(false);
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    synchronized void close() {
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close draft journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One autosave step, or with {@code full} set, the complete draft state at a revision.
+     * Null fields of a step are unchanged.
+     */
+    static class Entry {
+        public long draftId;
+        public long revision;
+        public boolean full;
+        public String title;
+        public String summary;
+        public String coverImageUrl;
+        public Set<String> tags;
+        public String content;
+        // Flattened [offset, deleteCount] pairs with the inserted texts alongside
+        public int[] editRanges;
+        public List<String> editTexts;
+    }
+}
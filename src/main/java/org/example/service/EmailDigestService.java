@@ -23,12 +23,15 @@ public class EmailDigestService {
     private final ArticleRepository articleRepository;
     private final ReadingHistoryRepository readingHistoryRepository;
     private final RecommendationService recommendationService;
+    private final UserInterestProfileService userInterestProfileService;
 
-    public EmailDigestService(UserRepository userRepository, ArticleRepository articleRepository, ReadingHistoryRepository readingHistoryRepository, RecommendationService recommendationService) {
+    public EmailDigestService(UserRepository userRepository, ArticleRepository articleRepository, ReadingHistoryRepository readingHistoryRepository, RecommendationService recommendationService,
+                              UserInterestProfileService userInterestProfileService) {
         this.userRepository = userRepository;
         this.articleRepository = articleRepository;
         this.readingHistoryRepository = readingHistoryRepository;
         this.recommendationService = recommendationService;
+        this.userInterestProfileService = userInterestProfileService;
     }
 
     /**
@@ -135,21 +138,8 @@ public class EmailDigestService {
     }
 
     private Set<String> getUserPreferredTags(Long userId) {
-        LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-        List<ReadingHistory> recentReads = readingHistoryRepository
-                .findByUserIdAndReadAtAfterOrderByReadAtDesc(userId, monthAgo);
-        
-        return recentReads.stream()
-                .flatMap(history -> history.getArticle().getTags().stream())
-                .collect(Collectors.groupingBy(
-                        tag -> tag.getName(),
-                        Collectors.counting()
-                ))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+        // Decayed tag weights already favour the last few weeks of reading
+        return userInterestProfileService.getProfile(userId).getTopTags(5);
     }
 
     private Map<String, Object> getWeeklyEngagementStats(Long userId, LocalDateTime since) {
@@ -3,7 +3,9 @@ package org.example.service;
 import org.example.dto.*;
 import org.example.entity.*;
 import org.example.repository.*;
+import org.example.event.ArticleClappedEvent;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -35,6 +37,8 @@ public class EngagementService {
     
     private final UserRepository userRepository;
     
+    private final ApplicationEventPublisher eventPublisher;
+    
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
     
@@ -48,9 +52,11 @@ public class EngagementService {
         
         Optional<Clap> existingClap = clapRepository.findByArticleAndUser(article, user);
         Clap clap;
+        int previousClaps = 0;
         
         if (existingClap.isPresent()) {
             clap = existingClap.get();
+            previousClaps = clap.getClapCount();
             clap.setClaps(clapCount);
         } else {
             clap = new Clap(article, user, clapCount);
@@ -63,6 +69,9 @@ public class EngagementService {
         article.setLikeCount(totalClaps);
         articleRepository.save(article);
         
+        eventPublisher.publishEvent(new ArticleClappedEvent(user.getId(), articleId, article.getAuthor().getId(),
+                previousClaps, clap.getClapCount()));
+        
         ClapDto response = new ClapDto();
         response.setArticleId(articleId);
         response.setClapCount(clap.getClapCount());
@@ -0,0 +1,209 @@
+package org.example.service;
+
+import org.example.dto.TimeSeriesDto;
+import org.example.entity.ArticleMetricRollup;
+import org.example.entity.ArticleMetricRollup.Granularity;
+import org.example.exception.ValidationException;
+import org.example.repository.ArticleMetricRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Time-bucketed per-article metric rollups for analytics charts.
+ *
+ * {@link AnalyticsIngestionService} adds its aggregated window to hourly buckets on every
+ * flush, so no raw event table is ever scanned. Hourly buckets older than the retention
+ * window are summed into daily buckets and deleted, so hourly series are only offered for
+ * dates inside that window. Range queries read at most one row per article and bucket and
+ * return zero-filled series ready for charting.
+ */
+@Service
+public class MetricRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricRollupService.class);
+
+    public enum Metric { VIEWS, READS, CLAPS, COMMENTS, BOOKMARKS, SHARES }
+
+    static final Metric[] METRICS = Metric.values();
+    private static final int MAX_HOURLY_DAYS = 31;
+    private static final int MAX_DAILY_DAYS = 3 * 366;
+
+    private final ArticleMetricRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.analytics.rollup.hourly-retention-days:7}")
+    private int hourlyRetentionDays;
+
+    @Value("${app.analytics.rollup.compaction-batch-size:1000}")
+    private int compactionBatchSize;
+
+    public MetricRollupService(ArticleMetricRollupRepository rollupRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds per-article, per-hour metric deltas (indexed by {@link Metric#ordinal()}) to the
+     * hourly buckets. Runs inside the caller's transaction.
+     */
+    void addHourly(Map<Long, Map<LocalDateTime, long[]>> deltas) {
+        Set<LocalDateTime> hours = new HashSet<>();
+        deltas.values().forEach(byHour -> hours.addAll(byHour.keySet()));
+        if (hours.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<LocalDateTime, ArticleMetricRollup>> rows = index(
+                rollupRepository.findBuckets(Granularity.HOUR, deltas.keySet(), hours));
+        List<ArticleMetricRollup> changed = new ArrayList<>();
+        deltas.forEach((articleId, byHour) -> byHour.forEach((hour, counts) -> {
+            ArticleMetricRollup row = rows.computeIfAbsent(articleId, id -> new HashMap<>())
+                    .computeIfAbsent(hour, bucket -> new ArticleMetricRollup(articleId, Granularity.HOUR, bucket));
+            add(row, counts);
+            changed.add(row);
+        }));
+        rollupRepository.saveAll(changed);
+    }
+
+    /**
+     * Folds hourly buckets older than the retention window into daily buckets, a batch per transaction.
+     */
+    @Scheduled(cron = "${app.analytics.rollup.compaction-cron:0 10 * * * ?}")
+    public void compactHourly() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+        long compacted = 0;
+        int batch;
+        do {
+            Integer processed = transactionTemplate.execute(status -> compactBatch(cutoff));
+            batch = processed != null ? processed : 0;
+            compacted += batch;
+        } while (batch == compactionBatchSize);
+        if (compacted > 0) {
+            log.info("Compacted {} hourly metric buckets before {} into daily buckets", compacted, cutoff);
+        }
+    }
+
+    private int compactBatch(LocalDateTime cutoff) {
+        List<ArticleMetricRollup> hourly = rollupRepository.findOlderThan(Granularity.HOUR, cutoff,
+                PageRequest.of(0, compactionBatchSize));
+        if (hourly.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Map<LocalDateTime, long[]>> byDay = new HashMap<>();
+        Set<LocalDateTime> days = new HashSet<>();
+        for (ArticleMetricRollup row : hourly) {
+            LocalDateTime day = row.getBucketStart().truncatedTo(ChronoUnit.DAYS);
+            days.add(day);
+            long[] sums = byDay.computeIfAbsent(row.getArticleId(), id -> new HashMap<>())
+                    .computeIfAbsent(day, d -> new long[METRICS.length]);
+            long[] counts = counts(row);
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += counts[i];
+            }
+        }
+
+        Map<Long, Map<LocalDateTime, ArticleMetricRollup>> daily = index(
+                rollupRepository.findBuckets(Granularity.DAY, byDay.keySet(), days));
+        // A day split across two batches is simply added to twice, since its hours are deleted as they go
+        List<ArticleMetricRollup> changed = new ArrayList<>();
+        byDay.forEach((articleId, sumsByDay) -> sumsByDay.forEach((day, sums) -> {
+            ArticleMetricRollup row = daily.computeIfAbsent(articleId, id -> new HashMap<>())
+                    .computeIfAbsent(day, bucket -> new ArticleMetricRollup(articleId, Granularity.DAY, bucket));
+            add(row, sums);
+            changed.add(row);
+        }));
+        rollupRepository.saveAll(changed);
+        rollupRepository.deleteAllInBatch(hourly);
+        return hourly.size();
+    }
+
+    public TimeSeriesDto getArticleSeries(Long articleId, LocalDate from, LocalDate to, Granularity granularity) {
+        return buildSeries(from, to, granularity, (g, start, end) -> rollupRepository.findArticleSeries(articleId, g, start, end));
+    }
+
+    public TimeSeriesDto getAuthorSeries(Long authorId, LocalDate from, LocalDate to, Granularity granularity) {
+        return buildSeries(from, to, granularity, (g, start, end) -> rollupRepository.findAuthorSeries(authorId, g, start, end));
+    }
+
+    @FunctionalInterface
+    private interface SeriesQuery {
+        List<Object[]> find(Granularity granularity, LocalDateTime from, LocalDateTime to);
+    }
+
+    private TimeSeriesDto buildSeries(LocalDate from, LocalDate to, Granularity granularity, SeriesQuery query) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > (granularity == Granularity.HOUR ? MAX_HOURLY_DAYS : MAX_DAILY_DAYS)) {
+            throw new ValidationException("Range too large for " + granularity.name().toLowerCase() + "ly series");
+        }
+        // Older hours have been folded into daily buckets and would chart as zeros
+        if (granularity == Granularity.HOUR && from.isBefore(LocalDate.now().minusDays(hourlyRetentionDays))) {
+            throw new ValidationException("Hourly series are only kept for the last " + hourlyRetentionDays
+                    + " days; use daily granularity for earlier dates");
+        }
+        ChronoUnit unit = granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        int bucketCount = (int) unit.between(start, end);
+
+        List<LocalDateTime> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(start.plus(i, unit));
+        }
+        long[][] values = new long[METRICS.length][bucketCount];
+        // Hourly rows cover the recent days that have not been compacted yet; daily rows cover the rest
+        List<Object[]> rows = new ArrayList<>(query.find(Granularity.HOUR, start, end));
+        if (granularity == Granularity.DAY) {
+            rows.addAll(query.find(Granularity.DAY, start, end));
+        }
+        for (Object[] row : rows) {
+            int bucket = (int) unit.between(start, (LocalDateTime) row[0]);
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                values[metric][bucket] += ((Number) row[metric + 1]).longValue();
+            }
+        }
+
+        Map<String, long[]> series = new LinkedHashMap<>();
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (Metric metric : METRICS) {
+            String name = metric.name().toLowerCase();
+            series.put(name, values[metric.ordinal()]);
+            totals.put(name, Arrays.stream(values[metric.ordinal()]).sum());
+        }
+        return new TimeSeriesDto(granularity.name().toLowerCase(), buckets, series, totals);
+    }
+
+    private static Map<Long, Map<LocalDateTime, ArticleMetricRollup>> index(List<ArticleMetricRollup> rows) {
+        Map<Long, Map<LocalDateTime, ArticleMetricRollup>> indexed = new HashMap<>();
+        for (ArticleMetricRollup row : rows) {
+            indexed.computeIfAbsent(row.getArticleId(), id -> new HashMap<>()).put(row.getBucketStart(), row);
+        }
+        return indexed;
+    }
+
+    private static void add(ArticleMetricRollup row, long[] counts) {
+        row.setViews(row.getViews() + counts[Metric.VIEWS.ordinal()]);
+        row.setReads(row.getReads() + counts[Metric.READS.ordinal()]);
+        row.setClaps(row.getClaps() + counts[Metric.CLAPS.ordinal()]);
+        row.setComments(row.getComments() + counts[Metric.COMMENTS.ordinal()]);
+        row.setBookmarks(row.getBookmarks() + counts[Metric.BOOKMARKS.ordinal()]);
+        row.setShares(row.getShares() + counts[Metric.SHARES.ordinal()]);
+    }
+
+    private static long[] counts(ArticleMetricRollup row) {
+        return new long[]{row.getViews(), row.getReads(), row.getClaps(), row.getComments(), row.getBookmarks(), row.getShares()};
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.service;
+
+import org.example.repository.ArticleCollectionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranking of public collections by article count, kept in memory.
+ *
+ * The top of the ranking is re-read periodically from the denormalized counters on
+ * article_collections, which an index on (is_public, article_count) answers without
+ * touching the join tables. Pages inside the cached top are served from memory; deeper
+ * pages fall through to the same indexed query.
+ */
+@Service
+public class PopularCollectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularCollectionService.class);
+
+    // Fills the counters of collections created before they existed; a no-op once every row has them
+    private static final String BACKFILL_SQL = "UPDATE article_collections SET " +
+            "article_count = (SELECT COUNT(*) FROM collection_articles ca WHERE ca.collection_id = article_collections.id), " +
+            "collaborator_count = (SELECT COUNT(*) FROM collection_collaborators cc WHERE cc.collection_id = article_collections.id) " +
+            "WHERE article_count IS NULL OR collaborator_count IS NULL";
+
+    private final ArticleCollectionRepository articleCollectionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.collections.popular.top-k:500}")
+    private int topK;
+
+    private volatile Ranking ranking = new Ranking(List.of(), 0);
+
+    public PopularCollectionService(ArticleCollectionRepository articleCollectionRepository, JdbcTemplate jdbcTemplate) {
+        this.articleCollectionRepository = articleCollectionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = jdbcTemplate.update(BACKFILL_SQL);
+        if (updated > 0) {
+            log.info("Backfilled article and collaborator counts of {} collections", updated);
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.collections.popular.refresh-interval-ms:300000}",
+            initialDelayString = "${app.collections.popular.refresh-interval-ms:300000}")
+    public void refresh() {
+        List<Long> ids = articleCollectionRepository.findPopularCollectionIds(PageRequest.of(0, topK));
+        long total = ids.size() < topK ? ids.size() : articleCollectionRepository.countPopularCollections();
+        ranking = new Ranking(List.copyOf(ids), total);
+    }
+
+    /**
+     * Drops a collection that is no longer public from the cached ranking. A refresh running
+     * concurrently may still list it until the next one; readers filter on visibility anyway.
+     */
+    public synchronized void evict(Long collectionId) {
+        Ranking current = ranking;
+        List<Long> ids = new ArrayList<>(current.ids);
+        ids.remove(collectionId);
+        ranking = new Ranking(List.copyOf(ids), Math.max(ids.size(), current.total - 1));
+    }
+
+    /**
+     * A page of public collection ids, most articles first, with the total number of ranked collections.
+     */
+    public Page<Long> getPopularCollectionIds(int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        Ranking current = ranking;
+        long end = pageable.getOffset() + size;
+        if (end <= current.ids.size() || current.ids.size() == current.total) {
+            int from = (int) Math.min(pageable.getOffset(), current.ids.size());
+            int to = (int) Math.min(end, current.ids.size());
+            return new PageImpl<>(new ArrayList<>(current.ids.subList(from, to)), pageable, current.total);
+        }
+        return new PageImpl<>(articleCollectionRepository.findPopularCollectionIds(pageable), pageable, current.total);
+    }
+
+    private static final class Ranking {
+        final List<Long> ids;
+        final long total;
+
+        Ranking(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+}
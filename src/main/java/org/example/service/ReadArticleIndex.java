@@ -0,0 +1,110 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.util.CompressedIdBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-user compressed bitmaps of the article ids each user has read, so feeds and
+ * recommendations can drop or push down already-read articles without loading history.
+ *
+ * Bitmaps are loaded from reading history on first use, kept in a cache bounded by their
+ * total size in bytes rather than by user count, since one heavy reader's bitmap can
+ * outweigh thousands of light ones, and updated from read events while cached.
+ */
+@Service
+public class ReadArticleIndex {
+
+    private final ReadingHistoryRepository readingHistoryRepository;
+
+    @Value("${app.recommendation.read-filter.max-bytes:67108864}")
+    private long maxBytes;
+
+    private LoadingCache<Long, CompressedIdBitmap> readIdsByUser;
+
+    public ReadArticleIndex(ReadingHistoryRepository readingHistoryRepository) {
+        this.readingHistoryRepository = readingHistoryRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        readIdsByUser = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, CompressedIdBitmap readIds) -> (int) Math.min(Integer.MAX_VALUE, readIds.sizeInBytes()))
+                .build(this::loadReadIds);
+    }
+
+    /**
+     * Read article ids for the user; the returned bitmap stays current with later reads.
+     */
+    public CompressedIdBitmap getReadIds(Long userId) {
+        return readIdsByUser.get(userId);
+    }
+
+    public boolean hasRead(Long userId, Long articleId) {
+        return userId != null && getReadIds(userId).contains(articleId);
+    }
+
+    /**
+     * The given ids minus any the user has read, in their original order.
+     */
+    public List<Long> excludeRead(Long userId, List<Long> articleIds) {
+        CompressedIdBitmap readIds = getReadIds(userId);
+        List<Long> unread = new ArrayList<>(articleIds.size());
+        for (Long articleId : articleIds) {
+            if (!readIds.contains(articleId)) {
+                unread.add(articleId);
+            }
+        }
+        return unread;
+    }
+
+    /**
+     * Stable partition moving items the user has already read behind the unread ones.
+     * A null user leaves the list untouched.
+     */
+    public <T> List<T> deRankRead(Long userId, List<T> items, ToLongFunction<T> articleId) {
+        if (userId == null || items.isEmpty()) {
+            return items;
+        }
+        CompressedIdBitmap readIds = getReadIds(userId);
+        List<T> ordered = new ArrayList<>(items.size());
+        List<T> read = new ArrayList<>();
+        for (T item : items) {
+            (readIds.contains(articleId.applyAsLong(item)) ? read : ordered).add(item);
+        }
+        ordered.addAll(read);
+        return ordered;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleRead(ArticleReadEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        // Uncached users pick the read up from reading history when next loaded. Updating
+        // through the map re-weighs the entry as the bitmap grows.
+        readIdsByUser.asMap().computeIfPresent(event.getUserId(), (userId, readIds) -> {
+            readIds.add(event.getArticleId());
+            return readIds;
+        });
+    }
+
+    private CompressedIdBitmap loadReadIds(Long userId) {
+        CompressedIdBitmap readIds = new CompressedIdBitmap();
+        for (Long articleId : readingHistoryRepository.findArticleIdsByUserId(userId)) {
+            readIds.add(articleId);
+        }
+        return readIds;
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.repository.ArticleAnalyticsRepository;
+import org.example.repository.ArticleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Aggregates read-progress beacons into per-article histograms and periodically folds them
+ * into {@code article_analytics} (average reading time, bounce rate, completed reads).
+ *
+ * Each ping reports the running totals of one visit (a single page view, identified by a
+ * client-generated id): the deepest scroll position reached so far, in percent, and the
+ * seconds spent on the page so far. A visit counts as one reading sample however many pings
+ * it sends; the last values of recent visits are kept in a small expiring map and later
+ * pings only add the difference, moving the visit to a deeper bucket, adding dwell time or
+ * clearing its bounce.
+ *
+ * Request threads only adjust counters in the current window, under a shared lock; the
+ * flush swaps in a fresh window under the exclusive lock, so no ping is lost to a concurrent
+ * swap. The flush applies one relative UPDATE per article, so it never overwrites counters
+ * written by {@link AnalyticsIngestionService}.
+ */
+@Service
+public class ReadProgressService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadProgressService.class);
+
+    // Scroll depth deciles 0-9%, 10-19%, ... 90-100%
+    static final int DEPTH_BUCKETS = 10;
+    // Readers reaching this depth bucket are counted as having finished the article
+    private static final int COMPLETED_BUCKET = 9;
+    private static final int SAMPLES = DEPTH_BUCKETS;
+    private static final int DWELL_SECONDS = DEPTH_BUCKETS + 1;
+    private static final int BOUNCED = DEPTH_BUCKETS + 2;
+    private static final int SLOTS = DEPTH_BUCKETS + 3;
+    private static final int MAX_PINGS_PER_BEACON = 50;
+    private static final int MAX_PAYLOAD_CHARS = 4096;
+    private static final int MAX_VISIT_ID_LENGTH = 64;
+
+    private final ArticleAnalyticsRepository articleAnalyticsRepository;
+    private final ArticleRepository articleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+
+    private final ReadWriteLock windowLock = new ReentrantReadWriteLock();
+    private Map<Long, AtomicLongArray> window = new ConcurrentHashMap<>();
+    private Cache<String, Visit> visits;
+
+    @Value("${app.analytics.read-progress.bounce-seconds:10}")
+    private int bounceSeconds;
+
+    @Value("${app.analytics.read-progress.max-dwell-seconds:7200}")
+    private int maxDwellSeconds;
+
+    @Value("${app.analytics.read-progress.max-window-articles:50000}")
+    private int maxWindowArticles;
+
+    @Value("${app.analytics.read-progress.visit-ttl-minutes:30}")
+    private long visitTtlMinutes;
+
+    @Value("${app.analytics.read-progress.max-visits:200000}")
+    private long maxVisits;
+
+    public ReadProgressService(ArticleAnalyticsRepository articleAnalyticsRepository,
+                               ArticleRepository articleRepository,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.articleAnalyticsRepository = articleAnalyticsRepository;
+        this.articleRepository = articleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.acceptedCounter = meterRegistry.counter("analytics.read_progress.pings", "outcome", "accepted");
+        this.droppedCounter = meterRegistry.counter("analytics.read_progress.pings", "outcome", "dropped");
+    }
+
+    @PostConstruct
+    void init() {
+        // A visit idle for longer than the TTL is over; a later ping with its id counts as a new visit
+        visits = Caffeine.newBuilder()
+                .maximumSize(maxVisits)
+                .expireAfterAccess(Duration.ofMinutes(visitTtlMinutes))
+                .build();
+    }
+
+    /**
+     * Records a beacon batch: a JSON array of
+     * {@code [articleId, visitId, maxScrollDepthPercent, totalDwellSeconds]} entries. Malformed
+     * entries and anything past the batch limit are ignored, since beacon senders never read
+     * the response. Returns the number of pings accepted.
+     */
+    public int recordBeacon(String payload) {
+        if (payload == null || payload.isEmpty() || payload.length() > MAX_PAYLOAD_CHARS) {
+            return 0;
+        }
+        JsonNode pings;
+        try {
+            pings = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            return 0;
+        }
+        if (pings == null || !pings.isArray()) {
+            return 0;
+        }
+        int accepted = 0;
+        for (int i = 0; i < Math.min(pings.size(), MAX_PINGS_PER_BEACON); i++) {
+            JsonNode ping = pings.get(i);
+            if (ping.isArray() && ping.size() == 4 && ping.get(0).canConvertToLong() && ping.get(0).asLong() > 0
+                    && ping.get(1).isTextual() && !ping.get(1).asText().isEmpty()
+                    && ping.get(1).asText().length() <= MAX_VISIT_ID_LENGTH
+                    && ping.get(2).isNumber() && ping.get(3).isNumber()
+                    && record(ping.get(0).asLong(), ping.get(1).asText(), ping.get(2).asInt(), ping.get(3).asLong())) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Records the running totals of one visit. Depth is clamped to 0-100 and dwell to the
+     * configured maximum; values lower than ones already reported for the visit are ignored.
+     * Returns false if the ping was dropped because the window is full.
+     */
+    public boolean record(long articleId, String visitId, int scrollDepthPercent, long dwellSeconds) {
+        int bucket = Math.min(Math.max(0, Math.min(100, scrollDepthPercent)) / 10, DEPTH_BUCKETS - 1);
+        long dwell = Math.max(0, Math.min(maxDwellSeconds, dwellSeconds));
+        windowLock.readLock().lock();
+        try {
+            AtomicLongArray counters = window.get(articleId);
+            if (counters == null) {
+                if (window.size() >= maxWindowArticles) {
+                    droppedCounter.increment();
+                    return false;
+                }
+                counters = window.computeIfAbsent(articleId, id -> new AtomicLongArray(SLOTS));
+            }
+            Visit visit = visits.get(articleId + ":" + visitId, key -> new Visit());
+            synchronized (visit) {
+                if (visit.depthBucket < 0) {
+                    counters.incrementAndGet(SAMPLES);
+                    counters.incrementAndGet(bucket);
+                    counters.addAndGet(DWELL_SECONDS, dwell);
+                    visit.bounced = dwell < bounceSeconds;
+                    if (visit.bounced) {
+                        counters.incrementAndGet(BOUNCED);
+                    }
+                    visit.depthBucket = bucket;
+                    visit.dwellSeconds = dwell;
+                } else {
+                    // Deltas may land in a later window than the visit's first ping; the flush adds them all the same
+                    if (bucket > visit.depthBucket) {
+                        counters.decrementAndGet(visit.depthBucket);
+                        counters.incrementAndGet(bucket);
+                        visit.depthBucket = bucket;
+                    }
+                    if (dwell > visit.dwellSeconds) {
+                        counters.addAndGet(DWELL_SECONDS, dwell - visit.dwellSeconds);
+                        visit.dwellSeconds = dwell;
+                        if (visit.bounced && dwell >= bounceSeconds) {
+                            counters.decrementAndGet(BOUNCED);
+                            visit.bounced = false;
+                        }
+                    }
+                }
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+        acceptedCounter.increment();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.read-progress.flush-interval-ms:30000}")
+    public void flush() {
+        Map<Long, AtomicLongArray> pending;
+        windowLock.writeLock().lock();
+        try {
+            if (window.isEmpty()) {
+                return;
+            }
+            pending = window;
+            window = new ConcurrentHashMap<>();
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> missing = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> pending.forEach((articleId, counters) -> {
+                long completed = 0;
+                for (int bucket = COMPLETED_BUCKET; bucket < DEPTH_BUCKETS; bucket++) {
+                    completed += counters.get(bucket);
+                }
+                int updated = articleAnalyticsRepository.addReadProgress(articleId, counters.get(SAMPLES),
+                        counters.get(DWELL_SECONDS), counters.get(BOUNCED), completed, now);
+                if (updated == 0) {
+                    missing.add(articleId);
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush read progress for {} articles: {}", pending.size(), e.getMessage());
+            carryOver(pending.keySet(), pending);
+            return;
+        }
+        if (!missing.isEmpty()) {
+            // Articles deleted since the ping are dropped; the rest wait for the ingestion pipeline to create their row
+            carryOver(articleRepository.findExistingIds(missing), pending);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Puts unflushed samples back into the current window while there is room
+    private void carryOver(Collection<Long> articleIds, Map<Long, AtomicLongArray> pending) {
+        windowLock.readLock().lock();
+        try {
+            for (Long articleId : articleIds) {
+                AtomicLongArray source = pending.get(articleId);
+                if (!window.containsKey(articleId) && window.size() >= maxWindowArticles) {
+                    droppedCounter.increment(source.get(SAMPLES));
+                    continue;
+                }
+                AtomicLongArray target = window.computeIfAbsent(articleId, id -> new AtomicLongArray(SLOTS));
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    target.addAndGet(slot, source.get(slot));
+                }
+            }
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    // Last values reported by one visit
+    private static final class Visit {
+        int depthBucket = -1;
+        long dwellSeconds;
+        boolean bounced;
+    }
+}
@@ -0,0 +1,236 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.example.event.ArticleClappedEvent;
+import org.example.event.ArticleReadEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of ranked recommendation article ids, one entry per user and list kind.
+ *
+ * Lists older than the refresh interval are served stale while a background refresh
+ * recomputes them; lists older than the TTL are dropped. A new read by the user drops
+ * their lists, a clap marks them stale so the next request triggers a refresh.
+ */
+@Service
+public class RecommendationResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationResultCache.class);
+
+    public static final String PERSONALIZED = "personalized";
+    public static final String FEED = "feed";
+
+    private static final List<String> KINDS = List.of(PERSONALIZED, FEED);
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final TaskExecutor refreshExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.recommendation.results.cache-size:20000}")
+    private int cacheSize;
+
+    @Value("${app.recommendation.results.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    @Value("${app.recommendation.results.refresh-after-seconds:30}")
+    private long refreshAfterSeconds;
+
+    @Value("${app.recommendation.results.cached-size:50}")
+    private int cachedSize;
+
+    private Cache<ResultKey, RankedIds> results;
+    // Bumped whenever a user in the stripe is invalidated; a miss only caches what it
+    // computed if its stripe did not move, so an invalidation during the compute wins
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public RecommendationResultCache(@Qualifier("recommendationRefreshExecutor") TaskExecutor refreshExecutor,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.refreshExecutor = refreshExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Number of ids computed and cached per list; requests for more bypass the cache.
+     */
+    public int getCachedSize() {
+        return cachedSize;
+    }
+
+    /**
+     * Returns up to {@code limit} ranked ids for the user. {@code compute} must produce a
+     * list of {@link #getCachedSize()} ids and may run on a background thread, so it should
+     * only capture ids and stateless services.
+     */
+    public List<Long> getRankedIds(String kind, Long userId, int limit, Supplier<List<Long>> compute) {
+        if (limit > cachedSize) {
+            return compute.get();
+        }
+
+        ResultKey key = new ResultKey(userId, kind);
+        RankedIds cached = results.getIfPresent(key);
+        if (cached == null) {
+            meterRegistry.counter("recommendation.results.cache", "kind", kind, "result", "miss").increment();
+            int stripe = stripe(userId);
+            long generation = generations.get(stripe);
+            RankedIds computed = new RankedIds(compute.get());
+            results.asMap().compute(key, (k, existing) ->
+                    generations.get(stripe) == generation ? computed : existing);
+            cached = computed;
+        } else if (cached.isStale(TimeUnit.SECONDS.toNanos(refreshAfterSeconds))) {
+            meterRegistry.counter("recommendation.results.cache", "kind", kind, "result", "stale").increment();
+            scheduleRefresh(key, cached, compute);
+        } else {
+            meterRegistry.counter("recommendation.results.cache", "kind", kind, "result", "hit").increment();
+        }
+
+        List<Long> ids = cached.ids;
+        return ids.size() > limit ? ids.subList(0, limit) : ids;
+    }
+
+    public void invalidate(Long userId) {
+        int stripe = stripe(userId);
+        for (String kind : KINDS) {
+            // Bumping inside compute orders this against a miss storing the same key
+            results.asMap().compute(new ResultKey(userId, kind), (k, existing) -> {
+                generations.incrementAndGet(stripe);
+                return null;
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleRead(ArticleReadEvent event) {
+        if (event.getUserId() != null) {
+            // The read article must drop out of the user's lists right away
+            invalidate(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleClapped(ArticleClappedEvent event) {
+        // Keep serving the current lists but recompute them on the next request
+        for (String kind : KINDS) {
+            RankedIds cached = results.getIfPresent(new ResultKey(event.getUserId(), kind));
+            if (cached != null) {
+                cached.markStale();
+            }
+        }
+    }
+
+    private void scheduleRefresh(ResultKey key, RankedIds cached, Supplier<List<Long>> compute) {
+        String kind = key.kind;
+        if (!cached.startRefresh()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    List<Long> ids = readOnlyTransaction.execute(status -> compute.get());
+                    // Only replace the list we refreshed; an invalidation in the meantime wins.
+                    // The new entry restarts the TTL, so a list refreshed in the background
+                    // is not dropped on the age of the one it replaced.
+                    results.asMap().replace(key, cached, new RankedIds(ids != null ? ids : Collections.emptyList()));
+                } catch (RuntimeException e) {
+                    cached.refreshFailed();
+                    log.warn("Failed to refresh {} recommendations: {}", kind, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cached.refreshFailed();
+            meterRegistry.counter("recommendation.results.refresh.rejected", "kind", kind).increment();
+        }
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId) & (GENERATION_STRIPES - 1);
+    }
+
+    private static final class ResultKey {
+        final long userId;
+        final String kind;
+
+        ResultKey(long userId, String kind) {
+            this.userId = userId;
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return userId == other.userId && kind.equals(other.kind);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(userId) * 31 + kind.hashCode();
+        }
+    }
+
+    private static class RankedIds {
+        final List<Long> ids;
+        final long computedAt;
+        private volatile boolean forcedStale;
+        private boolean refreshing;
+
+        RankedIds(List<Long> ids) {
+            this.ids = List.copyOf(ids);
+            this.computedAt = System.nanoTime();
+        }
+
+        boolean isStale(long refreshAfterNanos) {
+            return forcedStale || System.nanoTime() - computedAt >= refreshAfterNanos;
+        }
+
+        void markStale() {
+            forcedStale = true;
+        }
+
+        synchronized boolean startRefresh() {
+            if (refreshing) {
+                return false;
+            }
+            refreshing = true;
+            return true;
+        }
+
+        synchronized void refreshFailed() {
+            refreshing = false;
+        }
+    }
+}
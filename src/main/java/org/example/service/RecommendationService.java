@@ -6,6 +6,7 @@ import org.example.repository.*;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import org.example.exception.ResourceNotFoundException;
+import org.example.util.TopK;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,26 +23,83 @@ public class RecommendationService {
     
     private final TagRepository tagRepository;
     
+    private final UserInterestProfileService userInterestProfileService;
+    
+    private final CandidateGenerationService candidateGenerationService;
+    
+    private final RecommendationResultCache recommendationResultCache;
+    
+    private final ArticleFeatureStore articleFeatureStore;
+    
+    private final ArticleEmbeddingService articleEmbeddingService;
+    
+    private final CoVisitationService coVisitationService;
+    
+    private final ReadArticleIndex readArticleIndex;
+    
+    private final TagPostingIndex tagPostingIndex;
+    
+    private static final int INTEREST_TAG_LIMIT = 20;
+    
+    private static final int MAX_SESSION_SIZE = 20;
+    
+    private static final int MAX_ALSO_READ = 50;
+    
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    
     public List<ArticleResponseDto> getMoreLikeThis(Long articleId, String username, int limit) {
         Article sourceArticle = articleRepository.findById(articleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Article not found"));
         
-        // Get tags from the source article
-        Set<String> sourceTags = sourceArticle.getTags().stream()
-                .map(Tag::getName)
-                .collect(Collectors.toSet());
+        // Nearest neighbours by content embedding come first
+        List<Long> similarIds = new ArrayList<>(articleEmbeddingService.findSimilarArticleIds(articleId, limit));
         
-        // Find articles with similar tags
-        List<Article> similarArticles = articleRepository.findByTags(sourceTags, 
-                org.springframework.data.domain.PageRequest.of(0, limit * 2)).getContent();
+        // Top up with tag matches when the index is cold or the article is new
+        if (similarIds.size() < limit) {
+            Set<String> sourceTags = sourceArticle.getTags().stream()
+                    .map(Tag::getName)
+                    .collect(Collectors.toSet());
+            if (!sourceTags.isEmpty()) {
+                List<Long> tagMatches = tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(sourceTags),
+                        org.springframework.data.domain.PageRequest.of(0, limit * 2)).getContent();
+                for (Long matchId : tagMatches) {
+                    if (similarIds.size() >= limit) {
+                        break;
+                    }
+                    if (!matchId.equals(articleId) && !similarIds.contains(matchId)) {
+                        similarIds.add(matchId);
+                    }
+                }
+            }
+        }
         
-        // Filter out the source article
-        List<Article> filteredArticles = similarArticles.stream()
-                .filter(article -> !article.getId().equals(articleId))
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Signed-in readers see what they have not read yet first
+        if (username != null) {
+            Long userId = userRepository.findByUsername(username).map(User::getId).orElse(null);
+            similarIds = readArticleIndex.deRankRead(userId, similarIds, Long::longValue);
+        }
         
-        return filteredArticles.stream()
+        return findAllInOrder(similarIds).stream()
+                .map(this::toArticleResponseDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * "Readers also read" for a client-supplied session of recently read article ids,
+     * oldest first. Needs no account, so it also serves anonymous and brand-new readers.
+     */
+    public List<ArticleResponseDto> getAlsoRead(List<Long> recentIds, int limit) {
+        if (recentIds.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Only the tail of a long client-supplied session matters, and it bounds the work per request
+        List<Long> session = recentIds.subList(Math.max(0, recentIds.size() - MAX_SESSION_SIZE), recentIds.size());
+        limit = Math.min(limit, MAX_ALSO_READ);
+        // Over-fetch slightly since unpublished or deleted neighbours are dropped on hydration
+        List<Long> alsoReadIds = coVisitationService.findAlsoRead(session, limit * 2, Collections.emptySet());
+        return findAllInOrder(alsoReadIds).stream()
+                .filter(Article::isPublished)
+                .limit(limit)
                 .map(this::toArticleResponseDto)
                 .collect(Collectors.toList());
     }
@@ -49,59 +107,73 @@ public class RecommendationService {
     public List<ArticleResponseDto> getPersonalizedFeed(String username, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = user.getId();
         
-        // Get user's reading history
-        List<ReadingHistory> readingHistory = readingHistoryRepository.findByUserOrderByReadAtDesc(user);
+        // Ranked ids are cached per user; only the requested page is hydrated
+        List<Long> rankedIds = recommendationResultCache.getRankedIds(RecommendationResultCache.FEED, userId, limit,
+                () -> rankFeedArticleIds(userId, Math.max(limit, recommendationResultCache.getCachedSize())));
         
-        // Extract user's interests from reading history
-        Set<String> userInterests = extractUserInterests(readingHistory);
-        
-        // Get articles based on user interests
-        List<Article> interestBasedArticles = new ArrayList<>();
-        if (!userInterests.isEmpty()) {
-            interestBasedArticles = articleRepository.findByTags(userInterests, 
-                    org.springframework.data.domain.PageRequest.of(0, limit)).getContent();
-        }
-        
-        // Sort by popularity and recency
-        List<Article> sortedArticles = interestBasedArticles.stream()
-                .sorted((a1, a2) -> {
-                    double score1 = calculateScore(a1);
-                    double score2 = calculateScore(a2);
-                    return Double.compare(score2, score1);
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
-        
-        return sortedArticles.stream()
+        return findAllInOrder(rankedIds).stream()
                 .map(this::toArticleResponseDto)
                 .collect(Collectors.toList());
     }
     
-    private Set<String> extractUserInterests(List<ReadingHistory> readingHistory) {
-        Set<String> interests = new HashSet<>();
+    private List<Long> rankFeedArticleIds(Long userId, int limit) {
+        // User's strongest interests from their incrementally maintained profile
+        Set<String> userInterests = userInterestProfileService.getProfile(userId).getTopTags(INTEREST_TAG_LIMIT);
         
-        for (ReadingHistory history : readingHistory) {
-            Article article = history.getArticle();
-            interests.addAll(article.getTags().stream()
-                    .map(Tag::getName)
-                    .collect(Collectors.toSet()));
+        // Fan out to interest, follow, similarity, co-visitation and trending sources within the latency budget
+        // Already-read articles never reach the feed
+        List<Long> candidateIds = candidateGenerationService.generateCandidates(
+                userId, userInterests, readArticleIndex.getReadIds(userId)::contains);
+        
+        // Sort by popularity and recency, scored from the feature columns
+        ArticleFeatureStore.Snapshot features = articleFeatureStore.snapshot();
+        long now = ArticleFeatureStore.toEpochSecond(java.time.LocalDateTime.now());
+        int[] rows = new int[candidateIds.size()];
+        double[] scores = new double[candidateIds.size()];
+        int count = 0;
+        for (Long candidateId : candidateIds) {
+            int row = features.rowOf(candidateId);
+            if (row >= 0) {
+                rows[count] = row;
+                scores[count] = calculateScore(features, row, now);
+                count++;
+            }
         }
         
-        return interests;
+        int[] top = TopK.select(scores, count, limit);
+        List<Long> rankedIds = new ArrayList<>(top.length);
+        for (int index : top) {
+            rankedIds.add(features.id(rows[index]));
+        }
+        return rankedIds;
+    }
+    
+    private List<Article> findAllInOrder(List<Long> ids) {
+        Map<Long, Article> byId = articleRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Article::getId, article -> article));
+        List<Article> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Article article = byId.get(id);
+            if (article != null) {
+                ordered.add(article);
+            }
+        }
+        return ordered;
     }
     
-    private double calculateScore(Article article) {
+    private double calculateScore(ArticleFeatureStore.Snapshot features, int row, long now) {
         double score = 0.0;
         
         // Popularity score
-        score += Math.log10(article.getViewCount() + 1) * 0.5;
-        score += Math.log10(article.getLikeCount() + 1) * 0.3;
+        score += Math.log10(features.viewCount(row) + 1) * 0.5;
+        score += Math.log10(features.likeCount(row) + 1) * 0.3;
         
         // Recency score
-        if (article.getPublishedAt() != null) {
-            long daysSincePublished = java.time.Duration.between(article.getPublishedAt(), 
-                    java.time.LocalDateTime.now()).toDays();
+        long publishedAt = features.publishedEpochSecond(row);
+        if (publishedAt != ArticleFeatureStore.NOT_PUBLISHED) {
+            long daysSincePublished = (now - publishedAt) / SECONDS_PER_DAY;
             double recencyScore = Math.max(0.5, 1.0 - (daysSincePublished / 365.0));
             score += recencyScore * 0.2;
         }
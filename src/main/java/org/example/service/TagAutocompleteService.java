@@ -0,0 +1,174 @@
+package org.example.service;
+
+import org.example.dto.TagSuggestionDto;
+import org.example.event.ArticleSavedEvent;
+import org.example.repository.TagRepository;
+import org.example.util.CompletionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Editor tag autocomplete served from an in-memory {@link CompletionTrie}.
+ *
+ * Tags are indexed under their full lower-cased name and under each word of it, so
+ * "spring" completes "spring-boot" and "java-spring" alike, and are weighted by the number
+ * of published articles using them. Saved articles refresh the entries of their tags; a
+ * periodic rebuild picks up tags created or emptied elsewhere. Tags refreshed while a rebuild
+ * is loading are reloaded into the rebuilt index before it replaces the current one, so a
+ * rebuild never discards a newer refresh. Queries of three or more
+ * characters also match within one typo when exact completions run short.
+ */
+@Service
+public class TagAutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagAutocompleteService.class);
+
+    static final int MAX_COMPLETIONS = 20;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private final TagRepository tagRepository;
+
+    private volatile Index index = new Index();
+
+    private final Object swapLock = new Object();
+    // Names refreshed since the running rebuild started loading, or null when none is running
+    private Set<String> refreshedDuringRebuild;
+
+    public TagAutocompleteService(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.tags.autocomplete.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.tags.autocomplete.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Set<String> refreshed = new HashSet<>();
+        synchronized (swapLock) {
+            refreshedDuringRebuild = refreshed;
+        }
+        Index rebuilt = new Index();
+        try {
+            for (Object[] row : tagRepository.findTagStats()) {
+                rebuilt.put(row);
+            }
+            synchronized (swapLock) {
+                // The snapshot may predate these refreshes, so reload them before publishing
+                if (!refreshed.isEmpty()) {
+                    for (Object[] row : tagRepository.findTagStatsByNames(refreshed)) {
+                        rebuilt.put(row);
+                    }
+                }
+                index = rebuilt;
+            }
+        } finally {
+            synchronized (swapLock) {
+                refreshedDuringRebuild = null;
+            }
+        }
+        log.debug("Indexed {} tags for autocomplete in {} ms", rebuilt.tags.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleSaved(ArticleSavedEvent event) {
+        if (event.getTagNames() != null && !event.getTagNames().isEmpty()) {
+            refresh(event.getTagNames());
+        }
+    }
+
+    /**
+     * Reloads the named tags' names, counts and scores into the index.
+     */
+    public void refresh(Collection<String> tagNames) {
+        Index current;
+        synchronized (swapLock) {
+            current = index;
+            if (refreshedDuringRebuild != null) {
+                refreshedDuringRebuild.addAll(tagNames);
+            }
+        }
+        for (Object[] row : tagRepository.findTagStatsByNames(tagNames)) {
+            current.put(row);
+        }
+    }
+
+    public List<TagSuggestionDto> suggest(String query, int limit) {
+        String prefix = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        Index current = index;
+        long[] ids = current.trie.complete(prefix, Math.min(limit, MAX_COMPLETIONS), prefix.length() >= MIN_FUZZY_LENGTH);
+        List<TagSuggestionDto> suggestions = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            TagSuggestionDto tag = current.tags.get(id);
+            if (tag != null) {
+                suggestions.add(copy(tag));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Index entries for the named tags, in the given order; names not indexed are skipped.
+     */
+    public List<TagSuggestionDto> describe(List<String> tagNames) {
+        Index current = index;
+        List<TagSuggestionDto> tags = new ArrayList<>(tagNames.size());
+        for (String name : tagNames) {
+            Long id = current.idsByName.get(name);
+            TagSuggestionDto tag = id != null ? current.tags.get(id) : null;
+            if (tag != null) {
+                tags.add(copy(tag));
+            }
+        }
+        return tags;
+    }
+
+    // Callers may modify returned DTOs, so the cached ones are never handed out
+    private static TagSuggestionDto copy(TagSuggestionDto tag) {
+        TagSuggestionDto dto = new TagSuggestionDto(tag.getId(), tag.getName(), tag.getArticleCount());
+        dto.setDescription(tag.getDescription());
+        dto.setTrendingScore(tag.getTrendingScore());
+        dto.setTrending(tag.isTrending());
+        return dto;
+    }
+
+    static List<String> keys(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 1 && !word.equals(normalized)) {
+                keys.add(word);
+            }
+        }
+        return keys;
+    }
+
+    private static final class Index {
+        final CompletionTrie trie = new CompletionTrie(MAX_COMPLETIONS);
+        final Map<Long, TagSuggestionDto> tags = new ConcurrentHashMap<>();
+        final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+        // Row is [id, name, description, trendingScore, publishedArticleCount]
+        void put(Object[] row) {
+            Long id = (Long) row[0];
+            String name = (String) row[1];
+            long articleCount = ((Number) row[4]).longValue();
+            double trendingScore = row[3] != null ? ((Number) row[3]).doubleValue() : 0.0;
+            TagSuggestionDto tag = new TagSuggestionDto(id, name, articleCount);
+            tag.setDescription((String) row[2]);
+            tag.setTrendingScore(trendingScore);
+            tag.setTrending(trendingScore > 50.0);
+            tags.put(id, tag);
+            idsByName.put(name, id);
+            trie.put(id, keys(name), articleCount);
+        }
+    }
+}
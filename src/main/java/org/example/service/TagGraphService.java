@@ -0,0 +1,207 @@
+package org.example.service;
+
+import org.example.dto.TagSuggestionDto;
+import org.example.entity.User;
+import org.example.event.ArticleTagsChangedEvent;
+import org.example.exception.ResourceNotFoundException;
+import org.example.repository.ArticleRepository;
+import org.example.repository.UserRepository;
+import org.example.util.CooccurrenceGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Related-tag lookups over a {@link CooccurrenceGraph} of the tags on published articles.
+ *
+ * The graph is loaded once from article_tags and then kept current from
+ * {@link ArticleTagsChangedEvent}s: the article's live tag set is replaced, which removes
+ * and re-adds only that article's pairs. Related tags, editor suggestions for the tags
+ * already chosen and per-user recommendations from a reader's interest profile are all
+ * answered from memory; tag details come from the autocomplete index.
+ */
+@Service
+public class TagGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagGraphService.class);
+
+    static final int MAX_RESULTS = 50;
+    // Interest profiles hold up to a few hundred tags; the strongest ones carry the signal
+    private static final int MAX_INTEREST_SEEDS = 20;
+
+    private final ArticleRepository articleRepository;
+    private final UserRepository userRepository;
+    private final UserInterestProfileService userInterestProfileService;
+    private final TagAutocompleteService tagAutocompleteService;
+    private final TagTrendingService tagTrendingService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; node ids are assigned on first sight and never reused
+    private final CooccurrenceGraph graph = new CooccurrenceGraph();
+    private final Map<String, Integer> nodes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<Long, int[]> articleTags = new HashMap<>();
+
+    public TagGraphService(ArticleRepository articleRepository,
+                           UserRepository userRepository,
+                           UserInterestProfileService userInterestProfileService,
+                           TagAutocompleteService tagAutocompleteService,
+                           TagTrendingService tagTrendingService) {
+        this.articleRepository = articleRepository;
+        this.userRepository = userRepository;
+        this.userInterestProfileService = userInterestProfileService;
+        this.tagAutocompleteService = tagAutocompleteService;
+        this.tagTrendingService = tagTrendingService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        Map<Long, Set<String>> tagsByArticle = new HashMap<>();
+        for (Object[] row : articleRepository.findPublishedTagRows()) {
+            tagsByArticle.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        int tagCount;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Set<String>> article : tagsByArticle.entrySet()) {
+                replace(article.getKey(), article.getValue());
+            }
+            tagCount = names.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded tag co-occurrence graph of {} tags over {} articles in {} ms", tagCount,
+                tagsByArticle.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(ArticleTagsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Set<String> tags = new HashSet<>();
+            int[] current = articleTags.get(event.getArticleId());
+            if (current != null) {
+                for (int node : current) {
+                    tags.add(names.get(node));
+                }
+            }
+            tags.removeAll(event.getRemovedTags());
+            tags.addAll(event.getAddedTags());
+            replace(event.getArticleId(), tags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tags that most often appear alongside the given one, beyond what their popularity explains.
+     */
+    public List<TagSuggestionDto> getRelatedTags(String tagName, int limit) {
+        return rank(Map.of(tagName, 1.0), Set.of(), limit);
+    }
+
+    /**
+     * Suggestions for an article that already has the given tags, scored against all of them.
+     */
+    public List<TagSuggestionDto> suggestForTags(Collection<String> chosenTags, int limit) {
+        Map<String, Double> seeds = new HashMap<>();
+        for (String tag : chosenTags) {
+            seeds.put(tag, 1.0);
+        }
+        return rank(seeds, Set.of(), limit);
+    }
+
+    /**
+     * Tags related to what the user reads, excluding the ones they already read. Users
+     * without reading history get the current trending tags.
+     */
+    public List<TagSuggestionDto> recommendForUser(String username, int limit) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Map<String, Double> interests = userInterestProfileService.getProfile(user.getId()).getTagWeights();
+        if (interests.isEmpty()) {
+            return tagTrendingService.getTrendingTags(0, Math.min(limit, MAX_RESULTS)).getContent();
+        }
+        Map<String, Double> seeds = new HashMap<>();
+        interests.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(MAX_INTEREST_SEEDS)
+                .forEach(interest -> seeds.put(interest.getKey(), interest.getValue()));
+        return rank(seeds, interests.keySet(), limit);
+    }
+
+    private List<TagSuggestionDto> rank(Map<String, Double> seedWeights, Set<String> excludedNames, int limit) {
+        int size = Math.max(0, Math.min(limit, MAX_RESULTS));
+        if (size == 0 || seedWeights.isEmpty()) {
+            return List.of();
+        }
+        List<String> ranked = new ArrayList<>(size);
+        lock.readLock().lock();
+        try {
+            int[] seeds = new int[seedWeights.size()];
+            double[] weights = new double[seeds.length];
+            int i = 0;
+            for (Map.Entry<String, Double> seed : seedWeights.entrySet()) {
+                Integer node = nodes.get(seed.getKey());
+                seeds[i] = node != null ? node : -1;
+                weights[i] = seed.getValue();
+                i++;
+            }
+            int[] excluded = excludedNames.stream()
+                    .map(nodes::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int[] items = new int[size];
+            double[] scores = new double[size];
+            int count = graph.related(seeds, weights, excluded, size, items, scores);
+            for (int j = 0; j < count; j++) {
+                ranked.add(names.get(items[j]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return tagAutocompleteService.describe(ranked);
+    }
+
+    // Caller holds the write lock
+    private void replace(Long articleId, Set<String> tags) {
+        int[] previous = articleTags.get(articleId);
+        int[] next = new int[tags.size()];
+        int i = 0;
+        for (String tag : tags) {
+            next[i++] = node(tag);
+        }
+        Arrays.sort(next);
+        if (previous != null && Arrays.equals(previous, next)) {
+            return;
+        }
+        if (previous != null) {
+            graph.remove(previous);
+        }
+        if (next.length > 0) {
+            graph.add(next);
+            articleTags.put(articleId, next);
+        } else {
+            articleTags.remove(articleId);
+        }
+    }
+
+    private int node(String tag) {
+        Integer node = nodes.get(tag);
+        if (node == null) {
+            node = names.size();
+            nodes.put(tag, node);
+            names.add(tag);
+        }
+        return node;
+    }
+}
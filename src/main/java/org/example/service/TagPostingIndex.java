@@ -0,0 +1,264 @@
+package org.example.service;
+
+import org.example.util.CompressedIdBitmap;
+import org.example.util.TopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory tag posting lists over published articles, answering AND / OR / NOT tag
+ * queries without touching the article_tags join table.
+ *
+ * Articles are numbered by publish time, newest first, and each tag's posting list is a
+ * compressed bitmap of those numbers, so ascending iteration over a query result is
+ * already in recency order. Postings are derived from the {@link ArticleFeatureStore}
+ * snapshot. Only the very first query builds them on the calling thread; after that, a
+ * query that sees a newer snapshot starts a rebuild on the background refresh pool and
+ * keeps using the previous postings until the new ones are swapped in.
+ */
+@Service
+public class TagPostingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TagPostingIndex.class);
+
+    private final ArticleFeatureStore articleFeatureStore;
+    private final TaskExecutor rebuildExecutor;
+
+    private final ReentrantLock initialBuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Postings postings;
+
+    public TagPostingIndex(ArticleFeatureStore articleFeatureStore,
+                           @Qualifier("recommendationRefreshExecutor") TaskExecutor rebuildExecutor) {
+        this.articleFeatureStore = articleFeatureStore;
+        this.rebuildExecutor = rebuildExecutor;
+    }
+
+    /**
+     * A page of matching article ids, newest first, with the total number of matches.
+     */
+    public Page<Long> findRecent(TagQuery query, Pageable pageable) {
+        Postings current = current();
+        CompressedIdBitmap matches = current.evaluate(query);
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<Long> ids = new ArrayList<>(size);
+        long[] position = {0};
+        matches.forEach(ordinal -> {
+            if (position[0]++ >= offset) {
+                ids.add(current.features.id(current.rowByOrdinal[(int) ordinal]));
+            }
+            return ids.size() < size;
+        });
+        return new PageImpl<>(ids, pageable, matches.cardinality());
+    }
+
+    /**
+     * The {@code limit} best matching article ids by the given score, best first.
+     */
+    public List<Long> findTop(TagQuery query, int limit, RowScorer scorer) {
+        Postings current = current();
+        CompressedIdBitmap matches = current.evaluate(query);
+        int[] rows = new int[matches.cardinality()];
+        double[] scores = new double[rows.length];
+        int[] count = {0};
+        matches.forEach(ordinal -> {
+            int row = current.rowByOrdinal[(int) ordinal];
+            rows[count[0]] = row;
+            scores[count[0]] = scorer.score(current.features, row);
+            count[0]++;
+            return true;
+        });
+
+        int[] top = TopK.select(scores, count[0], limit);
+        List<Long> ids = new ArrayList<>(top.length);
+        for (int index : top) {
+            ids.add(current.features.id(rows[index]));
+        }
+        return ids;
+    }
+
+    private Postings current() {
+        ArticleFeatureStore.Snapshot features = articleFeatureStore.snapshot();
+        Postings existing = postings;
+        if (existing == null) {
+            return buildInitial(features);
+        }
+        if (existing.features != features) {
+            scheduleRebuild();
+        }
+        return existing;
+    }
+
+    private Postings buildInitial(ArticleFeatureStore.Snapshot features) {
+        initialBuildLock.lock();
+        try {
+            Postings existing = postings;
+            if (existing == null) {
+                existing = new Postings(features);
+                postings = existing;
+            }
+            return existing;
+        } finally {
+            initialBuildLock.unlock();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    // Build from the newest snapshot when the task runs; later changes trigger another pass
+                    ArticleFeatureStore.Snapshot latest = articleFeatureStore.snapshot();
+                    if (postings.features != latest) {
+                        postings = new Postings(latest);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rebuild tag postings: {}", e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The next query retries
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Scores one feature-store row; higher is better.
+     */
+    @FunctionalInterface
+    public interface RowScorer {
+        double score(ArticleFeatureStore.Snapshot features, int row);
+    }
+
+    /**
+     * Tag predicate: every tag in {@code allOf}, at least one in {@code anyOf} (when given),
+     * none in {@code noneOf}. An empty query matches every published article.
+     */
+    public static final class TagQuery {
+        private final Set<String> allOf;
+        private final Set<String> anyOf;
+        private final Set<String> noneOf;
+
+        private TagQuery(Set<String> allOf, Set<String> anyOf, Set<String> noneOf) {
+            this.allOf = allOf;
+            this.anyOf = anyOf;
+            this.noneOf = noneOf;
+        }
+
+        public static TagQuery of(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+            return new TagQuery(copy(allOf), copy(anyOf), copy(noneOf));
+        }
+
+        public static TagQuery anyOf(Collection<String> tags) {
+            return of(null, tags, null);
+        }
+
+        public static TagQuery allOf(Collection<String> tags) {
+            return of(tags, null, null);
+        }
+
+        private static Set<String> copy(Collection<String> tags) {
+            return tags != null ? Set.copyOf(tags) : Set.of();
+        }
+    }
+
+    private static final class Postings {
+        final ArticleFeatureStore.Snapshot features;
+        final int[] rowByOrdinal;
+        final CompressedIdBitmap[] byTagBit;
+        final CompressedIdBitmap all = new CompressedIdBitmap();
+
+        Postings(ArticleFeatureStore.Snapshot features) {
+            long started = System.nanoTime();
+            this.features = features;
+
+            // Number live rows newest first; ties fall back to id so numbering is deterministic
+            List<Integer> liveRows = new ArrayList<>(features.size());
+            for (int row = 0; row < features.size(); row++) {
+                if (features.rowOf(features.id(row)) == row) {
+                    liveRows.add(row);
+                }
+            }
+            liveRows.sort(Comparator.<Integer>comparingLong(features::publishedEpochSecond)
+                    .thenComparingLong(features::id)
+                    .reversed());
+            rowByOrdinal = new int[liveRows.size()];
+
+            List<CompressedIdBitmap> tagPostings = new ArrayList<>();
+            for (int ordinal = 0; ordinal < rowByOrdinal.length; ordinal++) {
+                int row = liveRows.get(ordinal);
+                rowByOrdinal[ordinal] = row;
+                all.add(ordinal);
+                long[] bits = features.tagBits(row);
+                for (int word = 0; word < bits.length; word++) {
+                    long remaining = bits[word];
+                    while (remaining != 0) {
+                        int bit = (word << 6) | Long.numberOfTrailingZeros(remaining);
+                        while (tagPostings.size() <= bit) {
+                            tagPostings.add(null);
+                        }
+                        if (tagPostings.get(bit) == null) {
+                            tagPostings.set(bit, new CompressedIdBitmap());
+                        }
+                        tagPostings.get(bit).add(ordinal);
+                        remaining &= remaining - 1;
+                    }
+                }
+            }
+            byTagBit = tagPostings.toArray(new CompressedIdBitmap[0]);
+            log.debug("Built tag postings for {} articles and {} tags in {} ms", rowByOrdinal.length,
+                    byTagBit.length, (System.nanoTime() - started) / 1_000_000);
+        }
+
+        CompressedIdBitmap evaluate(TagQuery query) {
+            CompressedIdBitmap result = all;
+            for (String tag : query.allOf) {
+                CompressedIdBitmap posting = posting(tag);
+                if (posting == null) {
+                    return new CompressedIdBitmap();
+                }
+                result = result.and(posting);
+            }
+            if (!query.anyOf.isEmpty()) {
+                CompressedIdBitmap union = new CompressedIdBitmap();
+                for (String tag : query.anyOf) {
+                    CompressedIdBitmap posting = posting(tag);
+                    if (posting != null) {
+                        union = union.or(posting);
+                    }
+                }
+                result = result.and(union);
+            }
+            for (String tag : query.noneOf) {
+                CompressedIdBitmap posting = posting(tag);
+                if (posting != null) {
+                    result = result.andNot(posting);
+                }
+            }
+            return result;
+        }
+
+        private CompressedIdBitmap posting(String tag) {
+            int bit = features.tagBit(tag);
+            return bit >= 0 && bit < byTagBit.length ? byTagBit[bit] : null;
+        }
+    }
+}
@@ -5,12 +5,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Set;
 
 public interface TagService {
     List<String> getAllTags();
     List<TagSuggestionDto> getTagSuggestions(String query, int limit);
     List<String> getTrendingTags(int days, int limit);
+    List<TagSuggestionDto> getRelatedTags(String tag, int limit);
+    List<TagSuggestionDto> suggestTagsFor(Set<String> chosenTags, int limit);
     List<String> getArticlesByTag(String tag, Pageable pageable);
+    List<String> findArticles(Set<String> allOf, Set<String> anyOf, Set<String> noneOf, String sort, Pageable pageable);
     void addTagToArticle(Long articleId, String tag);
     void removeTagFromArticle(Long articleId, String tag);
 }
@@ -0,0 +1,354 @@
+package org.example.service;
+
+import org.example.dto.TagSuggestionDto;
+import org.example.event.ArticleTagsChangedEvent;
+import org.example.repository.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Tag usage counters and trending scores kept in memory and written back in batches.
+ *
+ * Every tag used by a published article in the last month has a ring of daily usage
+ * buckets, so the weekly and monthly counts slide forward by zeroing expired days rather
+ * than recounting articles. Publish and tag events touch only the tags involved; those tags
+ * are marked dirty and the periodic flush recomputes their scores, reloads their article
+ * counts in one grouped query and updates their rows in one JDBC batch. A midnight pass
+ * marks tags whose windows lost a day. Trending tags are served from a ranking that is
+ * updated as scores change, so no request sorts the tag table.
+ */
+@Service
+public class TagTrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagTrendingService.class);
+
+    static final int WEEK_DAYS = 7;
+    static final int MONTH_DAYS = 30;
+    static final int TOP_K = 200;
+    // Damps the score of tags with only a handful of uses in the month
+    private static final double SCORE_PRIOR = 5.0;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String UPDATE_SQL = "UPDATE tags SET weekly_usage = ?, monthly_usage = ?, trending_score = ?, " +
+            "article_count = ?, last_used = COALESCE(?, last_used) WHERE id = ?";
+    private static final int[] UPDATE_TYPES = {Types.BIGINT, Types.BIGINT, Types.DOUBLE, Types.BIGINT, Types.TIMESTAMP, Types.BIGINT};
+
+    // Brings stored counters in line with the articles before the in-memory windows take over.
+    // One grouped pass over article_tags, and only rows that disagree are written, so a
+    // restart after a clean shutdown touches little beyond the tags the first flush rewrites.
+    private static final String RESET_SQL = "UPDATE tags SET weekly_usage = 0, monthly_usage = 0, trending_score = 0, " +
+            "article_count = s.article_count, last_used = s.last_used " +
+            "FROM (SELECT t.id, COUNT(a.id) AS article_count, MAX(a.published_at) AS last_used FROM tags t " +
+            "LEFT JOIN article_tags at ON at.tag_id = t.id " +
+            "LEFT JOIN articles a ON a.id = at.article_id AND a.is_published = true GROUP BY t.id) s " +
+            "WHERE tags.id = s.id AND (tags.weekly_usage IS DISTINCT FROM 0 OR tags.monthly_usage IS DISTINCT FROM 0 " +
+            "OR tags.trending_score IS DISTINCT FROM 0 " +
+            "OR tags.article_count IS DISTINCT FROM s.article_count OR tags.last_used IS DISTINCT FROM s.last_used)";
+
+    private final TagRepository tagRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TagAutocompleteService tagAutocompleteService;
+
+    // Guarded by this; tags leave once their month is empty and their row is written
+    private final Map<String, TagUsage> usage = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private final NavigableSet<TagUsage> ranking = new TreeSet<>(BY_SCORE);
+    private volatile List<Ranked> top = List.of();
+    private final Object flushLock = new Object();
+
+    public TagTrendingService(TagRepository tagRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TagAutocompleteService tagAutocompleteService) {
+        this.tagRepository = tagRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagAutocompleteService = tagAutocompleteService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        long started = System.nanoTime();
+        jdbcTemplate.update(RESET_SQL);
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = tagRepository.findPublishedUsageSince(today.minusDays(MONTH_DAYS - 1).atStartOfDay());
+        int tags;
+        synchronized (this) {
+            for (Object[] row : rows) {
+                LocalDateTime publishedAt = (LocalDateTime) row[1];
+                tagUsage((String) row[0]).record(publishedAt.toLocalDate().toEpochDay(), publishedAt);
+            }
+            dirty.addAll(usage.keySet());
+            tags = usage.size();
+        }
+        flush();
+        log.info("Loaded usage windows for {} tags from {} tag uses in {} ms", tags, rows.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(ArticleTagsChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        long today = now.toLocalDate().toEpochDay();
+        synchronized (this) {
+            for (String name : event.getAddedTags()) {
+                tagUsage(name).record(today, now);
+                dirty.add(name);
+            }
+            // Removals leave the windows alone, which count uses, but change the article count
+            dirty.addAll(event.getRemovedTags());
+        }
+    }
+
+    /**
+     * Marks tags whose sliding windows changed when the day rolled over, then flushes them.
+     */
+    @Scheduled(cron = "${app.tags.trending.rollover-cron:0 1 0 * * ?}")
+    public void rollover() {
+        long today = LocalDate.now().toEpochDay();
+        synchronized (this) {
+            for (TagUsage tag : usage.values()) {
+                tag.window.advance(today);
+                if (tag.window.sum(today, WEEK_DAYS) != tag.weekly || tag.window.sum(today, MONTH_DAYS) != tag.monthly) {
+                    dirty.add(tag.name);
+                }
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Recomputes the dirty tags, writes their counters in batches and refreshes the ranking.
+     */
+    @Scheduled(fixedDelayString = "${app.tags.trending.flush-interval-ms:60000}")
+    public void flush() {
+        // Serialised so an older batch can never land after a newer one for the same tag
+        synchronized (flushLock) {
+            flushDirty();
+        }
+    }
+
+    private void flushDirty() {
+        Set<String> names;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            names = new HashSet<>(dirty);
+            dirty.clear();
+        }
+
+        // Article counts and ids come from one grouped query; tags deleted meanwhile simply drop out
+        Map<String, Object[]> stats = new HashMap<>();
+        for (Object[] row : tagRepository.findTagStatsByNames(names)) {
+            stats.put((String) row[1], row);
+        }
+
+        long today = LocalDate.now().toEpochDay();
+        List<Object[]> updates = new ArrayList<>(stats.size());
+        synchronized (this) {
+            for (String name : names) {
+                Object[] row = stats.get(name);
+                TagUsage tag = usage.get(name);
+                if (row == null) {
+                    if (tag != null) {
+                        ranking.remove(tag);
+                        usage.remove(name);
+                    }
+                    continue;
+                }
+                if (tag == null) {
+                    // Only removals touched this tag; its windows are empty
+                    tag = new TagUsage(name);
+                }
+                ranking.remove(tag);
+                tag.id = (Long) row[0];
+                tag.description = (String) row[2];
+                tag.articleCount = ((Number) row[4]).longValue();
+                tag.window.advance(today);
+                tag.weekly = tag.window.sum(today, WEEK_DAYS);
+                tag.monthly = tag.window.sum(today, MONTH_DAYS);
+                tag.score = score(tag.weekly, tag.monthly);
+                updates.add(new Object[]{tag.weekly, tag.monthly, tag.score, tag.articleCount,
+                        tag.lastUsed != null ? Timestamp.valueOf(tag.lastUsed) : null, tag.id});
+                if (tag.score > 0) {
+                    ranking.add(tag);
+                }
+                if (tag.monthly == 0) {
+                    usage.remove(name);
+                }
+            }
+            publishTop();
+        }
+
+        try {
+            for (int from = 0; from < updates.size(); from += FLUSH_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates.subList(from, Math.min(from + FLUSH_BATCH_SIZE, updates.size())), UPDATE_TYPES);
+            }
+        } catch (RuntimeException e) {
+            // The in-memory windows are the source of truth; retry the rows on the next flush
+            log.warn("Failed to persist usage for {} tags, will retry", names.size(), e);
+            synchronized (this) {
+                dirty.addAll(names);
+            }
+            return;
+        }
+        tagAutocompleteService.refresh(stats.keySet());
+        log.debug("Persisted usage for {} tags", updates.size());
+    }
+
+    /**
+     * A page of the highest-scoring tags, served from the maintained ranking.
+     */
+    public Page<TagSuggestionDto> getTrendingTags(int page, int size) {
+        List<Ranked> current = top;
+        PageRequest pageable = PageRequest.of(page, size);
+        int from = (int) Math.min(pageable.getOffset(), current.size());
+        int to = Math.min(from + size, current.size());
+        List<TagSuggestionDto> content = new ArrayList<>(to - from);
+        for (Ranked tag : current.subList(from, to)) {
+            content.add(tag.toDto());
+        }
+        return new PageImpl<>(content, pageable, current.size());
+    }
+
+    public List<String> getTrendingTagNames(int limit) {
+        List<Ranked> current = top;
+        List<String> names = new ArrayList<>(Math.min(limit, current.size()));
+        for (Ranked tag : current.subList(0, Math.min(limit, current.size()))) {
+            names.add(tag.name);
+        }
+        return names;
+    }
+
+    /**
+     * Share of the month's uses that fell in the last week, on a 0-100 scale. Tags with
+     * only a few uses are pulled towards zero so one new article does not top the list.
+     */
+    static double score(long weekly, long monthly) {
+        if (weekly <= 0) {
+            return 0.0;
+        }
+        return weekly * 100.0 / (monthly + SCORE_PRIOR);
+    }
+
+    private TagUsage tagUsage(String name) {
+        return usage.computeIfAbsent(name, TagUsage::new);
+    }
+
+    private void publishTop() {
+        List<Ranked> snapshot = new ArrayList<>(Math.min(TOP_K, ranking.size()));
+        for (TagUsage tag : ranking) {
+            if (snapshot.size() == TOP_K) {
+                break;
+            }
+            snapshot.add(new Ranked(tag));
+        }
+        top = Collections.unmodifiableList(snapshot);
+    }
+
+    private static final Comparator<TagUsage> BY_SCORE = Comparator.<TagUsage>comparingDouble(tag -> tag.score)
+            .reversed()
+            .thenComparing(Comparator.<TagUsage>comparingLong(tag -> tag.articleCount).reversed())
+            .thenComparing(tag -> tag.name);
+
+    /**
+     * Daily use counts for the last {@link #MONTH_DAYS} days. Slot {@code day % MONTH_DAYS}
+     * holds that day's count; advancing zeroes the slots of days that fell out of the window.
+     */
+    static final class UsageWindow {
+        private final int[] buckets = new int[MONTH_DAYS];
+        private long head = Long.MIN_VALUE;
+
+        void advance(long day) {
+            if (head == Long.MIN_VALUE || day - head >= MONTH_DAYS) {
+                Arrays.fill(buckets, 0);
+                head = day;
+                return;
+            }
+            for (long d = head + 1; d <= day; d++) {
+                buckets[(int) Math.floorMod(d, (long) MONTH_DAYS)] = 0;
+            }
+            head = Math.max(head, day);
+        }
+
+        void add(long day) {
+            advance(day);
+            if (day > head - MONTH_DAYS) {
+                buckets[(int) Math.floorMod(day, (long) MONTH_DAYS)]++;
+            }
+        }
+
+        // Uses over the {@code days} days ending at {@code today}; call advance(today) first
+        long sum(long today, int days) {
+            long total = 0;
+            for (long d = today - days + 1; d <= today; d++) {
+                if (d <= head && d > head - MONTH_DAYS) {
+                    total += buckets[(int) Math.floorMod(d, (long) MONTH_DAYS)];
+                }
+            }
+            return total;
+        }
+    }
+
+    private static final class TagUsage {
+        final String name;
+        final UsageWindow window = new UsageWindow();
+        LocalDateTime lastUsed;
+        Long id;
+        String description;
+        long articleCount;
+        long weekly;
+        long monthly;
+        double score;
+
+        TagUsage(String name) {
+            this.name = name;
+        }
+
+        void record(long day, LocalDateTime at) {
+            window.add(day);
+            if (lastUsed == null || at.isAfter(lastUsed)) {
+                lastUsed = at;
+            }
+        }
+    }
+
+    // Immutable copy of a ranked tag, safe to read without the lock
+    private static final class Ranked {
+        final long id;
+        final String name;
+        final String description;
+        final long articleCount;
+        final double score;
+
+        Ranked(TagUsage tag) {
+            this.id = tag.id;
+            this.name = tag.name;
+            this.description = tag.description;
+            this.articleCount = tag.articleCount;
+            this.score = tag.score;
+        }
+
+        TagSuggestionDto toDto() {
+            TagSuggestionDto dto = new TagSuggestionDto(id, name, articleCount);
+            dto.setDescription(description);
+            dto.setTrendingScore(score);
+            dto.setTrending(score > 50.0);
+            return dto;
+        }
+    }
+}
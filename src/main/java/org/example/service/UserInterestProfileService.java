@@ -0,0 +1,415 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.entity.UserInterestProfile;
+import org.example.event.ArticleClappedEvent;
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ClapRepository;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.repository.UserInterestProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a compact interest profile per user: decayed tag weights, author affinities,
+ * preferred content length, average read time and engagement level.
+ *
+ * Profiles are bootstrapped once from reading history, then updated from read and clap
+ * events, cached in memory and written back to the database in batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserInterestProfileService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserInterestProfileService.class);
+
+    private static final double MIN_WEIGHT = 0.01;
+    private static final double CLAP_AUTHOR_AFFINITY = 0.1;
+    private static final double DEFAULT_READ_TIME_MINUTES = 5.0;
+    private static final int DEFAULT_CONTENT_LENGTH = 2000;
+
+    private final UserInterestProfileRepository userInterestProfileRepository;
+
+    private final ReadingHistoryRepository readingHistoryRepository;
+
+    private final ClapRepository clapRepository;
+
+    @Value("${app.recommendation.profile.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.recommendation.profile.half-life-days:30}")
+    private double halfLifeDays;
+
+    @Value("${app.recommendation.profile.max-tags:200}")
+    private int maxTags;
+
+    @Value("${app.recommendation.profile.max-authors:100}")
+    private int maxAuthors;
+
+    private Cache<Long, InterestProfile> profiles;
+
+    // Profiles changed since the last flush; held strongly so cache eviction never loses updates
+    private final Map<Long, InterestProfile> dirtyProfiles = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        profiles = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    public InterestProfile getProfile(Long userId) {
+        InterestProfile dirty = dirtyProfiles.get(userId);
+        if (dirty != null) {
+            return dirty;
+        }
+        return profiles.get(userId, this::loadOrBootstrap);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleRead(ArticleReadEvent event) {
+        if (event.getUserId() == null || !event.isFirstRead()) {
+            return;
+        }
+        InterestProfile profile = findLoadedProfile(event.getUserId());
+        if (profile == null) {
+            // Not bootstrapped yet; the bootstrap will pick this read up from reading history
+            return;
+        }
+        profile.recordRead(event.getTagNames(), event.getAuthorId(), event.getContentLength(),
+                event.getReadTimeMinutes(), event.getReadAt());
+        markDirty(event.getUserId(), profile);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleClapped(ArticleClappedEvent event) {
+        if (event.getClapDelta() == 0) {
+            return;
+        }
+        InterestProfile profile = findLoadedProfile(event.getUserId());
+        if (profile == null) {
+            return;
+        }
+        profile.recordClaps(event.getAuthorId(), event.getClapDelta(), LocalDateTime.now());
+        markDirty(event.getUserId(), profile);
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendation.profile.flush-interval-ms:30000}")
+    public void flushDirtyProfiles() {
+        if (dirtyProfiles.isEmpty()) {
+            return;
+        }
+        Map<Long, InterestProfile> batch = new HashMap<>();
+        for (Long userId : new ArrayList<>(dirtyProfiles.keySet())) {
+            InterestProfile profile = dirtyProfiles.remove(userId);
+            if (profile != null) {
+                batch.put(userId, profile);
+            }
+        }
+
+        try {
+            Map<Long, UserInterestProfile> existing = userInterestProfileRepository.findByUserIdIn(batch.keySet()).stream()
+                    .collect(Collectors.toMap(UserInterestProfile::getUserId, entity -> entity));
+            List<UserInterestProfile> toSave = new ArrayList<>(batch.size());
+            for (Map.Entry<Long, InterestProfile> entry : batch.entrySet()) {
+                UserInterestProfile entity = existing.getOrDefault(entry.getKey(), new UserInterestProfile(entry.getKey()));
+                entry.getValue().writeTo(entity);
+                toSave.add(entity);
+            }
+            userInterestProfileRepository.saveAll(toSave);
+            log.debug("Flushed {} user interest profiles", toSave.size());
+        } catch (Exception e) {
+            // Put the batch back so the next run retries it, unless a newer version is already queued
+            batch.forEach(dirtyProfiles::putIfAbsent);
+            log.error("Failed to flush user interest profiles: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushDirtyProfiles();
+    }
+
+    private InterestProfile findLoadedProfile(Long userId) {
+        InterestProfile profile = dirtyProfiles.get(userId);
+        if (profile == null) {
+            profile = profiles.getIfPresent(userId);
+        }
+        if (profile == null) {
+            profile = userInterestProfileRepository.findByUserId(userId)
+                    .map(this::fromEntity)
+                    .orElse(null);
+            if (profile != null) {
+                profiles.put(userId, profile);
+            }
+        }
+        return profile;
+    }
+
+    private void markDirty(Long userId, InterestProfile profile) {
+        dirtyProfiles.put(userId, profile);
+        profiles.put(userId, profile);
+    }
+
+    private InterestProfile loadOrBootstrap(Long userId) {
+        Optional<UserInterestProfile> stored = userInterestProfileRepository.findByUserId(userId);
+        if (stored.isPresent()) {
+            return fromEntity(stored.get());
+        }
+        InterestProfile profile = bootstrap(userId);
+        dirtyProfiles.put(userId, profile);
+        return profile;
+    }
+
+    private InterestProfile bootstrap(Long userId) {
+        InterestProfile profile = newProfile();
+
+        Map<Long, Set<String>> tagsByArticle = new HashMap<>();
+        for (Object[] row : readingHistoryRepository.findReadTagNamesByUserId(userId)) {
+            tagsByArticle.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+
+        // Replay reads oldest first so decay weights recent reading most
+        for (Object[] row : readingHistoryRepository.findReadSummariesByUserId(userId)) {
+            Long articleId = (Long) row[0];
+            Long authorId = (Long) row[1];
+            int contentLength = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            Integer readTime = (Integer) row[3];
+            LocalDateTime readAt = (LocalDateTime) row[4];
+            profile.recordRead(tagsByArticle.getOrDefault(articleId, Collections.emptySet()),
+                    authorId, contentLength, readTime, readAt);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : clapRepository.sumClapsByAuthorForUser(userId)) {
+            profile.recordClaps((Long) row[0], ((Number) row[1]).intValue(), now);
+        }
+
+        log.debug("Bootstrapped interest profile for user {} from {} read articles", userId, tagsByArticle.size());
+        return profile;
+    }
+
+    private InterestProfile newProfile() {
+        return new InterestProfile(Duration.ofMillis((long) (halfLifeDays * 24 * 60 * 60 * 1000)), maxTags, maxAuthors);
+    }
+
+    private InterestProfile fromEntity(UserInterestProfile entity) {
+        InterestProfile profile = newProfile();
+        synchronized (profile) {
+            decodeWeights(entity.getTagWeights(), profile.tagWeights, key -> key);
+            decodeWeights(entity.getAuthorAffinities(), profile.authorAffinities, Long::valueOf);
+            profile.preferredContentLength = valueOrZero(entity.getPreferredContentLength());
+            profile.averageReadTimeMinutes = valueOrZero(entity.getAverageReadTimeMinutes());
+            profile.readWeight = valueOrZero(entity.getReadWeight());
+            profile.readCount = entity.getReadCount() != null ? entity.getReadCount() : 0L;
+            profile.totalClaps = entity.getTotalClaps() != null ? entity.getTotalClaps() : 0L;
+            profile.decayedAt = entity.getDecayedAt();
+        }
+        return profile;
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static <K> String encodeWeights(Map<K, Double> weights) {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<K, Double> entry : weights.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(URLEncoder.encode(String.valueOf(entry.getKey()), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append((float) entry.getValue().doubleValue());
+        }
+        return encoded.toString();
+    }
+
+    private static <K> void decodeWeights(String encoded, Map<K, Double> target, java.util.function.Function<String, K> keyParser) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split(",")) {
+            int separator = pair.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                K key = keyParser.apply(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8));
+                target.put(key, Double.parseDouble(pair.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                log.warn("Skipping malformed profile weight '{}'", pair);
+            }
+        }
+    }
+
+    /**
+     * In-memory view of a user's interests. All mutation and reads of the weight maps
+     * are synchronized on the instance; callers receive copies.
+     */
+    public static class InterestProfile {
+
+        private final Duration halfLife;
+        private final int maxTags;
+        private final int maxAuthors;
+
+        private final Map<String, Double> tagWeights = new HashMap<>();
+        private final Map<Long, Double> authorAffinities = new HashMap<>();
+        private double preferredContentLength;
+        private double averageReadTimeMinutes;
+        private double readWeight;
+        private long readCount;
+        private long totalClaps;
+        private LocalDateTime decayedAt;
+
+        InterestProfile(Duration halfLife, int maxTags, int maxAuthors) {
+            this.halfLife = halfLife;
+            this.maxTags = maxTags;
+            this.maxAuthors = maxAuthors;
+        }
+
+        public synchronized Set<String> getTopTags(int limit) {
+            return topKeys(tagWeights, limit).stream().collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+
+        public synchronized Map<String, Double> getTagWeights() {
+            return new HashMap<>(tagWeights);
+        }
+
+        public synchronized Map<Long, Double> getAuthorAffinities() {
+            return new HashMap<>(authorAffinities);
+        }
+
+        public synchronized boolean hasAuthorAffinity(Long authorId) {
+            return authorId != null && authorAffinities.containsKey(authorId);
+        }
+
+        /**
+         * Sorted ids of authors the user has an affinity with, for allocation-free lookups while scoring.
+         */
+        public synchronized long[] getAffinityAuthorIds() {
+            long[] authorIds = new long[authorAffinities.size()];
+            int i = 0;
+            for (Long authorId : authorAffinities.keySet()) {
+                authorIds[i++] = authorId;
+            }
+            Arrays.sort(authorIds);
+            return authorIds;
+        }
+
+        public synchronized int getPreferredContentLength() {
+            return readWeight > 0 ? (int) preferredContentLength : DEFAULT_CONTENT_LENGTH;
+        }
+
+        public synchronized double getAverageReadTime() {
+            return readWeight > 0 ? averageReadTimeMinutes : DEFAULT_READ_TIME_MINUTES;
+        }
+
+        public synchronized double getEngagementLevel() {
+            return Math.min(1.0, Math.max(0, totalClaps) / 100.0); // Normalize to 0-1
+        }
+
+        public synchronized long getReadCount() {
+            return readCount;
+        }
+
+        public synchronized boolean isEmpty() {
+            return readCount == 0 && tagWeights.isEmpty();
+        }
+
+        synchronized void recordRead(Set<String> tagNames, Long authorId, int contentLength,
+                                     Integer readTimeMinutes, LocalDateTime readAt) {
+            decayTo(readAt);
+            for (String tagName : tagNames) {
+                tagWeights.merge(tagName, 1.0, Double::sum);
+            }
+            if (authorId != null) {
+                authorAffinities.merge(authorId, 1.0, Double::sum);
+            }
+            double readTime = readTimeMinutes != null ? readTimeMinutes : DEFAULT_READ_TIME_MINUTES;
+            preferredContentLength = (preferredContentLength * readWeight + contentLength) / (readWeight + 1);
+            averageReadTimeMinutes = (averageReadTimeMinutes * readWeight + readTime) / (readWeight + 1);
+            readWeight += 1;
+            readCount++;
+            prune(tagWeights, maxTags);
+            prune(authorAffinities, maxAuthors);
+        }
+
+        synchronized void recordClaps(Long authorId, int clapDelta, LocalDateTime at) {
+            decayTo(at);
+            totalClaps += clapDelta;
+            if (authorId != null && clapDelta > 0) {
+                authorAffinities.merge(authorId, clapDelta * CLAP_AUTHOR_AFFINITY, Double::sum);
+                prune(authorAffinities, maxAuthors);
+            }
+        }
+
+        synchronized void writeTo(UserInterestProfile entity) {
+            entity.setTagWeights(encodeWeights(tagWeights));
+            entity.setAuthorAffinities(encodeWeights(authorAffinities));
+            entity.setPreferredContentLength(preferredContentLength);
+            entity.setAverageReadTimeMinutes(averageReadTimeMinutes);
+            entity.setReadWeight(readWeight);
+            entity.setReadCount(readCount);
+            entity.setTotalClaps(totalClaps);
+            entity.setDecayedAt(decayedAt);
+        }
+
+        private void decayTo(LocalDateTime at) {
+            if (at == null) {
+                at = LocalDateTime.now();
+            }
+            if (decayedAt == null) {
+                decayedAt = at;
+                return;
+            }
+            long elapsedSeconds = at.toEpochSecond(ZoneOffset.UTC) - decayedAt.toEpochSecond(ZoneOffset.UTC);
+            if (elapsedSeconds <= 0) {
+                return;
+            }
+            double factor = Math.pow(0.5, elapsedSeconds / (double) halfLife.getSeconds());
+            tagWeights.replaceAll((key, weight) -> weight * factor);
+            authorAffinities.replaceAll((key, weight) -> weight * factor);
+            tagWeights.values().removeIf(weight -> weight < MIN_WEIGHT);
+            authorAffinities.values().removeIf(weight -> weight < MIN_WEIGHT);
+            readWeight *= factor;
+            decayedAt = at;
+        }
+
+        private static <K> void prune(Map<K, Double> weights, int max) {
+            if (weights.size() <= max) {
+                return;
+            }
+            Set<K> keep = new HashSet<>(topKeys(weights, max));
+            weights.keySet().retainAll(keep);
+        }
+
+        private static <K> List<K> topKeys(Map<K, Double> weights, int limit) {
+            return weights.entrySet().stream()
+                    .sorted(Map.Entry.<K, Double>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.service;
 
 import org.example.dto.AuthResponseDto;
+import org.example.dto.CursorPage;
 import org.example.dto.PasswordResetDto;
 import org.example.dto.UserLoginDto;
 import org.example.dto.UserProfileDto;
@@ -8,6 +9,12 @@ import org.example.dto.UserRegistrationDto;
 import org.example.entity.User;
 import org.example.repository.UserRepository;
 import org.example.security.JwtTokenProvider;
+import org.example.security.PrincipalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,10 +24,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.example.exception.PasswordMismatchException;
 import org.example.exception.UserAlreadyExistsException;
 import org.example.exception.ResourceNotFoundException;
 import org.example.exception.ForbiddenException;
+import org.example.exception.ServiceBusyException;
+import org.example.exception.ValidationException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -31,16 +41,30 @@ import java.util.stream.Collectors;
 @Service
 public class UserService implements UserDetailsService {
     
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final int MAX_FOLLOW_PAGE_SIZE = 100;
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final PrincipalCache principalCache;
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtTokenProvider tokenProvider, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
+        this.principalCache = principalCache;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillFollowCounts() {
+        int updated = userRepository.backfillFollowCounts();
+        if (updated > 0) {
+            log.info("Backfilled follower and following counts of {} users", updated);
+        }
     }
     
     @Override
@@ -96,6 +120,8 @@ public class UserService implements UserDetailsService {
             UserProfileDto userProfileDto = convertToUserProfileDto(user);
             
             return new AuthResponseDto(token, userProfileDto);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Invalid username/email or password");
         }
@@ -118,6 +144,7 @@ public class UserService implements UserDetailsService {
         }
         
         User updatedUser = userRepository.save(currentUser);
+        principalCache.invalidate(updatedUser.getUsername());
         return convertToUserProfileDto(updatedUser);
     }
     
@@ -127,49 +154,63 @@ public class UserService implements UserDetailsService {
         
         User currentUser = getCurrentUser();
         UserProfileDto profileDto = convertToUserProfileDto(user);
-        profileDto.setFollowing(currentUser.isFollowing(user));
+        profileDto.setFollowing(userRepository.isFollowing(currentUser.getId(), user.getId()));
         
         return profileDto;
     }
     
+    @Transactional
     public void followUser(String username) {
         User currentUser = getCurrentUser();
         User userToFollow = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        if (currentUser.equals(userToFollow)) {
+        if (currentUser.getId().equals(userToFollow.getId())) {
             throw new ForbiddenException("You cannot follow yourself");
         }
         
-        currentUser.follow(userToFollow);
-        userRepository.save(currentUser);
+        if (userRepository.insertFollowing(currentUser.getId(), userToFollow.getId()) > 0) {
+            userRepository.insertFollower(userToFollow.getId(), currentUser.getId());
+            userRepository.adjustFollowingCount(currentUser.getId(), 1);
+            userRepository.adjustFollowersCount(userToFollow.getId(), 1);
+        }
     }
     
+    @Transactional
     public void unfollowUser(String username) {
         User currentUser = getCurrentUser();
         User userToUnfollow = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        currentUser.unfollow(userToUnfollow);
-        userRepository.save(currentUser);
+        if (userRepository.deleteFollowing(currentUser.getId(), userToUnfollow.getId()) > 0) {
+            userRepository.deleteFollower(userToUnfollow.getId(), currentUser.getId());
+            userRepository.adjustFollowingCount(currentUser.getId(), -1);
+            userRepository.adjustFollowersCount(userToUnfollow.getId(), -1);
+        }
     }
     
-    public List<UserProfileDto> getFollowers(String username) {
+    public CursorPage<UserProfileDto> getFollowers(String username, String cursor, int size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        return user.getFollowers().stream()
-                .map(this::convertToUserProfileDto)
-                .collect(Collectors.toList());
+        Long afterId = parseCursor(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_FOLLOW_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<User> followers = afterId == null
+                ? userRepository.findFollowersFirstPage(user.getId(), limit)
+                : userRepository.findFollowersNextPage(user.getId(), afterId, limit);
+        return toCursorPage(followers, pageSize);
     }
     
-    public List<UserProfileDto> getFollowing(String username) {
+    public CursorPage<UserProfileDto> getFollowing(String username, String cursor, int size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        return user.getFollowing().stream()
-                .map(this::convertToUserProfileDto)
-                .collect(Collectors.toList());
+        Long afterId = parseCursor(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_FOLLOW_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<User> following = afterId == null
+                ? userRepository.findFollowingFirstPage(user.getId(), limit)
+                : userRepository.findFollowingNextPage(user.getId(), afterId, limit);
+        return toCursorPage(following, pageSize);
     }
     
     public AuthResponseDto requestPasswordReset(PasswordResetDto resetDto) {
@@ -205,6 +246,7 @@ public class UserService implements UserDetailsService {
         user.setResetTokenExpiry(null);
         
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         
         return new AuthResponseDto("Password reset successfully");
     }
@@ -216,6 +258,29 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
     }
     
+    // The cursor is the last user id of the previous page
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+    
+    // Users were fetched one past the page size to learn whether another page follows
+    private CursorPage<UserProfileDto> toCursorPage(List<User> users, int size) {
+        boolean hasNext = users.size() > size;
+        List<UserProfileDto> content = users.stream()
+                .limit(size)
+                .map(this::convertToUserProfileDto)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+    
     private UserProfileDto convertToUserProfileDto(User user) {
         UserProfileDto dto = new UserProfileDto();
         dto.setId(user.getId());
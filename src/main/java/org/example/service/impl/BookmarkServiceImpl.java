@@ -9,12 +9,14 @@ import org.example.repository.BookmarkRepository;
 import org.example.repository.UserRepository;
 import org.example.service.BookmarkService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.example.exception.ResourceNotFoundException;
 import org.example.exception.ConflictException;
+import org.example.event.ArticleBookmarkedEvent;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +30,8 @@ public class BookmarkServiceImpl implements BookmarkService {
     private UserRepository userRepository;
     @Autowired
     private ArticleRepository articleRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -45,6 +49,7 @@ public class BookmarkServiceImpl implements BookmarkService {
         
         Bookmark bookmark = new Bookmark(article, user);
         bookmarkRepository.save(bookmark);
+        eventPublisher.publishEvent(new ArticleBookmarkedEvent(user.getId(), articleId));
     }
 
     @Override
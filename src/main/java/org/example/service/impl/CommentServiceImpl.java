@@ -12,7 +12,9 @@ import org.example.repository.UserRepository;
 import org.example.service.CommentService;
 import org.example.exception.ResourceNotFoundException;
 import org.example.exception.ForbiddenException;
+import org.example.event.ArticleCommentedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -36,6 +38,9 @@ public class CommentServiceImpl implements CommentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public CommentResponseDto createComment(Long articleId, CommentCreateDto commentDto, String username) {
         User user = userRepository.findByUsername(username)
@@ -59,6 +64,7 @@ public class CommentServiceImpl implements CommentService {
         }
 
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new ArticleCommentedEvent(user.getId(), articleId));
         return convertToDto(savedComment);
     }
 
@@ -8,7 +8,9 @@ import org.example.repository.ArticleRepository;
 import org.example.repository.ShareRepository;
 import org.example.repository.UserRepository;
 import org.example.service.ShareService;
+import org.example.event.ArticleSharedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,8 @@ public class ShareServiceImpl implements ShareService {
     private UserRepository userRepository;
     @Autowired
     private ArticleRepository articleRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -41,6 +45,7 @@ public class ShareServiceImpl implements ShareService {
         share.setShareMessage(shareDto.getShareMessage());
         
         shareRepository.save(share);
+        eventPublisher.publishEvent(new ArticleSharedEvent(user.getId(), articleId));
     }
 
     @Override
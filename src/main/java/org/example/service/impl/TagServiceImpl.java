@@ -3,12 +3,18 @@ package org.example.service.impl;
 import org.example.dto.TagSuggestionDto;
 import org.example.entity.Article;
 import org.example.entity.Tag;
+import org.example.event.ArticleTagsChangedEvent;
 import org.example.repository.ArticleRepository;
 import org.example.repository.TagRepository;
+import org.example.service.ArticleFeatureStore;
+import org.example.service.TagAutocompleteService;
+import org.example.service.TagGraphService;
+import org.example.service.TagPostingIndex;
 import org.example.service.TagService;
+import org.example.service.TagTrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +30,18 @@ public class TagServiceImpl implements TagService {
     private TagRepository tagRepository;
     @Autowired
     private ArticleRepository articleRepository;
+    @Autowired
+    private TagPostingIndex tagPostingIndex;
+    @Autowired
+    private TagAutocompleteService tagAutocompleteService;
+    @Autowired
+    private TagTrendingService tagTrendingService;
+    @Autowired
+    private TagGraphService tagGraphService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final String SORT_POPULAR = "popular";
 
     @Override
     public List<String> getAllTags() {
@@ -34,29 +52,61 @@ public class TagServiceImpl implements TagService {
 
     @Override
     public List<TagSuggestionDto> getTagSuggestions(String query, int limit) {
-        Page<Tag> tags = tagRepository.findByNameContainingIgnoreCase(query, PageRequest.of(0, limit));
-        
-        return tags.getContent().stream()
-                .map(tag -> new TagSuggestionDto(tag.getId(), tag.getName(), tag.getArticleCount()))
-                .collect(Collectors.toList());
+        return tagAutocompleteService.suggest(query, limit);
     }
 
     @Override
     public List<String> getTrendingTags(int days, int limit) {
-        Page<Tag> tags = tagRepository.findTrendingTags(PageRequest.of(0, limit));
-        
-        return tags.getContent().stream()
-                .map(Tag::getName)
-                .collect(Collectors.toList());
+        // Trending is scored over a fixed sliding week against the month, whatever the requested days
+        return tagTrendingService.getTrendingTagNames(limit);
+    }
+
+    @Override
+    public List<TagSuggestionDto> getRelatedTags(String tag, int limit) {
+        return tagGraphService.getRelatedTags(tag, limit);
+    }
+
+    @Override
+    public List<TagSuggestionDto> suggestTagsFor(Set<String> chosenTags, int limit) {
+        return tagGraphService.suggestForTags(chosenTags, limit);
     }
 
     @Override
     public List<String> getArticlesByTag(String tag, Pageable pageable) {
-        Set<String> tagSet = Set.of(tag);
-        Page<Article> articles = articleRepository.findByTags(tagSet, pageable);
-        
-        return articles.getContent().stream()
-                .map(article -> article.getSlug())
+        Page<Long> ids = tagPostingIndex.findRecent(TagPostingIndex.TagQuery.anyOf(Set.of(tag)), pageable);
+        return findSlugsInOrder(ids.getContent());
+    }
+
+    @Override
+    public List<String> findArticles(Set<String> allOf, Set<String> anyOf, Set<String> noneOf, String sort, Pageable pageable) {
+        TagPostingIndex.TagQuery query = TagPostingIndex.TagQuery.of(allOf, anyOf, noneOf);
+        if (!SORT_POPULAR.equalsIgnoreCase(sort)) {
+            return findSlugsInOrder(tagPostingIndex.findRecent(query, pageable).getContent());
+        }
+        // Clamp in long first; a large page number must not wrap to a negative limit
+        long offset = pageable.getOffset();
+        int end = (int) Math.min(Integer.MAX_VALUE, offset + pageable.getPageSize());
+        List<Long> top = tagPostingIndex.findTop(query, end, TagServiceImpl::popularity);
+        return findSlugsInOrder(top.subList((int) Math.min(offset, top.size()), top.size()));
+    }
+
+    private static double popularity(ArticleFeatureStore.Snapshot features, int row) {
+        return Math.log10(features.viewCount(row) + 1) * 0.5
+                + Math.log10(features.likeCount(row) + 1) * 0.3
+                + Math.log10(features.clapCount(row) + 1) * 0.2;
+    }
+
+    private List<String> findSlugsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, String> slugs = new HashMap<>();
+        for (Object[] row : articleRepository.findSlugsByIds(ids)) {
+            slugs.put((Long) row[0], (String) row[1]);
+        }
+        return ids.stream()
+                .map(slugs::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -73,8 +123,14 @@ public class TagServiceImpl implements TagService {
                     return tagRepository.save(newTag);
                 });
         
-        article.getTags().add(tagEntity);
+        boolean added = article.getTags().add(tagEntity);
+        // A tag-only change does not trigger @PreUpdate; bump updatedAt so tag postings pick it up
+        article.setUpdatedAt(LocalDateTime.now());
         articleRepository.save(article);
+        tagAutocompleteService.refresh(List.of(tag));
+        if (added && article.isPublished()) {
+            eventPublisher.publishEvent(new ArticleTagsChangedEvent(articleId, Set.of(tag), Set.of()));
+        }
     }
 
     @Override
@@ -86,7 +142,12 @@ public class TagServiceImpl implements TagService {
         Tag tagEntity = tagRepository.findByName(tag)
                 .orElseThrow(() -> new RuntimeException("Tag not found"));
         
-        article.getTags().remove(tagEntity);
+        boolean removed = article.getTags().remove(tagEntity);
+        article.setUpdatedAt(LocalDateTime.now());
         articleRepository.save(article);
+        tagAutocompleteService.refresh(List.of(tag));
+        if (removed && article.isPublished()) {
+            eventPublisher.publishEvent(new ArticleTagsChangedEvent(articleId, Set.of(), Set.of(tag)));
+        }
     }
 }
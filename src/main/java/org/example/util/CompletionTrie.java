@@ -0,0 +1,312 @@
+package org.example.util;
+
+import java.util.*;
+
+/**
+ * Weighted prefix trie that answers "best completions of this prefix" without walking subtrees.
+ *
+ * Every node caches the ids of the {@code k} heaviest entries below it, so an exact prefix
+ * lookup is one walk down the prefix plus a copy of that node's list. An entry may be indexed
+ * under several keys (for example each word of a multi-word name). When an entry is added,
+ * re-weighted or removed, the cached lists are rebuilt bottom-up along its key paths from the
+ * node's own entries and its children's lists, which is exact because each child's list is
+ * already the best of its subtree.
+ *
+ * Writes are serialised on the trie; reads take no lock and see each node's list and
+ * children as immutable arrays that writers replace wholesale.
+ */
+public final class CompletionTrie {
+
+    private final int k;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Node root = new Node();
+
+    public CompletionTrie(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds the entry, or updates its keys and weight if already present. Keys are matched
+     * exactly, so callers normalise case before indexing and querying.
+     */
+    public synchronized void put(long id, Collection<String> keys, long weight) {
+        Entry existing = entries.get(id);
+        Set<String> newKeys = new LinkedHashSet<>(keys);
+        newKeys.removeIf(String::isEmpty);
+        if (existing != null) {
+            // Each indexed path still holds the old entry object; replace it everywhere it was, then relink
+            for (String key : existing.keys) {
+                if (!newKeys.contains(key)) {
+                    unlink(existing, key);
+                }
+            }
+        }
+        Entry entry = new Entry(id, newKeys.toArray(new String[0]), weight);
+        entries.put(id, entry);
+        for (String key : entry.keys) {
+            link(existing, entry, key);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Entry existing = entries.remove(id);
+        if (existing != null) {
+            for (String key : existing.keys) {
+                unlink(existing, key);
+            }
+        }
+    }
+
+    /**
+     * Ids of the heaviest entries with a key starting with {@code prefix}, heaviest first.
+     * When {@code fuzzy} is set, prefixes within one edit (insertion, deletion, substitution
+     * or adjacent transposition) also match, ranked after exact matches.
+     */
+    public long[] complete(String prefix, int limit, boolean fuzzy) {
+        int size = Math.min(limit, k);
+        if (size <= 0) {
+            return new long[0];
+        }
+        List<Entry> exact = new ArrayList<>();
+        Node node = find(root, prefix, 0);
+        if (node != null) {
+            Collections.addAll(exact, node.top);
+        }
+        Map<Long, Entry> ranked = new LinkedHashMap<>();
+        addBest(ranked, exact, size);
+        if (fuzzy && ranked.size() < size && !prefix.isEmpty()) {
+            List<Entry> approximate = new ArrayList<>();
+            Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            collectWithinOneEdit(root, prefix, 0, false, visited, approximate);
+            addBest(ranked, approximate, size);
+        }
+        long[] ids = new long[ranked.size()];
+        int i = 0;
+        for (Long id : ranked.keySet()) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    private static void addBest(Map<Long, Entry> ranked, List<Entry> candidates, int size) {
+        candidates.sort(BY_WEIGHT);
+        for (Entry entry : candidates) {
+            if (ranked.size() >= size) {
+                return;
+            }
+            ranked.putIfAbsent(entry.id, entry);
+        }
+    }
+
+    private static Node find(Node from, String key, int offset) {
+        Node node = from;
+        for (int i = offset; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    // Collects the lists of every node whose path is within one edit of the query
+    private static void collectWithinOneEdit(Node node, String query, int position, boolean edited,
+                                             Set<Node> visited, List<Entry> out) {
+        if (position == query.length()) {
+            // The node's list already covers any further trie characters, so nothing deeper is needed
+            if (visited.add(node)) {
+                Collections.addAll(out, node.top);
+            }
+            return;
+        }
+        char c = query.charAt(position);
+        Children children = node.children;
+        if (edited) {
+            Node next = node.child(c);
+            if (next != null) {
+                collectWithinOneEdit(next, query, position + 1, true, visited, out);
+            }
+            return;
+        }
+        for (int i = 0; i < children.labels.length; i++) {
+            Node child = children.nodes[i];
+            if (children.labels[i] == c) {
+                collectWithinOneEdit(child, query, position + 1, false, visited, out);
+            } else {
+                // Substitution: the trie has a different character here
+                collectWithinOneEdit(child, query, position + 1, true, visited, out);
+                // Insertion in the indexed key: the query skipped this character
+                collectWithinOneEdit(child, query, position, true, visited, out);
+                // Transposition: the query swapped this character with the next one
+                if (position + 1 < query.length() && children.labels[i] == query.charAt(position + 1)) {
+                    Node swapped = child.child(c);
+                    if (swapped != null) {
+                        collectWithinOneEdit(swapped, query, position + 2, true, visited, out);
+                    }
+                }
+            }
+        }
+        // Deletion: the query has an extra character here
+        collectWithinOneEdit(node, query, position + 1, true, visited, out);
+    }
+
+    private void link(Entry previous, Entry entry, String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(key.charAt(i));
+        }
+        Node terminal = path[key.length()];
+        List<Entry> terminals = new ArrayList<>(Arrays.asList(terminal.terminals));
+        if (previous != null) {
+            terminals.remove(previous);
+        }
+        terminals.add(entry);
+        terminal.terminals = terminals.toArray(new Entry[0]);
+        refresh(path, previous);
+    }
+
+    private void unlink(Entry entry, String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node terminal = path[key.length()];
+        List<Entry> terminals = new ArrayList<>(Arrays.asList(terminal.terminals));
+        terminals.remove(entry);
+        terminal.terminals = terminals.toArray(new Entry[0]);
+        refresh(path, entry);
+
+        // Drop nodes that no longer lead anywhere, deepest first
+        for (int depth = key.length(); depth > 0; depth--) {
+            Node node = path[depth];
+            if (node.terminals.length > 0 || node.children.labels.length > 0) {
+                break;
+            }
+            path[depth - 1].removeChild(key.charAt(depth - 1));
+        }
+    }
+
+    // Recomputes cached lists along a path, deepest node first, dropping a stale entry object
+    private void refresh(Node[] path, Entry stale) {
+        for (int depth = path.length - 1; depth >= 0; depth--) {
+            Node node = path[depth];
+            List<Entry> candidates = new ArrayList<>();
+            for (Entry entry : node.terminals) {
+                if (entry != stale) {
+                    candidates.add(entry);
+                }
+            }
+            for (Node child : node.children.nodes) {
+                for (Entry entry : child.top) {
+                    if (entry != stale) {
+                        candidates.add(entry);
+                    }
+                }
+            }
+            candidates.sort(BY_WEIGHT);
+            List<Entry> top = new ArrayList<>(k);
+            Set<Long> seen = new HashSet<>();
+            for (Entry entry : candidates) {
+                if (top.size() == k) {
+                    break;
+                }
+                if (seen.add(entry.id)) {
+                    top.add(entry);
+                }
+            }
+            node.top = top.toArray(new Entry[0]);
+        }
+    }
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.<Entry>comparingLong(entry -> entry.weight)
+            .reversed()
+            .thenComparingLong(entry -> entry.id);
+
+    private static final class Entry {
+        final long id;
+        final String[] keys;
+        final long weight;
+
+        Entry(long id, String[] keys, long weight) {
+            this.id = id;
+            this.keys = keys;
+            this.weight = weight;
+        }
+    }
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Children NO_CHILDREN = new Children(new char[0], new Node[0]);
+
+    private static final class Children {
+        final char[] labels;
+        final Node[] nodes;
+
+        Children(char[] labels, Node[] nodes) {
+            this.labels = labels;
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class Node {
+        volatile Children children = NO_CHILDREN;
+        volatile Entry[] top = NO_ENTRIES;
+        // Entries whose key ends exactly here; only read by writers
+        Entry[] terminals = NO_ENTRIES;
+
+        Node child(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.nodes[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index >= 0) {
+                return current.nodes[index];
+            }
+            index = -index - 1;
+            int size = current.labels.length;
+            char[] labels = new char[size + 1];
+            Node[] nodes = new Node[size + 1];
+            System.arraycopy(current.labels, 0, labels, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(current.labels, index, labels, index + 1, size - index);
+            System.arraycopy(current.nodes, index, nodes, index + 1, size - index);
+            Node created = new Node();
+            labels[index] = label;
+            nodes[index] = created;
+            children = new Children(labels, nodes);
+            return created;
+        }
+
+        void removeChild(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index < 0) {
+                return;
+            }
+            int size = current.labels.length;
+            char[] labels = new char[size - 1];
+            Node[] nodes = new Node[size - 1];
+            System.arraycopy(current.labels, 0, labels, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(current.labels, index + 1, labels, index, size - index - 1);
+            System.arraycopy(current.nodes, index + 1, nodes, index, size - index - 1);
+            children = new Children(labels, nodes);
+        }
+    }
+}
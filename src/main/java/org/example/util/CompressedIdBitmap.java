@@ -0,0 +1,359 @@
+package org.example.util;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Compressed set of non-negative long ids in the style of a Roaring bitmap.
+ *
+ * Ids are split into a high part, which selects a container, and a low 16-bit part stored
+ * in it. Sparse containers are sorted {@code char} arrays; a container switches to a
+ * fixed 8 KB bitset once it holds more than {@value #ARRAY_LIMIT} values. Dense runs of
+ * ids therefore cost about one bit each and scattered ids about two bytes each.
+ * Set operations work container by container and return new bitmaps. The serialized form
+ * keeps each container's representation, so it is about as compact as the heap form.
+ * Thread-safe; every operation holds the instance lock briefly.
+ */
+public final class CompressedIdBitmap {
+
+    private static final byte CONTAINER_ARRAY = 1;
+    private static final byte CONTAINER_BITMAP = 2;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+    private static final Object TIE_LOCK = new Object();
+
+    private long[] keys = new long[4];
+    private Object[] containers = new Object[4];
+    private int[] cardinalities = new int[4];
+    private int containerCount;
+    private int cardinality;
+
+    /**
+     * Adds the id and returns true if it was not already present.
+     */
+    public synchronized boolean add(long id) {
+        long key = id >>> 16;
+        char low = (char) id;
+        int index = Arrays.binarySearch(keys, 0, containerCount, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key);
+        }
+        boolean added = containers[index] instanceof char[]
+                ? addToArray(index, low)
+                : addToBitmap((long[]) containers[index], low);
+        if (added) {
+            cardinalities[index]++;
+            cardinality++;
+        }
+        return added;
+    }
+
+    public synchronized boolean contains(long id) {
+        int index = Arrays.binarySearch(keys, 0, containerCount, id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) id;
+        Object container = containers[index];
+        if (container instanceof char[] values) {
+            return Arrays.binarySearch(values, 0, cardinalities[index], low) >= 0;
+        }
+        return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    public synchronized int cardinality() {
+        return cardinality;
+    }
+
+    public synchronized boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Visits ids in ascending order until the visitor returns false.
+     */
+    public synchronized void forEach(LongPredicate visitor) {
+        for (int i = 0; i < containerCount; i++) {
+            long high = keys[i] << 16;
+            Object container = containers[i];
+            if (container instanceof char[] values) {
+                for (int j = 0; j < cardinalities[i]; j++) {
+                    if (!visitor.test(high | values[j])) {
+                        return;
+                    }
+                }
+            } else {
+                long[] words = (long[]) container;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        if (!visitor.test(high | ((long) word << 6) | Long.numberOfTrailingZeros(bits))) {
+                            return;
+                        }
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids present in both bitmaps.
+     */
+    public CompressedIdBitmap and(CompressedIdBitmap other) {
+        return combine(this, other, Operation.AND);
+    }
+
+    /**
+     * Ids present in either bitmap.
+     */
+    public CompressedIdBitmap or(CompressedIdBitmap other) {
+        return combine(this, other, Operation.OR);
+    }
+
+    /**
+     * Ids present in this bitmap but not in {@code other}.
+     */
+    public CompressedIdBitmap andNot(CompressedIdBitmap other) {
+        return combine(this, other, Operation.AND_NOT);
+    }
+
+    /**
+     * Approximate heap footprint of the containers, for sizing caches.
+     */
+    public synchronized long sizeInBytes() {
+        long bytes = (long) keys.length * (Long.BYTES + Integer.BYTES + 8);
+        for (int i = 0; i < containerCount; i++) {
+            bytes += containers[i] instanceof char[] values
+                    ? (long) values.length * Character.BYTES
+                    : (long) BITMAP_WORDS * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(containerCount);
+            for (int i = 0; i < containerCount; i++) {
+                out.writeLong(keys[i]);
+                if (containers[i] instanceof char[] values) {
+                    out.writeByte(CONTAINER_ARRAY);
+                    out.writeShort(cardinalities[i] - 1);
+                    for (int j = 0; j < cardinalities[i]; j++) {
+                        out.writeChar(values[j]);
+                    }
+                } else {
+                    out.writeByte(CONTAINER_BITMAP);
+                    for (long word : (long[]) containers[i]) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static CompressedIdBitmap fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            CompressedIdBitmap bitmap = new CompressedIdBitmap();
+            int count = in.readInt();
+            long previousKey = -1;
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                if (key <= previousKey || key > (Long.MAX_VALUE >>> 16)) {
+                    throw new IllegalArgumentException("Corrupt bitmap: container keys out of order");
+                }
+                previousKey = key;
+                byte type = in.readByte();
+                long[] words = new long[BITMAP_WORDS];
+                if (type == CONTAINER_ARRAY) {
+                    int size = in.readUnsignedShort() + 1;
+                    int previous = -1;
+                    for (int j = 0; j < size; j++) {
+                        char value = in.readChar();
+                        if (value <= previous) {
+                            throw new IllegalArgumentException("Corrupt bitmap: array container not sorted");
+                        }
+                        previous = value;
+                        words[value >>> 6] |= 1L << value;
+                    }
+                } else if (type == CONTAINER_BITMAP) {
+                    for (int w = 0; w < BITMAP_WORDS; w++) {
+                        words[w] = in.readLong();
+                    }
+                } else {
+                    throw new IllegalArgumentException("Unknown container type " + type);
+                }
+                bitmap.appendWords(key, words);
+            }
+            if (in.read() != -1) {
+                throw new IllegalArgumentException("Corrupt bitmap: trailing bytes");
+            }
+            return bitmap;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt bitmap", e);
+        }
+    }
+
+    private void insertContainer(int index, long key) {
+        if (containerCount == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        int moved = containerCount - index;
+        System.arraycopy(keys, index, keys, index + 1, moved);
+        System.arraycopy(containers, index, containers, index + 1, moved);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, moved);
+        keys[index] = key;
+        containers[index] = new char[4];
+        cardinalities[index] = 0;
+        containerCount++;
+    }
+
+    private boolean addToArray(int index, char low) {
+        char[] values = (char[]) containers[index];
+        int size = cardinalities[index];
+        int position = Arrays.binarySearch(values, 0, size, low);
+        if (position >= 0) {
+            return false;
+        }
+        if (size == ARRAY_LIMIT) {
+            // Past this size a bitset is smaller than the sorted array
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            containers[index] = words;
+            return addToBitmap(words, low);
+        }
+        position = -position - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+            containers[index] = values;
+        }
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = low;
+        return true;
+    }
+
+    private enum Operation { AND, OR, AND_NOT }
+
+    private static CompressedIdBitmap combine(CompressedIdBitmap left, CompressedIdBitmap right, Operation operation) {
+        if (left == right) {
+            synchronized (left) {
+                return merge(left, right, operation);
+            }
+        }
+        // Lock both operands in a stable order so opposite calls cannot deadlock
+        int leftHash = System.identityHashCode(left);
+        int rightHash = System.identityHashCode(right);
+        CompressedIdBitmap first = leftHash <= rightHash ? left : right;
+        CompressedIdBitmap second = first == left ? right : left;
+        if (leftHash == rightHash) {
+            synchronized (TIE_LOCK) {
+                synchronized (first) {
+                    synchronized (second) {
+                        return merge(left, right, operation);
+                    }
+                }
+            }
+        }
+        synchronized (first) {
+            synchronized (second) {
+                return merge(left, right, operation);
+            }
+        }
+    }
+
+    private static CompressedIdBitmap merge(CompressedIdBitmap left, CompressedIdBitmap right, Operation operation) {
+        CompressedIdBitmap result = new CompressedIdBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.containerCount || j < right.containerCount) {
+            long leftKey = i < left.containerCount ? left.keys[i] : Long.MAX_VALUE;
+            long rightKey = j < right.containerCount ? right.keys[j] : Long.MAX_VALUE;
+            if (leftKey < rightKey) {
+                if (operation != Operation.AND) {
+                    result.appendWords(leftKey, left.words(i));
+                }
+                i++;
+            } else if (rightKey < leftKey) {
+                if (operation == Operation.OR) {
+                    result.appendWords(rightKey, right.words(j));
+                }
+                j++;
+            } else {
+                long[] words = left.words(i);
+                long[] otherWords = right.words(j);
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    switch (operation) {
+                        case AND -> words[w] &= otherWords[w];
+                        case OR -> words[w] |= otherWords[w];
+                        case AND_NOT -> words[w] &= ~otherWords[w];
+                    }
+                }
+                result.appendWords(leftKey, words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // Fresh bitset copy of a container, whichever representation it uses
+    private long[] words(int index) {
+        if (containers[index] instanceof char[] values) {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinalities[index]; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+        return ((long[]) containers[index]).clone();
+    }
+
+    // Appends a container with a key greater than any present, choosing the smaller representation
+    private void appendWords(long key, long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count == 0) {
+            return;
+        }
+        insertContainer(containerCount, key);
+        if (count > ARRAY_LIMIT) {
+            containers[containerCount - 1] = words;
+        } else {
+            char[] values = new char[count];
+            int position = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    values[position++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            containers[containerCount - 1] = values;
+        }
+        cardinalities[containerCount - 1] = count;
+        cardinality += count;
+    }
+
+    private static boolean addToBitmap(long[] words, char low) {
+        long mask = 1L << low;
+        int word = low >>> 6;
+        if ((words[word] & mask) != 0) {
+            return false;
+        }
+        words[word] |= mask;
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Co-occurrence counts between items that appear together in documents, for example tags
+ * on the same article, with edges weighted by pointwise mutual information.
+ *
+ * Items are dense int ids. Each item keeps its neighbours as a sorted primitive array with
+ * a parallel array of pair counts, so adding or removing a document touches only the pairs
+ * inside it and a neighbourhood scan is two array walks. Edge weights are derived from the
+ * counts when read, which keeps them exact as documents come and go:
+ *
+ *   weight(a, b) = max(0, ln(n(a,b) * N / (n(a) * n(b)))) * n(a,b) / (n(a,b) + SHRINKAGE)
+ *
+ * where N is the number of documents with at least one item. The shrinkage factor keeps
+ * pairs seen once or twice from outranking well-supported ones, which raw PMI favours.
+ * Not thread-safe.
+ */
+public final class CooccurrenceGraph {
+
+    private static final double SHRINKAGE = 2.0;
+    private static final int[] EMPTY = new int[0];
+
+    private int[] itemCounts = new int[16];
+    private int[][] neighbours = new int[16][];
+    private int[][] pairCounts = new int[16][];
+    private int[] degrees = new int[16];
+    private int capacity;
+    private long documents;
+
+    public CooccurrenceGraph() {
+        Arrays.fill(neighbours, EMPTY);
+        Arrays.fill(pairCounts, EMPTY);
+    }
+
+    public long documents() {
+        return documents;
+    }
+
+    public int count(int item) {
+        return item < capacity ? itemCounts[item] : 0;
+    }
+
+    public int degree(int item) {
+        return item < capacity ? degrees[item] : 0;
+    }
+
+    /**
+     * Records one document containing the given items. Duplicates are ignored.
+     */
+    public void add(int[] items) {
+        update(distinct(items), 1);
+    }
+
+    /**
+     * Forgets one document previously recorded with exactly these items.
+     */
+    public void remove(int[] items) {
+        update(distinct(items), -1);
+    }
+
+    public int pairCount(int a, int b) {
+        if (a >= capacity || b >= capacity) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(neighbours[a], 0, degrees[a], b);
+        return index >= 0 ? pairCounts[a][index] : 0;
+    }
+
+    public double weight(int a, int b) {
+        return weight(pairCount(a, b), count(a), count(b));
+    }
+
+    /**
+     * The items most associated with the weighted seeds, best first: each candidate scores
+     * the sum over seeds of seed weight times edge weight. Seeds and {@code excluded} items
+     * are never returned. Writes up to {@code limit} results and returns how many.
+     */
+    public int related(int[] seeds, double[] seedWeights, int[] excluded, int limit, int[] outItems, double[] outScores) {
+        if (limit <= 0 || documents == 0) {
+            return 0;
+        }
+        double[] scores = new double[capacity];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int s = 0; s < seeds.length; s++) {
+            int seed = seeds[s];
+            if (seed < 0 || seed >= capacity || seedWeights[s] <= 0) {
+                continue;
+            }
+            int seedCount = itemCounts[seed];
+            int[] adjacent = neighbours[seed];
+            int[] counts = pairCounts[seed];
+            for (int i = 0; i < degrees[seed]; i++) {
+                int candidate = adjacent[i];
+                double weight = weight(counts[i], seedCount, itemCounts[candidate]);
+                if (weight <= 0) {
+                    continue;
+                }
+                if (scores[candidate] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = candidate;
+                }
+                scores[candidate] += seedWeights[s] * weight;
+            }
+        }
+        for (int seed : seeds) {
+            if (seed >= 0 && seed < capacity) {
+                scores[seed] = 0;
+            }
+        }
+        for (int item : excluded) {
+            if (item >= 0 && item < capacity) {
+                scores[item] = 0;
+            }
+        }
+
+        double[] candidateScores = new double[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            candidateScores[i] = scores[touched[i]];
+        }
+        int[] top = TopK.select(candidateScores, touchedCount, Math.min(limit, Math.min(outItems.length, outScores.length)));
+        int written = 0;
+        for (int index : top) {
+            if (candidateScores[index] <= 0) {
+                break;
+            }
+            outItems[written] = touched[index];
+            outScores[written] = candidateScores[index];
+            written++;
+        }
+        return written;
+    }
+
+    private double weight(int pairCount, int countA, int countB) {
+        if (pairCount <= 0 || countA <= 0 || countB <= 0) {
+            return 0.0;
+        }
+        double pmi = Math.log(pairCount * (double) documents / ((double) countA * countB));
+        if (pmi <= 0) {
+            return 0.0;
+        }
+        return pmi * pairCount / (pairCount + SHRINKAGE);
+    }
+
+    private void update(int[] items, int delta) {
+        if (items.length == 0) {
+            return;
+        }
+        ensureCapacity(items[items.length - 1] + 1);
+        documents += delta;
+        for (int i = 0; i < items.length; i++) {
+            itemCounts[items[i]] += delta;
+            for (int j = 0; j < items.length; j++) {
+                if (i != j) {
+                    adjust(items[i], items[j], delta);
+                }
+            }
+        }
+    }
+
+    private void adjust(int item, int neighbour, int delta) {
+        int[] adjacent = neighbours[item];
+        int[] counts = pairCounts[item];
+        int degree = degrees[item];
+        int index = Arrays.binarySearch(adjacent, 0, degree, neighbour);
+        if (index >= 0) {
+            counts[index] += delta;
+            if (counts[index] <= 0) {
+                // Drop the edge so neighbourhoods only hold live pairs
+                System.arraycopy(adjacent, index + 1, adjacent, index, degree - index - 1);
+                System.arraycopy(counts, index + 1, counts, index, degree - index - 1);
+                degrees[item] = degree - 1;
+            }
+            return;
+        }
+        if (delta <= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (degree == adjacent.length) {
+            int grown = Math.max(4, degree * 2);
+            adjacent = Arrays.copyOf(adjacent, grown);
+            counts = Arrays.copyOf(counts, grown);
+            neighbours[item] = adjacent;
+            pairCounts[item] = counts;
+        }
+        System.arraycopy(adjacent, insertAt, adjacent, insertAt + 1, degree - insertAt);
+        System.arraycopy(counts, insertAt, counts, insertAt + 1, degree - insertAt);
+        adjacent[insertAt] = neighbour;
+        counts[insertAt] = delta;
+        degrees[item] = degree + 1;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > capacity) {
+            if (size > itemCounts.length) {
+                int grown = Math.max(size, itemCounts.length * 2);
+                int previous = itemCounts.length;
+                itemCounts = Arrays.copyOf(itemCounts, grown);
+                degrees = Arrays.copyOf(degrees, grown);
+                neighbours = Arrays.copyOf(neighbours, grown);
+                pairCounts = Arrays.copyOf(pairCounts, grown);
+                Arrays.fill(neighbours, previous, grown, EMPTY);
+                Arrays.fill(pairCounts, previous, grown, EMPTY);
+            }
+            capacity = size;
+        }
+    }
+
+    // Sorted copy without duplicates or negative ids
+    private static int[] distinct(int[] items) {
+        int[] sorted = items.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int item : sorted) {
+            if (item >= 0 && (size == 0 || sorted[size - 1] != item)) {
+                sorted[size++] = item;
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+}
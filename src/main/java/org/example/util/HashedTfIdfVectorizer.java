@@ -0,0 +1,129 @@
+package org.example.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text into dense unit-length vectors without a vocabulary.
+ *
+ * Tokens are hashed into a fixed number of buckets (the hashing trick), weighted by
+ * sublinear term frequency times smoothed IDF from document frequencies observed so far,
+ * then reduced to {@code dimensions} with a sparse signed random projection.
+ * Thread-safe; document frequencies are updated under the instance lock.
+ */
+public final class HashedTfIdfVectorizer {
+
+    private static final int PROJECTIONS_PER_BUCKET = 3;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was",
+            "one", "our", "out", "has", "have", "this", "that", "with", "from", "they", "will", "would",
+            "there", "their", "what", "about", "which", "when", "your", "into", "than", "then", "them",
+            "these", "some", "been", "were", "also", "just", "more", "most", "such", "only", "very");
+
+    private final int buckets;
+    private final int dimensions;
+    private final int[] documentFrequency;
+    private long documentCount;
+
+    public HashedTfIdfVectorizer(int buckets, int dimensions) {
+        if (Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two");
+        }
+        this.buckets = buckets;
+        this.dimensions = dimensions;
+        this.documentFrequency = new int[buckets];
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Counts the text as one more document for IDF purposes.
+     */
+    public synchronized void observe(String text) {
+        LongIntHashMap counts = bucketCounts(text);
+        counts.forEach((bucket, count) -> documentFrequency[(int) bucket]++);
+        documentCount++;
+    }
+
+    public synchronized float[] vectorize(String text) {
+        LongIntHashMap counts = bucketCounts(text);
+        float[] vector = new float[dimensions];
+        double idfNumerator = documentCount + 1.0;
+        counts.forEach((bucket, count) -> {
+            double tf = 1.0 + Math.log(count);
+            double idf = Math.log(idfNumerator / (documentFrequency[(int) bucket] + 1.0)) + 1.0;
+            float weight = (float) (tf * idf);
+            for (int i = 0; i < PROJECTIONS_PER_BUCKET; i++) {
+                int hash = mix((int) bucket * PROJECTIONS_PER_BUCKET + i);
+                int dimension = (hash >>> 1) % dimensions;
+                vector[dimension] += (hash & 1) == 0 ? weight : -weight;
+            }
+        });
+
+        double norm = 0.0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(buckets);
+        out.writeInt(dimensions);
+        out.writeLong(documentCount);
+        for (int frequency : documentFrequency) {
+            out.writeInt(frequency);
+        }
+    }
+
+    public static HashedTfIdfVectorizer readFrom(DataInputStream in) throws IOException {
+        HashedTfIdfVectorizer vectorizer = new HashedTfIdfVectorizer(in.readInt(), in.readInt());
+        vectorizer.documentCount = in.readLong();
+        for (int i = 0; i < vectorizer.buckets; i++) {
+            vectorizer.documentFrequency[i] = in.readInt();
+        }
+        return vectorizer;
+    }
+
+    private LongIntHashMap bucketCounts(String text) {
+        LongIntHashMap counts = new LongIntHashMap(64);
+        if (text == null) {
+            return counts;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    String token = lower.substring(start, i);
+                    if (!STOP_WORDS.contains(token)) {
+                        counts.addTo(mix(token.hashCode()) & (buckets - 1), 1);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return counts;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,517 @@
+package org.example.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world graph for approximate nearest-neighbour search
+ * over unit-length float vectors, using dot product (cosine) similarity.
+ *
+ * Deletes are tombstones: the node keeps routing searches but never appears in results.
+ * Re-adding an id tombstones the old node and inserts a fresh one. Call {@link #compact()}
+ * once tombstones dominate. Searches share a read lock; inserts and deletes take the write lock.
+ */
+public final class HnswIndex {
+
+    private static final int FORMAT_MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimensions;
+    private final int maxConnections;
+    private final int maxConnectionsLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[][] vectors = new float[16][];
+    private long[] ids = new long[16];
+    private int[] levels = new int[16];
+    private int[][][] links = new int[16][][];
+    private final BitSet deleted = new BitSet();
+    private final LongIntHashMap nodeById = new LongIntHashMap();
+    private int nodeCount;
+    private int liveCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimensions, int maxConnections, int efConstruction) {
+        this.dimensions = dimensions;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLevel0 = maxConnections * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(Math.max(2, maxConnections));
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fraction of graph nodes that are tombstones.
+     */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return nodeCount == 0 ? 0.0 : (nodeCount - liveCount) / (double) nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.get(id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of all live nodes, in insertion order.
+     */
+    public long[] ids() {
+        lock.readLock().lock();
+        try {
+            long[] live = new long[liveCount];
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted.get(node)) {
+                    live[count++] = ids[node];
+                }
+            }
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the stored vector, or null if the id is not indexed.
+     */
+    public float[] vector(long id) {
+        lock.readLock().lock();
+        try {
+            int node = nodeById.get(id);
+            return node >= 0 ? vectors[node].clone() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            insert(id, vector.clone(), randomLevel());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return tombstone(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} live ids nearest to {@code query}, best first.
+     * {@code ef} bounds the work per query; larger values trade latency for recall.
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return new ArrayList<>();
+            }
+            int current = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+            // Widen the beam a little so tombstones do not eat into k
+            NodeHeap found = searchLayer(query, current, Math.max(ef, k) + Math.min(k, nodeCount - liveCount), 0);
+            int[] nodes = found.drainBestFirst();
+            List<Neighbor> result = new ArrayList<>(Math.min(k, nodes.length));
+            for (int node : nodes) {
+                if (!deleted.get(node)) {
+                    result.add(new Neighbor(ids[node], dot(query, vectors[node])));
+                    if (result.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cosine similarity between two indexed ids, or {@code Double.NaN} if either is missing.
+     */
+    public double similarity(long firstId, long secondId) {
+        lock.readLock().lock();
+        try {
+            int first = nodeById.get(firstId);
+            int second = nodeById.get(secondId);
+            if (first < 0 || second < 0) {
+                return Double.NaN;
+            }
+            return dot(vectors[first], vectors[second]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a new index containing only the live nodes.
+     */
+    public HnswIndex compact() {
+        lock.readLock().lock();
+        try {
+            HnswIndex compacted = new HnswIndex(dimensions, maxConnections, efConstruction);
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted.get(node)) {
+                    compacted.insert(ids[node], vectors[node], levels[node]);
+                }
+            }
+            return compacted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(FORMAT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(maxConnections);
+            out.writeInt(efConstruction);
+            out.writeInt(nodeCount);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeLong(ids[node]);
+                out.writeBoolean(deleted.get(node));
+                out.writeInt(levels[node]);
+                for (float value : vectors[node]) {
+                    out.writeFloat(value);
+                }
+                for (int level = 0; level <= levels[node]; level++) {
+                    int[] neighbors = links[node][level];
+                    out.writeInt(neighbors.length);
+                    for (int neighbor : neighbors) {
+                        out.writeInt(neighbor);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static HnswIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not an HNSW index file or unsupported version");
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        index.ensureCapacity(count);
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int node = 0; node < count; node++) {
+            index.ids[node] = in.readLong();
+            boolean isDeleted = in.readBoolean();
+            index.levels[node] = in.readInt();
+            float[] vector = new float[index.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+            index.vectors[node] = vector;
+            index.links[node] = new int[index.levels[node] + 1][];
+            for (int level = 0; level <= index.levels[node]; level++) {
+                int[] neighbors = new int[in.readInt()];
+                for (int i = 0; i < neighbors.length; i++) {
+                    neighbors[i] = in.readInt();
+                }
+                index.links[node][level] = neighbors;
+            }
+            if (isDeleted) {
+                index.deleted.set(node);
+            } else {
+                index.nodeById.put(index.ids[node], node);
+                index.liveCount++;
+            }
+        }
+        index.nodeCount = count;
+        return index;
+    }
+
+    private boolean tombstone(long id) {
+        int node = nodeById.get(id);
+        if (node < 0) {
+            return false;
+        }
+        deleted.set(node);
+        nodeById.remove(id);
+        liveCount--;
+        return true;
+    }
+
+    private void insert(long id, float[] vector, int level) {
+        ensureCapacity(nodeCount + 1);
+        int node = nodeCount++;
+        vectors[node] = vector;
+        ids[node] = id;
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[0];
+        }
+        nodeById.put(id, node);
+        liveCount++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            int[] candidates = searchLayer(vector, current, efConstruction, l).drainBestFirst();
+            int capacity = l == 0 ? maxConnectionsLevel0 : maxConnections;
+            int[] selected = Arrays.copyOf(candidates, Math.min(maxConnections, candidates.length));
+            links[node][l] = selected;
+            for (int neighbor : selected) {
+                connect(neighbor, node, l, capacity);
+            }
+            if (candidates.length > 0) {
+                current = candidates[0];
+            }
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    private void connect(int from, int to, int level, int capacity) {
+        int[] existing = links[from][level];
+        if (existing.length < capacity) {
+            int[] grown = Arrays.copyOf(existing, existing.length + 1);
+            grown[existing.length] = to;
+            links[from][level] = grown;
+            return;
+        }
+        // Full: keep the closest links among the existing ones plus the new one
+        float[] base = vectors[from];
+        NodeHeap keep = new NodeHeap(capacity + 1);
+        for (int neighbor : existing) {
+            keep.push(neighbor, dot(base, vectors[neighbor]));
+        }
+        keep.push(to, dot(base, vectors[to]));
+        keep.popWorst();
+        links[from][level] = keep.drainBestFirst();
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = dot(query, vectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : links[current][level]) {
+                float similarity = dot(query, vectors[neighbor]);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private NodeHeap searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodeCount);
+        visited.set(entry);
+        float entrySimilarity = dot(query, vectors[entry]);
+        // Frontier ordered best-first (similarity negated into a min-heap of the worst)
+        NodeHeap frontier = new NodeHeap(ef * 2);
+        NodeHeap found = new NodeHeap(ef + 1);
+        frontier.push(entry, -entrySimilarity);
+        found.push(entry, entrySimilarity);
+
+        while (frontier.size() > 0) {
+            float candidateSimilarity = -frontier.worstScore();
+            int candidate = frontier.popWorst();
+            if (found.size() >= ef && candidateSimilarity < found.worstScore()) {
+                break;
+            }
+            for (int neighbor : links[candidate][level]) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float similarity = dot(query, vectors[neighbor]);
+                if (found.size() < ef || similarity > found.worstScore()) {
+                    frontier.push(neighbor, -similarity);
+                    found.push(neighbor, similarity);
+                    if (found.size() > ef) {
+                        found.popWorst();
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - random.nextDouble(); // (0, 1]
+        return (int) (-Math.log(uniform) * levelMultiplier);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    public static final class Neighbor {
+        private final long id;
+        private final double similarity;
+
+        Neighbor(long id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    /**
+     * Growable binary min-heap of nodes keyed by score; the root is the worst entry.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        NodeHeap(int initialCapacity) {
+            nodes = new int[Math.max(4, initialCapacity)];
+            scores = new float[nodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float worstScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                nodes[pos] = nodes[parent];
+                scores[pos] = scores[parent];
+                pos = parent;
+            }
+            nodes[pos] = node;
+            scores[pos] = score;
+        }
+
+        int popWorst() {
+            int worst = nodes[0];
+            size--;
+            if (size > 0) {
+                int node = nodes[size];
+                float score = scores[size];
+                int pos = 0;
+                while (true) {
+                    int child = 2 * pos + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && scores[child + 1] < scores[child]) {
+                        child++;
+                    }
+                    if (scores[child] >= score) {
+                        break;
+                    }
+                    nodes[pos] = nodes[child];
+                    scores[pos] = scores[child];
+                    pos = child;
+                }
+                nodes[pos] = node;
+                scores[pos] = score;
+            }
+            return worst;
+        }
+
+        int[] drainBestFirst() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = popWorst();
+            }
+            return result;
+        }
+    }
+}
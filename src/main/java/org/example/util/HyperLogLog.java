@@ -0,0 +1,235 @@
+package org.example.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter over 64-bit hashes.
+ *
+ * Small sketches keep only their non-zero registers in a packed sparse list and switch to
+ * a dense register array once that stops paying off, so a sketch for an article with a
+ * handful of readers costs a few bytes. Sketches of the same precision merge by taking the
+ * register-wise maximum, which makes merging associative, commutative and idempotent.
+ * Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+    private static final int BITS_PER_REGISTER = 6;
+
+    private final int precision;
+    private final int registerCount;
+    // Sparse entries are (index << 8 | rank), unsorted; null once dense
+    private int[] sparse = new int[4];
+    private int sparseSize;
+    private byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public static long hash(long value) {
+        // MurmurHash3 fmix64 finaliser
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static long hash(String value) {
+        // FNV-1a over UTF-8, then mixed so nearby strings spread across registers
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return hash(h);
+    }
+
+    /**
+     * Adds a pre-hashed item. Returns true if the sketch changed.
+     */
+    public boolean addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits, capped so an all-zero tail still fits
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(remaining) + 1;
+        return update(index, rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        if (other.registers != null) {
+            for (int i = 0; i < registerCount; i++) {
+                if (other.registers[i] != 0) {
+                    update(i, other.registers[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparse[i] >>> 8, other.sparse[i] & 0xff);
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = registerCount - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xff));
+            }
+        }
+        double alpha = 0.7213 / (1.0 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // Linear counting is far more accurate while many registers are still empty
+            estimate = registerCount * Math.log(registerCount / (double) zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int denseBytes = (registerCount * BITS_PER_REGISTER + 7) / 8;
+            if (registers == null && sparseSize * 3 < denseBytes) {
+                out.writeByte(FORMAT_SPARSE);
+                out.writeByte(precision);
+                out.writeShort(sparseSize);
+                int[] sorted = Arrays.copyOf(sparse, sparseSize);
+                Arrays.sort(sorted);
+                for (int entry : sorted) {
+                    out.writeShort(entry >>> 8);
+                    out.writeByte(entry & 0xff);
+                }
+            } else {
+                out.writeByte(FORMAT_DENSE);
+                out.writeByte(precision);
+                byte[] packed = new byte[denseBytes];
+                for (int i = 0; i < registerCount; i++) {
+                    writePacked(packed, i, register(i));
+                }
+                out.write(packed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static HyperLogLog fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte format = in.readByte();
+            HyperLogLog sketch = new HyperLogLog(in.readByte());
+            if (format == FORMAT_SPARSE) {
+                int size = in.readUnsignedShort();
+                for (int i = 0; i < size; i++) {
+                    sketch.update(in.readUnsignedShort(), in.readUnsignedByte());
+                }
+            } else if (format == FORMAT_DENSE) {
+                byte[] packed = new byte[(sketch.registerCount * BITS_PER_REGISTER + 7) / 8];
+                in.readFully(packed);
+                for (int i = 0; i < sketch.registerCount; i++) {
+                    int value = readPacked(packed, i);
+                    if (value != 0) {
+                        sketch.update(i, value);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown sketch format " + format);
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt sketch", e);
+        }
+    }
+
+    // Registers are packed 6 bits each; a register spans at most two adjacent bytes
+    private static void writePacked(byte[] packed, int index, int value) {
+        int bit = index * BITS_PER_REGISTER;
+        int first = bit >>> 3;
+        int shifted = value << (bit & 7);
+        packed[first] |= (byte) shifted;
+        if (first + 1 < packed.length) {
+            packed[first + 1] |= (byte) (shifted >>> 8);
+        }
+    }
+
+    private static int readPacked(byte[] packed, int index) {
+        int bit = index * BITS_PER_REGISTER;
+        int first = bit >>> 3;
+        int word = (packed[first] & 0xff) | (first + 1 < packed.length ? (packed[first + 1] & 0xff) << 8 : 0);
+        return (word >>> (bit & 7)) & ((1 << BITS_PER_REGISTER) - 1);
+    }
+
+    private int register(int index) {
+        if (registers != null) {
+            return registers[index];
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] >>> 8 == index) {
+                return sparse[i] & 0xff;
+            }
+        }
+        return 0;
+    }
+
+    private boolean update(int index, int rank) {
+        if (registers != null) {
+            if (registers[index] >= rank) {
+                return false;
+            }
+            registers[index] = (byte) rank;
+            return true;
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] >>> 8 == index) {
+                if ((sparse[i] & 0xff) >= rank) {
+                    return false;
+                }
+                sparse[i] = index << 8 | rank;
+                return true;
+            }
+        }
+        // Sparse lookups are linear, so convert well before the list rivals the dense array
+        if (sparseSize >= registerCount / 16) {
+            registers = new byte[registerCount];
+            for (int i = 0; i < sparseSize; i++) {
+                registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xff);
+            }
+            sparse = null;
+            sparseSize = 0;
+            return update(index, rank);
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        sparse[sparseSize++] = index << 8 | rank;
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ * Missing keys return {@link #MISSING}. Not thread-safe; publish a copy for concurrent readers.
+ */
+public final class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    private static final long EMPTY_KEY = 0L;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    // Key 0 is the empty-slot marker, so its mapping is stored on the side
+    private boolean hasZeroKey;
+    private int zeroValue = MISSING;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    private LongIntHashMap(LongIntHashMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+        hasZeroKey = other.hasZeroKey;
+        zeroValue = other.zeroValue;
+    }
+
+    public LongIntHashMap copy() {
+        return new LongIntHashMap(this);
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public int get(long key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey ? zeroValue : MISSING;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY_KEY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY_KEY) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Adds {@code delta} to the value for {@code key}, treating a missing key as zero.
+     */
+    public int addTo(long key, int delta) {
+        int current = get(key);
+        int updated = (current == MISSING ? 0 : current) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    /**
+     * Removes the mapping for {@code key} and returns its value, or {@link #MISSING}.
+     */
+    public int remove(long key) {
+        if (key == EMPTY_KEY) {
+            int previous = hasZeroKey ? zeroValue : MISSING;
+            hasZeroKey = false;
+            zeroValue = MISSING;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY_KEY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int previous = values[slot];
+        // Shift later entries of the probe run back so lookups never stop at the hole early
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY_KEY) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry if its home slot is not cyclically within (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY_KEY;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = MISSING;
+    }
+
+    /**
+     * Calls {@code consumer} for every entry in slot order.
+     */
+    public void forEach(LongIntConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY_KEY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+}
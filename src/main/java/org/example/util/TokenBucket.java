@@ -0,0 +1,86 @@
+package org.example.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} tokens that refill evenly over
+ * {@code periodNanos}.
+ *
+ * The whole state is one timestamp: the instant at which the bucket will be full again.
+ * Taking a token pushes that instant forward by one refill interval, and the request is
+ * refused if it would land further ahead than a full bucket's worth of intervals. This is
+ * the generic cell rate algorithm formulation of a token bucket; an acquire is one read
+ * and one compare-and-set, with no separate refill step.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long capacity, long periodNanos, long nowNanos) {
+        if (capacity <= 0 || periodNanos <= 0) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, periodNanos / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes one token if available.
+     */
+    public Decision tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return new Decision(false, 0, base - nowNanos, ahead - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, (burstNanos - ahead) / intervalNanos, ahead, 0);
+            }
+        }
+    }
+
+    public static final class Decision {
+        private final boolean allowed;
+        private final long remaining;
+        private final long resetNanos;
+        private final long retryAfterNanos;
+
+        Decision(boolean allowed, long remaining, long resetNanos, long retryAfterNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.resetNanos = resetNanos;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /** Tokens left after this request. */
+        public long getRemaining() {
+            return remaining;
+        }
+
+        /** Time until the bucket is full again. */
+        public long getResetNanos() {
+            return resetNanos;
+        }
+
+        /** For refused requests, time until a token is available. */
+        public long getRetryAfterNanos() {
+            return retryAfterNanos;
+        }
+    }
+}
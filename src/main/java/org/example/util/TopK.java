@@ -0,0 +1,82 @@
+package org.example.util;
+
+/**
+ * Allocation-light top-K selection over primitive score arrays.
+ * Returns row indices ordered by descending score without boxing the scores; equal scores
+ * keep their input order, so results are deterministic.
+ */
+public final class TopK {
+
+    private TopK() {}
+
+    public static int[] select(double[] scores, int count, int k) {
+        int size = Math.min(k, count);
+        if (size <= 0) {
+            return new int[0];
+        }
+
+        // Min-heap of indices keyed by score: the root is the weakest of the current top-k
+        int[] heap = new int[size];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            if (heapSize < size) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize, scores);
+                heapSize++;
+            } else if (weaker(heap[0], i, scores)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        // Drain the heap from weakest to strongest, filling the result back to front
+        int[] result = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return result;
+    }
+
+    // Lower score, or the later index among equal scores
+    private static boolean weaker(int a, int b, double[] scores) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int pos, double[] scores) {
+        int node = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!weaker(node, heap[parent], scores)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = node;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int pos = 0;
+        int node = heap[0];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && weaker(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!weaker(heap[child], node, scores)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = node;
+    }
+}
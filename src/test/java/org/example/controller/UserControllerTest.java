@@ -0,0 +1,64 @@
+package org.example.controller;
+
+import org.example.dto.CursorPage;
+import org.example.exception.GlobalExceptionHandler;
+import org.example.exception.ResourceNotFoundException;
+import org.example.exception.ValidationException;
+import org.example.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerTest {
+
+    private UserService userService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        UserController controller = new UserController();
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testInvalidCursorIsUnprocessable() throws Exception {
+        when(userService.getFollowers(eq("alice"), eq("bogus"), anyInt())).thenThrow(new ValidationException("Invalid cursor"));
+        when(userService.getFollowing(eq("alice"), eq("bogus"), anyInt())).thenThrow(new ValidationException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/v1/users/alice/followers").param("cursor", "bogus"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(get("/api/v1/users/alice/following").param("cursor", "bogus"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testUnknownUserIsNotFound() throws Exception {
+        when(userService.getFollowers(eq("nobody"), any(), anyInt())).thenThrow(new ResourceNotFoundException("User not found"));
+
+        mockMvc.perform(get("/api/v1/users/nobody/followers"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testFollowersPage() throws Exception {
+        when(userService.getFollowers(eq("alice"), any(), eq(20))).thenReturn(new CursorPage<>(List.of(), null, false));
+
+        mockMvc.perform(get("/api/v1/users/alice/followers"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.exception.GlobalExceptionHandler;
+import org.example.exception.ServiceBusyException;
+import org.example.support.Bench;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    // Matches app.security.password.bcrypt-strength
+    private static final int BCRYPT_STRENGTH = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Same settings as the passwordHashingExecutor bean
+    private ThreadPoolTaskExecutor executor(int poolSize, int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Encoder whose hashes block until released
+    private static PasswordEncoder blocking(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    @Test
+    void testDelegatesToEncoder() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor(1, 1),
+                2000, meterRegistry);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void testSaturatedPoolIsRejectedAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking(started, release), executor(1, 1),
+                10_000, meterRegistry);
+        // One hash running, one queued
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        long before = System.nanoTime();
+        ServiceBusyException busy = assertThrows(ServiceBusyException.class, () -> encoder.encode("c"));
+
+        assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(1), "rejected without waiting");
+        assertEquals(1.0, meterRegistry.counter("auth.password.rejected", "operation", "encode").count());
+        ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler().handleServiceBusy(busy);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSlowHashTimesOut() {
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking(new CountDownLatch(1), release),
+                executor(1, 1), 50, meterRegistry);
+        try {
+            assertThrows(ServiceBusyException.class, () -> encoder.matches("a", "hash:a"));
+            assertEquals(1.0, meterRegistry.counter("auth.password.timeouts", "operation", "matches").count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkBcryptAtConfiguredStrength() throws InterruptedException {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+        String hash = bcrypt.encode("correct horse battery staple");
+        Bench.nanosPerOp("bcrypt(" + BCRYPT_STRENGTH + ") encode", 5, 20,
+                () -> bcrypt.encode("correct horse battery staple").length());
+        Bench.nanosPerOp("bcrypt(" + BCRYPT_STRENGTH + ") matches", 5, 20,
+                () -> bcrypt.matches("correct horse battery staple", hash) ? 1 : 0);
+
+        // Logins per second the default pool of 4 sustains, with callers well above the pool size
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(bcrypt, executor(4, 32), 2000, meterRegistry);
+        Bench.throughput("bounded bcrypt(" + BCRYPT_STRENGTH + ") matches, pool 4", 16, 3000, () -> {
+            try {
+                return bounded.matches("correct horse battery staple", hash) ? 1 : 0;
+            } catch (ServiceBusyException e) {
+                return 0;
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.security;
+
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private UserRepository userRepository;
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        tokenProvider = spy(JwtTokenProviderTest.provider(JwtTokenProviderTest.SECRET));
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "principalCache", PrincipalCacheTest.cache(userRepository));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/articles/feed");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest(), "the chain always continues");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void testSecondRequestAuthenticatesFromCache() throws Exception {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(PrincipalCacheTest.user("alice", true)));
+        String token = tokenProvider.generateToken("alice");
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertEquals("alice", first.getName());
+        assertEquals("alice", second.getName());
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void testTokenIsParsedOncePerRequest() throws Exception {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(PrincipalCacheTest.user("alice", true)));
+        String token = tokenProvider.generateToken("alice");
+
+        authenticate(token);
+
+        verify(tokenProvider, times(1)).parseValidClaims(token);
+        verify(tokenProvider, never()).validateToken(anyString());
+        verify(tokenProvider, never()).getUsernameFromToken(anyString());
+    }
+
+    @Test
+    void testDisabledUserIsNotAuthenticated() throws Exception {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(PrincipalCacheTest.user("alice", false)));
+
+        assertNull(authenticate(tokenProvider.generateToken("alice")));
+    }
+
+    @Test
+    void testInvalidOrUnknownTokensAreNotAuthenticated() throws Exception {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertNull(authenticate(null));
+        assertNull(authenticate("garbage"));
+        assertNull(authenticate(tokenProvider.generateToken("ghost")));
+        verify(userRepository, never()).findByUsername("garbage");
+    }
+}
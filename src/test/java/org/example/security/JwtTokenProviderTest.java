@@ -0,0 +1,72 @@
+package org.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = provider(SECRET);
+    }
+
+    static JwtTokenProvider provider(String secret) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 60_000);
+        provider.init();
+        return provider;
+    }
+
+    @Test
+    void testValidTokenYieldsClaims() {
+        Claims claims = provider.parseValidClaims(provider.generateToken("alice"));
+
+        assertNotNull(claims);
+        assertEquals("alice", claims.getSubject());
+        assertTrue(claims.getExpiration().after(new Date()));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertNull(provider.parseValidClaims(token));
+        assertFalse(provider.validateToken(token));
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = provider.generateToken("alice");
+        String[] parts = token.split("\\.");
+        String forged = provider(SECRET.replace('0', '1')).generateToken("mallory").split("\\.")[1];
+
+        assertNull(provider.parseValidClaims(parts[0] + "." + forged + "." + parts[2]));
+        assertNull(provider.parseValidClaims(provider(SECRET.replace('0', '1')).generateToken("alice")));
+        assertNull(provider.parseValidClaims("not-a-token"));
+        assertNull(provider.parseValidClaims(""));
+    }
+
+    @Test
+    void testShortSecretIsRefused() {
+        assertThrows(IllegalStateException.class, () -> provider("too-short"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.security;
+
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private UserRepository userRepository;
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cache = cache(userRepository);
+    }
+
+    static PrincipalCache cache(UserRepository userRepository) {
+        PrincipalCache cache = new PrincipalCache(userRepository);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        cache.init();
+        return cache;
+    }
+
+    static User user(String username, boolean enabled) {
+        User user = new User(username, username + "@example.org", "$2a$10$hash");
+        user.setEmailVerified(enabled);
+        return user;
+    }
+
+    @Test
+    void testSnapshotIsCachedWithoutPassword() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("alice", true)));
+
+        UserDetails first = cache.get("alice");
+        UserDetails second = cache.get("alice");
+
+        assertSame(first, second);
+        assertEquals("alice", first.getUsername());
+        assertEquals("", first.getPassword());
+        assertFalse(first instanceof User);
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        when(userRepository.findByUsername("alice"))
+                .thenReturn(Optional.of(user("alice", true)))
+                .thenReturn(Optional.of(user("alice", false)));
+        assertTrue(cache.get("alice").isEnabled());
+
+        cache.invalidate("alice");
+
+        assertFalse(cache.get("alice").isEnabled());
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void testUnknownSubjectIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertNull(cache.get("ghost"));
+        assertNull(cache.get("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.RateLimitProperties;
+import org.example.support.Bench;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private RateLimitProperties properties;
+
+    // The policies shipped in application.properties
+    @BeforeEach
+    void setUp() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        new PropertiesPropertySourceLoader().load("application", new ClassPathResource("application.properties"))
+                .forEach(environment.getPropertySources()::addFirst);
+        properties = Binder.get(environment).bind("app.rate-limit", RateLimitProperties.class).get();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+
+    private String policy(RateLimiter limiter, String method, String path) {
+        return limiter.acquire(request(method, path)).getPolicy();
+    }
+
+    @Test
+    void testHotEndpointsHaveTheirOwnPolicies() {
+        RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+
+        assertEquals("10;w=3600", policy(limiter, "POST", "/api/v1/auth/login"));
+        assertEquals("120;w=60", policy(limiter, "POST", "/api/v1/analytics/beacon"));
+        assertEquals("60;w=60", policy(limiter, "PATCH", "/api/v1/organization/drafts/42"));
+        assertEquals("60;w=60", policy(limiter, "PUT", "/api/v1/organization/drafts/42"));
+        assertEquals("10;w=3600", policy(limiter, "GET", "/api/v1/analytics/export"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/articles/feed"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/articles/feed/personalized"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/articles/cursor"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/articles/slug/hello-world"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/tags/suggestions"));
+        assertEquals("300;w=60", policy(limiter, "GET", "/api/v1/organization/tags/suggestions"));
+        // Other reads and writes without a policy of their own fall back to the default
+        assertEquals("100;w=3600", policy(limiter, "GET", "/api/v1/articles/search"));
+        assertEquals("100;w=3600", policy(limiter, "GET", "/api/v1/users/alice/followers"));
+        assertEquals("100;w=3600", policy(limiter, "GET", "/api/v1/analytics/articles/1"));
+        assertEquals("100;w=3600", policy(limiter, "POST", "/api/v1/articles"));
+        assertEquals("100;w=3600", policy(limiter, "DELETE", "/api/v1/organization/drafts/42"));
+    }
+
+    @Test
+    void testPoliciesHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 60; i++) {
+            assertTrue(limiter.acquire(request("PATCH", "/api/v1/organization/drafts/42")).isAllowed());
+        }
+
+        RateLimiter.Result refused = limiter.acquire(request("PATCH", "/api/v1/organization/drafts/42"));
+        assertFalse(refused.isAllowed());
+        assertEquals(1, refused.getRetryAfterSeconds());
+        assertEquals(0, refused.getRemaining());
+        assertTrue(limiter.acquire(request("PUT", "/api/v1/organization/drafts/42")).isAllowed());
+        assertTrue(limiter.acquire(request("GET", "/api/v1/articles/feed")).isAllowed());
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 120; i++) {
+            limiter.acquire(request("POST", "/api/v1/analytics/beacon"));
+        }
+        assertFalse(limiter.acquire(request("POST", "/api/v1/analytics/beacon")).isAllowed());
+
+        MockHttpServletRequest other = request("POST", "/api/v1/analytics/beacon");
+        other.setRemoteAddr("198.51.100.1");
+        assertTrue(limiter.acquire(other).isAllowed());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkAcquireOverhead() throws InterruptedException {
+        RateLimitProperties open = new RateLimitProperties();
+        open.setDefaultLimit(Integer.MAX_VALUE);
+        open.setPolicies(properties.getPolicies());
+        open.getPolicies().forEach(policy -> policy.setLimit(Integer.MAX_VALUE));
+        RateLimiter limiter = new RateLimiter(open, new SimpleMeterRegistry());
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[64];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = request("GET", "/api/v1/articles/slug/article-" + i);
+            requests[i].setRemoteAddr("10.0.0." + i);
+        }
+        long[] counter = {0};
+        // Last policy in the list, so every route is tried first
+        Bench.nanosPerOp("rate limiter acquire (article reads policy)", 200_000, 2_000_000,
+                () -> limiter.acquire(requests[(int) (counter[0]++ & 63)]).getRemaining());
+        Bench.nanosPerOp("rate limiter acquire (default policy)", 200_000, 2_000_000,
+                () -> limiter.acquire(request("POST", "/api/v1/comments")).getRemaining());
+        Bench.throughput("rate limiter acquire, 64 clients", 8, 2000,
+                () -> limiter.acquire(requests[(int) (Thread.currentThread().getId() & 63)]).getRemaining());
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.service;
+
+import org.example.dto.ArticleResponseDto;
+import org.example.entity.Article;
+import org.example.entity.User;
+import org.example.repository.*;
+import org.example.support.Bench;
+import org.example.util.CompressedIdBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class AdvancedRecommendationServiceTest {
+
+    private static final long USER_ID = 1L;
+
+    private ArticleRepository articleRepository;
+    private ReadingHistoryRepository readingHistoryRepository;
+    private ClapRepository clapRepository;
+    private UserRepository userRepository;
+    private ReadArticleIndex readArticleIndex;
+    private AdvancedRecommendationService service;
+
+    private final CompressedIdBitmap readIds = new CompressedIdBitmap();
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        readingHistoryRepository = mock(ReadingHistoryRepository.class);
+        clapRepository = mock(ClapRepository.class);
+        userRepository = mock(UserRepository.class);
+        readArticleIndex = mock(ReadArticleIndex.class);
+        service = new AdvancedRecommendationService(articleRepository, readingHistoryRepository, clapRepository,
+                mock(BookmarkRepository.class), mock(CommentRepository.class), userRepository,
+                mock(UserInterestProfileService.class), mock(CandidateGenerationService.class),
+                mock(RecommendationResultCache.class), mock(ArticleFeatureStore.class),
+                mock(ArticleEmbeddingService.class), readArticleIndex, mock(TagPostingIndex.class));
+
+        User user = new User("reader", "reader@example.com", "secret");
+        user.setId(USER_ID);
+        author = new User("author", "author@example.com", "secret");
+        author.setId(2L);
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+        when(readArticleIndex.getReadIds(USER_ID)).thenReturn(readIds);
+        when(articleRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Article> articles = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                articles.add(article(id));
+            }
+            return articles;
+        });
+    }
+
+    @Test
+    void testCollaborativeRanksByClapsAndSkipsReadArticles() {
+        givenSimilarUsers(3);
+        givenClapTotals(List.of(row(10, 5), row(11, 50), row(12, 500), row(13, 50)));
+        readIds.add(12L);
+
+        List<Long> ids = service.getCollaborativeFilteringRecommendations("reader", 2).stream()
+                .map(ArticleResponseDto::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(11L, 13L), ids);
+    }
+
+    @Test
+    void testCollaborativeQueryCountDoesNotGrowWithCandidates() {
+        for (int candidates : new int[]{10, 1_000, 50_000}) {
+            clearInvocations(clapRepository, articleRepository, readingHistoryRepository);
+            givenSimilarUsers(10);
+            givenClapTotals(clapRows(candidates));
+
+            List<ArticleResponseDto> result = service.getCollaborativeFilteringRecommendations("reader", 20);
+
+            assertEquals(Math.min(20, candidates), result.size());
+            verify(readingHistoryRepository, times(1)).findSimilarReaderIds(anyLong(), any(Pageable.class));
+            verify(clapRepository, times(1)).sumClapsByArticleForUsers(anyCollection(), anyInt());
+            verify(articleRepository, times(1)).findAllById(anyIterable());
+            verifyNoMoreInteractions(clapRepository, articleRepository);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkCollaborativeRanking() {
+        givenSimilarUsers(10);
+        for (int i = 0; i < 100_000; i += 7) {
+            readIds.add(i);
+        }
+        for (int candidates : new int[]{1_000, 10_000, 100_000}) {
+            givenClapTotals(clapRows(candidates));
+            Bench.nanosPerOp("collaborative ranking, " + candidates + " candidates", 200, 1_000,
+                    () -> service.getCollaborativeFilteringRecommendations("reader", 20).size());
+        }
+    }
+
+    private void givenSimilarUsers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            ids.add(100 + i);
+        }
+        when(readingHistoryRepository.findSimilarReaderIds(anyLong(), any(Pageable.class))).thenReturn(ids);
+    }
+
+    private void givenClapTotals(List<Object[]> rows) {
+        when(clapRepository.sumClapsByArticleForUsers(anyCollection(), anyInt())).thenReturn(rows);
+    }
+
+    private static List<Object[]> clapRows(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i, (i * 31L) % 997 + 6));
+        }
+        return rows;
+    }
+
+    private static Object[] row(long articleId, long claps) {
+        return new Object[]{articleId, claps};
+    }
+
+    private Article article(Long id) {
+        Article article = new Article("Article " + id, "content", author);
+        article.setId(id);
+        return article;
+    }
+}
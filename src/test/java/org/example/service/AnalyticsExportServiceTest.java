@@ -0,0 +1,40 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.exception.ServiceBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AnalyticsExportServiceTest {
+
+    private final AnalyticsExportService service = new AnalyticsExportService(mock(JdbcTemplate.class),
+            mock(PlatformTransactionManager.class), new ObjectMapper(), 2, 300);
+
+    @Test
+    void testSlotsAreBounded() {
+        AnalyticsExportService.Slot first = service.reserveSlot();
+        AnalyticsExportService.Slot second = service.reserveSlot();
+
+        ServiceBusyException busy = assertThrows(ServiceBusyException.class, service::reserveSlot);
+        assertTrue(busy.getRetryAfterSeconds() > 0);
+
+        first.close();
+        service.reserveSlot().close();
+        second.close();
+    }
+
+    @Test
+    void testClosingASlotTwiceReleasesItOnce() {
+        AnalyticsExportService.Slot slot = service.reserveSlot();
+        slot.close();
+        slot.close();
+
+        service.reserveSlot();
+        service.reserveSlot();
+        assertThrows(ServiceBusyException.class, service::reserveSlot);
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.Article;
+import org.example.entity.ArticleAnalytics;
+import org.example.event.ArticleBookmarkedEvent;
+import org.example.event.ArticleCommentedEvent;
+import org.example.event.ArticleSharedEvent;
+import org.example.repository.ArticleAnalyticsRepository;
+import org.example.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class AnalyticsIngestionServiceTest {
+
+    private ArticleAnalyticsRepository analyticsRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private AnalyticsIngestionService service;
+    private boolean started;
+
+    @BeforeEach
+    void setUp() {
+        analyticsRepository = mock(ArticleAnalyticsRepository.class);
+        // A fresh row per transaction, as the database would return after a rollback
+        when(analyticsRepository.findByArticleIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<ArticleAnalytics> rows = new ArrayList<>();
+            for (Long articleId : invocation.<Collection<Long>>getArgument(0)) {
+                rows.add(analytics(articleId));
+            }
+            return rows;
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AnalyticsIngestionService(analyticsRepository, mock(ArticleRepository.class),
+                mock(UniqueViewerService.class), mock(MetricRollupService.class),
+                mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "maxWindowArticles", 100);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (started) {
+            service.shutdown();
+        }
+    }
+
+    private void start() {
+        service.start();
+        started = true;
+    }
+
+    @Test
+    void testEventsAreFoldedIntoOneUpsertPerArticle() throws InterruptedException {
+        start();
+        service.recordView(1L, null);
+        service.recordView(1L, null);
+        service.recordView(2L, null);
+        service.onArticleCommented(new ArticleCommentedEvent(9L, 1L));
+        service.onArticleBookmarked(new ArticleBookmarkedEvent(9L, 1L));
+        service.onArticleShared(new ArticleSharedEvent(9L, 2L));
+
+        service.shutdown();
+        started = false;
+
+        verify(analyticsRepository, times(1)).findByArticleIdIn(anyCollection());
+        Map<Long, ArticleAnalytics> saved = lastSaved(1);
+        assertEquals(2, saved.size());
+        assertEquals(2L, saved.get(1L).getViewsCount());
+        assertEquals(2L, saved.get(1L).getEngagementsCount());
+        assertEquals(1L, saved.get(2L).getViewsCount());
+        assertEquals(1L, saved.get(2L).getEngagementsCount());
+    }
+
+    @Test
+    void testFailedFlushIsRequeued() {
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 50L);
+        when(analyticsRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(List.of());
+        start();
+        service.recordView(1L, null);
+
+        verify(analyticsRepository, timeout(5_000).times(2)).saveAll(any());
+
+        Map<Long, ArticleAnalytics> saved = lastSaved(2);
+        assertEquals(1L, saved.get(1L).getViewsCount());
+        assertEquals(1.0, meterRegistry.counter("analytics.ingest.flush.failed").count());
+    }
+
+    @Test
+    void testFullQueueDropsAndCounts() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "queueCapacity", 2);
+        ReflectionTestUtils.setField(service, "flushIntervalMillis", 0L);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(analyticsRepository.findByArticleIdIn(anyCollection())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        start();
+
+        // The consumer takes the first event and stalls in its flush, so the queue fills up
+        assertTrue(service.recordView(1L, null));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        assertTrue(service.recordView(2L, null));
+        assertTrue(service.recordView(3L, null));
+        assertFalse(service.recordView(4L, null));
+        release.countDown();
+
+        assertEquals(1.0, count("VIEW", "dropped"));
+        assertEquals(3.0, count("VIEW", "accepted"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ArticleAnalytics> lastSaved(int calls) {
+        ArgumentCaptor<Iterable<ArticleAnalytics>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(analyticsRepository, times(calls)).saveAll(captor.capture());
+        Map<Long, ArticleAnalytics> saved = new HashMap<>();
+        captor.getValue().forEach(analytics -> saved.put(analytics.getArticle().getId(), analytics));
+        return saved;
+    }
+
+    private double count(String type, String outcome) {
+        return meterRegistry.counter("analytics.ingest.events", "type", type, "outcome", outcome).count();
+    }
+
+    private static ArticleAnalytics analytics(Long articleId) {
+        Article article = new Article();
+        article.setId(articleId);
+        ArticleAnalytics analytics = new ArticleAnalytics();
+        analytics.setArticle(article);
+        return analytics;
+    }
+}
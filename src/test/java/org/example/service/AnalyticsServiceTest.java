@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.example.dto.ArticleAnalyticsDto;
+import org.example.entity.Article;
+import org.example.entity.ReadingHistory;
+import org.example.entity.User;
+import org.example.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private ClapRepository clapRepository;
+    private BookmarkRepository bookmarkRepository;
+    private ShareRepository shareRepository;
+    private ReadingHistoryRepository readingHistoryRepository;
+    private ArticleRepository articleRepository;
+    private AnalyticsService service;
+
+    // The rows behind both the grouped and the per-article queries: [articleId, value]
+    private final List<long[]> claps = new ArrayList<>();
+    private final List<Long> bookmarks = new ArrayList<>();
+    private final List<Long> shares = new ArrayList<>();
+    private final List<ReadingHistory> reads = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clapRepository = mock(ClapRepository.class);
+        bookmarkRepository = mock(BookmarkRepository.class);
+        shareRepository = mock(ShareRepository.class);
+        readingHistoryRepository = mock(ReadingHistoryRepository.class);
+        articleRepository = mock(ArticleRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("author")).thenReturn(Optional.of(new User("author", "a@example.org", "hash")));
+        service = new AnalyticsService(readingHistoryRepository, articleRepository, userRepository, clapRepository,
+                bookmarkRepository, mock(CommentRepository.class), shareRepository,
+                mock(ArticleAnalyticsRepository.class), mock(UniqueViewerService.class), mock(MetricRollupService.class));
+
+        // Grouped queries: one row per article that has any, as the GROUP BY returns them
+        when(clapRepository.sumClapsByArticleIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            Map<Long, Long> sums = new LinkedHashMap<>();
+            claps.stream().filter(clap -> ids.contains(clap[0])).forEach(clap -> sums.merge(clap[0], clap[1], Long::sum));
+            return rows(sums);
+        });
+        when(bookmarkRepository.countByArticleIds(anyCollection()))
+                .thenAnswer(invocation -> rows(count(bookmarks, invocation.getArgument(0))));
+        when(shareRepository.countByArticleIds(anyCollection()))
+                .thenAnswer(invocation -> rows(count(shares, invocation.getArgument(0))));
+        when(readingHistoryRepository.summarizeByArticleIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return reads.stream().filter(read -> ids.contains(read.getArticle().getId()))
+                    .collect(Collectors.groupingBy(read -> read.getArticle().getId()))
+                    .entrySet().stream()
+                    .map(entry -> new Object[]{entry.getKey(), (long) entry.getValue().size(),
+                            entry.getValue().stream().map(ReadingHistory::getReadAt).max(Comparator.naturalOrder()).get()})
+                    .collect(Collectors.toList());
+        });
+
+        // The per-article queries the grouped ones replaced
+        when(clapRepository.getTotalClapsForArticle(any())).thenAnswer(invocation -> {
+            long articleId = invocation.<Article>getArgument(0).getId();
+            return claps.stream().filter(clap -> clap[0] == articleId).map(clap -> clap[1]).reduce(Long::sum).orElse(null);
+        });
+        when(bookmarkRepository.getBookmarkCountForArticle(anyLong()))
+                .thenAnswer(invocation -> bookmarks.stream().filter(invocation.getArgument(0)::equals).count());
+        when(shareRepository.countByArticleId(anyLong()))
+                .thenAnswer(invocation -> shares.stream().filter(invocation.getArgument(0)::equals).count());
+        when(readingHistoryRepository.findByArticleOrderByReadAtDesc(any())).thenAnswer(invocation -> {
+            long articleId = invocation.<Article>getArgument(0).getId();
+            return reads.stream().filter(read -> read.getArticle().getId() == articleId)
+                    .sorted(Comparator.comparing(ReadingHistory::getReadAt).reversed())
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private static List<Object[]> rows(Map<Long, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, Long> count(List<Long> articleIds, Collection<Long> ids) {
+        return articleIds.stream().filter(ids::contains)
+                .collect(Collectors.groupingBy(id -> id, LinkedHashMap::new, Collectors.counting()));
+    }
+
+    private static Article article(long id) {
+        Article article = new Article();
+        article.setId(id);
+        article.setTitle("Article " + id);
+        article.setViewCount(10 * id);
+        article.setCommentCount(id);
+        article.setReadTimeMinutes(4);
+        return article;
+    }
+
+    private void read(Article article, int minute) {
+        reads.add(new ReadingHistory(new User(), article, START.plusMinutes(minute)));
+    }
+
+    private List<ArticleAnalyticsDto> authorPage(List<Article> articles) {
+        when(articleRepository.findByAuthor(eq("author"), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(articles, invocation.getArgument(1), articles.size()));
+        Page<ArticleAnalyticsDto> page = service.getAuthorAnalytics("author", 0, 20);
+        return page.getContent();
+    }
+
+    @Test
+    void testGroupedCountsMatchPerArticleQueries() {
+        Article busy = article(1);
+        Article quiet = article(2);
+        Article untouched = article(3);
+        claps.add(new long[]{1, 5});
+        claps.add(new long[]{1, 3});
+        claps.add(new long[]{2, 1});
+        bookmarks.addAll(List.of(1L, 1L, 2L));
+        shares.add(1L);
+        read(busy, 0);
+        read(busy, 30);
+        read(quiet, 10);
+
+        List<ArticleAnalyticsDto> dtos = authorPage(List.of(busy, quiet, untouched));
+
+        assertEquals(List.of(1L, 2L, 3L), dtos.stream().map(ArticleAnalyticsDto::getArticleId).collect(Collectors.toList()));
+        for (int i = 0; i < dtos.size(); i++) {
+            Article article = List.of(busy, quiet, untouched).get(i);
+            ArticleAnalyticsDto dto = dtos.get(i);
+            Long perArticleClaps = clapRepository.getTotalClapsForArticle(article);
+            List<ReadingHistory> perArticleReads = readingHistoryRepository.findByArticleOrderByReadAtDesc(article);
+
+            // SUM over no rows is null per article; the grouped path reports zero instead
+            assertEquals(perArticleClaps != null ? perArticleClaps : 0L, dto.getClapCount(), "claps of " + article.getId());
+            assertEquals(bookmarkRepository.getBookmarkCountForArticle(article.getId()), dto.getBookmarkCount());
+            assertEquals(shareRepository.countByArticleId(article.getId()), dto.getShareCount());
+            assertEquals(perArticleReads.isEmpty() ? null : perArticleReads.get(0).getReadAt(), dto.getLastViewed());
+            assertEquals(Map.of("Unknown", (long) perArticleReads.size()), dto.getReaderDemographics());
+            assertEquals(article.getViewCount(), dto.getViewCount());
+            assertEquals(article.getCommentCount(), dto.getCommentCount());
+        }
+    }
+
+    @Test
+    void testArticlesWithoutRowsReportZero() {
+        ArticleAnalyticsDto dto = authorPage(List.of(article(7))).get(0);
+
+        assertEquals(0L, dto.getClapCount());
+        assertEquals(0L, dto.getBookmarkCount());
+        assertEquals(0L, dto.getShareCount());
+        assertEquals(0L, dto.getUniqueViewCount());
+        assertNull(dto.getLastViewed());
+        assertEquals(4.0, dto.getAverageReadTime());
+        assertEquals(0.0, dto.getCompletionRate());
+    }
+
+    @Test
+    void testOneGroupedQueryPerMetricForAPage() {
+        authorPage(List.of(article(1), article(2), article(3)));
+
+        verify(clapRepository).sumClapsByArticleIds(List.of(1L, 2L, 3L));
+        verify(bookmarkRepository).countByArticleIds(List.of(1L, 2L, 3L));
+        verify(shareRepository).countByArticleIds(List.of(1L, 2L, 3L));
+        verify(readingHistoryRepository).summarizeByArticleIds(List.of(1L, 2L, 3L));
+        verify(clapRepository, never()).getTotalClapsForArticle(any());
+        verify(readingHistoryRepository, never()).findByArticleOrderByReadAtDesc(any());
+    }
+
+    @Test
+    void testEmptyPageRunsNoQueries() {
+        assertTrue(authorPage(List.of()).isEmpty());
+
+        verifyNoInteractions(clapRepository, bookmarkRepository, shareRepository, readingHistoryRepository);
+    }
+}
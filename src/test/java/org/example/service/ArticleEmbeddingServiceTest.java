@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.event.ArticleDeletedEvent;
+import org.example.event.ArticleSavedEvent;
+import org.example.repository.ArticleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ArticleEmbeddingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testLoadedIndexIsReconciledWithChangesMadeWhileDown() {
+        Path file = directory.resolve("embeddings.bin");
+        ArticleRepository before = mock(ArticleRepository.class);
+        when(before.findPublishedTextAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                page(invocation.getArgument(0), List.of(
+                        text(1L, "Garbage collection tuning for Java services"),
+                        text(2L, "Sourdough starters and long fermentation"),
+                        text(3L, "Kubernetes autoscaling for bursty workloads"))));
+        ArticleEmbeddingService first = service(before, file);
+        first.initialize();
+        first.shutdown();
+        assertEquals(3, indexSize(first));
+
+        // While the service was down: article 2 was rewritten, article 3 unpublished, article 4 published
+        ArticleRepository after = mock(ArticleRepository.class);
+        when(after.findPublishedTextUpdatedSinceAfter(any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> page(invocation.getArgument(1), List.of(
+                        text(2L, "Garbage collection pauses in large Java heaps"),
+                        text(4L, "Brand new article about Java heap sizing"))));
+        when(after.findPublishedIds()).thenReturn(List.of(1L, 2L, 4L));
+        ArticleEmbeddingService second = service(after, file);
+        second.initialize();
+
+        verify(after, never()).findPublishedTextAfter(anyLong(), any(Pageable.class));
+        assertEquals(3, indexSize(second));
+        assertTrue(Double.isNaN(second.similarity(1L, 3L)));
+        assertTrue(second.similarity(1L, 2L) > 0.2, "article 2 should now read like article 1");
+        assertFalse(Double.isNaN(second.similarity(1L, 4L)));
+    }
+
+    @Test
+    void testSavesAndDeletesChangeSimilarArticles() {
+        ArticleRepository repository = mock(ArticleRepository.class);
+        when(repository.findPublishedTextAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                page(invocation.getArgument(0), List.of(
+                        text(1L, "Garbage collection tuning for Java services"),
+                        text(2L, "Sourdough starters and long fermentation"))));
+        ArticleEmbeddingService service = service(repository, directory.resolve("embeddings.bin"));
+        service.initialize();
+        assertEquals(List.of(2L), service.findSimilarArticleIds(1L, 5));
+
+        service.onArticleSaved(saved(3L, true, "Garbage collection pauses in Java services"));
+        assertEquals(3L, service.findSimilarArticleIds(1L, 5).get(0));
+
+        service.onArticleSaved(saved(3L, false, "Garbage collection pauses in Java services"));
+        assertEquals(List.of(2L), service.findSimilarArticleIds(1L, 5));
+
+        service.onArticleDeleted(new ArticleDeletedEvent(2L));
+        assertTrue(service.findSimilarArticleIds(1L, 5).isEmpty());
+        assertTrue(service.findSimilarArticleIds(2L, 5).isEmpty());
+    }
+
+    @Test
+    void testUpdatesBeforeTheFirstBuildAreLeftToTheBuild() {
+        List<Runnable> queued = new ArrayList<>();
+        ArticleRepository repository = mock(ArticleRepository.class);
+        when(repository.findPublishedTextAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                page(invocation.getArgument(0), List.<Object[]>of(text(1L, "Garbage collection tuning for Java services"))));
+        ArticleEmbeddingService service = service(repository, directory.resolve("embeddings.bin"), queued::add);
+
+        service.initialize();
+        service.onArticleSaved(saved(1L, true, "Garbage collection tuning for Java services"));
+        assertFalse(service.isReady());
+        verifyNoInteractions(repository);
+
+        queued.forEach(Runnable::run);
+        assertTrue(service.isReady());
+        assertEquals(1, indexSize(service));
+    }
+
+    @Test
+    void testRejectedUpdateIsReconciledBeforePersist() {
+        boolean[] full = {false};
+        ArticleRepository repository = mock(ArticleRepository.class);
+        when(repository.findPublishedTextAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                page(invocation.getArgument(0), List.of(
+                        text(1L, "Garbage collection tuning for Java services"),
+                        text(2L, "Sourdough starters and long fermentation"))));
+        when(repository.findPublishedTextUpdatedSinceAfter(any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(new ArrayList<>());
+        when(repository.findPublishedIds()).thenReturn(List.of(1L));
+        ArticleEmbeddingService service = service(repository, directory.resolve("embeddings.bin"), task -> {
+            if (full[0]) {
+                throw new RejectedExecutionException("queue full");
+            }
+            task.run();
+        });
+        service.initialize();
+
+        full[0] = true;
+        service.onArticleDeleted(new ArticleDeletedEvent(2L));
+        assertEquals(List.of(2L), service.findSimilarArticleIds(1L, 5));
+
+        service.persistIfDirty();
+
+        assertTrue(service.findSimilarArticleIds(1L, 5).isEmpty());
+        verify(repository).findPublishedIds();
+    }
+
+    private static ArticleEmbeddingService service(ArticleRepository repository, Path file) {
+        return service(repository, file, new SyncTaskExecutor());
+    }
+
+    private static ArticleEmbeddingService service(ArticleRepository repository, Path file, TaskExecutor executor) {
+        ArticleEmbeddingService service = new ArticleEmbeddingService(repository, executor);
+        ReflectionTestUtils.setField(service, "dimensions", 128);
+        ReflectionTestUtils.setField(service, "efSearch", 32);
+        ReflectionTestUtils.setField(service, "maxResults", 10);
+        ReflectionTestUtils.setField(service, "indexPath", file.toString());
+        return service;
+    }
+
+    private static int indexSize(ArticleEmbeddingService service) {
+        return ((org.example.util.HnswIndex) ReflectionTestUtils.getField(service, "index")).size();
+    }
+
+    // Keyset paging: everything after the given id
+    private static List<Object[]> page(Long afterId, List<Object[]> rows) {
+        List<Object[]> page = new ArrayList<>();
+        for (Object[] row : rows) {
+            if ((Long) row[0] > afterId) {
+                page.add(row);
+            }
+        }
+        return page;
+    }
+
+    private static ArticleSavedEvent saved(Long id, boolean published, String title) {
+        return new ArticleSavedEvent(id, 9L, published, title, null, title, Set.of());
+    }
+
+    private static Object[] text(Long id, String title) {
+        return Arrays.asList(id, title, null, title).toArray();
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.service;
+
+import org.example.entity.Article;
+import org.example.entity.Tag;
+import org.example.entity.User;
+import org.example.event.ArticleDeletedEvent;
+import org.example.repository.ArticleRepository;
+import org.example.support.Bench;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ArticleFeatureStoreTest {
+
+    private static final LocalDateTime PUBLISHED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private ArticleRepository articleRepository;
+    private ArticleFeatureStore store;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        store = new ArticleFeatureStore(articleRepository);
+    }
+
+    @Test
+    void testRebuildLoadsColumnsAndTags() {
+        givenPublished(rows(row(1L, 10L, 100, true), row(2L, 20L, 200, true)),
+                rows(tag(1L, "java"), tag(1L, "spring"), tag(2L, "java")));
+
+        ArticleFeatureStore.Snapshot snapshot = store.snapshot();
+
+        int first = snapshot.rowOf(1L);
+        int second = snapshot.rowOf(2L);
+        assertEquals(10L, snapshot.authorId(first));
+        assertEquals(200, snapshot.contentLength(second));
+        assertEquals(ArticleFeatureStore.toEpochSecond(PUBLISHED_AT), snapshot.publishedEpochSecond(first));
+        assertEquals(2, snapshot.tagCount(first));
+        long[] query = snapshot.tagBits(List.of("java", "unknown"));
+        assertEquals(1, snapshot.sharedTagCount(second, query));
+        assertEquals(2, snapshot.unionTagCount(first, query));
+        assertEquals(-1, snapshot.rowOf(3L));
+    }
+
+    @Test
+    void testRefreshUpsertsAndUnpublishesWithoutTouchingOldSnapshot() {
+        givenPublished(rows(row(1L, 10L, 100, true)), rows(tag(1L, "java")));
+        ArticleFeatureStore.Snapshot before = store.snapshot();
+
+        when(articleRepository.findFeatureRowsUpdatedSince(any()))
+                .thenReturn(rows(row(1L, 10L, 150, false), row(2L, 20L, 300, true)));
+        when(articleRepository.findTagRowsUpdatedSince(any())).thenReturn(rows(tag(2L, "go")));
+        store.refresh();
+        ArticleFeatureStore.Snapshot after = store.snapshot();
+
+        assertEquals(-1, after.rowOf(1L));
+        assertEquals(300, after.contentLength(after.rowOf(2L)));
+        assertEquals(1, after.sharedTagCount(after.rowOf(2L), after.tagBits(List.of("go"))));
+        assertEquals(100, before.contentLength(before.rowOf(1L)));
+        assertEquals(-1, before.rowOf(2L));
+    }
+
+    @Test
+    void testDeletedArticleDropsOut() {
+        givenPublished(rows(row(1L, 10L, 100, true), row(2L, 20L, 200, true)), rows());
+        store.snapshot();
+
+        store.onArticleDeleted(new ArticleDeletedEvent(1L));
+
+        assertEquals(-1, store.snapshot().rowOf(1L));
+        assertTrue(store.snapshot().rowOf(2L) >= 0);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkCandidateScoring() {
+        int articles = 50_000;
+        int candidates = 2_000;
+        String[] tagNames = new String[200];
+        for (int t = 0; t < tagNames.length; t++) {
+            tagNames[t] = "tag" + t;
+        }
+        Random random = new Random(3);
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> tagRows = new ArrayList<>();
+        Map<Long, Article> entities = new HashMap<>();
+        User author = new User("author", "author@example.com", "secret");
+        for (long id = 1; id <= articles; id++) {
+            rows.add(row(id, random.nextInt(1_000), random.nextInt(20_000), true));
+            Article article = new Article("Article " + id, "content", author);
+            article.setId(id);
+            Set<Tag> tags = new HashSet<>();
+            for (int t = 0; t < 4; t++) {
+                String name = tagNames[random.nextInt(tagNames.length)];
+                tagRows.add(tag(id, name));
+                tags.add(new Tag(name));
+            }
+            article.setTags(tags);
+            entities.put(id, article);
+        }
+        givenPublished(rows, tagRows);
+        ArticleFeatureStore.Snapshot snapshot = store.snapshot();
+
+        List<Long> candidateIds = new ArrayList<>();
+        for (int i = 0; i < candidates; i++) {
+            candidateIds.add(1L + random.nextInt(articles));
+        }
+        Set<String> interests = Set.of(tagNames[0], tagNames[1], tagNames[2], tagNames[3], tagNames[4]);
+        long[] interestBits = snapshot.tagBits(interests);
+
+        Bench.nanosPerOp("feature store, score " + candidates + " candidates", 200, 2_000, () -> {
+            double sum = 0;
+            for (Long candidateId : candidateIds) {
+                int row = snapshot.rowOf(candidateId);
+                if (row >= 0) {
+                    sum += snapshot.sharedTagCount(row, interestBits) / (double) interests.size()
+                            + Math.log10(snapshot.viewCount(row) + 1) + snapshot.contentLength(row) * 1e-6;
+                }
+            }
+            return (long) sum;
+        });
+        Bench.nanosPerOp("entities, score " + candidates + " candidates", 200, 2_000, () -> {
+            double sum = 0;
+            for (Long candidateId : candidateIds) {
+                Article article = entities.get(candidateId);
+                long shared = article.getTags().stream().map(Tag::getName).filter(interests::contains).count();
+                sum += shared / (double) interests.size() + Math.log10(article.getViewCount() + 1)
+                        + article.getContent().length() * 1e-6;
+            }
+            return (long) sum;
+        });
+    }
+
+    private void givenPublished(List<Object[]> rows, List<Object[]> tagRows) {
+        when(articleRepository.findPublishedFeatureRows()).thenReturn(rows);
+        when(articleRepository.findPublishedTagRows()).thenReturn(tagRows);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+
+    // [id, authorId, contentLength, readTimeMinutes, viewCount, likeCount, commentCount, clapsCount, publishedAt, published]
+    private static Object[] row(long id, long authorId, int contentLength, boolean published) {
+        return new Object[]{id, authorId, contentLength, 3, 100L, 10L, 1L, 5L, PUBLISHED_AT, published};
+    }
+
+    private static Object[] tag(long articleId, String name) {
+        return new Object[]{articleId, name};
+    }
+}
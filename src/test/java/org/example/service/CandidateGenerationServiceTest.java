@@ -0,0 +1,46 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.repository.ArticleRepository;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CandidateGenerationServiceTest {
+
+    @Test
+    void testRecentReadsAreLoadedOncePerRequest() {
+        ArticleRepository articleRepository = mock(ArticleRepository.class);
+        ReadingHistoryRepository readingHistoryRepository = mock(ReadingHistoryRepository.class);
+        ArticleEmbeddingService articleEmbeddingService = mock(ArticleEmbeddingService.class);
+        CoVisitationService coVisitationService = mock(CoVisitationService.class);
+        CandidateGenerationService service = new CandidateGenerationService(articleRepository, readingHistoryRepository,
+                mock(UserRepository.class), articleEmbeddingService, coVisitationService, mock(TagPostingIndex.class),
+                new SimpleAsyncTaskExecutor(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "budgetMillis", 5_000L);
+        ReflectionTestUtils.setField(service, "perSourceLimit", 10);
+
+        when(readingHistoryRepository.findRecentArticleIdsByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(3L, 2L, 1L));
+        when(articleEmbeddingService.findNearestToArticles(anyCollection(), anyInt(), anySet()))
+                .thenReturn(List.of(10L, 11L));
+        when(coVisitationService.findAlsoRead(anyList(), anyInt(), anySet())).thenReturn(List.of(11L, 12L));
+        when(articleRepository.findTrendingIds(any(Pageable.class))).thenReturn(List.of(13L));
+
+        List<Long> candidates = service.generateCandidates(1L, Set.of(), id -> id == 12L);
+
+        assertEquals(List.of(10L, 11L, 13L), candidates);
+        verify(readingHistoryRepository, times(1)).findRecentArticleIdsByUserId(eq(1L), any(Pageable.class));
+        verify(coVisitationService).findAlsoRead(eq(List.of(1L, 2L, 3L)), eq(10), anySet());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ReadingHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CoVisitationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private ReadingHistoryRepository readingHistoryRepository;
+    private CoVisitationService service;
+
+    @BeforeEach
+    void setUp() {
+        readingHistoryRepository = mock(ReadingHistoryRepository.class);
+        service = new CoVisitationService(readingHistoryRepository, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(service, "windowMinutes", 30L);
+        ReflectionTestUtils.setField(service, "maxNeighbors", 50);
+        ReflectionTestUtils.setField(service, "sessionSize", 10);
+        ReflectionTestUtils.setField(service, "activeReaders", 100);
+        ReflectionTestUtils.setField(service, "historyDays", 90L);
+        service.init();
+    }
+
+    private void read(long userId, long articleId, int minute) {
+        service.onArticleRead(new ArticleReadEvent(userId, articleId, 99L, Set.of(), 100, 1,
+                START.plusMinutes(minute), true));
+    }
+
+    @Test
+    void testBootstrapCountsPairsInsideTheWindow() {
+        when(readingHistoryRepository.findReaderIdsReadingBetween(eq(0L), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        // Reader 1 reads 10, 20 and 30 together; reader 2 reads 10 and 20, then 40 an hour later
+        when(readingHistoryRepository.findReadsByUserIdsBetween(eq(List.of(1L, 2L)), any(), any()))
+                .thenReturn(List.of(
+                        new Object[]{1L, 10L, START},
+                        new Object[]{1L, 20L, START.plusMinutes(5)},
+                        new Object[]{1L, 30L, START.plusMinutes(10)},
+                        new Object[]{2L, 10L, START},
+                        new Object[]{2L, 20L, START.plusMinutes(1)},
+                        new Object[]{2L, 40L, START.plusMinutes(90)}));
+
+        service.bootstrap();
+
+        assertEquals(List.of(20L, 30L), service.findAlsoRead(List.of(10L), 10, Set.of()));
+        assertEquals(Set.of(10L, 20L), Set.copyOf(service.findAlsoRead(List.of(30L), 10, Set.of())));
+        assertTrue(service.findAlsoRead(List.of(40L), 10, Set.of()).isEmpty());
+        verify(readingHistoryRepository).findReaderIdsReadingBetween(eq(2L), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testBootstrapOnlyReplaysRecentHistoryUpToStartup() {
+        when(readingHistoryRepository.findReaderIdsReadingBetween(anyLong(), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        service.bootstrap();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(readingHistoryRepository).findReaderIdsReadingBetween(eq(0L), since.capture(), until.capture(),
+                any(Pageable.class));
+        assertFalse(until.getValue().isBefore(before));
+        assertFalse(until.getValue().isAfter(LocalDateTime.now()));
+        assertEquals(until.getValue().minusDays(90), since.getValue());
+        verify(readingHistoryRepository, never()).findReadsByUserIdsBetween(any(), any(), any());
+    }
+
+    @Test
+    void testLiveReadsUpdateCounts() {
+        read(1L, 10L, 0);
+        read(1L, 20L, 5);
+        // A re-read inside the window does not count again; a read after the window pairs with nothing
+        read(1L, 20L, 10);
+        read(1L, 30L, 120);
+        read(2L, 10L, 0);
+        read(2L, 40L, 1);
+        read(3L, 10L, 0);
+        read(3L, 40L, 1);
+
+        assertEquals(List.of(40L, 20L), service.findAlsoRead(List.of(10L), 10, Set.of()));
+        assertEquals(List.of(10L), service.findAlsoRead(List.of(20L), 10, Set.of()));
+        assertTrue(service.findAlsoRead(List.of(30L), 10, Set.of()).isEmpty());
+        assertEquals(List.of(20L), service.findAlsoRead(List.of(10L), 10, Set.of(40L)));
+    }
+
+    @Test
+    void testNeighbourListsArePrunedToTheStrongest() {
+        ReflectionTestUtils.setField(service, "maxNeighbors", 2);
+        long userId = 1;
+        for (long strong : new long[]{100L, 101L}) {
+            for (int i = 0; i < 3; i++) {
+                read(userId, 1L, 0);
+                read(userId, strong, 1);
+                userId++;
+            }
+        }
+        for (long weak = 102; weak < 110; weak++) {
+            read(userId, 1L, 0);
+            read(userId, weak, 1);
+            userId++;
+        }
+
+        List<Long> neighbours = service.findAlsoRead(List.of(1L), 10, Set.of());
+
+        // Up to twice the limit is held between prunes, and pruning keeps the strongest
+        assertTrue(neighbours.size() <= 4, neighbours.toString());
+        assertEquals(Set.of(100L, 101L), Set.copyOf(neighbours.subList(0, 2)));
+    }
+}
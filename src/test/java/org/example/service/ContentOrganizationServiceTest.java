@@ -0,0 +1,143 @@
+package org.example.service;
+
+import org.example.dto.ArticleResponseDto;
+import org.example.dto.CursorPage;
+import org.example.entity.ArticleCollection;
+import org.example.entity.User;
+import org.example.exception.NotAllowedException;
+import org.example.exception.ValidationException;
+import org.example.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentOrganizationServiceTest {
+
+    private static final long COLLECTION_ID = 1L;
+    // Article ids in the collection, in page order
+    private static final List<Long> ARTICLE_IDS = List.of(9L, 7L, 5L, 3L, 1L);
+
+    private ArticleCollectionRepository collectionRepository;
+    private UserRepository userRepository;
+    private ContentOrganizationService service;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        collectionRepository = mock(ArticleCollectionRepository.class);
+        userRepository = mock(UserRepository.class);
+        service = new ContentOrganizationService(mock(TagRepository.class), collectionRepository,
+                mock(DraftRepository.class), userRepository, mock(ArticleRepository.class),
+                mock(TagAutocompleteService.class), mock(TagTrendingService.class), mock(TagGraphService.class),
+                mock(PopularCollectionService.class), mock(DraftAutosaveService.class));
+
+        owner = user(10L, "owner");
+        when(collectionRepository.findArticleRowsFirstPage(eq(COLLECTION_ID), any(Pageable.class)))
+                .thenAnswer(invocation -> rows(Long.MAX_VALUE, invocation.getArgument(1)));
+        when(collectionRepository.findArticleRowsNextPage(eq(COLLECTION_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), invocation.getArgument(2)));
+    }
+
+    private void collection(boolean isPublic) {
+        ArticleCollection collection = new ArticleCollection("Reading list", null, isPublic, true, owner);
+        collection.setId(COLLECTION_ID);
+        when(collectionRepository.findWithOwnerAndTagsById(COLLECTION_ID)).thenReturn(Optional.of(collection));
+    }
+
+    // Keyset paging: ids below the cursor, highest first
+    private static List<Object[]> rows(long afterId, Pageable pageable) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long id : ARTICLE_IDS) {
+            if (id < afterId && rows.size() < pageable.getPageSize()) {
+                rows.add(new Object[]{id, "Article " + id, "article-" + id, null, null, 3, LocalDateTime.now(),
+                        10L, "owner", "owner@example.org", null, null, LocalDateTime.now()});
+            }
+        }
+        return rows;
+    }
+
+    private static User user(long id, String username) {
+        User user = new User(username, username + "@example.org", "hash");
+        user.setId(id);
+        return user;
+    }
+
+    private static List<Long> ids(CursorPage<ArticleResponseDto> page) {
+        return page.getContent().stream().map(ArticleResponseDto::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testCursorRoundTripVisitsEveryArticleOnce() {
+        collection(true);
+        List<Long> seen = new ArrayList<>();
+        List<Boolean> hasNext = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ArticleResponseDto> page = service.getCollectionArticles(COLLECTION_ID, cursor, 2, null);
+            seen.addAll(ids(page));
+            hasNext.add(page.isHasNext());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(ARTICLE_IDS, seen);
+        assertEquals(List.of(true, true, false), hasNext);
+    }
+
+    @Test
+    void testExactlyFullLastPageHasNoNext() {
+        collection(true);
+
+        CursorPage<ArticleResponseDto> page = service.getCollectionArticles(COLLECTION_ID, "5", 2, null);
+
+        assertEquals(List.of(3L, 1L), ids(page));
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testPageSizeIsClamped() {
+        collection(true);
+
+        service.getCollectionArticles(COLLECTION_ID, null, 500, null);
+        service.getCollectionArticles(COLLECTION_ID, null, 0, null);
+
+        // One extra row is fetched to detect the next page
+        verify(collectionRepository).findArticleRowsFirstPage(eq(COLLECTION_ID), argThat(p -> p.getPageSize() == 101));
+        verify(collectionRepository).findArticleRowsFirstPage(eq(COLLECTION_ID), argThat(p -> p.getPageSize() == 2));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        collection(true);
+
+        assertThrows(ValidationException.class, () -> service.getCollectionArticles(COLLECTION_ID, "abc", 2, null));
+        verify(collectionRepository, never()).findArticleRowsNextPage(anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void testPrivateCollectionIsLimitedToOwnerAndCollaborators() {
+        collection(false);
+        User collaborator = user(11L, "collaborator");
+        User stranger = user(12L, "stranger");
+        when(userRepository.findByUsername("owner")).thenReturn(Optional.of(owner));
+        when(userRepository.findByUsername("collaborator")).thenReturn(Optional.of(collaborator));
+        when(userRepository.findByUsername("stranger")).thenReturn(Optional.of(stranger));
+        when(collectionRepository.isCollaborator(COLLECTION_ID, 11L)).thenReturn(true);
+
+        assertEquals(2, service.getCollectionArticles(COLLECTION_ID, null, 2, "owner").getContent().size());
+        assertEquals(2, service.getCollectionArticles(COLLECTION_ID, null, 2, "collaborator").getContent().size());
+        assertThrows(NotAllowedException.class, () -> service.getCollectionArticles(COLLECTION_ID, null, 2, "stranger"));
+        assertThrows(NotAllowedException.class, () -> service.getCollectionArticles(COLLECTION_ID, null, 2, null));
+        assertThrows(NotAllowedException.class, () -> service.getCollectionArticles(COLLECTION_ID, null, 2, "deleted"));
+    }
+}
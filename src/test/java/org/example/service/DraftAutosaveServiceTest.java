@@ -0,0 +1,181 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.DraftDto;
+import org.example.dto.DraftPatchDto;
+import org.example.entity.Draft;
+import org.example.entity.User;
+import org.example.exception.ValidationException;
+import org.example.repository.DraftRepository;
+import org.example.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DraftAutosaveServiceTest {
+
+    private static final long AUTHOR_ID = 7L;
+
+    @TempDir
+    Path directory;
+
+    private Path journalPath;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DraftRepository draftRepository;
+    private DraftAutosaveService service;
+
+    @BeforeEach
+    void setUp() {
+        journalPath = directory.resolve("drafts.journal");
+        draftRepository = mock(DraftRepository.class);
+        service = new DraftAutosaveService(draftRepository, mock(TagRepository.class),
+                mock(PlatformTransactionManager.class), objectMapper);
+        ReflectionTestUtils.setField(service, "persistIntervalMs", 0L);
+        ReflectionTestUtils.setField(service, "idleEvictionMs", 1_800_000L);
+        ReflectionTestUtils.setField(service, "maxContentLength", 1_000_000);
+        ReflectionTestUtils.setField(service, "journalPath", journalPath.toString());
+        ReflectionTestUtils.setField(service, "journalMaxBytes", 16L * 1024 * 1024);
+    }
+
+    private static Draft draft(long revision, String title, String content) {
+        User author = new User();
+        author.setId(AUTHOR_ID);
+        Draft draft = new Draft(title, content, author);
+        draft.setId(1L);
+        draft.setRevision(revision);
+        return draft;
+    }
+
+    private static Supplier<DraftDto> loader(String content) {
+        return () -> {
+            DraftDto dto = new DraftDto();
+            dto.setId(1L);
+            dto.setContent(content);
+            dto.setTags(new HashSet<>());
+            dto.setRevision(0L);
+            return dto;
+        };
+    }
+
+    private static DraftPatchDto titlePatch(String title) {
+        DraftPatchDto patch = new DraftPatchDto();
+        patch.setTitle(title);
+        return patch;
+    }
+
+    private List<DraftJournal.Entry> journalEntries() {
+        return new DraftJournal(journalPath, objectMapper).recover();
+    }
+
+    @Test
+    void testFailedWriteRacingCompactionKeepsJournal() throws Exception {
+        service.init();
+        service.apply(1L, AUTHOR_ID, titlePatch("Title"), loader("hello"));
+        // The scheduler runs while the explicit save is still writing; then the write fails
+        when(draftRepository.findById(1L)).thenAnswer(invocation -> {
+            service.persistDue();
+            throw new IllegalStateException("connection reset");
+        });
+
+        assertThrows(IllegalStateException.class, () -> service.save(1L, AUTHOR_ID, null, loader("hello")));
+
+        assertTrue(journalEntries().stream().anyMatch(entry -> entry.draftId == 1L && entry.revision == 1L));
+    }
+
+    @Test
+    void testCompactionDuringWriteSnapshotsTheDraft() throws Exception {
+        ReflectionTestUtils.setField(service, "journalMaxBytes", 1L);
+        service.init();
+        service.apply(1L, AUTHOR_ID, titlePatch("Title"), loader("hello"));
+        when(draftRepository.findById(1L)).thenAnswer(invocation -> {
+            service.persistDue();
+            throw new IllegalStateException("connection reset");
+        });
+
+        assertThrows(IllegalStateException.class, () -> service.save(1L, AUTHOR_ID, null, loader("hello")));
+
+        List<DraftJournal.Entry> entries = journalEntries();
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).full);
+        assertEquals(1L, entries.get(0).revision);
+        assertEquals("Title", entries.get(0).title);
+    }
+
+    @Test
+    void testJournalIsCompactedOnceWriteCommits() throws Exception {
+        service.init();
+        Draft stored = draft(0, null, "hello");
+        when(draftRepository.findById(1L)).thenReturn(Optional.of(stored));
+        service.apply(1L, AUTHOR_ID, titlePatch("Title"), loader("hello"));
+
+        service.persistDue();
+
+        assertEquals("Title", stored.getTitle());
+        assertEquals(1L, stored.getRevision());
+        assertTrue(journalEntries().isEmpty());
+    }
+
+    @Test
+    void testReplayStopsAtRevisionGapAndTornTail() throws Exception {
+        Files.writeString(journalPath, String.join("\n",
+                "{\"draftId\":1,\"revision\":1,\"editRanges\":[5,0],\"editTexts\":[\" world\"]}",
+                "{\"draftId\":1,\"revision\":2,\"title\":\"Title\"}",
+                "{\"draftId\":1,\"revision\":4,\"title\":\"After a gap\"}",
+                "{\"draftId\":1,\"revision\":5,\"ti"), StandardCharsets.UTF_8);
+        Draft stored = draft(0, null, "hello");
+        when(draftRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        service.init();
+
+        assertEquals("hello world", stored.getContent());
+        assertEquals("Title", stored.getTitle());
+        assertEquals(2L, stored.getRevision());
+    }
+
+    @Test
+    void testReplaySkipsStepsAlreadyPersisted() throws Exception {
+        Files.writeString(journalPath, String.join("\n",
+                "{\"draftId\":1,\"revision\":1,\"editRanges\":[5,0],\"editTexts\":[\" world\"]}",
+                "{\"draftId\":1,\"revision\":2,\"editRanges\":[0,1],\"editTexts\":[\"H\"]}",
+                ""), StandardCharsets.UTF_8);
+        Draft stored = draft(1, null, "hello world");
+        when(draftRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        service.init();
+
+        assertEquals("Hello world", stored.getContent());
+        assertEquals(2L, stored.getRevision());
+    }
+
+    @Test
+    void testApplyEditsInOrder() {
+        List<DraftPatchDto.ContentEdit> edits = List.of(
+                new DraftPatchDto.ContentEdit(0, 5, "Goodbye"),
+                new DraftPatchDto.ContentEdit(7, 0, ","),
+                new DraftPatchDto.ContentEdit(14, 0, "!"));
+
+        assertEquals("Goodbye, world!", DraftAutosaveService.applyEdits("Hello world", edits));
+        assertEquals("abc", DraftAutosaveService.applyEdits(null, List.of(new DraftPatchDto.ContentEdit(0, 0, "abc"))));
+    }
+
+    @Test
+    void testApplyEditsRejectsRangesOutsideContent() {
+        assertThrows(ValidationException.class, () -> DraftAutosaveService.applyEdits("hello",
+                List.of(new DraftPatchDto.ContentEdit(3, 5, ""))));
+        assertThrows(ValidationException.class, () -> DraftAutosaveService.applyEdits("hello",
+                List.of(new DraftPatchDto.ContentEdit(-1, 0, "x"))));
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.service;
+
+import org.example.dto.TimeSeriesDto;
+import org.example.entity.ArticleMetricRollup.Granularity;
+import org.example.exception.ValidationException;
+import org.example.repository.ArticleMetricRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MetricRollupServiceTest {
+
+    private ArticleMetricRollupRepository repository;
+    private MetricRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ArticleMetricRollupRepository.class);
+        service = new MetricRollupService(repository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "hourlyRetentionDays", 7);
+    }
+
+    @Test
+    void testHourlySeriesBeforeRetentionWindowIsRejected() {
+        LocalDate today = LocalDate.now();
+        assertThrows(ValidationException.class,
+                () -> service.getArticleSeries(1L, today.minusDays(8), today, Granularity.HOUR));
+        assertThrows(ValidationException.class,
+                () -> service.getArticleSeries(1L, today.minusDays(30), today.minusDays(20), Granularity.HOUR));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testHourlySeriesInsideRetentionWindow() {
+        LocalDate from = LocalDate.now().minusDays(7);
+        LocalDateTime hour = from.atTime(5, 0);
+        when(repository.findArticleSeries(eq(1L), eq(Granularity.HOUR), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{hour, 3L, 2L, 1L, 0L, 0L, 0L}));
+
+        TimeSeriesDto series = service.getArticleSeries(1L, from, from, Granularity.HOUR);
+
+        assertEquals(24, series.getBuckets().size());
+        assertEquals(3L, series.getSeries().get("views")[5]);
+        assertEquals(3L, series.getTotals().get("views"));
+    }
+
+    @Test
+    void testDailySeriesCombinesHourlyAndDailyRows() {
+        LocalDate from = LocalDate.now().minusDays(30);
+        LocalDate to = LocalDate.now();
+        when(repository.findArticleSeries(eq(1L), eq(Granularity.HOUR), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{to.atTime(1, 0), 1L, 0L, 0L, 0L, 0L, 0L},
+                        new Object[]{to.atTime(2, 0), 1L, 0L, 0L, 0L, 0L, 0L}));
+        when(repository.findArticleSeries(eq(1L), eq(Granularity.DAY), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{from.atStartOfDay(), 10L, 0L, 0L, 0L, 0L, 0L}));
+
+        TimeSeriesDto series = service.getArticleSeries(1L, from, to, Granularity.DAY);
+
+        long[] views = series.getSeries().get("views");
+        assertEquals(31, views.length);
+        assertEquals(10L, views[0]);
+        assertEquals(2L, views[30]);
+        assertEquals(12L, series.getTotals().get("views"));
+    }
+
+    @Test
+    void testRangeValidation() {
+        LocalDate today = LocalDate.now();
+        assertThrows(ValidationException.class,
+                () -> service.getArticleSeries(1L, today, today.minusDays(1), Granularity.DAY));
+        assertThrows(ValidationException.class,
+                () -> service.getArticleSeries(1L, today.minusYears(4), today, Granularity.DAY));
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.service;
+
+import org.example.repository.ArticleCollectionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PopularCollectionServiceTest {
+
+    private ArticleCollectionRepository repository;
+    private PopularCollectionService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ArticleCollectionRepository.class);
+        service = new PopularCollectionService(repository, mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(service, "topK", 10);
+        when(repository.findPopularCollectionIds(any(Pageable.class))).thenReturn(List.of(5L, 3L, 8L, 1L));
+        service.refresh();
+    }
+
+    @Test
+    void testPagesAreServedFromTheCachedRanking() {
+        Page<Long> page = service.getPopularCollectionIds(1, 2);
+
+        assertEquals(List.of(8L, 1L), page.getContent());
+        assertEquals(4, page.getTotalElements());
+        verify(repository, times(1)).findPopularCollectionIds(any(Pageable.class));
+    }
+
+    @Test
+    void testEvictDropsCollectionFromRanking() {
+        service.evict(3L);
+
+        Page<Long> page = service.getPopularCollectionIds(0, 10);
+        assertEquals(List.of(5L, 8L, 1L), page.getContent());
+        assertEquals(3, page.getTotalElements());
+
+        service.evict(42L);
+        assertEquals(3, service.getPopularCollectionIds(0, 10).getTotalElements());
+    }
+}
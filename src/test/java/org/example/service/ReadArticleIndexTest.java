@@ -0,0 +1,60 @@
+package org.example.service;
+
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ReadingHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ReadArticleIndexTest {
+
+    @Test
+    void testCacheIsBoundedByBitmapBytes() {
+        ReadingHistoryRepository repository = mock(ReadingHistoryRepository.class);
+        // One heavy reader with articles spread over many containers, and many light readers
+        List<Long> heavy = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            heavy.add(i << 16);
+        }
+        when(repository.findArticleIdsByUserId(anyLong())).thenReturn(List.of(1L, 2L, 3L));
+        when(repository.findArticleIdsByUserId(1L)).thenReturn(heavy);
+        ReadArticleIndex index = new ReadArticleIndex(repository);
+        ReflectionTestUtils.setField(index, "maxBytes", 64 * 1024L);
+        index.init();
+
+        assertTrue(index.hasRead(1L, 4_999L << 16));
+        for (long user = 2; user <= 50; user++) {
+            assertTrue(index.hasRead(user, 2L));
+        }
+        assertTrue(index.hasRead(1L, 4_999L << 16));
+
+        // The heavy bitmap alone is over budget, so it cannot stay cached and is reloaded
+        verify(repository, times(2)).findArticleIdsByUserId(1L);
+        verify(repository, times(1)).findArticleIdsByUserId(50L);
+    }
+
+    @Test
+    void testReadEventsUpdateCachedBitmaps() {
+        ReadingHistoryRepository repository = mock(ReadingHistoryRepository.class);
+        when(repository.findArticleIdsByUserId(7L)).thenReturn(List.of(1L));
+        ReadArticleIndex index = new ReadArticleIndex(repository);
+        ReflectionTestUtils.setField(index, "maxBytes", 1024 * 1024L);
+        index.init();
+
+        assertFalse(index.hasRead(7L, 2L));
+        index.onArticleRead(new ArticleReadEvent(7L, 2L, 3L, Set.of(), 100, 1, LocalDateTime.now(), true));
+
+        assertTrue(index.hasRead(7L, 2L));
+        assertEquals(List.of(3L, 1L, 2L), index.deRankRead(7L, List.of(1L, 3L, 2L), Long::longValue));
+        assertEquals(List.of(3L), index.excludeRead(7L, List.of(1L, 3L, 2L)));
+        verify(repository, times(1)).findArticleIdsByUserId(7L);
+    }
+}
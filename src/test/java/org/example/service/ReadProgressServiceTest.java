@@ -0,0 +1,90 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.repository.ArticleAnalyticsRepository;
+import org.example.repository.ArticleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReadProgressServiceTest {
+
+    private ArticleAnalyticsRepository analyticsRepository;
+    private ReadProgressService service;
+
+    @BeforeEach
+    void setUp() {
+        analyticsRepository = mock(ArticleAnalyticsRepository.class);
+        when(analyticsRepository.addReadProgress(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any()))
+                .thenReturn(1);
+        service = new ReadProgressService(analyticsRepository, mock(ArticleRepository.class),
+                mock(PlatformTransactionManager.class), new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "bounceSeconds", 10);
+        ReflectionTestUtils.setField(service, "maxDwellSeconds", 7200);
+        ReflectionTestUtils.setField(service, "maxWindowArticles", 100);
+        ReflectionTestUtils.setField(service, "visitTtlMinutes", 30L);
+        ReflectionTestUtils.setField(service, "maxVisits", 1000L);
+        service.init();
+    }
+
+    @Test
+    void testRepeatedPingsOfOneVisitCountOnce() {
+        service.record(42L, "v1", 10, 3);
+        service.record(42L, "v1", 50, 8);
+        service.record(42L, "v1", 95, 40);
+        service.flush();
+
+        // One sample, the final dwell, no bounce (40s >= 10s), completed (95%)
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(1L), eq(40L), eq(0L), eq(1L), any());
+    }
+
+    @Test
+    void testLowerValuesFromLaterPingsAreIgnored() {
+        service.record(42L, "v1", 95, 40);
+        service.record(42L, "v1", 20, 5);
+        service.flush();
+
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(1L), eq(40L), eq(0L), eq(1L), any());
+    }
+
+    @Test
+    void testSeparateVisitsCountSeparately() {
+        service.record(42L, "v1", 30, 4);
+        service.record(42L, "v2", 100, 60);
+        service.record(42L, "v1", 40, 6);
+        service.flush();
+
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(2L), eq(66L), eq(1L), eq(1L), any());
+    }
+
+    @Test
+    void testLaterPingsAfterFlushOnlyAddTheDifference() {
+        service.record(42L, "v1", 10, 4);
+        service.flush();
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(1L), eq(4L), eq(1L), eq(0L), any());
+
+        service.record(42L, "v1", 100, 30);
+        service.flush();
+
+        // No new sample: the dwell delta, the bounce cleared and the visit moved to the completed bucket
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(0L), eq(26L), eq(-1L), eq(1L), any());
+    }
+
+    @Test
+    void testBeaconRequiresVisitIds() {
+        int accepted = service.recordBeacon("[[42, \"a\", 85, 190], [42, \"a\", 90, 200], [17, 10, 4], [17, \"\", 10, 4]]");
+        service.flush();
+
+        assertEquals(2, accepted);
+        verify(analyticsRepository).addReadProgress(eq(42L), eq(1L), eq(200L), eq(0L), eq(1L), any());
+        verify(analyticsRepository, never()).addReadProgress(eq(17L), anyLong(), anyLong(), anyLong(), anyLong(), any());
+    }
+}
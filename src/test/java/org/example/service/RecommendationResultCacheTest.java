@@ -0,0 +1,102 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.event.ArticleReadEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class RecommendationResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecommendationResultCache cache;
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RecommendationResultCache(new SyncTaskExecutor(), mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(cache, "cacheSize", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 1L);
+        ReflectionTestUtils.setField(cache, "refreshAfterSeconds", 0L);
+        ReflectionTestUtils.setField(cache, "cachedSize", 10);
+        cache.init();
+    }
+
+    @Test
+    void testBackgroundRefreshRestartsTtl() throws InterruptedException {
+        // Every read is stale and refreshes; the entry must never age out from under it
+        for (int i = 0; i < 4; i++) {
+            cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+            Thread.sleep(400);
+        }
+
+        assertEquals(1.0, count(RecommendationResultCache.FEED, "miss"));
+        assertEquals(3.0, count(RecommendationResultCache.FEED, "stale"));
+        assertEquals(4, computations.get());
+    }
+
+    @Test
+    void testKindsAreCachedSeparatelyAndInvalidatedTogether() {
+        ReflectionTestUtils.setField(cache, "refreshAfterSeconds", 60L);
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+        cache.getRankedIds(RecommendationResultCache.PERSONALIZED, 1L, 5, this::compute);
+        cache.getRankedIds(RecommendationResultCache.PERSONALIZED, 2L, 5, this::compute);
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+        assertEquals(3, computations.get());
+
+        cache.onArticleRead(new ArticleReadEvent(1L, 7L, 3L, Set.of(), 100, 1, LocalDateTime.now(), true));
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+        cache.getRankedIds(RecommendationResultCache.PERSONALIZED, 1L, 5, this::compute);
+        cache.getRankedIds(RecommendationResultCache.PERSONALIZED, 2L, 5, this::compute);
+        assertEquals(5, computations.get());
+    }
+
+    @Test
+    void testInvalidationDuringMissIsNotOverwritten() {
+        ReflectionTestUtils.setField(cache, "refreshAfterSeconds", 60L);
+        List<Long> first = cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, () -> {
+            // The user reads an article while their list is being computed
+            cache.onArticleRead(new ArticleReadEvent(1L, 7L, 3L, Set.of(), 100, 1, LocalDateTime.now(), true));
+            return compute();
+        });
+        assertEquals(List.of(1L, 2L, 3L), first);
+
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+
+        assertEquals(2.0, count(RecommendationResultCache.FEED, "miss"));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void testInvalidatingAnotherUserDoesNotBlockCaching() {
+        ReflectionTestUtils.setField(cache, "refreshAfterSeconds", 60L);
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, () -> {
+            cache.invalidate(2L);
+            return compute();
+        });
+
+        cache.getRankedIds(RecommendationResultCache.FEED, 1L, 5, this::compute);
+
+        assertEquals(1, computations.get());
+    }
+
+    private List<Long> compute() {
+        computations.incrementAndGet();
+        return List.of(1L, 2L, 3L);
+    }
+
+    private double count(String kind, String result) {
+        return meterRegistry.counter("recommendation.results.cache", "kind", kind, "result", result).count();
+    }
+}
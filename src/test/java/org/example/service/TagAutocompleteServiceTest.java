@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.example.dto.TagSuggestionDto;
+import org.example.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TagAutocompleteServiceTest {
+
+    private TagRepository tagRepository;
+    private TagAutocompleteService service;
+
+    @BeforeEach
+    void setUp() {
+        tagRepository = mock(TagRepository.class);
+        service = new TagAutocompleteService(tagRepository);
+    }
+
+    // Row is [id, name, description, trendingScore, publishedArticleCount]
+    private static Object[] tag(long id, String name, long articleCount) {
+        return new Object[]{id, name, null, 0.0, articleCount};
+    }
+
+    @Test
+    void testSuggestsByWordAndWeight() {
+        when(tagRepository.findTagStats()).thenReturn(List.of(
+                tag(1, "spring-boot", 30), tag(2, "java-spring", 10), tag(3, "java", 50)));
+        service.rebuild();
+
+        List<TagSuggestionDto> suggestions = service.suggest("Spring", 10);
+
+        assertEquals(List.of("spring-boot", "java-spring"), suggestions.stream().map(TagSuggestionDto::getName).toList());
+        assertEquals(List.of("java", "java-spring"), service.suggest("jav", 10).stream().map(TagSuggestionDto::getName).toList());
+    }
+
+    @Test
+    void testRefreshUpdatesCurrentIndex() {
+        when(tagRepository.findTagStats()).thenReturn(List.<Object[]>of(tag(1, "java", 5)));
+        service.rebuild();
+        when(tagRepository.findTagStatsByNames(any())).thenReturn(List.<Object[]>of(tag(1, "java", 8)));
+
+        service.refresh(Set.of("java"));
+
+        assertEquals(8L, service.describe(List.of("java")).get(0).getArticleCount());
+    }
+
+    @Test
+    void testRefreshDuringRebuildIsNotLost() {
+        when(tagRepository.findTagStatsByNames(any())).thenReturn(List.<Object[]>of(tag(1, "java", 8)));
+        // The rebuild's snapshot was read before the refreshed article was saved
+        when(tagRepository.findTagStats()).thenAnswer(invocation -> {
+            service.refresh(Set.of("java"));
+            return List.<Object[]>of(tag(1, "java", 5));
+        });
+
+        service.rebuild();
+
+        assertEquals(8L, service.describe(List.of("java")).get(0).getArticleCount());
+        verify(tagRepository, times(2)).findTagStatsByNames(any());
+    }
+
+    @Test
+    void testRebuildWithoutConcurrentRefreshSkipsReload() {
+        when(tagRepository.findTagStats()).thenReturn(List.<Object[]>of(tag(1, "java", 5)));
+
+        service.rebuild();
+        service.rebuild();
+
+        verify(tagRepository, never()).findTagStatsByNames(any());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.repository.ArticleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagPostingIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private ArticleRepository articleRepository;
+    private ArticleFeatureStore featureStore;
+    private final List<Runnable> queued = new ArrayList<>();
+    private TagPostingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        featureStore = new ArticleFeatureStore(articleRepository);
+        index = new TagPostingIndex(featureStore, queued::add);
+        // Articles 1..4 published one day apart, 4 newest
+        when(articleRepository.findPublishedFeatureRows()).thenReturn(Arrays.asList(
+                row(1L, 1, 10L), row(2L, 2, 20L), row(3L, 3, 30L), row(4L, 4, 40L)));
+        when(articleRepository.findPublishedTagRows()).thenReturn(Arrays.asList(
+                tag(1L, "java"), tag(1L, "spring"), tag(2L, "java"), tag(3L, "go"), tag(4L, "java"), tag(4L, "go")));
+    }
+
+    @Test
+    void testQueriesReturnNewestFirst() {
+        assertEquals(List.of(4L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java"))));
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java", "go"))));
+        assertEquals(List.of(4L), ids(TagPostingIndex.TagQuery.allOf(Set.of("java", "go"))));
+        assertEquals(List.of(2L, 1L), ids(TagPostingIndex.TagQuery.of(Set.of("java"), null, Set.of("go"))));
+        assertEquals(List.of(), ids(TagPostingIndex.TagQuery.allOf(Set.of("java", "unknown"))));
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(TagPostingIndex.TagQuery.of(null, null, null)));
+    }
+
+    @Test
+    void testPagingAndTotal() {
+        Page<Long> page = index.findRecent(TagPostingIndex.TagQuery.anyOf(Set.of("java", "go")), PageRequest.of(1, 3));
+        assertEquals(List.of(1L), page.getContent());
+        assertEquals(4, page.getTotalElements());
+    }
+
+    @Test
+    void testFindTopRanksByScore() {
+        List<Long> top = index.findTop(TagPostingIndex.TagQuery.anyOf(Set.of("java")), 2,
+                (features, row) -> -features.viewCount(row));
+        assertEquals(List.of(1L, 2L), top);
+    }
+
+    @Test
+    void testRebuildRunsInBackgroundAndSwapsIn() {
+        assertEquals(List.of(4L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java"))));
+        assertTrue(queued.isEmpty(), "the first build runs on the caller");
+
+        when(articleRepository.findFeatureRowsUpdatedSince(any())).thenReturn(List.<Object[]>of(row(5L, 5, 50L)));
+        when(articleRepository.findTagRowsUpdatedSince(any())).thenReturn(List.<Object[]>of(tag(5L, "java")));
+        featureStore.refresh();
+
+        // The request is served from the previous postings and queues exactly one rebuild
+        assertEquals(List.of(4L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java"))));
+        assertEquals(List.of(4L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java"))));
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        assertEquals(List.of(5L, 4L, 2L, 1L), ids(TagPostingIndex.TagQuery.anyOf(Set.of("java"))));
+        assertTrue(queued.isEmpty());
+    }
+
+    private List<Long> ids(TagPostingIndex.TagQuery query) {
+        return index.findRecent(query, PageRequest.of(0, 10)).getContent();
+    }
+
+    // [id, authorId, contentLength, readTimeMinutes, viewCount, likeCount, commentCount, clapsCount, publishedAt, published]
+    private static Object[] row(long id, int day, long views) {
+        return new Object[]{id, 1L, 100, 1, views, 0L, 0L, 0L, BASE.plusDays(day), true};
+    }
+
+    private static Object[] tag(long articleId, String name) {
+        return new Object[]{articleId, name};
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagTrendingServiceTest {
+
+    private static final int WEEK = TagTrendingService.WEEK_DAYS;
+    private static final int MONTH = TagTrendingService.MONTH_DAYS;
+
+    @Test
+    void testWeeklyAndMonthlySums() {
+        TagTrendingService.UsageWindow window = new TagTrendingService.UsageWindow();
+        long today = LocalDate.of(2024, 3, 31).toEpochDay();
+        window.add(today);
+        window.add(today);
+        window.add(today - 6);
+        window.add(today - 7);
+        window.add(today - 29);
+        window.add(today - 30);
+
+        window.advance(today);
+
+        assertEquals(3, window.sum(today, WEEK));
+        assertEquals(5, window.sum(today, MONTH));
+    }
+
+    @Test
+    void testDaysRollOutOfTheWindow() {
+        TagTrendingService.UsageWindow window = new TagTrendingService.UsageWindow();
+        long day = 100;
+        window.add(day);
+        window.add(day + 3);
+
+        // Day by day across the wrap of the ring, the oldest bucket drops exactly when it leaves the month
+        for (long today = day + 3; today < day + MONTH + 5; today++) {
+            window.advance(today);
+            long expectedWeek = (today - day < WEEK ? 1 : 0) + (today - day - 3 < WEEK ? 1 : 0);
+            long expectedMonth = (today - day < MONTH ? 1 : 0) + (today - day - 3 < MONTH ? 1 : 0);
+            assertEquals(expectedWeek, window.sum(today, WEEK), "week on day " + today);
+            assertEquals(expectedMonth, window.sum(today, MONTH), "month on day " + today);
+        }
+    }
+
+    @Test
+    void testGapLongerThanTheWindowClearsEverything() {
+        TagTrendingService.UsageWindow window = new TagTrendingService.UsageWindow();
+        window.add(10);
+        window.add(20);
+        window.add(39);
+
+        long later = 39 + MONTH;
+        window.advance(later);
+        assertEquals(0, window.sum(later, MONTH));
+
+        // A reused slot starts from zero rather than the count of the day it last held
+        window.add(later);
+        assertEquals(1, window.sum(later, WEEK));
+        assertEquals(1, window.sum(later, MONTH));
+    }
+
+    @Test
+    void testLateUseIsCountedOnlyInsideTheWindow() {
+        TagTrendingService.UsageWindow window = new TagTrendingService.UsageWindow();
+        window.add(50);
+        window.add(45);
+        window.add(50 - MONTH);
+
+        window.advance(50);
+
+        assertEquals(2, window.sum(50, WEEK));
+        assertEquals(2, window.sum(50, MONTH));
+    }
+
+    @Test
+    void testNegativeEpochDaysUseFloorMod() {
+        TagTrendingService.UsageWindow window = new TagTrendingService.UsageWindow();
+        window.add(-3);
+        window.add(1);
+
+        window.advance(2);
+
+        assertEquals(2, window.sum(2, WEEK));
+        assertEquals(2, window.sum(2, MONTH));
+    }
+
+    @Test
+    void testScoreDampsSmallCounts() {
+        assertEquals(0.0, TagTrendingService.score(0, 10));
+        assertTrue(TagTrendingService.score(1, 1) < TagTrendingService.score(10, 10));
+        assertEquals(10 * 100.0 / 15, TagTrendingService.score(10, 10), 1e-9);
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.service;
+
+import org.example.event.ArticleClappedEvent;
+import org.example.event.ArticleReadEvent;
+import org.example.repository.ClapRepository;
+import org.example.repository.ReadingHistoryRepository;
+import org.example.repository.UserInterestProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserInterestProfileServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+    private static final Duration HALF_LIFE = Duration.ofDays(30);
+
+    private UserInterestProfileService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserInterestProfileService(mock(UserInterestProfileRepository.class),
+                mock(ReadingHistoryRepository.class), mock(ClapRepository.class));
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        ReflectionTestUtils.setField(service, "halfLifeDays", 30.0);
+        ReflectionTestUtils.setField(service, "maxTags", 200);
+        ReflectionTestUtils.setField(service, "maxAuthors", 100);
+        service.init();
+    }
+
+    private void read(long userId, Set<String> tagNames, long authorId, boolean firstRead) {
+        service.onArticleRead(new ArticleReadEvent(userId, 1L, authorId, tagNames, 3000, 10,
+                LocalDateTime.now(), firstRead));
+    }
+
+    @Test
+    void testWeightsHalveEveryHalfLife() {
+        UserInterestProfileService.InterestProfile profile =
+                new UserInterestProfileService.InterestProfile(HALF_LIFE, 200, 100);
+
+        profile.recordRead(Set.of("java"), 5L, 1000, 4, START);
+        profile.recordRead(Set.of("go"), 6L, 3000, 8, START.plusDays(30));
+
+        assertEquals(0.5, profile.getTagWeights().get("java"), 1e-9);
+        assertEquals(1.0, profile.getTagWeights().get("go"), 1e-9);
+        assertEquals(0.5, profile.getAuthorAffinities().get(5L), 1e-9);
+        // Averages weight the older read by its decayed weight too
+        assertEquals((1000 * 0.5 + 3000) / 1.5, profile.getPreferredContentLength(), 1);
+        assertEquals((4 * 0.5 + 8) / 1.5, profile.getAverageReadTime(), 1e-9);
+    }
+
+    @Test
+    void testNegligibleWeightsAreDropped() {
+        UserInterestProfileService.InterestProfile profile =
+                new UserInterestProfileService.InterestProfile(HALF_LIFE, 200, 100);
+
+        profile.recordRead(Set.of("java"), 5L, 1000, 4, START);
+        // Eight half-lives take a weight of 1 below the floor of 0.01
+        profile.recordRead(Set.of("go"), 6L, 1000, 4, START.plusDays(240));
+
+        assertEquals(Set.of("go"), profile.getTagWeights().keySet());
+        assertFalse(profile.hasAuthorAffinity(5L));
+        assertEquals(2, profile.getReadCount());
+    }
+
+    @Test
+    void testReadEventsUpdateTheProfile() {
+        assertTrue(service.getProfile(1L).isEmpty());
+
+        read(1L, Set.of("java", "spring"), 5L, true);
+        read(1L, Set.of("java"), 5L, true);
+        // Re-reads and anonymous reads do not count
+        read(1L, Set.of("go"), 6L, false);
+        service.onArticleRead(new ArticleReadEvent(null, 1L, 6L, Set.of("go"), 3000, 10, LocalDateTime.now(), true));
+
+        UserInterestProfileService.InterestProfile profile = service.getProfile(1L);
+        assertEquals(2, profile.getReadCount());
+        assertEquals(Set.of("java", "spring"), profile.getTagWeights().keySet());
+        assertEquals(2.0, profile.getTagWeights().get("java"), 1e-3);
+        assertEquals(Set.of(5L), profile.getAuthorAffinities().keySet());
+        assertEquals(3000, profile.getPreferredContentLength());
+        assertEquals(10.0, profile.getAverageReadTime(), 1e-9);
+    }
+
+    @Test
+    void testClapEventsRaiseEngagementAndAuthorAffinity() {
+        service.getProfile(1L);
+
+        service.onArticleClapped(new ArticleClappedEvent(1L, 1L, 5L, 0, 30));
+        service.onArticleClapped(new ArticleClappedEvent(1L, 1L, 5L, 30, 20));
+        service.onArticleClapped(new ArticleClappedEvent(1L, 2L, 6L, 0, 0));
+
+        UserInterestProfileService.InterestProfile profile = service.getProfile(1L);
+        assertEquals(0.2, profile.getEngagementLevel(), 1e-9);
+        // Withdrawn claps lower engagement but leave the affinity already earned
+        assertEquals(3.0, profile.getAuthorAffinities().get(5L), 1e-3);
+        assertFalse(profile.hasAuthorAffinity(6L));
+    }
+
+    @Test
+    void testEventsForUnloadedProfilesAreLeftToTheBootstrap() {
+        read(2L, Set.of("java"), 5L, true);
+        service.onArticleClapped(new ArticleClappedEvent(2L, 1L, 5L, 0, 10));
+
+        UserInterestProfileService.InterestProfile profile = service.getProfile(2L);
+
+        assertTrue(profile.isEmpty());
+        assertEquals(0.0, profile.getEngagementLevel());
+    }
+
+    @Test
+    void testTopTagsAreOrderedByWeight() {
+        UserInterestProfileService.InterestProfile profile =
+                new UserInterestProfileService.InterestProfile(HALF_LIFE, 200, 100);
+        profile.recordRead(Set.of("java", "go", "rust"), null, 1000, 4, START);
+        profile.recordRead(Set.of("java", "go"), null, 1000, 4, START);
+        profile.recordRead(Set.of("java"), null, 1000, 4, START);
+
+        assertEquals(List.of("java", "go"), List.copyOf(profile.getTopTags(2)));
+        assertEquals(List.of("java", "go", "rust"), List.copyOf(profile.getTopTags(10)));
+    }
+
+    @Test
+    void testTagsBeyondTheLimitArePruned() {
+        UserInterestProfileService.InterestProfile profile =
+                new UserInterestProfileService.InterestProfile(HALF_LIFE, 2, 100);
+        profile.recordRead(Set.of("java", "go"), null, 1000, 4, START);
+        profile.recordRead(Set.of("java"), null, 1000, 4, START.plusDays(1));
+        profile.recordRead(Set.of("rust"), null, 1000, 4, START.plusDays(2));
+
+        // The weakest tag gives way; the newest read survives over an older, decayed one
+        assertEquals(Set.of("java", "rust"), profile.getTagWeights().keySet());
+    }
+}
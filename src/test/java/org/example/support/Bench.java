@@ -0,0 +1,91 @@
+package org.example.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal micro-benchmark harness for test-scope benchmarks.
+ *
+ * Benchmarks are skipped unless the build runs with {@code -Dbenchmarks=true}, e.g.
+ * {@code mvn test -Dtest=TopKBenchmark -Dbenchmarks=true}. Each measurement warms up
+ * first and folds the operation's results into a sink so the JIT cannot drop the work.
+ * Numbers are indicative only; they are no substitute for JMH on a quiet machine.
+ */
+public final class Bench {
+
+    public static final String ENABLED_PROPERTY = "benchmarks";
+
+    private static volatile long sink;
+
+    private Bench() {}
+
+    /**
+     * Average nanoseconds per call of {@code op}, after {@code warmup} untimed calls.
+     */
+    public static double nanosPerOp(String name, int warmup, int iterations, LongSupplier op) {
+        long acc = 0;
+        for (int i = 0; i < warmup; i++) {
+            acc += op.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            acc += op.getAsLong();
+        }
+        double nanos = (System.nanoTime() - start) / (double) iterations;
+        sink += acc;
+        report(name, String.format(Locale.ROOT, "%,.0f ns/op", nanos));
+        return nanos;
+    }
+
+    /**
+     * Calls per second of {@code op} across {@code threads} threads running for
+     * {@code millis} after a warmup of the same length.
+     */
+    public static double throughput(String name, int threads, long millis, LongSupplier op) throws InterruptedException {
+        runThreads(threads, millis, op);
+        long ops = runThreads(threads, millis, op);
+        double perSecond = ops * 1000.0 / millis;
+        report(name, String.format(Locale.ROOT, "%,.0f ops/s on %d threads", perSecond, threads));
+        return perSecond;
+    }
+
+    private static long runThreads(int threads, long millis, LongSupplier op) throws InterruptedException {
+        AtomicLong total = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long ops = 0;
+                long acc = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    acc += op.getAsLong();
+                    ops++;
+                }
+                sink += acc;
+                total.addAndGet(ops);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return total.get();
+    }
+
+    private static void report(String name, String result) {
+        System.out.println("[bench] " + name + ": " + result);
+    }
+}
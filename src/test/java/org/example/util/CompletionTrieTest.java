@@ -0,0 +1,188 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    private static final char[] ALPHABET = {'a', 'b', 'c', 'd'};
+
+    @Test
+    void testCompletesByDescendingWeight() {
+        CompletionTrie trie = new CompletionTrie(5);
+        trie.put(1, List.of("java"), 10);
+        trie.put(2, List.of("javascript"), 30);
+        trie.put(3, List.of("jakarta"), 20);
+        trie.put(4, List.of("kotlin"), 50);
+
+        assertArrayEquals(new long[]{2, 3, 1}, trie.complete("ja", 10, false));
+        assertArrayEquals(new long[]{2, 1}, trie.complete("jav", 10, false));
+        assertArrayEquals(new long[]{2}, trie.complete("ja", 1, false));
+        assertArrayEquals(new long[]{4, 2, 3, 1}, trie.complete("", 10, false));
+        assertArrayEquals(new long[0], trie.complete("python", 10, false));
+    }
+
+    @Test
+    void testListsAreCappedAtK() {
+        CompletionTrie trie = new CompletionTrie(2);
+        trie.put(1, List.of("aa"), 1);
+        trie.put(2, List.of("ab"), 2);
+        trie.put(3, List.of("ac"), 3);
+
+        assertArrayEquals(new long[]{3, 2}, trie.complete("a", 10, false));
+    }
+
+    @Test
+    void testReweightMovesEntryInEveryAncestorList() {
+        CompletionTrie trie = new CompletionTrie(2);
+        trie.put(1, List.of("aa"), 5);
+        trie.put(2, List.of("ab"), 4);
+        trie.put(3, List.of("ac"), 3);
+        assertArrayEquals(new long[]{1, 2}, trie.complete("a", 10, false));
+
+        // Falling out of the top two lets the third-best entry back in
+        trie.put(1, List.of("aa"), 1);
+        assertArrayEquals(new long[]{2, 3}, trie.complete("a", 10, false));
+        assertArrayEquals(new long[]{2, 3}, trie.complete("", 10, false));
+
+        trie.put(3, List.of("ac"), 9);
+        assertArrayEquals(new long[]{3, 2}, trie.complete("", 10, false));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void testRemoveRestoresNextBestAndPrunesNodes() {
+        CompletionTrie trie = new CompletionTrie(2);
+        trie.put(1, List.of("aa"), 5);
+        trie.put(2, List.of("ab"), 4);
+        trie.put(3, List.of("ac"), 3);
+
+        trie.remove(1);
+        assertArrayEquals(new long[]{2, 3}, trie.complete("a", 10, false));
+        assertArrayEquals(new long[0], trie.complete("aa", 10, false));
+
+        trie.remove(2);
+        trie.remove(3);
+        trie.remove(3);
+        assertEquals(0, trie.size());
+        assertArrayEquals(new long[0], trie.complete("", 10, false));
+    }
+
+    @Test
+    void testMultiKeyEntryIsReturnedOnce() {
+        CompletionTrie trie = new CompletionTrie(5);
+        trie.put(1, List.of("spring-boot", "spring", "boot"), 10);
+        trie.put(2, List.of("java-spring", "java", "spring"), 5);
+
+        assertArrayEquals(new long[]{1, 2}, trie.complete("spring", 10, false));
+        assertArrayEquals(new long[]{1, 2}, trie.complete("", 10, false));
+        assertArrayEquals(new long[]{1}, trie.complete("bo", 10, false));
+        assertArrayEquals(new long[]{2}, trie.complete("jav", 10, false));
+    }
+
+    @Test
+    void testChangingKeysUnlinksDroppedOnes() {
+        CompletionTrie trie = new CompletionTrie(5);
+        trie.put(1, List.of("spring-boot", "spring", "boot"), 10);
+        trie.put(1, List.of("springboot"), 10);
+
+        assertArrayEquals(new long[0], trie.complete("bo", 10, false));
+        assertArrayEquals(new long[0], trie.complete("spring-", 10, false));
+        assertArrayEquals(new long[]{1}, trie.complete("springb", 10, false));
+        assertArrayEquals(new long[]{1}, trie.complete("spring", 10, false));
+    }
+
+    @Test
+    void testRandomOperationsMatchBruteForce() {
+        Random random = new Random(42);
+        int k = 3;
+        CompletionTrie trie = new CompletionTrie(k);
+        Map<Long, List<String>> keys = new HashMap<>();
+        Map<Long, Long> weights = new HashMap<>();
+
+        for (int step = 0; step < 3000; step++) {
+            long id = random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                trie.remove(id);
+                keys.remove(id);
+                weights.remove(id);
+            } else {
+                List<String> entryKeys = new ArrayList<>();
+                int keyCount = 1 + random.nextInt(3);
+                for (int i = 0; i < keyCount; i++) {
+                    entryKeys.add(randomKey(random));
+                }
+                long weight = random.nextInt(20);
+                trie.put(id, entryKeys, weight);
+                keys.put(id, entryKeys);
+                weights.put(id, weight);
+            }
+            if (step % 50 == 0) {
+                assertMatchesBruteForce(trie, k, keys, weights);
+            }
+        }
+        assertMatchesBruteForce(trie, k, keys, weights);
+        assertEquals(keys.size(), trie.size());
+    }
+
+    @Test
+    void testFuzzyMatchesWithinOneEdit() {
+        CompletionTrie trie = new CompletionTrie(5);
+        trie.put(1, List.of("java"), 10);
+
+        assertArrayEquals(new long[]{1}, trie.complete("jeva", 10, true), "substitution");
+        assertArrayEquals(new long[]{1}, trie.complete("jva", 10, true), "missing character");
+        assertArrayEquals(new long[]{1}, trie.complete("jaava", 10, true), "extra character");
+        assertArrayEquals(new long[]{1}, trie.complete("jaav", 10, true), "transposition");
+
+        assertArrayEquals(new long[0], trie.complete("jxxa", 10, true));
+        assertArrayEquals(new long[0], trie.complete("jeva", 10, false));
+    }
+
+    @Test
+    void testExactMatchesRankBeforeFuzzyOnes() {
+        CompletionTrie trie = new CompletionTrie(5);
+        trie.put(1, List.of("java"), 1);
+        trie.put(2, List.of("jar"), 100);
+
+        assertArrayEquals(new long[]{1, 2}, trie.complete("jav", 10, true));
+        // Fuzzy matches only fill the list when exact completions run short
+        assertArrayEquals(new long[]{1}, trie.complete("jav", 1, true));
+    }
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            key.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return key.toString();
+    }
+
+    private static void assertMatchesBruteForce(CompletionTrie trie, int k, Map<Long, List<String>> keys,
+                                                Map<Long, Long> weights) {
+        Set<String> prefixes = new TreeSet<>();
+        prefixes.add("");
+        for (List<String> entryKeys : keys.values()) {
+            for (String key : entryKeys) {
+                for (int i = 1; i <= key.length(); i++) {
+                    prefixes.add(key.substring(0, i));
+                }
+            }
+        }
+        for (String prefix : prefixes) {
+            List<Long> expected = new ArrayList<>();
+            for (Map.Entry<Long, List<String>> entry : keys.entrySet()) {
+                if (entry.getValue().stream().anyMatch(key -> key.startsWith(prefix))) {
+                    expected.add(entry.getKey());
+                }
+            }
+            expected.sort(Comparator.<Long>comparingLong(weights::get).reversed().thenComparingLong(id -> id));
+            long[] expectedIds = expected.stream().limit(k).mapToLong(Long::longValue).toArray();
+            assertArrayEquals(expectedIds, trie.complete(prefix, k, false), "prefix '" + prefix + "'");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedIdBitmapTest {
+
+    @Test
+    void testAddAndContains() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertTrue(bitmap.add(5L));
+        assertFalse(bitmap.add(5L));
+        assertTrue(bitmap.add(70_000L));
+        assertTrue(bitmap.add(0L));
+        assertTrue(bitmap.add(Long.MAX_VALUE));
+
+        assertTrue(bitmap.contains(5L));
+        assertTrue(bitmap.contains(0L));
+        assertTrue(bitmap.contains(70_000L));
+        assertTrue(bitmap.contains(Long.MAX_VALUE));
+        assertFalse(bitmap.contains(6L));
+        assertFalse(bitmap.contains(5L + 65_536L));
+        assertEquals(4, bitmap.cardinality());
+    }
+
+    @Test
+    void testArrayContainerSwitchesToBitmap() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        // Every other id keeps the values within one container
+        for (int i = 0; i < 4096; i++) {
+            bitmap.add(i * 2L);
+        }
+        long arrayBytes = bitmap.sizeInBytes();
+        assertTrue(arrayBytes < 8192 + 200, "array container should hold two bytes per id");
+
+        bitmap.add(8193L);
+        long bitmapBytes = bitmap.sizeInBytes();
+        assertTrue(bitmapBytes >= 8192, "container should now be an 8 KB bitset");
+        assertEquals(4097, bitmap.cardinality());
+
+        // Adding more to a full bitset costs nothing extra
+        for (int i = 0; i < 60_000; i++) {
+            bitmap.add(i);
+        }
+        assertEquals(bitmapBytes, bitmap.sizeInBytes());
+        assertEquals(60_000, bitmap.cardinality());
+        for (int i = 0; i < 60_000; i++) {
+            assertTrue(bitmap.contains(i));
+        }
+        assertTrue(bitmap.contains(8193L));
+        assertFalse(bitmap.contains(65_535L - 1));
+    }
+
+    @Test
+    void testSparseIdsStayCompact() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        for (long i = 0; i < 1_000; i++) {
+            bitmap.add(i * 1_000_003L);
+        }
+        assertTrue(bitmap.sizeInBytes() < 1_000 * 32L);
+    }
+
+    @Test
+    void testForEachVisitsAscendingAcrossContainerTypes() {
+        Random random = new Random(19);
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Dense low range (bitset containers) plus scattered high ids (array containers)
+            long id = i % 2 == 0 ? random.nextInt(100_000) : Math.abs(random.nextLong() >>> 8);
+            bitmap.add(id);
+            expected.add(id);
+        }
+        assertEquals(new ArrayList<>(expected), toList(bitmap));
+        assertEquals(expected.size(), bitmap.cardinality());
+    }
+
+    @Test
+    void testForEachStopsWhenVisitorReturnsFalse() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        for (long i = 0; i < 10; i++) {
+            bitmap.add(i);
+        }
+        List<Long> seen = new ArrayList<>();
+        bitmap.forEach(id -> {
+            seen.add(id);
+            return seen.size() < 3;
+        });
+        assertEquals(List.of(0L, 1L, 2L), seen);
+    }
+
+    @Test
+    void testSetOperationsMatchTreeSet() {
+        Random random = new Random(23);
+        CompressedIdBitmap left = new CompressedIdBitmap();
+        CompressedIdBitmap right = new CompressedIdBitmap();
+        TreeSet<Long> leftIds = new TreeSet<>();
+        TreeSet<Long> rightIds = new TreeSet<>();
+        for (int i = 0; i < 30_000; i++) {
+            long a = random.nextInt(300_000);
+            long b = random.nextInt(300_000);
+            left.add(a);
+            leftIds.add(a);
+            right.add(b);
+            rightIds.add(b);
+        }
+
+        TreeSet<Long> and = new TreeSet<>(leftIds);
+        and.retainAll(rightIds);
+        TreeSet<Long> or = new TreeSet<>(leftIds);
+        or.addAll(rightIds);
+        TreeSet<Long> andNot = new TreeSet<>(leftIds);
+        andNot.removeAll(rightIds);
+
+        assertEquals(new ArrayList<>(and), toList(left.and(right)));
+        assertEquals(new ArrayList<>(or), toList(left.or(right)));
+        assertEquals(new ArrayList<>(andNot), toList(left.andNot(right)));
+        assertEquals(and.size(), left.and(right).cardinality());
+        assertTrue(left.andNot(left).isEmpty());
+    }
+
+    @Test
+    void testSerializationRoundTripKeepsContainers() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        for (long i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        for (long i = 0; i < 100; i++) {
+            bitmap.add(1L << 40 | i * 17);
+        }
+
+        CompressedIdBitmap restored = CompressedIdBitmap.fromBytes(bitmap.toBytes());
+
+        assertEquals(toList(bitmap), toList(restored));
+        assertEquals(bitmap.cardinality(), restored.cardinality());
+        // Array containers come back trimmed to their cardinality
+        assertTrue(restored.sizeInBytes() <= bitmap.sizeInBytes());
+        assertTrue(restored.add(20_000L));
+        assertTrue(restored.contains(20_000L));
+    }
+
+    @Test
+    void testSerializationOfEmptyBitmap() {
+        CompressedIdBitmap restored = CompressedIdBitmap.fromBytes(new CompressedIdBitmap().toBytes());
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testSerializedArrayContainersAreCompact() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        for (long i = 0; i < 100; i++) {
+            bitmap.add(i * 3);
+        }
+        // Count, key, type, size and two bytes per id
+        assertEquals(4 + 8 + 1 + 2 + 200, bitmap.toBytes().length);
+    }
+
+    @Test
+    void testRejectsCorruptData() {
+        CompressedIdBitmap bitmap = new CompressedIdBitmap();
+        bitmap.add(1L);
+        bitmap.add(2L);
+        byte[] data = bitmap.toBytes();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CompressedIdBitmap.fromBytes(java.util.Arrays.copyOf(data, data.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> CompressedIdBitmap.fromBytes(java.util.Arrays.copyOf(data, data.length + 1)));
+        byte[] unsorted = data.clone();
+        unsorted[data.length - 1] = 0;
+        assertThrows(IllegalArgumentException.class, () -> CompressedIdBitmap.fromBytes(unsorted));
+        byte[] badType = data.clone();
+        badType[12] = 9;
+        assertThrows(IllegalArgumentException.class, () -> CompressedIdBitmap.fromBytes(badType));
+    }
+
+    private static List<Long> toList(CompressedIdBitmap bitmap) {
+        List<Long> ids = new ArrayList<>();
+        bitmap.forEach(id -> {
+            ids.add(id);
+            return true;
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooccurrenceGraphTest {
+
+    @Test
+    void testAddCountsPairsSymmetrically() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{3, 1, 7});
+        graph.add(new int[]{1, 3});
+
+        assertEquals(2, graph.documents());
+        assertEquals(2, graph.count(1));
+        assertEquals(1, graph.count(7));
+        assertEquals(2, graph.pairCount(1, 3));
+        assertEquals(2, graph.pairCount(3, 1));
+        assertEquals(1, graph.pairCount(7, 3));
+        assertEquals(1, graph.pairCount(3, 7));
+        assertEquals(0, graph.pairCount(1, 1));
+        assertEquals(2, graph.degree(3));
+        assertEquals(graph.weight(1, 7), graph.weight(7, 1));
+    }
+
+    @Test
+    void testDuplicateAndNegativeItemsAreIgnored() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{2, 2, -1, 5, 5});
+
+        assertEquals(1, graph.count(2));
+        assertEquals(1, graph.pairCount(2, 5));
+        assertEquals(1, graph.degree(2));
+    }
+
+    @Test
+    void testRemoveDropsEdgeAtZero() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{1, 2, 3});
+        graph.add(new int[]{1, 2});
+
+        graph.remove(new int[]{1, 2, 3});
+
+        assertEquals(1, graph.documents());
+        assertEquals(1, graph.pairCount(1, 2));
+        assertEquals(0, graph.pairCount(1, 3));
+        assertEquals(0, graph.pairCount(3, 2));
+        assertEquals(1, graph.degree(1));
+        assertEquals(1, graph.degree(2));
+        assertEquals(0, graph.degree(3));
+        assertEquals(0, graph.count(3));
+
+        graph.remove(new int[]{2, 1});
+        assertEquals(0, graph.documents());
+        assertEquals(0, graph.degree(1));
+        assertEquals(0, graph.pairCount(2, 1));
+    }
+
+    @Test
+    void testRandomAddRemoveStaysSymmetric() {
+        Random random = new Random(7);
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        int items = 40;
+        int[][] documents = new int[300][];
+        int[][] expected = new int[items][items];
+        for (int d = 0; d < documents.length; d++) {
+            documents[d] = random.ints(1 + random.nextInt(5), 0, items).distinct().toArray();
+            graph.add(documents[d]);
+            adjust(expected, documents[d], 1);
+        }
+        for (int d = 0; d < documents.length; d += 2) {
+            graph.remove(documents[d]);
+            adjust(expected, documents[d], -1);
+        }
+
+        for (int a = 0; a < items; a++) {
+            int degree = 0;
+            for (int b = 0; b < items; b++) {
+                if (a != b) {
+                    assertEquals(expected[a][b], graph.pairCount(a, b), a + "-" + b);
+                    assertEquals(graph.pairCount(a, b), graph.pairCount(b, a));
+                    if (expected[a][b] > 0) {
+                        degree++;
+                    }
+                }
+            }
+            assertEquals(expected[a][a], graph.count(a));
+            assertEquals(degree, graph.degree(a));
+        }
+        assertEquals(documents.length / 2, graph.documents());
+    }
+
+    @Test
+    void testWeightIsShrunkPmi() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{1, 2});
+        graph.add(new int[]{1, 2});
+        graph.add(new int[]{3});
+        graph.add(new int[]{4});
+
+        // N = 4, n(1) = n(2) = n(1,2) = 2: ln(2 * 4 / 4) * 2 / (2 + 2)
+        assertEquals(Math.log(2) * 0.5, graph.weight(1, 2), 1e-12);
+        assertEquals(0.0, graph.weight(1, 3));
+    }
+
+    @Test
+    void testIndependentItemsHaveNoWeight() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        // Item 1 is in every document, so it tells nothing about item 2
+        graph.add(new int[]{1, 2});
+        graph.add(new int[]{1});
+
+        assertEquals(0.0, graph.weight(1, 2));
+    }
+
+    @Test
+    void testRelatedRanksByPmi() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        // 2 always appears with 1; 3 appears with 1 but also elsewhere; 4 is a single co-occurrence
+        // whose raw PMI beats 3's but which shrinkage ranks last
+        for (int i = 0; i < 6; i++) {
+            graph.add(new int[]{1, 2});
+        }
+        for (int i = 0; i < 6; i++) {
+            graph.add(new int[]{1, 3});
+        }
+        for (int i = 0; i < 2; i++) {
+            graph.add(new int[]{3, 10 + i});
+        }
+        graph.add(new int[]{1, 4});
+        for (int i = 0; i < 10; i++) {
+            graph.add(new int[]{50 + i});
+        }
+
+        int[] items = new int[5];
+        double[] scores = new double[5];
+        int written = graph.related(new int[]{1}, new double[]{1.0}, new int[0], 5, items, scores);
+
+        assertEquals(3, written);
+        assertArrayEquals(new int[]{2, 3, 4}, Arrays.copyOf(items, written));
+        assertTrue(scores[0] > scores[1] && scores[1] > scores[2]);
+        assertEquals(graph.weight(1, 2), scores[0], 1e-12);
+        // Dividing out the shrinkage recovers the raw PMI
+        assertTrue(graph.weight(1, 4) * 3 > graph.weight(1, 3) * 8 / 6);
+    }
+
+    @Test
+    void testRelatedSkipsSeedsAndExcludedItems() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{1, 2, 3});
+        graph.add(new int[]{2, 3});
+        graph.add(new int[]{4});
+        graph.add(new int[]{5});
+
+        int[] items = new int[5];
+        double[] scores = new double[5];
+        int written = graph.related(new int[]{1, 2}, new double[]{1.0, 1.0}, new int[]{3}, 5, items, scores);
+
+        assertEquals(0, written);
+        assertEquals(0, graph.related(new int[]{1}, new double[]{1.0}, new int[0], 0, items, scores));
+    }
+
+    @Test
+    void testRelatedSumsWeightedSeeds() {
+        CooccurrenceGraph graph = new CooccurrenceGraph();
+        graph.add(new int[]{1, 3});
+        graph.add(new int[]{2, 3});
+        graph.add(new int[]{2, 4});
+        for (int i = 0; i < 5; i++) {
+            graph.add(new int[]{10 + i});
+        }
+
+        int[] items = new int[5];
+        double[] scores = new double[5];
+        int written = graph.related(new int[]{1, 2}, new double[]{2.0, 0.5}, new int[0], 5, items, scores);
+
+        assertEquals(2, written);
+        assertEquals(3, items[0]);
+        assertEquals(2.0 * graph.weight(1, 3) + 0.5 * graph.weight(2, 3), scores[0], 1e-12);
+        assertEquals(4, items[1]);
+    }
+
+    private static void adjust(int[][] expected, int[] document, int delta) {
+        for (int a : document) {
+            expected[a][a] += delta;
+            for (int b : document) {
+                if (a != b) {
+                    expected[a][b] += delta;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTfIdfVectorizerTest {
+
+    private static final String JAVA = "Tuning garbage collection pauses in large Java heaps with generational collectors";
+    private static final String JAVA_2 = "Generational garbage collectors and heap sizing for low pause Java services";
+    private static final String BAKING = "Sourdough baking needs a lively starter, long fermentation and a very hot oven";
+
+    @Test
+    void testVectorsAreUnitLength() {
+        HashedTfIdfVectorizer vectorizer = trained();
+        float[] vector = vectorizer.vectorize(JAVA);
+        assertEquals(128, vector.length);
+        assertEquals(1.0, dot(vector, vector), 1e-5);
+    }
+
+    @Test
+    void testEmptyOrStopWordTextGivesZeroVector() {
+        HashedTfIdfVectorizer vectorizer = trained();
+        assertEquals(0.0, dot(vectorizer.vectorize(""), vectorizer.vectorize("")));
+        assertEquals(0.0, dot(vectorizer.vectorize(null), vectorizer.vectorize(null)));
+        assertEquals(0.0, dot(vectorizer.vectorize("the and of to"), vectorizer.vectorize("the and of to")));
+    }
+
+    @Test
+    void testRelatedTextsAreCloserThanUnrelated() {
+        HashedTfIdfVectorizer vectorizer = trained();
+        float[] java = vectorizer.vectorize(JAVA);
+        assertTrue(dot(java, vectorizer.vectorize(JAVA_2)) > dot(java, vectorizer.vectorize(BAKING)));
+    }
+
+    @Test
+    void testTokenisationIgnoresCaseAndPunctuation() {
+        HashedTfIdfVectorizer vectorizer = trained();
+        assertArrayEquals(vectorizer.vectorize("Garbage collection, Java!"),
+                vectorizer.vectorize("garbage COLLECTION java"));
+    }
+
+    @Test
+    void testWriteAndReadRoundTrip() throws IOException {
+        HashedTfIdfVectorizer vectorizer = trained();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            vectorizer.writeTo(out);
+        }
+        HashedTfIdfVectorizer restored = HashedTfIdfVectorizer.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(vectorizer.dimensions(), restored.dimensions());
+        for (String text : new String[]{JAVA, JAVA_2, BAKING, "unseen words entirely"}) {
+            assertArrayEquals(vectorizer.vectorize(text), restored.vectorize(text));
+        }
+    }
+
+    @Test
+    void testRejectsNonPowerOfTwoBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedTfIdfVectorizer(1000, 64));
+    }
+
+    private static HashedTfIdfVectorizer trained() {
+        HashedTfIdfVectorizer vectorizer = new HashedTfIdfVectorizer(1 << 12, 128);
+        vectorizer.observe(JAVA);
+        vectorizer.observe(JAVA_2);
+        vectorizer.observe(BAKING);
+        return vectorizer;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
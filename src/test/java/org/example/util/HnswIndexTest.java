@@ -0,0 +1,210 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void testRecallAgainstBruteForce() {
+        Random random = new Random(11);
+        int count = 3_000;
+        float[][] vectors = new float[count][];
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100);
+        for (int i = 0; i < count; i++) {
+            vectors[i] = randomUnitVector(random);
+            index.add(i + 1, vectors[i]);
+        }
+
+        int k = 10;
+        int queries = 100;
+        int hits = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Long> exact = new HashSet<>(bruteForce(vectors, query, k));
+            for (HnswIndex.Neighbor neighbor : index.search(query, k, 64)) {
+                if (exact.contains(neighbor.getId())) {
+                    hits++;
+                }
+            }
+        }
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void testSearchReturnsBestFirst() {
+        Random random = new Random(5);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        for (int i = 1; i <= 200; i++) {
+            index.add(i, randomUnitVector(random));
+        }
+        List<HnswIndex.Neighbor> neighbors = index.search(randomUnitVector(random), 20, 50);
+        assertEquals(20, neighbors.size());
+        for (int i = 1; i < neighbors.size(); i++) {
+            assertTrue(neighbors.get(i - 1).getSimilarity() >= neighbors.get(i).getSimilarity());
+        }
+    }
+
+    @Test
+    void testAddRemoveAndReplace() {
+        Random random = new Random(9);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        float[] first = randomUnitVector(random);
+        index.add(1L, first);
+        index.add(2L, randomUnitVector(random));
+        assertEquals(2, index.size());
+        assertTrue(index.contains(1L));
+        assertEquals(1.0, index.similarity(1L, 1L), 1e-5);
+
+        // Re-adding replaces the vector and tombstones the old node
+        float[] replacement = randomUnitVector(random);
+        index.add(1L, replacement);
+        assertEquals(2, index.size());
+        assertArrayEquals(replacement, index.vector(1L));
+        assertEquals(1 / 3.0, index.deletedRatio(), 1e-9);
+
+        assertTrue(index.remove(2L));
+        assertFalse(index.remove(2L));
+        assertFalse(index.contains(2L));
+        assertNull(index.vector(2L));
+        assertTrue(Double.isNaN(index.similarity(1L, 2L)));
+        assertEquals(List.of(1L), ids(index.search(replacement, 5, 10)));
+        assertArrayEquals(new long[]{1L}, index.ids());
+    }
+
+    @Test
+    void testRemovedIdsNeverReturned() {
+        Random random = new Random(13);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        for (int i = 1; i <= 500; i++) {
+            index.add(i, randomUnitVector(random));
+        }
+        for (int i = 1; i <= 500; i += 2) {
+            index.remove(i);
+        }
+        assertEquals(250, index.size());
+        for (int q = 0; q < 20; q++) {
+            for (HnswIndex.Neighbor neighbor : index.search(randomUnitVector(random), 50, 100)) {
+                assertEquals(0, neighbor.getId() % 2);
+            }
+        }
+    }
+
+    @Test
+    void testCompactKeepsLiveNodes() {
+        Random random = new Random(17);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        Map<Long, float[]> live = new HashMap<>();
+        for (long i = 1; i <= 300; i++) {
+            float[] vector = randomUnitVector(random);
+            index.add(i, vector);
+            live.put(i, vector);
+        }
+        for (long i = 1; i <= 200; i++) {
+            index.remove(i);
+            live.remove(i);
+        }
+        assertTrue(index.deletedRatio() > 0.6);
+
+        HnswIndex compacted = index.compact();
+        assertEquals(0.0, compacted.deletedRatio());
+        assertEquals(100, compacted.size());
+        for (Map.Entry<Long, float[]> entry : live.entrySet()) {
+            assertArrayEquals(entry.getValue(), compacted.vector(entry.getKey()));
+            assertEquals(entry.getKey(), compacted.search(entry.getValue(), 1, 50).get(0).getId());
+        }
+    }
+
+    @Test
+    void testWriteAndReadRoundTrip() throws IOException {
+        Random random = new Random(21);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        for (long i = 1; i <= 400; i++) {
+            index.add(i, randomUnitVector(random));
+        }
+        index.remove(7L);
+        index.add(8L, randomUnitVector(random));
+
+        HnswIndex restored = roundTrip(index);
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.deletedRatio(), restored.deletedRatio(), 1e-12);
+        assertArrayEquals(index.ids(), restored.ids());
+        assertFalse(restored.contains(7L));
+        assertArrayEquals(index.vector(8L), restored.vector(8L));
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomUnitVector(random);
+            assertEquals(ids(index.search(query, 10, 50)), ids(restored.search(query, 10, 50)));
+        }
+        // The restored graph keeps accepting inserts
+        restored.add(1_000L, randomUnitVector(random));
+        assertEquals(index.size() + 1, restored.size());
+    }
+
+    @Test
+    void testReadRejectsForeignData() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class,
+                () -> HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+
+    @Test
+    void testRejectsWrongDimensions() {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        assertThrows(IllegalArgumentException.class, () -> index.add(1L, new float[DIMENSIONS + 1]));
+    }
+
+    private static HnswIndex roundTrip(HnswIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static List<Long> bruteForce(float[][] vectors, float[] query, int k) {
+        Integer[] order = new Integer[vectors.length];
+        double[] similarity = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            order[i] = i;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                similarity[i] += vectors[i][d] * query[d];
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(similarity[b], similarity[a]));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < k; i++) {
+            ids.add(order[i] + 1L);
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<HnswIndex.Neighbor> neighbors) {
+        List<Long> ids = new ArrayList<>();
+        for (HnswIndex.Neighbor neighbor : neighbors) {
+            ids.add(neighbor.getId());
+        }
+        return ids;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
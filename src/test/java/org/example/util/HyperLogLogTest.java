@@ -0,0 +1,180 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 14;
+    // Standard error is 1.04 / sqrt(2^14), about 0.81%; allow three of them
+    private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(1 << PRECISION);
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    @Test
+    void testEstimateWithinErrorBounds() {
+        for (int n : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = sketchOf(0, n);
+            double error = Math.abs(sketch.estimate() - n) / (double) n;
+            assertTrue(error < TOLERANCE, "error " + error + " for " + n + " items");
+        }
+    }
+
+    @Test
+    void testSmallCardinalitiesAreNearExact() {
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+        for (int n : new int[]{1, 10, 100}) {
+            assertEquals(n, sketchOf(0, n).estimate(), Math.max(1, n * 0.02));
+        }
+    }
+
+    @Test
+    void testDuplicatesDoNotChangeTheSketch() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long estimate = sketch.estimate();
+        for (long i = 0; i < 5_000; i++) {
+            assertFalse(sketch.addHash(HyperLogLog.hash(i)));
+        }
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void testStringHashing() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.addHash(HyperLogLog.hash("user-" + i));
+            sketch.addHash(HyperLogLog.hash("user-" + i));
+        }
+        assertEquals(10_000, sketch.estimate(), 10_000 * TOLERANCE);
+    }
+
+    @Test
+    void testSwitchesFromSparseToDense() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        int sparseLimit = (1 << PRECISION) / 16;
+        long item = 0;
+        // Each new register becomes one sparse entry until the list reaches its limit
+        while (countNonZeroRegisters(sketch) < sparseLimit) {
+            sketch.addHash(HyperLogLog.hash(item++));
+            assertEquals(FORMAT_SPARSE, sketch.toBytes()[0]);
+        }
+        long beforeSwitch = sketch.estimate();
+
+        // The next new register converts to the dense array without losing any state
+        while (sketch.toBytes()[0] == FORMAT_SPARSE) {
+            sketch.addHash(HyperLogLog.hash(item++));
+        }
+        assertEquals(FORMAT_DENSE, sketch.toBytes()[0]);
+        assertTrue(sketch.estimate() >= beforeSwitch);
+        assertEquals(item, sketch.estimate(), item * TOLERANCE);
+    }
+
+    @Test
+    void testSparseSketchIsSmall() {
+        assertTrue(sketchOf(0, 10).toBytes().length < 40);
+        assertEquals(2 + (1 << PRECISION) * 6 / 8, sketchOf(0, 100_000).toBytes().length);
+    }
+
+    @Test
+    void testMergeEqualsSketchOfUnion() {
+        HyperLogLog left = sketchOf(0, 50_000);
+        HyperLogLog right = sketchOf(25_000, 75_000);
+        left.merge(right);
+
+        HyperLogLog union = sketchOf(0, 75_000);
+        assertArrayEquals(union.toBytes(), left.toBytes());
+        assertEquals(75_000, left.estimate(), 75_000 * TOLERANCE);
+    }
+
+    @Test
+    void testMergeAcrossRepresentations() {
+        // sparse into dense, dense into sparse, sparse into sparse
+        HyperLogLog dense = sketchOf(0, 20_000);
+        dense.merge(sketchOf(20_000, 20_050));
+        assertArrayEquals(sketchOf(0, 20_050).toBytes(), dense.toBytes());
+
+        HyperLogLog sparse = sketchOf(0, 50);
+        sparse.merge(sketchOf(50, 20_000));
+        assertArrayEquals(sketchOf(0, 20_000).toBytes(), sparse.toBytes());
+
+        HyperLogLog small = sketchOf(0, 30);
+        small.merge(sketchOf(30, 60));
+        assertEquals(FORMAT_SPARSE, small.toBytes()[0]);
+        assertEquals(sketchOf(0, 60).estimate(), small.estimate());
+    }
+
+    @Test
+    void testMergeIsIdempotentAndCommutative() {
+        HyperLogLog a = sketchOf(0, 3_000);
+        HyperLogLog b = sketchOf(2_000, 9_000);
+        HyperLogLog ab = HyperLogLog.fromBytes(a.toBytes());
+        ab.merge(b);
+        HyperLogLog ba = HyperLogLog.fromBytes(b.toBytes());
+        ba.merge(a);
+        assertArrayEquals(ab.toBytes(), ba.toBytes());
+
+        byte[] before = ab.toBytes();
+        ab.merge(b);
+        ab.merge(ab);
+        assertArrayEquals(before, ab.toBytes());
+    }
+
+    @Test
+    void testMergeRejectsDifferentPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(14)));
+    }
+
+    @Test
+    void testRoundTripBothFormats() {
+        for (int n : new int[]{0, 1, 200, 100_000}) {
+            HyperLogLog sketch = sketchOf(0, n);
+            // Also store the largest possible rank so the top register bits survive packing
+            sketch.addHash(1L);
+            byte[] bytes = sketch.toBytes();
+            HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+            assertEquals(PRECISION, restored.precision());
+            assertEquals(sketch.estimate(), restored.estimate());
+            assertArrayEquals(bytes, restored.toBytes());
+            assertFalse(restored.addHash(1L));
+        }
+    }
+
+    @Test
+    void testRoundTripAtEveryPrecision() {
+        for (int precision = 4; precision <= 16; precision++) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (long i = 0; i < 50_000; i++) {
+                sketch.addHash(HyperLogLog.hash(i));
+            }
+            HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+            assertEquals(sketch.estimate(), restored.estimate(), "precision " + precision);
+        }
+    }
+
+    @Test
+    void testRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{9, PRECISION}));
+        byte[] dense = sketchOf(0, 100_000).toBytes();
+        assertThrows(IllegalArgumentException.class,
+                () -> HyperLogLog.fromBytes(java.util.Arrays.copyOf(dense, dense.length - 1)));
+    }
+
+    private static HyperLogLog sketchOf(long from, long to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (long i = from; i < to; i++) {
+            sketch.addHash(HyperLogLog.hash(i));
+        }
+        return sketch;
+    }
+
+    // Sparse format: [format, precision, count(2), then 3 bytes per register]
+    private static int countNonZeroRegisters(HyperLogLog sketch) {
+        byte[] bytes = sketch.toBytes();
+        return ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+}
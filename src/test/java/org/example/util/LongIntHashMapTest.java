@@ -0,0 +1,170 @@
+package org.example.util;
+
+import org.example.support.Bench;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void testGrowthKeepsEveryMapping() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i * 7919L, i);
+        }
+        assertEquals(100_000, map.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, map.get(i * 7919L));
+        }
+        assertEquals(LongIntHashMap.MISSING, map.get(-1L));
+    }
+
+    @Test
+    void testCollidingKeysShareAProbeRun() {
+        // Keys that land in the same home slot of a 16-slot table
+        List<Long> colliding = collidingKeys(16, 6);
+        LongIntHashMap map = new LongIntHashMap(8);
+        for (int i = 0; i < colliding.size(); i++) {
+            map.put(colliding.get(i), i);
+        }
+        for (int i = 0; i < colliding.size(); i++) {
+            assertEquals(i, map.get(colliding.get(i)));
+        }
+
+        // Removing the head of the run must keep the rest reachable
+        assertEquals(0, map.remove(colliding.get(0)));
+        assertEquals(LongIntHashMap.MISSING, map.get(colliding.get(0)));
+        for (int i = 1; i < colliding.size(); i++) {
+            assertEquals(i, map.get(colliding.get(i)));
+        }
+        assertEquals(colliding.size() - 1, map.size());
+    }
+
+    @Test
+    void testPutOverwritesAndAddToAccumulates() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(42L, 1);
+        map.put(42L, 2);
+        assertEquals(2, map.get(42L));
+        assertEquals(1, map.size());
+        assertEquals(5, map.addTo(42L, 3));
+        assertEquals(4, map.addTo(7L, 4));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testZeroKeyIsStoredOnTheSide() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(0L));
+        map.put(0L, 9);
+        assertEquals(9, map.get(0L));
+        assertEquals(1, map.size());
+        assertEquals(9, map.remove(0L));
+        assertFalse(map.containsKey(0L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void testRemoveMissingKeyIsNoOp() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 1);
+        assertEquals(LongIntHashMap.MISSING, map.remove(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int op = 0; op < 200_000; op++) {
+            // A small key space forces long probe runs, wrap-around and frequent removals
+            long key = random.nextInt(2_000) - 1_000;
+            int action = random.nextInt(3);
+            if (action == 0) {
+                map.put(key, op);
+                expected.put(key, op);
+            } else if (action == 1) {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 1);
+        LongIntHashMap copy = map.copy();
+        copy.put(2L, 2);
+        copy.remove(1L);
+        assertEquals(1, map.get(1L));
+        assertFalse(map.containsKey(2L));
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkLookupsAgainstHashMap() {
+        int size = 100_000;
+        LongIntHashMap primitive = new LongIntHashMap(size);
+        Map<Long, Integer> boxed = new HashMap<>();
+        Random random = new Random(1);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextLong();
+            primitive.put(keys[i], i);
+            boxed.put(keys[i], i);
+        }
+        long[] probes = new long[1_000];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = keys[random.nextInt(size)];
+        }
+
+        Bench.nanosPerOp("LongIntHashMap, 1000 lookups", 2_000, 20_000, () -> {
+            long sum = 0;
+            for (long probe : probes) {
+                sum += primitive.get(probe);
+            }
+            return sum;
+        });
+        Bench.nanosPerOp("HashMap<Long, Integer>, 1000 lookups", 2_000, 20_000, () -> {
+            long sum = 0;
+            for (long probe : probes) {
+                sum += boxed.get(probe);
+            }
+            return sum;
+        });
+    }
+
+    private static List<Long> collidingKeys(int capacity, int count) {
+        List<Long> keys = new ArrayList<>();
+        int target = home(1L, capacity);
+        for (long key = 1; keys.size() < count; key++) {
+            if (home(key, capacity) == target) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // Mirrors LongIntHashMap's slot function
+    private static int home(long key, int capacity) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (capacity - 1);
+    }
+}
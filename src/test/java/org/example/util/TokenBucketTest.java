@@ -0,0 +1,135 @@
+package org.example.util;
+
+import org.example.support.Bench;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testFullBurstThenRefusal() {
+        // 10 tokens per 10 seconds: one token per second
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, 0);
+        for (int i = 0; i < 10; i++) {
+            TokenBucket.Decision decision = bucket.tryAcquire(0);
+            assertTrue(decision.isAllowed(), "request " + i);
+            assertEquals(9 - i, decision.getRemaining());
+            assertEquals((i + 1) * SECOND, decision.getResetNanos());
+        }
+
+        TokenBucket.Decision refused = bucket.tryAcquire(0);
+        assertFalse(refused.isAllowed());
+        assertEquals(0, refused.getRemaining());
+        assertEquals(10 * SECOND, refused.getResetNanos());
+        assertEquals(SECOND, refused.getRetryAfterNanos());
+    }
+
+    @Test
+    void testRefillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, 0);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        TokenBucket.Decision early = bucket.tryAcquire(SECOND / 2);
+        assertFalse(early.isAllowed());
+        assertEquals(SECOND / 2, early.getRetryAfterNanos());
+
+        assertTrue(bucket.tryAcquire(SECOND).isAllowed());
+        assertFalse(bucket.tryAcquire(SECOND).isAllowed());
+
+        // After 3.5 more seconds three tokens are back, not four
+        long later = SECOND + 3 * SECOND + SECOND / 2;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire(later).isAllowed());
+        }
+        assertFalse(bucket.tryAcquire(later).isAllowed());
+    }
+
+    @Test
+    void testIdleBucketRefillsOnlyToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 5 * SECOND, 0);
+        bucket.tryAcquire(0);
+
+        long muchLater = 1000 * SECOND;
+        TokenBucket.Decision first = bucket.tryAcquire(muchLater);
+        assertEquals(4, first.getRemaining());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(bucket.tryAcquire(muchLater).isAllowed());
+        }
+        assertFalse(bucket.tryAcquire(muchLater).isAllowed());
+    }
+
+    @Test
+    void testRefusalsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(2, 2 * SECOND, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(bucket.tryAcquire(0).isAllowed());
+        }
+
+        assertTrue(bucket.tryAcquire(SECOND).isAllowed());
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, SECOND, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+
+    @Test
+    void testNoOverAdmissionUnderContention() throws InterruptedException {
+        int capacity = 1000;
+        int threads = 8;
+        int attemptsPerThread = 5000;
+        TokenBucket bucket = new TokenBucket(capacity, 3600 * SECOND, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    // A fixed clock, so no token refills while the threads race
+                    if (bucket.tryAcquire(SECOND).isAllowed()) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(capacity, admitted.get());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = Bench.ENABLED_PROPERTY, matches = "true")
+    void benchmarkAcquire() throws InterruptedException {
+        TokenBucket open = new TokenBucket(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, System.nanoTime());
+        Bench.nanosPerOp("token bucket acquire", 1_000_000, 10_000_000,
+                () -> open.tryAcquire(System.nanoTime()).getRemaining());
+        Bench.throughput("token bucket acquire, one shared bucket", 8, 2000,
+                () -> open.tryAcquire(System.nanoTime()).getRemaining());
+    }
+}
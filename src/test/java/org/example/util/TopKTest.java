@@ -0,0 +1,72 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    @Test
+    void testSelectOrdersByDescendingScore() {
+        double[] scores = {0.5, 3.0, 1.0, 2.0, -1.0};
+        assertArrayEquals(new int[]{1, 3, 2}, TopK.select(scores, scores.length, 3));
+    }
+
+    @Test
+    void testTiesKeepInputOrder() {
+        double[] scores = {1.0, 2.0, 1.0, 2.0, 1.0, 2.0};
+        assertArrayEquals(new int[]{1, 3, 5, 0}, TopK.select(scores, scores.length, 4));
+        assertArrayEquals(new int[]{1, 3}, TopK.select(scores, scores.length, 2));
+    }
+
+    @Test
+    void testAllEqualScores() {
+        double[] scores = new double[10];
+        assertArrayEquals(new int[]{0, 1, 2}, TopK.select(scores, scores.length, 3));
+    }
+
+    @Test
+    void testKGreaterThanCountReturnsEverything() {
+        double[] scores = {1.0, 4.0, 2.0};
+        assertArrayEquals(new int[]{1, 2, 0}, TopK.select(scores, scores.length, 10));
+    }
+
+    @Test
+    void testOnlyFirstCountScoresAreConsidered() {
+        double[] scores = {1.0, 2.0, 9.0, 8.0};
+        assertArrayEquals(new int[]{1, 0}, TopK.select(scores, 2, 3));
+    }
+
+    @Test
+    void testZeroOrNegativeKReturnsEmpty() {
+        double[] scores = {1.0, 2.0};
+        assertEquals(0, TopK.select(scores, scores.length, 0).length);
+        assertEquals(0, TopK.select(scores, scores.length, -1).length);
+        assertEquals(0, TopK.select(new double[0], 0, 5).length);
+    }
+
+    @Test
+    void testMatchesStableSortOnRandomInput() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int count = random.nextInt(300);
+            int k = random.nextInt(50);
+            double[] scores = new double[count];
+            for (int i = 0; i < count; i++) {
+                // Few distinct values so ties are common
+                scores[i] = random.nextInt(20);
+            }
+            int[] expected = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertArrayEquals(expected, TopK.select(scores, count, k));
+        }
+    }
+}